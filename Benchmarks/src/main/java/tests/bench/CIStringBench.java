@@ -0,0 +1,92 @@
+package tests.bench;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.CIString;
+import simple.util.CharSlice;
+
+/**
+ * Cost of making, hashing, interning and looking up {@link CIString}s, with
+ * header and attribute names like the parsers and the HTTP code use.
+ * The {@link String#toLowerCase()} cases are the usual alternative.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class CIStringBench {
+	private static final String[] NAMES = {
+		"Content-Type", "content-length", "ACCEPT-ENCODING", "Cache-Control", "href", "SRC", "Class", "data-Item-Id"
+	};
+	private String[] names;
+	private CharSlice[] slices;
+	private CIString[] keys;
+	private HashMap<CIString, String> map;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		names = new String[NAMES.length];
+		slices = new CharSlice[NAMES.length];
+		keys = new CIString[NAMES.length];
+		map = new HashMap<CIString, String>();
+		for (int i = 0; i < NAMES.length; i++) {
+			// copies, so nothing is the same instance as the pooled strings
+			names[i] = new String(NAMES[i].toCharArray());
+			slices[i] = new CharSlice(("<"+NAMES[i]+">").toCharArray(), 1, NAMES[i].length());
+			keys[i] = new CIString(NAMES[i].toUpperCase());
+			map.put(new CIString(NAMES[i]), NAMES[i]);
+			CIString.intern(NAMES[i]);
+		}
+	}
+	private int next() {
+		final int i = next;
+		next = (i+1 == NAMES.length) ? 0 : i+1;
+		return i;
+	}
+	/** Folds the case and hashes it. */
+	@Benchmark
+	public int create() {
+		return new CIString(names[next()]).hashCode();
+	}
+	@Benchmark
+	public int toLowerCaseHash() {
+		return names[next()].toLowerCase().hashCode();
+	}
+	@Benchmark
+	public CIString intern() {
+		return CIString.intern(names[next()]);
+	}
+	/** Interns a slice of a buffer, as the parsers do with attribute names. */
+	@Benchmark
+	public CIString internSlice() {
+		return CIString.intern(slices[next()]);
+	}
+	/** Looks up an existing key that differs in case from the one in the map. */
+	@Benchmark
+	public String mapGet() {
+		return map.get(keys[next()]);
+	}
+	@Benchmark
+	public boolean equalsString() {
+		final int i = next();
+		return keys[i].equals(names[i]);
+	}
+}
@@ -0,0 +1,91 @@
+package tests.bench;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+
+import simple.util.BlockingQueueFactory;
+
+/**
+ * Throughput of the blocking deques used for work stealing: an owner pushing
+ * and popping at the head while two thieves take from the tail. A thief
+ * retries until it gets an element and the owner until its pushes go in, so
+ * polls of an empty deque aren't counted as steals.
+ * {@link LinkedBlockingDeque} is there to compare against.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class DequeBench {
+	private static final Integer ITEM = Integer.valueOf(42);
+	/** Tokens burned between retries. */
+	private static final long BACKOFF = 16;
+	@Param({"deque", "linkedDeque", "jdk"})
+	public String impl;
+	@Param({"1024"})
+	public int capacity;
+	private BlockingDeque<Integer> deque;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		if ("deque".equals(impl))
+			deque = BlockingQueueFactory.createDeque(capacity);
+		else if ("linkedDeque".equals(impl))
+			deque = BlockingQueueFactory.createLinkedDeque(capacity);
+		else
+			deque = new LinkedBlockingDeque<Integer>(capacity);
+	}
+	@TearDown(Level.Iteration)
+	public void teardown() {
+		deque.clear();
+	}
+	/** Pushes two for each one it pops so the thieves have something to take. */
+	@Benchmark
+	@Group("steal")
+	@GroupThreads(1)
+	public Integer owner(final Control control) {
+		for (int i = 0; i < 2; i++) {
+			while (!deque.offerFirst(ITEM)) {
+				if (control.stopMeasurement)
+					return null;
+				Blackhole.consumeCPU(BACKOFF);
+			}
+		}
+		return deque.pollFirst();
+	}
+	@Benchmark
+	@Group("steal")
+	@GroupThreads(2)
+	public Integer thief(final Control control) {
+		Integer item;
+		while ((item = deque.pollLast()) == null) {
+			if (control.stopMeasurement)
+				return null;
+			Blackhole.consumeCPU(BACKOFF);
+		}
+		return item;
+	}
+}
@@ -0,0 +1,75 @@
+package tests.bench;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import notmine.CodeInputUnpacker;
+import notmine.CodeOutputPacker;
+import notmine.LZW;
+
+/**
+ * Time to compress and expand 64K with {@link LZW}, for text that compresses
+ * well and random bytes that don't.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class LZWBench {
+	private static final int SIZE = 1<<16;
+	@Param({"text", "random"})
+	public String data;
+	private byte[] raw;
+	private byte[] compressed;
+	private byte[] expanded;
+	private CodeOutputPacker packer;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		final Random r = new Random(1);
+		raw = new byte[SIZE];
+		if ("text".equals(data)) {
+			final String[] words = {"the ", "quick ", "brown ", "fox ", "jumps ", "over ", "lazy ", "dog ", "and ", "then\n"};
+			int i = 0;
+			while (i < SIZE) {
+				final String w = words[r.nextInt(words.length)];
+				for (int j = 0; j < w.length() && i < SIZE; j++)
+					raw[i++] = (byte)w.charAt(j);
+			}
+		} else
+			r.nextBytes(raw);
+		// 12 bit codes, at worst one per byte, plus the end code
+		packer = new CodeOutputPacker(SIZE*3/2+8);
+		LZW.Compress(raw, packer);
+		compressed = packer.toByteArray();
+		expanded = new byte[SIZE];
+	}
+	@Benchmark
+	public int compress() throws IOException {
+		packer.reset();
+		LZW.Compress(raw, packer);
+		return packer.getCount();
+	}
+	@Benchmark
+	public int expand() throws IOException {
+		return LZW.Expand(new CodeInputUnpacker(compressed), expanded);
+	}
+}
@@ -0,0 +1,96 @@
+package tests.bench;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.util.logging.Log;
+import simple.util.logging.LogLevel;
+
+/**
+ * Cost of a {@link Log} call when its level is turned off, the cost every
+ * debug line in the library pays in production. {@link #baseline()} does the
+ * same work without logging.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class LogBench {
+	private Log log;
+	private Integer value;
+	private int[] array;
+	private Supplier<String> supplier;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// nothing should reach the writer
+		log = new Log(new Writer() {
+			@Override
+			public void write(final char[] cbuf, final int off, final int len) {
+				throw new IllegalStateException("Disabled level was written");
+			}
+			@Override
+			public void flush() {}
+			@Override
+			public void close() {}
+		}, LogBench.class);
+		log.setPrintDebug(false);
+		value = Integer.valueOf(42);
+		array = new int[]{1, 2, 3};
+		supplier = new Supplier<String>() {
+			public String get() {
+				return "value "+value;
+			}
+		};
+	}
+	@Benchmark
+	public Integer baseline() {
+		return value;
+	}
+	@Benchmark
+	public boolean debugObject() {
+		return log.debug(value);
+	}
+	@Benchmark
+	public boolean debugArray() {
+		return log.log(LogLevel.DEBUG, array);
+	}
+	@Benchmark
+	public boolean debugTemplate() {
+		return log.debugf("value {}", value);
+	}
+	@Benchmark
+	public boolean debugSupplier() {
+		return log.debug(supplier);
+	}
+	/** The string is built before the call, the usual mistake. */
+	@Benchmark
+	public boolean debugConcatenated() {
+		return log.debug("value "+value);
+	}
+	@Benchmark
+	public boolean debugGuarded() {
+		return log.isEnabled(LogLevel.DEBUG) && log.debug("value "+value);
+	}
+	@Benchmark
+	public boolean debugSection() {
+		return log.debugSect("bench", value);
+	}
+}
@@ -0,0 +1,75 @@
+package tests.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.ml.InlineLooseParser;
+import simple.ml.Page;
+import simple.util.logging.LogFactory;
+import simple.util.logging.LogLevel;
+
+/**
+ * Time to parse an HTML page with {@link InlineLooseParser}, from a String
+ * and from a Reader. The page has a head with a script and a style, and a
+ * body of nested lists, links, images, tables and comments with quoted,
+ * unquoted and empty attributes. The script has no bare '&lt;', which the
+ * parser takes for the start of a tag.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class ParserBench {
+	/** Number of items in the body, each about 300 chars. */
+	@Param({"10", "1000"})
+	public int items;
+	private String page;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		LogFactory.setPrint(LogLevel.DEBUG, false);
+		LogFactory.setPrint(LogLevel.INFORMATION, false);
+		LogFactory.setPrint(LogLevel.WARNING, false);
+		final StringBuilder buf = new StringBuilder();
+		buf.append("<!DOCTYPE html>\n<html lang=en>\n<head>\n<meta charset=\"utf-8\">\n<title>Benchmark page</title>\n")
+			.append("<script type=\"text/javascript\">var a = 3 > 2; document.write('<b>x</b>');</script>\n")
+			.append("<style>body { margin: 0; } li > a { color: red; }</style>\n</head>\n<body class=\"main\">\n<ul id=list>\n");
+		for (int i = 0; i < items; i++) {
+			buf.append("<li class=\"item odd\" data-id=").append(i).append(">\n")
+				.append("\t<a href=\"/items/").append(i).append("?ref=list&amp;page=2\" title='Item ").append(i).append("'>Item ").append(i).append("</a>\n")
+				.append("\t<img src=\"/img/").append(i).append(".png\" alt=\"\" width=32 height=32 />\n")
+				.append("\t<!-- item ").append(i).append(" -->\n")
+				.append("\t<table><tr><td>Price</td><td align=right>").append(i*3).append(".99</td></tr></table>\n")
+				.append("\t<input type=checkbox checked name=\"pick").append(i).append("\"/>\n</li>\n");
+		}
+		buf.append("</ul>\n<p>End &copy; 2026<br/></p>\n</body>\n</html>\n");
+		page = buf.toString();
+	}
+	@Benchmark
+	public Page parseString() throws ParseException, IOException {
+		return InlineLooseParser.parse(page);
+	}
+	@Benchmark
+	public Page parseReader() throws ParseException, IOException {
+		return InlineLooseParser.parse(new StringReader(page));
+	}
+}
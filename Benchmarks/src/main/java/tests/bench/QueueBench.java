@@ -0,0 +1,106 @@
+package tests.bench;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+
+import simple.util.BlockingQueueFactory;
+
+/**
+ * Throughput of the blocking queues with two producers and two consumers on
+ * the same queue. offer and poll are used rather than put and take so a side
+ * that gets ahead spins instead of parking, which keeps the threads fighting
+ * over the queue and lets the iterations end without one side waiting
+ * forever. A full queue makes offer fail and an empty one makes poll fail
+ * without doing any work, so both retry until they succeed and every op
+ * counted is an element moved. {@link ArrayBlockingQueue} is there to compare
+ * against.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class QueueBench {
+	private static final Integer ITEM = Integer.valueOf(42);
+	/** Tokens burned between retries. */
+	private static final long BACKOFF = 16;
+	@Param({"fixed", "growable", "ring", "deque", "linkedDeque", "jdk"})
+	public String impl;
+	@Param({"1024"})
+	public int capacity;
+	private BlockingQueue<Integer> queue;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		if ("fixed".equals(impl))
+			queue = BlockingQueueFactory.createFixed(capacity);
+		else if ("growable".equals(impl))
+			queue = BlockingQueueFactory.createGrowable(capacity, 0);
+		else if ("ring".equals(impl))
+			queue = BlockingQueueFactory.createRingBuffer(capacity);
+		else if ("deque".equals(impl))
+			queue = BlockingQueueFactory.createDeque(capacity);
+		else if ("linkedDeque".equals(impl))
+			queue = BlockingQueueFactory.createLinkedDeque(capacity);
+		else
+			queue = new ArrayBlockingQueue<Integer>(capacity);
+	}
+	@TearDown(Level.Iteration)
+	public void teardown() {
+		queue.clear();
+	}
+	/** Capped so the growable queue measures the same thing as the rest instead of growing without end. */
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(2)
+	public boolean offer(final Control control) {
+		while (queue.size() >= capacity || !queue.offer(ITEM)) {
+			if (control.stopMeasurement)
+				return false;
+			Blackhole.consumeCPU(BACKOFF);
+		}
+		return true;
+	}
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(2)
+	public Integer poll(final Control control) {
+		Integer item;
+		while ((item = queue.poll()) == null) {
+			if (control.stopMeasurement)
+				return null;
+			Blackhole.consumeCPU(BACKOFF);
+		}
+		return item;
+	}
+	/** One thread offering and polling, the cost of the queue without contention. A group of its own because the state is per group. */
+	@Benchmark
+	@Group("uncontended")
+	@GroupThreads(1)
+	public Integer uncontended() {
+		queue.offer(ITEM);
+		return queue.poll();
+	}
+}
@@ -0,0 +1,108 @@
+package tests.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.util.do_sort;
+
+/**
+ * Time to sort an int array with each of the {@link do_sort} algorithms and
+ * with {@link Arrays#sort(int[])}. The unsorted data is copied over the work
+ * array at the start of each call, so each score includes one copy of the array.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class SortBench {
+	@Param({"1000", "100000"})
+	public int size;
+	/** random: any int. narrow: 0 to 255. sorted: ascending with every 100th swapped. */
+	@Param({"random", "narrow", "sorted"})
+	public String data;
+	private int[] source;
+	private int[] work;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random r = new Random(1);
+		source = new int[size];
+		for (int i = 0; i < size; i++) {
+			if ("random".equals(data))
+				source[i] = r.nextInt();
+			else if ("narrow".equals(data))
+				source[i] = r.nextInt(256);
+			else
+				source[i] = i;
+		}
+		if ("sorted".equals(data))
+			for (int i = 0; i+1 < size; i += 100)
+				do_sort.swap(source, i, i+1);
+		work = new int[size];
+	}
+	private int[] fresh() {
+		System.arraycopy(source, 0, work, 0, size);
+		return work;
+	}
+	@Benchmark
+	public int[] quickSort() {
+		final int[] a = fresh();
+		do_sort.quickSort(a);
+		return a;
+	}
+	@Benchmark
+	public int[] introSort() {
+		final int[] a = fresh();
+		do_sort.introSort(a);
+		return a;
+	}
+	@Benchmark
+	public int[] mergeSort() {
+		final int[] a = fresh();
+		do_sort.mergeSort(a);
+		return a;
+	}
+	@Benchmark
+	public int[] radixSort() {
+		final int[] a = fresh();
+		do_sort.radixSort(a);
+		return a;
+	}
+	@Benchmark
+	public int[] parallelSort() {
+		final int[] a = fresh();
+		do_sort.parallelSort(a);
+		return a;
+	}
+	/** The dispatcher, which picks one of the others. */
+	@Benchmark
+	public int[] sort() {
+		final int[] a = fresh();
+		do_sort.sort(a);
+		return a;
+	}
+	@Benchmark
+	public int[] jdkSort() {
+		final int[] a = fresh();
+		Arrays.sort(a);
+		return a;
+	}
+}
@@ -0,0 +1,83 @@
+package tests.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.util.StringSearcher;
+import simple.util.do_str;
+
+/**
+ * Time to find a needle near the end of 64K of text with {@link do_str},
+ * a {@link StringSearcher} made once, and {@link String#indexOf(String)}.
+ * The text is a StringBuilder, like the parsers search. The searches stop
+ * short of the end of it, as the parsers' do, because a search to the end
+ * of a String or StringBuilder is handed to the JDK.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class StringSearchBench {
+	@Param({"</script>", "Content-Disposition: form-data; name="})
+	public String needle;
+	private StringBuilder text;
+	private String string;
+	/** Where the searches stop, short of the end of the text. */
+	private int limit;
+	private StringSearcher searcher, ciSearcher;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random r = new Random(1);
+		text = new StringBuilder(1<<16);
+		// lower case words with the needle's chars mixed in, so the skips are realistic
+		while (text.length() < (1<<16)-needle.length()-1) {
+			final int len = 2+r.nextInt(8);
+			for (int i = 0; i < len; i++)
+				text.append(r.nextInt(4)==0 ? needle.charAt(r.nextInt(needle.length())) : (char)('a'+r.nextInt(26)));
+			text.append(' ');
+		}
+		text.append(needle).append("  ");
+		string = text.toString();
+		limit = text.length()-1;
+		searcher = new StringSearcher(needle);
+		ciSearcher = new StringSearcher(needle, true);
+	}
+	@Benchmark
+	public int doStrIndexOf() {
+		return do_str.indexOf(text, needle, 0, limit);
+	}
+	@Benchmark
+	public int doStrIndexOfIgnoreCase() {
+		return do_str.CI.indexOf(text, needle, 0);
+	}
+	@Benchmark
+	public int searcher() {
+		return searcher.indexOf(text, 0, limit);
+	}
+	@Benchmark
+	public int searcherIgnoreCase() {
+		return ciSearcher.indexOf(text, 0, limit);
+	}
+	@Benchmark
+	public int jdkIndexOf() {
+		return string.indexOf(needle);
+	}
+}
@@ -0,0 +1,48 @@
+package tests.bench;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simple.net.Uri;
+
+/**
+ * Time to parse a {@link Uri}, with {@link URI} to compare against.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(2)
+public class UriBench {
+	@Param({
+		"http://example.com/",
+		"https://user@www.example.com:8443/a/b/c/page.html?x=1&y=two&z=%20three#section-2",
+		"/relative/path/file.txt?q=search+terms",
+		"mailto:someone@example.com"
+	})
+	public String uri;
+
+	@Benchmark
+	public Uri parse() {
+		return new Uri(uri);
+	}
+	@Benchmark
+	public URI jdkParse() throws URISyntaxException {
+		return new URI(uri);
+	}
+}
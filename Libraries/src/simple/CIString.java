@@ -1,21 +1,41 @@
 /**
- * 
+ *
  */
 package simple;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
 
-/**Case insensitive string for hash keys.
+import simple.util.CharSlice;
+
+/**Case insensitive string for hash keys.<br>
+ * The case folded form is made once, each char upper cased then lower cased
+ * the same way {@link String#equalsIgnoreCase(String)} compares them, and
+ * the hash code is the folded form's. Comparing two CIStrings compares the
+ * hash codes and then the folded forms.<br>
+ * {@link #intern(String)} returns a shared instance from a pool that lets go
+ * of instances nothing else uses. Pooled instances that differ only in case
+ * share their folded form, so comparing them is mostly an identity check.
  * <br>Created: Jun 23, 2010
  * @author Kenneth Pierce
  */
 public final class CIString implements CharSequence {
 	public static final CIString EMPTY = new CIString("");
 	private final String string;
+	/** The string with its case folded. The same instance as <code>string</code> if folding changes nothing. */
+	private final String folded;
 	private final int hashcode;
 	public CIString(String str) {
 		string = str;
-		hashcode = calcHashCode(str);
+		folded = fold(str);
+		hashcode = folded.hashCode();
+	}
+	private CIString(String str, String folded) {
+		string = str;
+		this.folded = folded;
+		hashcode = folded.hashCode();
 	}
 	public int hashCode() {
 		return hashcode;
@@ -23,9 +43,37 @@ public final class CIString implements CharSequence {
 	public String toString() {
 		return string;
 	}
+	/**
+	 * @return The string with its case folded. Equal CIStrings have equal folded strings.
+	 */
+	public String getFolded() {
+		return folded;
+	}
+	/**Equal to a CIString or string that differs only in case.
+	 * Use {@link #contentEqualsIgnoreCase(CharSequence)} for other CharSequences.
+	 */
 	public boolean equals(Object obj) {
-		if (obj==string) return true;
-		return string.equalsIgnoreCase(obj.toString());
+		if (obj==this) return true;
+		if (obj instanceof CIString) {
+			final CIString other = (CIString)obj;
+			return hashcode==other.hashcode && (folded==other.folded || folded.equals(other.folded));
+		}
+		if (obj instanceof String)
+			return string.equalsIgnoreCase((String)obj);
+		return false;
+	}
+	/**Compares the chars of any CharSequence, ignoring case, without making a String of it.
+	 * @param cs
+	 * @return True if <var>cs</var> differs from this only in case.
+	 */
+	public boolean contentEqualsIgnoreCase(CharSequence cs) {
+		if (cs instanceof CIString || cs instanceof String)
+			return equals(cs);
+		final int len = folded.length();
+		if (cs==null || cs.length()!=len) return false;
+		for (int idx = 0; idx<len; idx++)
+			if (fold(cs.charAt(idx))!=folded.charAt(idx)) return false;
+		return true;
 	}
 	/* (non-Javadoc)
 	 * @see java.lang.CharSequence#charAt(int)
@@ -51,28 +99,158 @@ public final class CIString implements CharSequence {
 	private static final char[] lc = new char[256];
 
 	static {
-		// just ISO-8859-1
+		// ISO-8859-1 from the table, the rest is looked up
 		for (char idx=0; idx<256; idx++)
-			lc[idx] = Character.toLowerCase(idx);
+			lc[idx] = Character.toLowerCase(Character.toUpperCase(idx));
+	}
+	/**Folds the case of one char the way {@link #fold(String)} does.
+	 * @param c
+	 * @return The folded char.
+	 */
+	public static char fold(char c) {
+		return (c < 256) ? lc[c] : Character.toLowerCase(Character.toUpperCase(c));
+	}
+	/**Folds the case of every char. Returns <var>str</var> itself if nothing changes.
+	 * @param str
+	 * @return The folded string.
+	 */
+	public static String fold(String str) {
+		final int len = str.length();
+		for (int idx = 0; idx<len; idx++) {
+			final char c = str.charAt(idx);
+			if (fold(c)!=c) {
+				final char[] chars = str.toCharArray();
+				for (int j = idx; j<len; j++)
+					chars[j] = fold(chars[j]);
+				return new String(chars);
+			}
+		}
+		return str;
 	}
-
 	/**
-     * We smash case before calculation so that the hash code is
-     * "case insensitive". This is based on code snarfed from
-     * java.lang.String.hashCode().
+     * Same as the hash code of the folded string, worked out a char at a time.
      */
-	private static final int calcHashCode(String str) {
+	private static final int calcHashCode(CharSequence str) {
 		int  hash  = 0;
-		char llc[] = lc;
 		int  len   = str.length();
 
-		for (int idx= 0; idx<len; idx++) {
-			if (str.charAt(idx) < 256)
-				hash = 31*hash + llc[str.charAt(idx)];
-		}
+		for (int idx= 0; idx<len; idx++)
+			hash = 31*hash + fold(str.charAt(idx));
 		return hash;
 	}
+	/**Same hash as a CIString of <var>str</var> without making one.
+	 * For hashing strings that are compared with {@link String#equalsIgnoreCase(String)}.
+	 * @param str
+	 * @return The case insensitive hash code.
+	 */
+	public static int hashOf(CharSequence str) {
+		return calcHashCode(str);
+	}
 	public byte[] getBytes(Charset charset) {
 		return string.getBytes(charset);
 	}
+//	========== start pool ===========
+	/** Pooled instances by their exact string. */
+	private static final ConcurrentHashMap<Key, PoolRef> pool = new ConcurrentHashMap<Key, PoolRef>();
+	private static final ReferenceQueue<CIString> collected = new ReferenceQueue<CIString>();
+	private static final class PoolRef extends WeakReference<CIString> {
+		final Key key;
+		PoolRef(CIString ci, Key key) {
+			super(ci, collected);
+			this.key = key;
+		}
+	}
+	/**Pool key, equal to another key with the same chars whatever kind of
+	 * CharSequence each holds, so a {@link CharSlice} can look up a String.
+	 */
+	private static final class Key {
+		final CharSequence chars;
+		final int hash;
+		Key(CharSequence chars) {
+			this.chars = chars;
+			hash = chars.hashCode();
+		}
+		public int hashCode() {
+			return hash;
+		}
+		public boolean equals(Object obj) {
+			if (obj==this) return true;
+			if (!(obj instanceof Key)) return false;
+			final Key other = (Key)obj;
+			if (hash!=other.hash) return false;
+			if (chars instanceof CharSlice)
+				return ((CharSlice)chars).contentEquals(other.chars);
+			if (other.chars instanceof CharSlice)
+				return ((CharSlice)other.chars).contentEquals(chars);
+			return chars.equals(other.chars);
+		}
+	}
+	/**Returns the pooled CIString for <var>str</var>, adding one if there is
+	 * none. Strings that differ in case get different instances, so
+	 * {@link #toString()} is unchanged, but they share the folded form.<br>
+	 * The pool only holds instances weakly.
+	 * @param str
+	 * @return The shared CIString of <var>str</var>.
+	 */
+	public static CIString intern(String str) {
+		final Key key = new Key(str);
+		PoolRef ref = pool.get(key);
+		CIString ci;
+		if (ref!=null && (ci = ref.get())!=null)
+			return ci;
+		expunge();
+		String folded = fold(str);
+		// share the folded form of the other cases
+		if (folded!=str)
+			folded = intern(folded).string;
+		ci = new CIString(str, folded);
+		final PoolRef fresh = new PoolRef(ci, key);
+		while (true) {
+			if (ref==null) {
+				ref = pool.putIfAbsent(key, fresh);
+				if (ref==null)
+					return ci;
+			} else if (pool.replace(key, ref, fresh))
+				return ci;
+			else
+				ref = pool.get(key);
+			final CIString other = (ref==null) ? null : ref.get();
+			if (other!=null)
+				return other;
+		}
+	}
+	/**Same as {@link #intern(String)}. A {@link simple.util.CharSlice} is
+	 * looked up without making a String of it, so only new entries copy
+	 * their chars.
+	 * @param chars
+	 * @return The shared CIString of <var>chars</var>.
+	 */
+	public static CIString intern(CharSequence chars) {
+		if (chars instanceof String)
+			return intern((String)chars);
+		if (chars instanceof CIString)
+			return intern(((CIString)chars).string);
+		if (chars instanceof CharSlice) {
+			// a slice hashes like a String and its key compares its chars
+			final PoolRef ref = pool.get(new Key(chars));
+			final CIString ci;
+			if (ref!=null && (ci = ref.get())!=null)
+				return ci;
+		}
+		return intern(chars.toString());
+	}
+	/** Drops pool entries whose instance was collected. */
+	private static void expunge() {
+		PoolRef ref;
+		while ((ref = (PoolRef)collected.poll())!=null)
+			pool.remove(ref.key, ref);
+	}
+	/**
+	 * @return Number of strings in the pool, including some that were just collected.
+	 */
+	public static int poolSize() {
+		expunge();
+		return pool.size();
+	}
+//	========== end pool ===========
 }
@@ -0,0 +1,576 @@
+/**
+ *
+ */
+package simple.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**Sorts files too big to be held in memory.<br>
+ * The input is read into chunks that fit in the memory limit. Each chunk is
+ * sorted and written to a temporary run file on a pool of threads while the
+ * next chunk is read. The runs are then merged with a heap, <var>mergeWidth</var>
+ * runs at a time, into the output. Input that fits in one chunk is sorted in
+ * memory and never touches a temporary file.<br>
+ * The memory limit is split between the chunk being read and the chunks being
+ * sorted, so no more than <var>maxMemory</var> (as estimated from the
+ * size of the lines or records) is held at once.<br>
+ * The sort is stable. With {@link #setDistinct(boolean)} only the first of
+ * each run of equal elements is written, which takes the place of
+ * {@link simple.util.Utils#removeDuplicates(String[], boolean, boolean)} for input that
+ * doesn't fit in memory.
+ * <hr>
+ * Lines are read with {@link ReadWriterFactory} and written with the platform's
+ * line separator. Records are fixed length blocks of bytes read with
+ * {@link StreamFactory}.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class ExternalSort {
+	/** Memory estimate for an object header and the reference to it. */
+	private static final int OVERHEAD=16+8;
+	private long maxMemory=Runtime.getRuntime().maxMemory()/4;
+	private int threads=Runtime.getRuntime().availableProcessors();
+	private int mergeWidth=64;
+	private File tempDir=null;
+	private boolean distinct=false;
+
+	/**Uses a quarter of the heap, a thread per processor and merges 64 runs at a time.
+	 */
+	public ExternalSort() {}
+	/**
+	 * @param maxMemory Bytes of lines or records held in memory at once.
+	 */
+	public void setMaxMemory(final long maxMemory) {
+		if (maxMemory<1)
+			throw new IllegalArgumentException("maxMemory must be positive.");
+		this.maxMemory=maxMemory;
+	}
+	public long getMaxMemory() {
+		return maxMemory;
+	}
+	/**
+	 * @param threads Number of chunks sorted at the same time.
+	 */
+	public void setThreads(final int threads) {
+		if (threads<1)
+			throw new IllegalArgumentException("threads must be positive.");
+		this.threads=threads;
+	}
+	public int getThreads() {
+		return threads;
+	}
+	/**
+	 * @param mergeWidth Number of runs merged at once. More runs than this are
+	 * merged in more than one pass.
+	 */
+	public void setMergeWidth(final int mergeWidth) {
+		if (mergeWidth<2)
+			throw new IllegalArgumentException("mergeWidth must be at least 2.");
+		this.mergeWidth=mergeWidth;
+	}
+	public int getMergeWidth() {
+		return mergeWidth;
+	}
+	/**
+	 * @param tempDir Directory for the run files. null for the system's temporary directory.
+	 */
+	public void setTempDirectory(final File tempDir) {
+		this.tempDir=tempDir;
+	}
+	public File getTempDirectory() {
+		return tempDir;
+	}
+	/**
+	 * @param distinct Only write the first of elements that compare equal.
+	 */
+	public void setDistinct(final boolean distinct) {
+		this.distinct=distinct;
+	}
+	public boolean isDistinct() {
+		return distinct;
+	}
+//	========== start lines ===========
+	/**Sorts the lines of <var>in</var> in their natural order.
+	 * @param in
+	 * @param out Can be the same file as <var>in</var>.
+	 * @return Number of lines written.
+	 * @throws IOException
+	 */
+	public long sortLines(final File in, final File out) throws IOException {
+		return sortLines(in, out, null);
+	}
+	/**
+	 * @param in
+	 * @param out Can be the same file as <var>in</var>.
+	 * @param c Line order. null for natural order.
+	 * @return Number of lines written.
+	 * @throws IOException
+	 */
+	public long sortLines(final File in, final File out, final Comparator<? super String> c) throws IOException {
+		final Source<String> src=LINES.open(in, 64*1024);
+		try {
+			return sort(src, LINES, new FileTarget<String>(LINES, out), c);
+		} finally {
+			src.close();
+		}
+	}
+	/**Sorts the lines of <var>in</var> into <var>out</var>. Neither is closed.
+	 * @param in
+	 * @param out
+	 * @param c Line order. null for natural order.
+	 * @return Number of lines written.
+	 * @throws IOException
+	 */
+	public long sortLines(final Reader in, final Writer out, final Comparator<? super String> c) throws IOException {
+		final BufferedWriter wr=ReadWriterFactory.getBufferedWriter(out);
+		final long count=sort(new LineSource(ReadWriterFactory.getBufferedReader(in), false), LINES, new Target<String>() {
+			@Override
+			Sink<String> create() {
+				return new LineSink(wr, false);
+			}
+			@Override
+			void done(final Sink<String> sink) throws IOException {
+				wr.flush();
+			}
+		}, c);
+		return count;
+	}
+//	========== end lines ===========
+//	========== start records ===========
+	/**Sorts a file of fixed length records.
+	 * @param in
+	 * @param out Can be the same file as <var>in</var>.
+	 * @param recordSize Bytes per record. The size of <var>in</var> must be a multiple of it.
+	 * @param c Record order. Is passed arrays of <var>recordSize</var> bytes.
+	 * @return Number of records written.
+	 * @throws IOException
+	 */
+	public long sortRecords(final File in, final File out, final int recordSize, final Comparator<? super byte[]> c) throws IOException {
+		if (recordSize<1)
+			throw new IllegalArgumentException("recordSize must be positive.");
+		if (c==null)
+			throw new NullPointerException("Comparator required for records.");
+		final Codec<byte[]> codec=new RecordCodec(recordSize);
+		final Source<byte[]> src=codec.open(in, 64*1024);
+		try {
+			return sort(src, codec, new FileTarget<byte[]>(codec, out), c);
+		} finally {
+			src.close();
+		}
+	}
+//	========== end records ===========
+	/**Reads the chunks and hands them to the pool, then merges the runs.
+	 */
+	private <T> long sort(final Source<T> src, final Codec<T> codec, final Target<T> target, final Comparator<? super T> c) throws IOException {
+		final long chunkBytes=Math.max(maxMemory/(threads+1), 1);
+		final List<File> created=Collections.synchronizedList(new ArrayList<File>());
+		final ArrayList<Future<File>> runs=new ArrayList<Future<File>>();
+		final Semaphore slots=new Semaphore(threads);
+		ExecutorService pool=null;
+		try {
+			ArrayList<T> chunk=new ArrayList<T>();
+			long bytes=0;
+			T t;
+			while ((t=src.next())!=null) {
+				chunk.add(t);
+				bytes+=codec.size(t);
+				if (bytes>=chunkBytes) {
+					if (pool==null)
+						pool=newPool(threads);
+					runs.add(spill(pool, slots, chunk, codec, c, created));
+					chunk=new ArrayList<T>();
+					bytes=0;
+				}
+			}
+			// before the output is opened, it may be the same file
+			src.close();
+			if (runs.isEmpty()) {
+				// it all fit
+				final T[] sorted=sortChunk(chunk, c);
+				chunk=null;
+				final Sink<T> sink=target.create();
+				try {
+					final long count=write(sorted, sink, c);
+					target.done(sink);
+					return count;
+				} finally {
+					sink.close();
+				}
+			}
+			if (!chunk.isEmpty())
+				runs.add(spill(pool, slots, chunk, codec, c, created));
+			chunk=null;
+			final ArrayList<File> files=new ArrayList<File>(runs.size());
+			for (final Future<File> run : runs)
+				files.add(get(run));
+			return merge(files, codec, target, c, created);
+		} finally {
+			if (pool!=null)
+				stop(pool);
+			synchronized(created) {
+				for (final File f : created)
+					f.delete();
+			}
+		}
+	}
+	/**Cancels the chunks still waiting and waits for those being written, so
+	 * no run file is made after the run files are deleted.
+	 */
+	private static void stop(final ExecutorService pool) {
+		pool.shutdownNow();
+		boolean interrupted=false;
+		while (true) {
+			try {
+				if (pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS))
+					break;
+			} catch (final InterruptedException e) {
+				interrupted=true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+	private static ExecutorService newPool(final int threads) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count=0;
+			@Override
+			public synchronized Thread newThread(final Runnable r) {
+				final Thread t=new Thread(r, "ExternalSort "+(++count));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	/**Sorts the chunk and writes it to a run file on the pool. Waits while
+	 * <var>threads</var> chunks are already being sorted to stay in the memory limit.
+	 */
+	private <T> Future<File> spill(final ExecutorService pool, final Semaphore slots, final ArrayList<T> chunk,
+			final Codec<T> codec, final Comparator<? super T> c, final List<File> created) throws IOException {
+		try {
+			slots.acquire();
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Interrupted waiting to sort a chunk.");
+		}
+		try {
+			return pool.submit(new Callable<File>() {
+				@Override
+				public File call() throws IOException {
+					try {
+						final T[] sorted=sortChunk(chunk, c);
+						chunk.clear();
+						// cancelled, the run would only be deleted
+						if (Thread.currentThread().isInterrupted())
+							throw new InterruptedIOException("Cancelled before writing a sorted chunk.");
+						final File run=newRun(created);
+						final Sink<T> sink=codec.create(run, 64*1024);
+						try {
+							write(sorted, sink, c);
+						} finally {
+							sink.close();
+						}
+						return run;
+					} finally {
+						slots.release();
+					}
+				}
+			});
+		} catch (final RuntimeException e) {
+			slots.release();
+			throw e;
+		}
+	}
+	@SuppressWarnings("unchecked")
+	private static <T> T[] sortChunk(final ArrayList<T> chunk, final Comparator<? super T> c) {
+		final T[] sorted=(T[])chunk.toArray();
+		if (c==null)
+			Arrays.sort(sorted);
+		else
+			Arrays.sort(sorted, c);
+		return sorted;
+	}
+	/**Writes the sorted elements, skipping repeats if distinct.
+	 * @return Number written.
+	 */
+	private <T> long write(final T[] sorted, final Sink<T> sink, final Comparator<? super T> c) throws IOException {
+		long count=0;
+		T last=null;
+		for (final T t : sorted) {
+			if (distinct && last!=null && compare(c, last, t)==0)
+				continue;
+			sink.write(t);
+			last=t;
+			count++;
+		}
+		return count;
+	}
+	@SuppressWarnings("unchecked")
+	private static <T> int compare(final Comparator<? super T> c, final T a, final T b) {
+		if (c==null)
+			return ((Comparable<? super T>)a).compareTo(b);
+		return c.compare(a, b);
+	}
+	private File newRun(final List<File> created) throws IOException {
+		final File run=File.createTempFile("sort", ".run", tempDir);
+		created.add(run);
+		return run;
+	}
+	private static File get(final Future<File> run) throws IOException {
+		try {
+			return run.get();
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Interrupted waiting for a sorted chunk.");
+		} catch (final ExecutionException e) {
+			final Throwable cause=e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException)cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw new IOException(cause);
+		}
+	}
+	/**Merges the runs <var>mergeWidth</var> at a time until few enough are
+	 * left to merge into the target.
+	 */
+	private <T> long merge(List<File> files, final Codec<T> codec, final Target<T> target,
+			final Comparator<? super T> c, final List<File> created) throws IOException {
+		while (files.size()>mergeWidth) {
+			final ArrayList<File> next=new ArrayList<File>((files.size()+mergeWidth-1)/mergeWidth);
+			for (int i=0;i<files.size();i+=mergeWidth) {
+				final List<File> group=files.subList(i, Math.min(i+mergeWidth, files.size()));
+				final File run=newRun(created);
+				final Sink<T> sink=codec.create(run, 64*1024);
+				try {
+					merge(group, codec, sink, c);
+				} finally {
+					sink.close();
+				}
+				for (final File f : group)
+					f.delete();
+				next.add(run);
+			}
+			files=next;
+		}
+		final Sink<T> sink=target.create();
+		try {
+			final long count=merge(files, codec, sink, c);
+			target.done(sink);
+			return count;
+		} finally {
+			sink.close();
+		}
+	}
+	/**K-way merge of the runs with a heap. Equal elements come out in run
+	 * order, which keeps the sort stable.
+	 */
+	private <T> long merge(final List<File> files, final Codec<T> codec, final Sink<T> sink, final Comparator<? super T> c) throws IOException {
+		// split what memory the chunks aren't using between the readers
+		final int buffer=(int)Math.max(8*1024, Math.min(1024*1024, maxMemory/2/files.size()));
+		final PriorityQueue<Cursor<T>> heap=new PriorityQueue<Cursor<T>>(files.size(), new Comparator<Cursor<T>>() {
+			@Override
+			public int compare(final Cursor<T> a, final Cursor<T> b) {
+				final int r=ExternalSort.compare(c, a.head, b.head);
+				return (r!=0) ? r : a.index-b.index;
+			}
+		});
+		final ArrayList<Source<T>> open=new ArrayList<Source<T>>(files.size());
+		try {
+			for (int i=0;i<files.size();i++) {
+				final Source<T> src=codec.open(files.get(i), buffer);
+				open.add(src);
+				final T head=src.next();
+				if (head!=null)
+					heap.add(new Cursor<T>(src, head, i));
+			}
+			long count=0;
+			T last=null;
+			Cursor<T> cur;
+			while ((cur=heap.poll())!=null) {
+				if (!distinct || last==null || compare(c, last, cur.head)!=0) {
+					sink.write(cur.head);
+					last=cur.head;
+					count++;
+				}
+				cur.head=cur.src.next();
+				if (cur.head!=null)
+					heap.add(cur);
+			}
+			return count;
+		} finally {
+			for (final Source<T> src : open)
+				src.close();
+		}
+	}
+	private static final class Cursor<T> {
+		final Source<T> src;
+		final int index;
+		T head;
+		Cursor(final Source<T> src, final T head, final int index) {
+			this.src=src;
+			this.head=head;
+			this.index=index;
+		}
+	}
+//	========== start formats ===========
+	private static interface Source<T> {
+		/** @return The next element or null at the end. */
+		T next() throws IOException;
+		void close() throws IOException;
+	}
+	private static interface Sink<T> {
+		void write(T t) throws IOException;
+		void close() throws IOException;
+	}
+	/** How elements are read, written and sized. */
+	private static abstract class Codec<T> {
+		abstract Source<T> open(File f, int buffer) throws IOException;
+		abstract Sink<T> create(File f, int buffer) throws IOException;
+		/** @return Estimated bytes of memory used by <var>t</var>. */
+		abstract long size(T t);
+	}
+	/** Where the sorted output goes. */
+	private static abstract class Target<T> {
+		abstract Sink<T> create() throws IOException;
+		/** Called after everything was written, before the sink is closed. */
+		void done(final Sink<T> sink) throws IOException {}
+	}
+	/** Writes the output to a file. It is only opened once the input was read, so it can be the input. */
+	private static final class FileTarget<T> extends Target<T> {
+		private final Codec<T> codec;
+		private final File file;
+		FileTarget(final Codec<T> codec, final File file) {
+			this.codec=codec;
+			this.file=file;
+		}
+		@Override
+		Sink<T> create() throws IOException {
+			return codec.create(file, 64*1024);
+		}
+	}
+	private static final Codec<String> LINES=new Codec<String>() {
+		@Override
+		Source<String> open(final File f, final int buffer) throws IOException {
+			return new LineSource(ReadWriterFactory.getBufferedReader(f, buffer), true);
+		}
+		@Override
+		Sink<String> create(final File f, final int buffer) throws IOException {
+			return new LineSink(ReadWriterFactory.getBufferedWriter(f, buffer), true);
+		}
+		@Override
+		long size(final String t) {
+			// the String, its array and the list's reference
+			return OVERHEAD+16+t.length()*2L;
+		}
+	};
+	private static final class LineSource implements Source<String> {
+		private final BufferedReader rd;
+		private final boolean owned;
+		/** @param owned Close <var>rd</var> when done with it. */
+		LineSource(final BufferedReader rd, final boolean owned) {
+			this.rd=rd;
+			this.owned=owned;
+		}
+		@Override
+		public String next() throws IOException {
+			return rd.readLine();
+		}
+		@Override
+		public void close() throws IOException {
+			if (owned)
+				rd.close();
+		}
+	}
+	private static final class LineSink implements Sink<String> {
+		private final BufferedWriter wr;
+		private final boolean owned;
+		/** @param owned Close <var>wr</var> when done with it. */
+		LineSink(final BufferedWriter wr, final boolean owned) {
+			this.wr=wr;
+			this.owned=owned;
+		}
+		@Override
+		public void write(final String t) throws IOException {
+			wr.write(t);
+			wr.newLine();
+		}
+		@Override
+		public void close() throws IOException {
+			if (owned)
+				wr.close();
+		}
+	}
+	private static final class RecordCodec extends Codec<byte[]> {
+		final int recordSize;
+		RecordCodec(final int recordSize) {
+			this.recordSize=recordSize;
+		}
+		@Override
+		Source<byte[]> open(final File f, final int buffer) throws IOException {
+			final BufferedInputStream in=StreamFactory.getBufferedInputStream(f, buffer);
+			return new Source<byte[]>() {
+				@Override
+				public byte[] next() throws IOException {
+					final byte[] rec=new byte[recordSize];
+					int n=0;
+					while (n<recordSize) {
+						final int r=in.read(rec, n, recordSize-n);
+						if (r==-1) {
+							if (n==0)
+								return null;
+							throw new EOFException("Partial record of "+n+" bytes at the end of "+f);
+						}
+						n+=r;
+					}
+					return rec;
+				}
+				@Override
+				public void close() throws IOException {
+					in.close();
+				}
+			};
+		}
+		@Override
+		Sink<byte[]> create(final File f, final int buffer) throws IOException {
+			final BufferedOutputStream out=StreamFactory.getBufferedOutputStream(f, false, buffer);
+			return new Sink<byte[]>() {
+				@Override
+				public void write(final byte[] t) throws IOException {
+					out.write(t);
+				}
+				@Override
+				public void close() throws IOException {
+					out.close();
+				}
+			};
+		}
+		@Override
+		long size(final byte[] t) {
+			return OVERHEAD+t.length;
+		}
+	}
+//	========== end formats ===========
+}
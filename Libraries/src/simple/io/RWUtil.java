@@ -6,6 +6,8 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.util.Arrays;
 
+import simple.util.do_str;
+
 public final class RWUtil {
 	/**
 	 * Reads all available data from reader.
@@ -34,15 +36,29 @@ public final class RWUtil {
 	 * @throws IOException
 	 */
 	public static String readUntil(final Reader in, final char end) throws IOException {
-		final StringBuffer buf = new StringBuffer(255);
-		final char[] cbuf = new char[1];
-		while((in.read(cbuf)!=-1)){
-			buf.append(cbuf[0]);
-			if (cbuf[0]==end) {
+		final StringBuilder buf = new StringBuilder(255);
+		readUntil(in, end, buf);
+		return buf.toString();
+	}
+	/**
+	 * Reads until <code>end</code> is reached and appends the characters to
+	 * <code>buf</code>, end character included, without making a String.
+	 * @param in Reader to read from.
+	 * @param end Character to stop at.
+	 * @param buf Where the characters go.
+	 * @return Number of characters read. 0 means that the end has been reached.
+	 * @throws IOException
+	 */
+	public static int readUntil(final Reader in, final char end, final Appendable buf) throws IOException {
+		int c, read = 0;
+		while ((c=in.read())!=-1) {
+			buf.append((char)c);
+			read++;
+			if (c==end) {
 				break;
 			}
 		}
-		return buf.toString();
+		return read;
 	}
 	/**
 	 * Reads until <code>end</code> is reached. The returned String includes the end character.
@@ -66,18 +82,33 @@ public final class RWUtil {
 	 */
 	public static String readUntil(final Reader rd, final String end, final boolean throwEOF) throws IOException, EOFException {
 		final StringBuilder buf = new StringBuilder(100);
-		final char[] c = new char[1];
-		int read = 0;
-		while((read=rd.read(c))!=-1) {
-			buf.append(c[0]);
-			if (end.length() <= buf.length())
-				if (buf.substring(buf.length()-end.length()).equalsIgnoreCase(end)) {
+		readUntil(rd, end, throwEOF, buf);
+		if (buf.length()==0) return null;
+		return buf.toString();
+	}
+	/** Reads until <code>end</code> is found, ignoring case, or the end of
+	 * the stream is reached. The characters, <code>end</code> included, are
+	 * appended to <code>buf</code> without making a String.
+	 * @param rd
+	 * @param end
+	 * @param throwEOF Weather or not it should throw an EOFException if EOF is reached.
+	 * @param buf Where the characters go.
+	 * @return Number of characters read.
+	 * @throws IOException
+	 * @throws EOFException
+	 */
+	public static <T extends Appendable & CharSequence> int readUntil(final Reader rd, final String end, final boolean throwEOF, final T buf) throws IOException, EOFException {
+		int c, read = 0;
+		while ((c=rd.read())!=-1) {
+			buf.append((char)c);
+			read++;
+			if (end.length() <= read)
+				if (do_str.CI.endsWith(buf, end)) {
 					break;
 				}
 		}
-		if (read==-1 && throwEOF) throw new EOFException("End of file reached before '"+end+"' was found.");
-		if (buf.length()==0) return null;
-		return buf.toString();
+		if (c==-1 && throwEOF) throw new EOFException("End of file reached before '"+end+"' was found.");
+		return read;
 	}
 	/** Reads until <code>end</code> is found or the end of the stream is reached.
 	 * @param rd
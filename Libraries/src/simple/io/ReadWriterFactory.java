@@ -28,6 +28,15 @@ public final class ReadWriterFactory {
 	public static BufferedReader getBufferedReader(final File file) throws FileNotFoundException {
 		return new BufferedReader(new FileReader(file));
 	}
+	/**
+	 * @param file
+	 * @param size Size of the buffer in chars.
+	 * @return a FileReader wrapped in a BufferedReader
+	 * @throws FileNotFoundException
+	 */
+	public static BufferedReader getBufferedReader(final File file, final int size) throws FileNotFoundException {
+		return new BufferedReader(new FileReader(file), size);
+	}
 	/**
 	 * Wraps a Reader in a BufferedReader.
 	 * @param rd
@@ -127,6 +136,15 @@ public final class ReadWriterFactory {
 	public static BufferedWriter getBufferedWriter(final File file) throws IOException {
 		return new BufferedWriter(new FileWriter(file));
 	}
+	/**
+	 * @param file
+	 * @param size Size of the buffer in chars.
+	 * @return a FileWriter wrapped in a BufferedWriter
+	 * @throws IOException
+	 */
+	public static BufferedWriter getBufferedWriter(final File file, final int size) throws IOException {
+		return new BufferedWriter(new FileWriter(file), size);
+	}
 	/**
 	 * Wraps a Writer in a BufferedWriter.
 	 * @param wr
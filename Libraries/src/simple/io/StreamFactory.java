@@ -27,6 +27,15 @@ public class StreamFactory {
 	public static BufferedInputStream getBufferedInputStream(final File file) throws FileNotFoundException {
 		return new BufferedInputStream(new FileInputStream(file));
 	}
+	/**
+	 * @param file
+	 * @param size Size of the buffer in bytes.
+	 * @return a FileInputStream wrapped in a BufferedInputStream
+	 * @throws FileNotFoundException
+	 */
+	public static BufferedInputStream getBufferedInputStream(final File file, final int size) throws FileNotFoundException {
+		return new BufferedInputStream(new FileInputStream(file), size);
+	}
 	/**
 	 * Takes an InputStream and wraps it in a BufferedInputStream.
 	 * @param in
@@ -78,6 +87,16 @@ public class StreamFactory {
 	public static BufferedOutputStream getBufferedOutputStream(final File file,boolean append) throws FileNotFoundException {
 		return new BufferedOutputStream(new FileOutputStream(file,append));
 	}
+	/**
+	 * @param file
+	 * @param append
+	 * @param size Size of the buffer in bytes.
+	 * @return A FileOutputStream wrapped in a BufferedOutputStream.
+	 * @throws FileNotFoundException If the file is a directory or if it cannot be created if it does not exist.
+	 */
+	public static BufferedOutputStream getBufferedOutputStream(final File file, final boolean append, final int size) throws FileNotFoundException {
+		return new BufferedOutputStream(new FileOutputStream(file,append), size);
+	}
 	/**
 	 * Wraps an OutputStream in a BufferedOutputStream.
 	 * @param out
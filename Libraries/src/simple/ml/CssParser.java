@@ -10,6 +10,9 @@ import java.text.ParseException;
 import simple.io.DoubleParsePosition;
 import simple.io.RWUtil;
 import simple.io.ReadWriterFactory;
+import simple.util.CharBuilder;
+import simple.util.CharClass;
+import simple.util.CharSlice;
 import simple.util.do_str;
 import simple.util.logging.Log;
 import simple.util.logging.LogFactory;
@@ -22,6 +25,10 @@ import simple.util.logging.LogFactory;
  */
 public class CssParser{
 	protected static final Log log = LogFactory.getLogFor(CssParser.class);
+	/** Ends an attribute name. */
+	private static final CharClass NAME_END = new CharClass("= ");
+	/** Ends an unquoted attribute value. */
+	private static final CharClass VALUE_END = new CharClass(" >");
 	/** See {@link #parse(CharSequence, ParserConstants)} for important notes.
 	 * @param src The text.
 	 * @return A {@link simple.ml.Page Page} object that represents the source.
@@ -39,17 +46,23 @@ public class CssParser{
 		return parse(in, new ParserConstants());
 	}
 	public static Page parse(final Reader in, final ParserConstants pconst) throws IOException, ParseException {
-		final BufferedReader bin = ReadWriterFactory.getBufferedReader(in);
+		final CharBuilder buf = CharBuilder.acquire();
+		try {
+			return parse(ReadWriterFactory.getBufferedReader(in), pconst, buf);
+		} finally {
+			CharBuilder.release(buf);
+		}
+	}
+	/** Tokens are looked at as slices of <code>buf</code>, only text kept in the page is copied. */
+	private static Page parse(final BufferedReader bin, final ParserConstants pconst, final CharBuilder buf) throws IOException, ParseException {
 		final Page page = new Page();
 		final DoubleParsePosition pos = new DoubleParsePosition();
 		Tag cur = null;//tag currently adding to. defaults to page if cur==null
 		Tag tag = null;//tag currently creating
-		final StringBuilder buf = new StringBuilder(500);
 		char c;
 		int retc;
 		//int index = 0;
 		boolean dquote = false, squote = false;
-		String tmp;
 		while (true) {
 			pos.reset();
 			//log.debug("---- LOOP ----");
@@ -66,7 +79,7 @@ public class CssParser{
 				c = buf.charAt(0);
 			}
 			if (c!='<') {
-				buf.append(RWUtil.readUntil(bin, '<'));
+				RWUtil.readUntil(bin, '<', buf);
 				if (buf.charAt(buf.length()-1)=='<') {
 					buf.deleteCharAt(buf.length()-1);
 				}
@@ -81,7 +94,7 @@ public class CssParser{
 				buf.append('<');
 				continue;
 			}
-			buf.append(RWUtil.readUntil(bin, '>'));
+			RWUtil.readUntil(bin, '>', buf);
 			if(buf.charAt(1)=='<' || do_str.isWhiteSpace(buf.charAt(1))){
 				//un-escaped <
 				int index=1;
@@ -100,9 +113,9 @@ public class CssParser{
 				}
 			}
 			//log.warning(buf);
-			if (buf.length()>3 && buf.substring(0, 4).equals("<!--")) {
-				if (!buf.substring(buf.length()-3).equals("-->")) {
-					buf.append(RWUtil.readUntil(bin,"-->"));
+			if (buf.length()>3 && do_str.startsWith(buf, "<!--")) {
+				if (!do_str.endsWith(buf, "-->")) {
+					RWUtil.readUntil(bin, "-->", false, buf);
 				}
 				log.debug("HTML comment");
 				if (cur==null) {
@@ -117,10 +130,9 @@ public class CssParser{
 			if (buf.charAt(1)=='!'){
 				// <!DOCTYPE
 				if (buf.length()>9){
-					final String ttmp=buf.substring(0,9);
-					if(ttmp.equals("<!CDATA[[")){//NOTE: SGML CDATA
+					if(do_str.startsWith(buf, "<!CDATA[[")){//NOTE: SGML CDATA
 						if (!buf.substring(buf.length()-4).equals("]]>")) {
-							buf.append(RWUtil.readUntil(bin,"]]>"));
+							RWUtil.readUntil(bin, "]]>", false, buf);
 						}
 						log.debug("SGML CDATA");
 						if (cur==null) {
@@ -130,7 +142,7 @@ public class CssParser{
 						}
 						buf.setLength(0);
 						continue;
-					}else if(ttmp.toUpperCase().equals("<!DOCTYPE")){
+					}else if(do_str.CI.startsWith(buf, "<!DOCTYPE", 0)){
 						log.debug("DOCTYPE");
 						page.addTag(new Tag(Tag.META,buf.toString(),true), null);
 						buf.setLength(0);
@@ -140,19 +152,19 @@ public class CssParser{
 			}
 			if (buf.charAt(pos.start+1)=='/') {//NOTE: found an end tag
 				log.debug(pos);
-				pos.end = do_str.indexOfAny(buf, ">", pos.start);
+				pos.end = do_str.indexOf(buf, '>', pos.start);
 				if (!pos.validEnd() || do_str.isWhiteSpace(buf.charAt(pos.end)))
 					throw new ParseException("Missing matching '>' for '<' at index "+pos.start+" of "+buf, pos.start);
-				final String name = buf.substring(pos.start+2, pos.end).trim();
+				final CharSlice name = buf.slice(pos.start+2, pos.end).trim();
 				log.debug("End tag", "'"+name+"'|"+pos);
 				if (cur != null) {
 					//end the tags whose end tags are optional
-					while (!cur.getName().equals(name) && pconst.isOptionalEnder(cur.getName())) {
+					while (!cur.getName().contentEqualsIgnoreCase(name) && pconst.isOptionalEnder(cur.getName())) {
 						log.debug("optional ender","ended: '"+cur.getName()+"'");
 						cur = (Tag) cur.getParent();
 					}
 					log.debug("current: '"+cur.getName()+"'");
-					if (cur.getName().equals(name)) {
+					if (cur.getName().contentEqualsIgnoreCase(name)) {
 						cur = (Tag) cur.getParent();
 						log.debug("ended: '"+name+"' current: '"+(cur!=null?cur.getName():"[NONE]")+"'");
 					} else {
@@ -160,7 +172,7 @@ public class CssParser{
 						boolean found = false;
 						while (tag.hasParent()) {//check the upper tags(cause: self-closing tag without special closure or empty body followed by closing tag)
 							tag = (Tag) tag.getParent();
-							if (tag.getName().equals(name)) {
+							if (tag.getName().contentEqualsIgnoreCase(name)) {
 								found = true;
 								do {
 									log.warning("lazy self-closing tag found: '"+cur.getName()+"'");
@@ -208,39 +220,27 @@ public class CssParser{
 					//log.debug("possible unquoted param skipping whitespace...");
 					while(do_str.isWhiteSpace(buf.charAt(pos.end))){
 						pos.end++;
-						if (pos.end == buf.length()) {
-							tmp = RWUtil.readUntil(bin, '>');
-							if (tmp.isEmpty()) {
-								log.debug(buf);
-								throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
-							}
-							buf.append(tmp);
+						if (pos.end == buf.length() && RWUtil.readUntil(bin, '>', buf)==0) {
+							log.debug(buf);
+							throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
 						}
 					}
 					if(buf.charAt(pos.end)=='\'' || buf.charAt(pos.end)=='"')continue;
 					//log.debug("unquoted param");
 					while(!do_str.isWhiteSpace(buf.charAt(pos.end)) && buf.charAt(pos.end)!='>'){
 						pos.end++;
-						if (pos.end == buf.length()) {
-							tmp = RWUtil.readUntil(bin, '>');
-							if (tmp.isEmpty()) {
-								log.debug(buf);
-								throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
-							}
-							buf.append(tmp);
+						if (pos.end == buf.length() && RWUtil.readUntil(bin, '>', buf)==0) {
+							log.debug(buf);
+							throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
 						}
 					}
 					//log.debug("unquoted param end");
 					if(buf.charAt(pos.end)=='>')break;
 				}
 				pos.end++;
-				if (pos.end == buf.length()) {
-					tmp = RWUtil.readUntil(bin, '>');
-					if (tmp.isEmpty()) {
-						log.debug(buf);
-						throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
-					}
-					buf.append(tmp);
+				if (pos.end == buf.length() && RWUtil.readUntil(bin, '>', buf)==0) {
+					log.debug(buf);
+					throw new ParseException(pos+" Reached end of file while parsing. Cause: "+buf, pos.start);
 				}
 			}
 			}catch(final StringIndexOutOfBoundsException e){
@@ -266,12 +266,12 @@ public class CssParser{
 			if (pconst.isPcdataTag(tag.getName())) {//check for tags filled with gibberish to us
 				try {
 					buf.setLength(0);
-					buf.append(RWUtil.readUntil(bin, "</"+tag.getName()+">", true));
+					RWUtil.readUntil(bin, "</"+tag.getName()+">", true, buf);
 				} catch (final EOFException e) {
 					throw new ParseException("Missing end tag for PCDATA tag "+tag.getName()+" found at "+pos,pos.start);
 				}
 				try{
-					tag.addChild(new Tag(Tag.CDATA, buf.substring(0, Math.max(do_str.CI.lastIndexOf(buf,"</"+tag.getName()),0)).trim(), true));
+					tag.addChild(new Tag(Tag.CDATA, buf.slice(0, Math.max(do_str.CI.lastIndexOf(buf,"</"+tag.getName()),0)).trim().toString(), true));
 				}catch(final StringIndexOutOfBoundsException e){
 					final StringIndexOutOfBoundsException e2= new StringIndexOutOfBoundsException(buf.toString());
 					e2.initCause(e);
@@ -333,22 +333,22 @@ public class CssParser{
 		pos.end = do_str.indexOf(src, ' ', pos.start, limits.end);
 		if (!pos.validEnd()) {//no space so no attributes.
 			if (tag.isSelfClosing()) {
-				tag.setName(src.subSequence(limits.start+1, limits.end-1).toString());
+				tag.setName(src.subSequence(limits.start+1, limits.end-1));
 			} else {
-				tag.setName(src.subSequence(limits.start+1, limits.end).toString());
+				tag.setName(src.subSequence(limits.start+1, limits.end));
 			}
 			return tag;
 		}
-		tag.setName(src.subSequence(limits.start+1, pos.end).toString());
-		String attrn = "";
+		tag.setName(src.subSequence(limits.start+1, pos.end));
+		CharSequence attrn = "";
 		while (true) {
 			pos.start = pos.end+1;
 			pos.start = do_str.skipWhitespace(src, pos.start);
-			pos.end = do_str.indexOfAny(src, "= ", pos.start, limits.end);
+			pos.end = NAME_END.indexOfAny(src, pos.start, limits.end+1);
 			if (!pos.validEnd()) {
 				break;
 			}
-			attrn = src.subSequence(pos.start, pos.end).toString();
+			attrn = src.subSequence(pos.start, pos.end);
 			try {
 				if (src.charAt(pos.end)=='=') {//distinguish between name=value and name
 					pos.start = pos.end = pos.end+1;
@@ -365,7 +365,7 @@ public class CssParser{
 						if (!pos.validEnd()) throw new ParseException(pos+" Missing matching double quote in:'"+src.subSequence(limits.start, limits.end+1)+"' for "+attrn, pos.start);
 						pos.start++;
 					} else {
-						pos.end = do_str.indexOfAny(src, " >", pos.start, limits.end);// space, or >
+						pos.end = VALUE_END.indexOfAny(src, pos.start, limits.end+1);// space, or >
 						if (!pos.validEnd()) throw new ParseException(pos+" Missing matching end of tag('>') in:'"+src.subSequence(limits.start, limits.end+1)+"' for "+attrn, pos.start);
 						if(src.charAt(pos.end)=='>')
 							if(src.charAt(pos.end-1)=='/'){
@@ -376,7 +376,7 @@ public class CssParser{
 					//log.debug(pos+attrn+"="+src.subSequence(pos.start, pos.end));
 					tag.setProperty(attrn, src.subSequence(pos.start, pos.end).toString());
 				} else {//attribute with no value
-					tag.setProperty(attrn, attrn);
+					tag.setProperty(attrn, attrn.toString());
 					//log.debug(pos+attrn+"="+src.subSequence(pos.start, pos.end));
 				}
 			} catch (final StringIndexOutOfBoundsException e) {
@@ -27,7 +27,7 @@ public final class ParserConstants {
 	private final HashSet<CIString> SELFCLOSER = new HashSet<CIString>();
 	private final HashSet<CIString> OPTIONALEND = new HashSet<CIString>();
 	private final MVHashtable<CIString, CIString> OPTIONALENDEND = new MVHashtable<CIString, CIString>();
-	private static final CIString TAGA = new CIString("tag");
+	private static final CIString TAGA = CIString.intern("tag");
 	private static final ParserConstants PCONST = new ParserConstants();
 	static {
 		PCONST.addSelfCloser("pcdata");
@@ -84,7 +84,7 @@ public final class ParserConstants {
 	 */
 	public void addOptionalEnder(final String tag) {
 		log.debug("Add Optional Ender",tag);
-		OPTIONALEND.add(new CIString(tag));
+		OPTIONALEND.add(CIString.intern(tag));
 	}
 	/**Adds this tag as a tag that will close the optional end tag when it opens.
 	 * For example an opening "li" tag will close the previous "li" tag.
@@ -102,27 +102,28 @@ public final class ParserConstants {
 	 */
 	public void addOptionalEnderEnd(final String otag, final String etag) {
 		log.debug("Add Option ender end",etag+" ends "+otag);
-		OPTIONALENDEND.add(new CIString(otag), new CIString(etag));
+		OPTIONALENDEND.add(CIString.intern(otag), CIString.intern(etag));
 	}
 	/**Defines this tag as never having content or sub-tags. Tags like "br" and "hr" belong here.
 	 * @param tag The tag name
 	 */
 	public void addSelfCloser(final String tag) {
 		log.debug("Add self closer",tag);
-		SELFCLOSER.add(new CIString(tag));
+		SELFCLOSER.add(CIString.intern(tag));
 	}
 	/**Sets this tag as only containing PCDATA. Tags like "style" and "script" belong here.
 	 * @param tag
 	 */
 	public void addPcdataTag(final String tag) {
 		log.debug("Add PCDATA tag",tag);
-		PCDATA.add(new CIString(tag));
+		PCDATA.add(CIString.intern(tag));
 	}
 	/**Checks to see if the end tag is optional for this tag.
 	 * @param tag the tag name
 	 * @return true if the end tag is optional for this tag.
 	 */
 	public boolean isOptionalEnder(final String tag) {
+		// not interned, the name can be anything parsed
 		return OPTIONALEND.contains(new CIString(tag));
 	}
 	/**Checks to see if the end tag is optional for this tag.
@@ -262,8 +262,19 @@ public final class Tag extends FullNode<String, CIString, String> implements Ite
 		return super.getProperty(new CIString(key));
 	}
 
+	/**
+	 * @param key Attribute name. Names are pooled, so a slice is only copied the first time.
+	 * @param value
+	 * @return The previous value.
+	 */
+	public String setProperty(final CharSequence key, final String value) {
+		return super.setProperty(CIString.intern(key), value);
+	}
+	/** Kept so callers compiled against the String version still link.
+	 * @see #setProperty(CharSequence, String)
+	 */
 	public String setProperty(final String key, final String value) {
-		return super.setProperty(new CIString(key), value);
+		return setProperty((CharSequence)key, value);
 	}
 
 	public String removeProperty(final String key) {
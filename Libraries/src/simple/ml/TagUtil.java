@@ -14,7 +14,7 @@ import simple.CIString;
  */
 public final class TagUtil{
 	public static final Tag findTagDeep(Tag parent, String tagname){
-		return findTagDeep(parent,new CIString(tagname));
+		return findTagDeep(parent,CIString.intern(tagname));
 	}
 	public static final Tag findTagDeep(Tag parent, CIString tagname){
 		Tag found=null;
@@ -43,6 +43,6 @@ public final class TagUtil{
 		return found;
 	}
 	public static final LinkedList<Tag> findTagsDeep(Tag parent, String tagname){
-		return findTagsDeep(parent,new CIString(tagname));
+		return findTagsDeep(parent,CIString.intern(tagname));
 	}
 }
@@ -12,41 +12,41 @@ import simple.CIString;
  */
 public interface HtmlConstants{
 	public static final CIString
-		PARAM_ID=new CIString("id"),
-		PARAM_HREF=new CIString("href"),
-		PARAM_NAME=new CIString("name"),
-		PARAM_STYLE=new CIString("style"),
-		PARAM_SRC=new CIString("src"),
-		PARAM_REL=new CIString("rel"),
-		PARAM_TYPE=new CIString("type"),
-		PARAM_CLASS=new CIString("class"),
-		PARAM_ONCLICK=new CIString("onclick"),
-		PARAM_ONMOUSEOUT=new CIString("onmouseout"),
-		PARAM_ONMOUSEOVER=new CIString("onmouseover"),
-		PARAM_CONTENT=new CIString("content"),
-		PARAM_VALUE=new CIString("value"),
-		//PARAM_=new CIString(""),
-		//TAG_=new CIString(""),
-		TAG_B=new CIString("b"),
-		TAG_I=new CIString("i"),
-		TAG_EM=new CIString("em"),
-		TAG_STRONG=new CIString("strong"),
-		TAG_INPUT=new CIString("input"),
-		TAG_SELECT=new CIString("select"),
-		TAG_FORM=new CIString("form"),
-		TAG_LI=new CIString("li"),
-		TAG_OL=new CIString("ol"),
-		TAG_UL=new CIString("ul"),
-		TAG_A=new CIString("a"),
-		TAG_DIV=new CIString("div"),
-		TAG_SCRIPT=new CIString("script"),
-		TAG_LINK=new CIString("link"),
-		TAG_META=new CIString("meta"),
-		TAG_TABLE=new CIString("table"),
-		TAG_TR=new CIString("tr"),
-		TAG_TD=new CIString("td"),
-		TAG_TH=new CIString("th"),
-		TAG_IMG=new CIString("img"),
-		TAG_SPAN=new CIString("span"),
-		TAG_P=new CIString("p");
+		PARAM_ID=CIString.intern("id"),
+		PARAM_HREF=CIString.intern("href"),
+		PARAM_NAME=CIString.intern("name"),
+		PARAM_STYLE=CIString.intern("style"),
+		PARAM_SRC=CIString.intern("src"),
+		PARAM_REL=CIString.intern("rel"),
+		PARAM_TYPE=CIString.intern("type"),
+		PARAM_CLASS=CIString.intern("class"),
+		PARAM_ONCLICK=CIString.intern("onclick"),
+		PARAM_ONMOUSEOUT=CIString.intern("onmouseout"),
+		PARAM_ONMOUSEOVER=CIString.intern("onmouseover"),
+		PARAM_CONTENT=CIString.intern("content"),
+		PARAM_VALUE=CIString.intern("value"),
+		//PARAM_=CIString.intern(""),
+		//TAG_=CIString.intern(""),
+		TAG_B=CIString.intern("b"),
+		TAG_I=CIString.intern("i"),
+		TAG_EM=CIString.intern("em"),
+		TAG_STRONG=CIString.intern("strong"),
+		TAG_INPUT=CIString.intern("input"),
+		TAG_SELECT=CIString.intern("select"),
+		TAG_FORM=CIString.intern("form"),
+		TAG_LI=CIString.intern("li"),
+		TAG_OL=CIString.intern("ol"),
+		TAG_UL=CIString.intern("ul"),
+		TAG_A=CIString.intern("a"),
+		TAG_DIV=CIString.intern("div"),
+		TAG_SCRIPT=CIString.intern("script"),
+		TAG_LINK=CIString.intern("link"),
+		TAG_META=CIString.intern("meta"),
+		TAG_TABLE=CIString.intern("table"),
+		TAG_TR=CIString.intern("tr"),
+		TAG_TD=CIString.intern("td"),
+		TAG_TH=CIString.intern("th"),
+		TAG_IMG=CIString.intern("img"),
+		TAG_SPAN=CIString.intern("span"),
+		TAG_P=CIString.intern("p");
 }
@@ -17,6 +17,7 @@ import java.util.Set;
 
 import simple.CIString;
 import simple.io.DoubleParsePosition;
+import simple.util.CharClass;
 import simple.util.do_str;
 import simple.util.logging.Log;
 import simple.util.logging.LogFactory;
@@ -46,7 +47,10 @@ public final class Uri {
 	 * sub-delimiters  = "!" / "$" / "&" / "'" / "(" / ")"
 	 *         / "*" / "+" / "," / ";" / "="
 	 */
-	private static final String reserved="&=?:/+#[]@!$'()*,;` ";
+	private static final CharClass RESERVED=new CharClass("&=?:/+#[]@!$'()*,;` ");
+	private static final CharClass QUERY_FRAGMENT=new CharClass("?#"),
+	PORT_PATH=new CharClass(":/"),
+	PATH_QUERY_FRAGMENT=new CharClass("/?#");
 	/** The scheme used.<br>
 	 *  http<br>
 	 *  javascript
@@ -124,7 +128,7 @@ public final class Uri {
 		if(uri.startsWith("//") && !defaultScheme.isEmpty()){
 			uri=defaultScheme+":"+uri;
 		}
-		hash = new CIString(uri).hashCode();
+		hash = CIString.hashOf(uri);
 		originalUri = uri;
 		final DoubleParsePosition pos = new DoubleParsePosition();
 		final int frag_index = do_str.defaultValue(uri.lastIndexOf('#'), uri.length());
@@ -168,7 +172,7 @@ public final class Uri {
 				file = "";
 				port = -1;
 				//XXX: path query fragment
-				pos.end = do_str.indexOfAny(uri, "?#");//query, fragment
+				pos.end = QUERY_FRAGMENT.indexOfAny(uri, 0);//query, fragment
 				if (pos.validEnd()) {//query or fragment found(pos.validEnd()==true)
 					if(uri.charAt(pos.start)!='/')
 						path = "/"+uri.substring(pos.start, pos.end);
@@ -222,7 +226,7 @@ public final class Uri {
 				if(pos.end<uri.length())
 					pos.decEnd();
 			} else {//ipv4 or hostname
-				pos.end = do_str.indexOfAny(uri,":/",pos.start);
+				pos.end = PORT_PATH.indexOfAny(uri, pos.start);
 						//uri.indexOf('/', pos.start);//port,path,query,fragment
 
 				if (scheme.isEmpty()) {//no host set
@@ -270,7 +274,7 @@ public final class Uri {
 			if (uri.charAt(pos.start)==':') {//NOTE: found port
 				//log.debug("port");
 				pos.incStart();
-				pos.end = do_str.indexOfAny(uri, "/?#", pos.start);//path,query,fragment
+				pos.end = PATH_QUERY_FRAGMENT.indexOfAny(uri, pos.start);//path,query,fragment
 				if (!pos.validEnd()) {
 					//log.debug("Nothing else. done");
 					port = Integer.parseInt(uri.substring(pos.start));
@@ -289,7 +293,7 @@ public final class Uri {
 			}
 			//XXX: path file query fragment
 			if (uri.charAt(pos.start)!='?' && uri.charAt(pos.start)!='#') {//NOTE:check for path
-				pos.end = do_str.indexOfAny(uri, "?#", pos.start);
+				pos.end = QUERY_FRAGMENT.indexOfAny(uri, pos.start);
 				pos.markEnd();
 				if (!pos.validEnd()) {//no query or fragment
 					pos.end = uri.lastIndexOf('/');
@@ -686,7 +690,6 @@ public final class Uri {
 	}
 	public static final String escapePath(final String path){
 		final StringBuilder ret=new StringBuilder(path.length()*2);
-		int ind=0;
 		char chr=0;
 		for(int i=0;i<path.length();i++){
 			chr=path.charAt(i);
@@ -702,8 +705,7 @@ public final class Uri {
 					}else{ret.append('%');ret.append(Integer.toHexString('%'));}
 				}else{ret.append('%');ret.append(Integer.toHexString('%'));}
 			}else{
-				ind=reserved.indexOf(chr);
-				if(ind!=-1){
+				if(RESERVED.contains(chr)){
 					ret.append('%');
 					ret.append(Integer.toHexString(path.charAt(i)));
 				}else{ret.append(path.charAt(i));}
@@ -719,7 +721,6 @@ public final class Uri {
 	 */
 	public static final String escapeSmart(final String part){
 		final StringBuilder ret=new StringBuilder(part.length()*2);
-		int ind=0;
 		char chr=0;
 		for(int i=0;i<part.length();i++){
 			chr=part.charAt(i);
@@ -733,8 +734,7 @@ public final class Uri {
 					}else{ret.append('%');ret.append(Integer.toHexString('%'));}
 				}else{ret.append('%');ret.append(Integer.toHexString('%'));}
 			}else{
-				ind=reserved.indexOf(chr);
-				if(ind!=-1){
+				if(RESERVED.contains(chr)){
 					ret.append('%');
 					ret.append(Integer.toHexString(part.charAt(i)));
 				}else{ret.append(part.charAt(i));}
@@ -748,12 +748,10 @@ public final class Uri {
 	 */
 	public static final String escape(final String part){
 		final StringBuilder ret=new StringBuilder(part.length()*2);
-		int ind=0;
 		char chr=0;
 		for(int i=0;i<part.length();i++){
 			chr=part.charAt(i);
-			ind=reserved.indexOf(chr);
-			if(ind!=-1){
+			if(RESERVED.contains(chr)){
 				ret.append('%');
 				ret.append(Integer.toHexString(chr));
 			}else{ret.append(part.charAt(chr));}
@@ -0,0 +1,352 @@
+/**
+ *
+ */
+package simple.net.http;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHeader;
+
+/**A response kept by an {@link HttpCache}: its status, headers, the
+ * request headers it varies on and when it was fetched. The body is kept
+ * apart, in memory or in a file of the {@link DiskCache}.<br>
+ * Freshness is worked out as RFC 7234 has it for a private cache.
+ * Immutable, a revalidation makes a new entry.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+final class CacheEntry {
+	private static final Charset UTF8=Charset.forName("UTF-8");
+	/** Longest heuristic freshness, for responses with only a Last-Modified. */
+	private static final long MAX_HEURISTIC=24*60*60*1000L;
+	/** Headers about the message and not the resource, not kept or updated. */
+	private static final String[] UNKEPT={"Connection","Keep-Alive","Transfer-Encoding","Content-Encoding",
+		"Content-Length","Proxy-Authenticate","Trailer","Upgrade","Age","Warning"};
+
+	final String key;
+	final int status;
+	final String reason;
+	/** Response headers without those in {@link #UNKEPT}. */
+	final Header[] headers;
+	/** Names, lower case, and values of the request headers the response varies on. Null values for missing ones. */
+	final String[] vary;
+	final long requestTime;
+	final long responseTime;
+	/** Names the body's file in the {@link DiskCache}, 0 if it isn't on disk. */
+	final long bodyId;
+	final long bodyLength;
+	// parsed from the headers
+	private final long date;
+	private final long ageValue;
+	private final long maxAge;
+	private final long expires;
+	private final long lastModified;
+	private final String etag;
+	private final String lastModifiedValue;
+	private final boolean noCache;
+	private final boolean mustRevalidate;
+	private final long staleWhileRevalidate;
+
+	/**
+	 * @param key
+	 * @param status
+	 * @param reason
+	 * @param headers Response headers, those about the message are dropped.
+	 * @param vary
+	 * @param requestTime When the request was sent.
+	 * @param responseTime When the response arrived.
+	 * @param bodyId
+	 * @param bodyLength
+	 */
+	CacheEntry(final String key, final int status, final String reason, final Header[] headers, final String[] vary,
+			final long requestTime, final long responseTime, final long bodyId, final long bodyLength) {
+		this.key=key;
+		this.status=status;
+		this.reason=reason;
+		this.headers=kept(headers);
+		this.vary=vary;
+		this.requestTime=requestTime;
+		this.responseTime=responseTime;
+		this.bodyId=bodyId;
+		this.bodyLength=bodyLength;
+		final Date d=date("Date");
+		date=(d==null) ? responseTime : d.getTime();
+		long age=0;
+		final Header a=first(headers, "Age");
+		if (a!=null) {
+			try {
+				age=Math.max(0, Long.parseLong(a.getValue().trim()));
+			} catch (final NumberFormatException e) {}
+		}
+		ageValue=age*1000;
+		final Date e=date("Expires");
+		// an Expires that won't parse is in the past
+		expires=(e!=null) ? e.getTime() : (first(this.headers, "Expires")!=null ? 0 : -1);
+		final Date lm=date("Last-Modified");
+		lastModified=(lm==null) ? -1 : lm.getTime();
+		final Header lmh=first(this.headers, "Last-Modified");
+		lastModifiedValue=(lmh==null) ? null : lmh.getValue();
+		final Header et=first(this.headers, "ETag");
+		etag=(et==null) ? null : et.getValue();
+		long ma=-1, swr=0;
+		boolean nc=false, mr=false;
+		for (final Header h:this.headers) {
+			if (!h.getName().equalsIgnoreCase("Cache-Control"))
+				continue;
+			for (final HeaderElement el:h.getElements()) {
+				final String name=el.getName();
+				if (name.equalsIgnoreCase("max-age"))
+					ma=seconds(el.getValue(), 0);
+				else if (name.equalsIgnoreCase("no-cache"))
+					nc=true;
+				else if (name.equalsIgnoreCase("must-revalidate") || name.equalsIgnoreCase("proxy-revalidate"))
+					mr=true;
+				else if (name.equalsIgnoreCase("stale-while-revalidate"))
+					swr=seconds(el.getValue(), 0);
+			}
+		}
+		for (final Header h:this.headers) {
+			if (h.getName().equalsIgnoreCase("Pragma") && h.getValue().toLowerCase().contains("no-cache")
+					&& first(this.headers, "Cache-Control")==null)
+				nc=true;
+		}
+		maxAge=ma;
+		noCache=nc;
+		mustRevalidate=mr;
+		staleWhileRevalidate=swr;
+	}
+	private static Header[] kept(final Header[] headers) {
+		final ArrayList<Header> ret=new ArrayList<Header>(headers.length);
+		outer:
+		for (final Header h:headers) {
+			for (final String name:UNKEPT)
+				if (name.equalsIgnoreCase(h.getName()))
+					continue outer;
+			ret.add(h);
+		}
+		return ret.toArray(new Header[ret.size()]);
+	}
+	static Header first(final Header[] headers, final String name) {
+		for (final Header h:headers)
+			if (h.getName().equalsIgnoreCase(name))
+				return h;
+		return null;
+	}
+	private Date date(final String name) {
+		final Header h=first(headers, name);
+		return (h==null) ? null : DateUtils.parseDate(h.getValue());
+	}
+	/**
+	 * @param value Seconds.
+	 * @param def
+	 * @return Milliseconds or <var>def</var> if <var>value</var> isn't a number.
+	 */
+	static long seconds(final String value, final long def) {
+		if (value==null)
+			return def;
+		try {
+			return Math.max(0, Long.parseLong(value.trim()))*1000;
+		} catch (final NumberFormatException e) {
+			return def;
+		}
+	}
+	/**
+	 * @param now
+	 * @return How old the response is, counting the time it spent in caches
+	 * before it got here.
+	 */
+	long age(final long now) {
+		final long apparent=Math.max(0, responseTime-date);
+		final long corrected=Math.max(apparent, ageValue)+(responseTime-requestTime);
+		return corrected+now-responseTime;
+	}
+	/**
+	 * @return How long from when it was made the response is fresh.
+	 */
+	long lifetime() {
+		if (noCache)
+			return 0;
+		if (maxAge>=0)
+			return maxAge;
+		if (expires>=0)
+			return Math.max(0, expires-date);
+		if (lastModified>=0)
+			return Math.min(MAX_HEURISTIC, Math.max(0, (date-lastModified)/10));
+		return 0;
+	}
+	/**
+	 * @return How long after it goes stale the response may be served while
+	 * it is revalidated, 0 if it has to be revalidated first.
+	 */
+	long staleWhileRevalidate() {
+		return mustRevalidate ? 0 : staleWhileRevalidate;
+	}
+	/**
+	 * @return True if the response has a validator to revalidate it with.
+	 */
+	boolean isValidatable() {
+		return etag!=null || lastModifiedValue!=null;
+	}
+	/**
+	 * @return If-None-Match and If-Modified-Since for the validators the response has.
+	 */
+	Header[] conditionalHeaders() {
+		final ArrayList<Header> ret=new ArrayList<Header>(2);
+		if (etag!=null)
+			ret.add(new BasicHeader("If-None-Match", etag));
+		if (lastModifiedValue!=null)
+			ret.add(new BasicHeader("If-Modified-Since", lastModifiedValue));
+		return ret.toArray(new Header[ret.size()]);
+	}
+	/**
+	 * @param requestHeaders
+	 * @return True if <var>requestHeaders</var> match those the response varies on.
+	 */
+	boolean matches(final Header[] requestHeaders) {
+		for (int i=0;i<vary.length;i+=2) {
+			final String value=joined(requestHeaders, vary[i]);
+			if (value==null ? vary[i+1]!=null : !value.equals(vary[i+1]))
+				return false;
+		}
+		return true;
+	}
+	/**
+	 * @param response
+	 * @param requestHeaders
+	 * @return The names of the request headers <var>response</var> varies on,
+	 * each followed by its value in <var>requestHeaders</var>, or null if it
+	 * varies on everything.
+	 */
+	static String[] vary(final HttpResponse response, final Header[] requestHeaders) {
+		final ArrayList<String> ret=new ArrayList<String>();
+		for (final Header h:response.getHeaders("Vary")) {
+			for (final HeaderElement el:h.getElements()) {
+				final String name=el.getName().trim().toLowerCase();
+				if (name.equals("*"))
+					return null;
+				if (!name.isEmpty() && !ret.contains(name)) {
+					ret.add(name);
+					ret.add(joined(requestHeaders, name));
+				}
+			}
+		}
+		return ret.toArray(new String[ret.size()]);
+	}
+	/** @return The values of the headers named <var>name</var> joined by commas, or null. */
+	private static String joined(final Header[] headers, final String name) {
+		String ret=null;
+		for (final Header h:headers) {
+			if (h.getName().equalsIgnoreCase(name))
+				ret=(ret==null) ? h.getValue() : ret+","+h.getValue();
+		}
+		return ret;
+	}
+	/**
+	 * @param notModified The 304 response to a revalidation.
+	 * @param requestTime When the revalidation was sent.
+	 * @param responseTime When it came back.
+	 * @return This entry with the headers of <var>notModified</var> replacing its own.
+	 */
+	CacheEntry updated(final HttpResponse notModified, final long requestTime, final long responseTime) {
+		final Header[] fresh=kept(notModified.getAllHeaders());
+		final ArrayList<Header> merged=new ArrayList<Header>(headers.length+fresh.length);
+		for (final Header h:headers)
+			if (first(fresh, h.getName())==null)
+				merged.add(h);
+		for (final Header h:fresh)
+			merged.add(h);
+		// the Age of the 304 is the one that counts now
+		final Header age=notModified.getFirstHeader("Age");
+		if (age!=null)
+			merged.add(age);
+		return new CacheEntry(key, status, reason, merged.toArray(new Header[merged.size()]), vary,
+				requestTime, responseTime, bodyId, bodyLength);
+	}
+	/**
+	 * @return This entry with its body in the file named by <var>bodyId</var>.
+	 */
+	CacheEntry withBody(final long bodyId) {
+		return new CacheEntry(key, status, reason, withAge(), vary, requestTime, responseTime, bodyId, bodyLength);
+	}
+	/** @return The headers with the Age that was dropped from them put back. */
+	private Header[] withAge() {
+		if (ageValue==0)
+			return headers;
+		final Header[] ret=new Header[headers.length+1];
+		System.arraycopy(headers, 0, ret, 0, headers.length);
+		ret[headers.length]=new BasicHeader("Age", Long.toString(ageValue/1000));
+		return ret;
+	}
+	/**
+	 * @return Rough bytes of memory the entry takes, without the body.
+	 */
+	long size() {
+		long ret=64+key.length()*2;
+		for (final Header h:headers)
+			ret+=48+(h.getName().length()+h.getValue().length())*2;
+		return ret;
+	}
+//	========== start serialization ===========
+	void write(final DataOutput out) throws IOException {
+		writeString(out, key);
+		out.writeInt(status);
+		writeString(out, reason);
+		final Header[] all=withAge();
+		out.writeInt(all.length);
+		for (final Header h:all) {
+			writeString(out, h.getName());
+			writeString(out, h.getValue());
+		}
+		out.writeInt(vary.length);
+		for (final String v:vary)
+			writeString(out, v);
+		out.writeLong(requestTime);
+		out.writeLong(responseTime);
+		out.writeLong(bodyId);
+		out.writeLong(bodyLength);
+	}
+	static CacheEntry read(final DataInput in) throws IOException {
+		final String key=readString(in);
+		final int status=in.readInt();
+		final String reason=readString(in);
+		final Header[] headers=new Header[in.readInt()];
+		for (int i=0;i<headers.length;i++)
+			headers[i]=new BasicHeader(readString(in), readString(in));
+		final String[] vary=new String[in.readInt()];
+		for (int i=0;i<vary.length;i++)
+			vary[i]=readString(in);
+		return new CacheEntry(key, status, reason, headers, vary, in.readLong(), in.readLong(), in.readLong(), in.readLong());
+	}
+	/** Strings as a length and UTF-8, -1 for null. Unlike writeUTF there's no 64K limit. */
+	private static void writeString(final DataOutput out, final String s) throws IOException {
+		if (s==null) {
+			out.writeInt(-1);
+			return;
+		}
+		final byte[] b=s.getBytes(UTF8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+	private static String readString(final DataInput in) throws IOException {
+		final int len=in.readInt();
+		if (len<0)
+			return null;
+		final byte[] b=new byte[len];
+		in.readFully(b);
+		return new String(b, UTF8);
+	}
+//	========== end serialization ===========
+	@Override
+	public String toString() {
+		return key+" "+status+" "+reason+" age "+age(System.currentTimeMillis())+" of "+lifetime();
+	}
+}
@@ -3,16 +3,33 @@
  */
 package simple.net.http;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
@@ -28,46 +45,93 @@ import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.HttpStatus;
 import org.apache.http.NoHttpResponseException;
+import org.apache.http.ProtocolException;
+import org.apache.http.client.CircularRedirectException;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.RedirectException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.util.EntityUtils;
 
 import simple.io.FileUtil;
 import simple.net.Uri;
 import simple.net.http.clientparams.ClientParam;
 import simple.util.logging.Log;
 import simple.util.logging.LogFactory;
+import simple.util.logging.LogLevel;
 /**
+ * HTTP client that keeps cookies, asks for compressed responses and follows
+ * redirects.<br>
+ * Redirects are followed in a loop up to {@link ClientConfig#getMaxRedirects()}
+ * hops, failing on a loop. Give the request an HttpContext to get the
+ * {@link #REDIRECT_CHAIN} it went through.<br>
+ * GETs go through the {@link HttpCache} of the config if it has one.<br>
+ * Connections are pooled and reused between requests, see {@link ClientConfig}
+ * for the limits and timeouts. {@link #getPoolStats()} and
+ * {@link #getRouteStats()} show how full the pool is. Close the client when
+ * done with it to close its connections and stop its eviction thread.<br>
+ * The async requests, {@link #getAsync(Uri, Header[])} and the like, return
+ * at once and run on the executor of the {@link ClientConfig}, as many at a
+ * time as it allows overall and to each host. Cancelling one aborts its
+ * request, which closes the connection it had and returns it to the pool.
  * <hr>
  * <br>
  * Created: Oct 16, 2011
  *
  * @author Kenneth Pierce
  */
-public final class Client{
+public final class Client implements Closeable{
 	private static final Log log=LogFactory.getLogFor(Client.class);
 	// Needed anymore?
 	//private final HashMap<String,DefaultHttpClient> cache=new HashMap<String,DefaultHttpClient>();
 	private BasicCookieStore cookies=new BasicCookieStore();
 	private final HttpHost proxy;
 	private final CloseableHttpClient client;
+	private final PoolingHttpClientConnectionManager connections;
+	/** Closes expired and idle connections, null if the config turned it off. */
+	private final IdleConnectionEvictor evictor;
+	/** Thread pool made for the async requests, null if the config gave one. */
+	private final ExecutorService asyncPool;
+	private final RequestLimiter limiter;
+	private final int maxRedirects;
+	/** Null for none. */
+	private final HttpCache cache;
 	public static final Header[] defaults=new Header[]{
 		new BasicHeader("Accept","text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
 		,new BasicHeader("Accept-Charset","ISO-8859-1,utf-8;q=0.7,*;q=0.3")
 		,new BasicHeader("Accept-Encoding","gzip,deflate")
 		,new BasicHeader("Accept-Language","en-US,en;q=0.8")
 	};
+	/**Attribute of the HttpContext given to a request that is set to the
+	 * {@link List} of {@link Uri}s the request went to. The first is the one
+	 * asked for, the last is the one that gave the response and any others
+	 * redirected.
+	 */
+	public static final String REDIRECT_CHAIN="simple.net.http.redirect-chain";
 	public static final String FORMAT_URLENCODED="application/x-www-form-urlencoded",FORMAT_FORMDATA="multipart/form-data";
 	public void addCookie(org.apache.http.cookie.Cookie cookie){
 		cookies.addCookie(cookie);
@@ -93,101 +157,524 @@ public final class Client{
 		return get(uri,headers,null);
 	}
 	public HttpResponse get(Uri uri,Header[] headers,HttpContext context) throws ClientProtocolException, IOException{
-		HttpGet req=new HttpGet(uri.toString());
-		req.setHeaders(defaults);
-		HttpResponse response;
-		if(headers!=null){
-			for(Header header:headers)
-				req.setHeader(header);
-		}
-		if(context==null)
-			response=client.execute(req);
-		else
-			response=client.execute(req,context);
-		log.debug("Request",req.getRequestLine().toString());
-		log.debug("Request Headers",req.getAllHeaders());
-		if(response.getStatusLine().getStatusCode()==301 || response.getStatusLine().getStatusCode()==302){// redirection
-			Header location=response.getFirstHeader("Location");
-			log.debug("Redirect",uri+" --TO-- "+location);
-			if(location!=null) return get(new Uri(response.getFirstHeader("Location").getValue()),headers,context);
+		return get(uri,headers,context,null);
+	}
+	private HttpResponse get(final Uri uri,final Header[] headers,HttpContext context,final Abort abort) throws ClientProtocolException, IOException{
+		if(cache==null)
+			return send(HttpGet.METHOD_NAME,uri,headers,null,null,context,abort);
+		return cache.execute(uri,effective(headers),context,new HttpCache.Fetcher(){
+			@Override
+			public HttpResponse fetch(Header[] conditional,HttpContext context,boolean background) throws IOException{
+				return send(HttpGet.METHOD_NAME,uri,concat(headers,conditional),null,null,context,background ? null : abort);
+			}
+		});
+	}
+	/**
+	 * @param headers
+	 * @return The {@link #defaults} with <var>headers</var> replacing those of the same name.
+	 */
+	private static Header[] effective(Header[] headers){
+		if(headers==null || headers.length==0)
+			return defaults;
+		final ArrayList<Header> ret=new ArrayList<Header>(defaults.length+headers.length);
+		for(Header d:defaults){
+			boolean replaced=false;
+			for(Header h:headers)
+				replaced|=h.getName().equalsIgnoreCase(d.getName());
+			if(!replaced)
+				ret.add(d);
 		}
-		log.debug("Response",response);
-		return response;
+		ret.addAll(Arrays.asList(headers));
+		return ret.toArray(new Header[ret.size()]);
+	}
+	private static Header[] concat(Header[] a,Header[] b){
+		if(a==null || a.length==0)
+			return b;
+		if(b.length==0)
+			return a;
+		final Header[] ret=Arrays.copyOf(a,a.length+b.length);
+		System.arraycopy(b,0,ret,a.length,b.length);
+		return ret;
 	}
 	public HttpResponse get(Uri uri) throws ClientProtocolException, IOException{
 		return get(uri,null,null);
 	}
 	public HttpResponse post(Uri uri,Header[] headers,ClientParam[] data,String format,HttpContext context) throws ClientProtocolException, IOException{
-		HttpPost req=new HttpPost(uri.toString());
-		HttpResponse response;
-		req.setHeaders(defaults);
+		return post(uri,headers,data,format,context,null);
+	}
+	private HttpResponse post(Uri uri,Header[] headers,ClientParam[] data,String format,HttpContext context,Abort abort) throws ClientProtocolException, IOException{
 		// I assume this is proper enough
 		String boundary=Integer.toHexString(uri.hashCode());
-		if(headers!=null){
-			for(Header header:headers)
-				req.setHeader(header);
-		}
+		Header contentType=null;
+		HttpEntity body=null;
 		if(data!=null){
 			if(FORMAT_URLENCODED.equals(format)){
-				req.setHeader("Content-Type",format);
-				req.setEntity(new UrlEncodedFormEntity(Arrays.asList(data)));
+				contentType=new BasicHeader("Content-Type",format);
+				body=new UrlEncodedFormEntity(Arrays.asList(data));
 			}else if(FORMAT_FORMDATA.equals(format)){
-				req.setHeader("Content-Type",format+"; boundary="+boundary);
-				req.setEntity(new MultipartFormEntity(data,boundary));
+				contentType=new BasicHeader("Content-Type",format+"; boundary="+boundary);
+				body=new MultipartFormEntity(data,boundary);
 			}
 		}
-		if(context==null)
-			response=client.execute(req);
-		else
-			response=client.execute(req,context);
-		log.debug("Request",req.getRequestLine().toString());
-		log.debug("Request",req.getAllHeaders());
-		if(response.getStatusLine().getStatusCode()==301 || response.getStatusLine().getStatusCode()==302){
-			// redirection
-			Header location=response.getFirstHeader("Location");
-			log.debug("Redirect",uri+" --TO-- "+location);
-			if(location!=null) return post(new Uri(response.getFirstHeader("Location").getValue()),headers,data,format,context);
-		}
-		log.debug("Response",response);
+		final HttpResponse response=send(HttpPost.METHOD_NAME,uri,headers,contentType,body,context,abort);
+		// the POST may have changed what a GET would get
+		if(cache!=null && response.getStatusLine().getStatusCode()<400)
+			cache.invalidate(uri);
 		return response;
 	}
-	private static final HttpRequestRetryHandler RetryHandler=new HttpRequestRetryHandler(){
-		@Override
-		public boolean retryRequest(IOException exception,int executionCount,HttpContext context){
-			if(executionCount>=5){
-				// Do not retry if over max retry count
-				return false;
+	/**Sends the request and follows its redirects, up to
+	 * {@link ClientConfig#getMaxRedirects()} of them. Each redirect response is
+	 * read to the end and closed before the next request, so its connection
+	 * goes back to the pool for the next hop to reuse.<br>
+	 * 301, 302, 307 and 308 resend the same request. 303 changes it to a GET
+	 * without the body. A body that can't be sent twice isn't followed, the
+	 * redirect is returned instead. The Authorization header isn't sent on to
+	 * another host.
+	 * @param method GET or POST
+	 * @param uri
+	 * @param headers Replace the {@link #defaults} of the same name.
+	 * @param contentType Content-Type of <var>body</var>, null for the entity's own.
+	 * @param body Null for none.
+	 * @param context Gets the {@link #REDIRECT_CHAIN} if not null.
+	 * @param abort Null if the request can't be aborted.
+	 * @return The first response that isn't followed.
+	 * @throws ClientProtocolException On too many redirects, a redirect
+	 * loop or a Location that isn't a URI.
+	 */
+	private HttpResponse send(String method,Uri uri,Header[] headers,Header contentType,HttpEntity body,
+			HttpContext context,Abort abort) throws ClientProtocolException, IOException{
+		final List<Uri> chain=new ArrayList<Uri>();
+		if(context!=null)
+			context.setAttribute(REDIRECT_CHAIN,chain);
+		final HashSet<String> visited=new HashSet<String>();
+		URI target=URI.create(uri.toString());
+		boolean dropAuthorization=false;
+		for(int hops=0;;hops++){
+			chain.add(hops==0 ? uri : new Uri(target));
+			visited.add(method+' '+target);
+			final HttpRequestBase req;
+			if(body!=null || HttpPost.METHOD_NAME.equals(method)){
+				final HttpPost post=new HttpPost(target);
+				post.setEntity(body);
+				req=post;
+			}else
+				req=new HttpGet(target);
+			req.setHeaders(defaults);
+			if(headers!=null){
+				for(Header header:headers)
+					req.setHeader(header);
 			}
-			if(exception instanceof NoHttpResponseException){
-				// Retry if the server dropped connection on us
-				return true;
+			if(body!=null && contentType!=null)
+				req.setHeader(contentType);
+			if(dropAuthorization)
+				req.removeHeaders("Authorization");
+			if(abort!=null)
+				abort.set(req);
+			final HttpResponse response;
+			if(context==null)
+				response=client.execute(req);
+			else
+				response=client.execute(req,context);
+			log.debugf("Request: {}",req.getRequestLine());
+			if(log.isEnabled(LogLevel.DEBUG))
+				log.debug("Request Headers",req.getAllHeaders());
+			final int status=response.getStatusLine().getStatusCode();
+			final Header location=response.getFirstHeader("Location");
+			if(!isRedirect(status) || location==null || maxRedirects==0
+					|| (status!=HttpStatus.SC_SEE_OTHER && body!=null && !body.isRepeatable())){
+				log.debug("Response",response);
+				return response;
 			}
-			if(exception instanceof SSLHandshakeException){
-				// Do not retry on SSL handshake exception
-				return false;
+			log.debugf("Redirect: {} --TO-- {}",target,location);
+			// done with it, let the next hop have the connection
+			release(response,true);
+			if(hops+1>maxRedirects){
+				final String msg="More than "+maxRedirects+" redirects from "+uri;
+				throw new ClientProtocolException(msg,new RedirectException(msg));
 			}
-			HttpRequest request=(HttpRequest)context.getAttribute(HttpCoreContext.HTTP_REQUEST);
-			boolean idempotent=!(request instanceof HttpEntityEnclosingRequest);
-			if(idempotent){
-				// Retry if the request is considered idempotent
-				return true;
+			final URI next;
+			try{
+				next=URIUtils.resolve(target,location.getValue());
+			}catch(IllegalArgumentException e){
+				final String msg="Invalid Location "+location.getValue()+" from "+target;
+				throw new ClientProtocolException(msg,new ProtocolException(msg,e));
 			}
+			if(status==HttpStatus.SC_SEE_OTHER){
+				method=HttpGet.METHOD_NAME;
+				body=null;
+			}
+			if(visited.contains(method+' '+next)){
+				final String msg="Redirect loop to "+next+" from "+uri;
+				throw new ClientProtocolException(msg,new CircularRedirectException(msg));
+			}
+			final HttpHost nextHost=URIUtils.extractHost(next);
+			if(nextHost==null || !nextHost.equals(URIUtils.extractHost(target)))
+				dropAuthorization=true;
+			target=next;
+		}
+	}
+	private static boolean isRedirect(int status){
+		switch(status){
+		case HttpStatus.SC_MOVED_PERMANENTLY:
+		case HttpStatus.SC_MOVED_TEMPORARILY:
+		case HttpStatus.SC_SEE_OTHER:
+		case HttpStatus.SC_TEMPORARY_REDIRECT:
+		case 308:// Permanent Redirect, HttpStatus has no name for it
+			return true;
+		default:
 			return false;
 		}
+	}
+//	========== start async ===========
+	/**Hands the response over as it is, for the async requests that return it. */
+	private static final ResponseHandler<HttpResponse> KEEP=new ResponseHandler<HttpResponse>(){
+		@Override
+		public HttpResponse handleResponse(HttpResponse response){
+			return response;
+		}
 	};
+	/**Sends a request, or its redirect, on an async task. */
+	private interface Send{
+		HttpResponse send(Abort abort) throws IOException;
+	}
+	/**The request an async task is on, so it can be aborted from another thread. */
+	private static final class Abort{
+		private HttpRequestBase request;
+		private boolean aborted=false;
+		synchronized void set(HttpRequestBase request){
+			this.request=request;
+			if(aborted)
+				request.abort();
+		}
+		synchronized void abort(){
+			aborted=true;
+			if(request!=null)
+				request.abort();
+		}
+	}
+	/**The response's entity is not read. Consume it or close the response to
+	 * give the connection back to the pool.
+	 * @param uri
+	 * @param headers
+	 * @return The response, when it arrives.
+	 * @see #getAsync(Uri, Header[], HttpContext, ResponseHandler)
+	 */
+	public CompletableFuture<HttpResponse> getAsync(Uri uri,Header[] headers){
+		return getAsync(uri,headers,null,KEEP);
+	}
+	/**
+	 * @param uri
+	 * @param headers
+	 * @param handler Reads the response on the request's thread, as it arrives.
+	 * @return What <var>handler</var> made of the response.
+	 */
+	public <T> CompletableFuture<T> getAsync(Uri uri,Header[] headers,ResponseHandler<? extends T> handler){
+		return getAsync(uri,headers,null,handler);
+	}
+	/**The response is read by <var>handler</var> while it streams in, so
+	 * nothing is held in memory that the handler doesn't keep. Whatever it
+	 * leaves unread is skipped so the connection can be reused. Cancelling the
+	 * future aborts the request, even while the handler is reading it.
+	 * @param uri
+	 * @param headers
+	 * @param context Null for a new one. Not shared with other requests running at once.
+	 * @param handler Reads the response on the request's thread.
+	 * @return What <var>handler</var> made of the response.
+	 */
+	public <T> CompletableFuture<T> getAsync(final Uri uri,final Header[] headers,final HttpContext context,ResponseHandler<? extends T> handler){
+		return async(uri,new Send(){
+			@Override
+			public HttpResponse send(Abort abort) throws IOException{
+				return get(uri,headers,context,abort);
+			}
+		},handler);
+	}
+	/**The response's entity is not read. Consume it or close the response to
+	 * give the connection back to the pool.
+	 * @param uri
+	 * @param headers
+	 * @param data
+	 * @param format {@link #FORMAT_URLENCODED} or {@link #FORMAT_FORMDATA}
+	 * @param context Null for a new one. Not shared with other requests running at once.
+	 * @return The response, when it arrives.
+	 * @see #postAsync(Uri, Header[], ClientParam[], String, HttpContext, ResponseHandler)
+	 */
+	public CompletableFuture<HttpResponse> postAsync(Uri uri,Header[] headers,ClientParam[] data,String format,HttpContext context){
+		return postAsync(uri,headers,data,format,context,KEEP);
+	}
+	/**
+	 * @param uri
+	 * @param headers
+	 * @param data
+	 * @param format {@link #FORMAT_URLENCODED} or {@link #FORMAT_FORMDATA}
+	 * @param context Null for a new one. Not shared with other requests running at once.
+	 * @param handler Reads the response on the request's thread, as it arrives.
+	 * @return What <var>handler</var> made of the response.
+	 * @see #getAsync(Uri, Header[], HttpContext, ResponseHandler)
+	 */
+	public <T> CompletableFuture<T> postAsync(final Uri uri,final Header[] headers,final ClientParam[] data,final String format,
+			final HttpContext context,ResponseHandler<? extends T> handler){
+		return async(uri,new Send(){
+			@Override
+			public HttpResponse send(Abort abort) throws IOException{
+				return post(uri,headers,data,format,context,abort);
+			}
+		},handler);
+	}
+	private <T> CompletableFuture<T> async(Uri uri,final Send send,final ResponseHandler<? extends T> handler){
+		final CompletableFuture<T> ret=new CompletableFuture<T>();
+		final Abort abort=new Abort();
+		final String host=(uri.getScheme()+"://"+uri.getHost()+":"+uri.getPort()).toLowerCase();
+		ret.whenComplete(new BiConsumer<T,Throwable>(){
+			@Override
+			public void accept(T t,Throwable e){
+				if(ret.isCancelled())
+					abort.abort();
+			}
+		});
+		limiter.submit(host,new RequestLimiter.Task(){
+			@Override
+			public void run(){
+				try{
+					// cancelled while it waited
+					if(ret.isDone())
+						return;
+					final HttpResponse response=send.send(abort);
+					if(handler==KEEP){
+						final T t=handler.handleResponse(response);
+						if(!ret.complete(t))
+							release(response,false);
+					}else{
+						boolean read=false;
+						try{
+							ret.complete(handler.handleResponse(response));
+							read=true;
+						}finally{
+							release(response,read);
+						}
+					}
+				}catch(Throwable e){
+					ret.completeExceptionally(e);
+				}finally{
+					limiter.release(host);
+				}
+			}
+			@Override
+			public void rejected(RuntimeException e){
+				ret.completeExceptionally(e);
+			}
+		});
+		return ret;
+	}
+	/**
+	 * @param response
+	 * @param reuse True to skip the rest of the entity so the connection can
+	 * be reused, false to close the connection.
+	 */
+	private static void release(HttpResponse response,boolean reuse){
+		try{
+			if(reuse)
+				EntityUtils.consume(response.getEntity());
+		}catch(IOException e){
+			log.debug("Skipping the rest of the response failed",e);
+		}finally{
+			if(response instanceof CloseableHttpResponse){
+				try{
+					((CloseableHttpResponse)response).close();
+				}catch(IOException e){
+					log.debug("Closing the response failed",e);
+				}
+			}
+		}
+	}
+	/**
+	 * @return Async requests running now.
+	 */
+	public int getInFlight(){
+		return limiter.getRunning();
+	}
+	/**
+	 * @return Async requests waiting for one of the caps.
+	 */
+	public int getQueued(){
+		return limiter.getWaiting();
+	}
+//	========== end async ===========
+	/**
+	 * @param maxRetries Most times a request is sent again.
+	 * @return Handler that retries a dropped connection, and anything else
+	 * that failed on an idempotent request, except timeouts and failures that
+	 * would fail the same way again.
+	 * @see ClientConfig#setMaxRetries(int)
+	 */
+	private static HttpRequestRetryHandler retryHandler(final int maxRetries){
+		return new HttpRequestRetryHandler(){
+			@Override
+			public boolean retryRequest(IOException exception,int executionCount,HttpContext context){
+				if(executionCount>maxRetries){
+					// Do not retry if over max retry count
+					return false;
+				}
+				if(exception instanceof NoHttpResponseException){
+					// Retry if the server dropped connection on us
+					return true;
+				}
+				if(exception instanceof InterruptedIOException){
+					// Do not retry a timeout, it would only wait the timeout again
+					return false;
+				}
+				if(exception instanceof UnknownHostException || exception instanceof ConnectException){
+					// Do not retry what would fail the same way
+					return false;
+				}
+				if(exception instanceof SSLHandshakeException){
+					// Do not retry on SSL handshake exception
+					return false;
+				}
+				HttpRequest request=(HttpRequest)context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+				boolean idempotent=!(request instanceof HttpEntityEnclosingRequest);
+				if(idempotent){
+					// Retry if the request is considered idempotent
+					return true;
+				}
+				return false;
+			}
+		};
+	}
 	public Client(String ProxyHost,int ProxyPort){
-		proxy = new HttpHost(ProxyHost,ProxyPort);
-		client=init().build();
+		this(new ClientConfig(),ProxyHost,ProxyPort);
 	}
 	public Client(){
-		proxy=null;
-		client=init().build();
+		this(new ClientConfig());
+	}
+	/**
+	 * @param config Pool, timeout and keep-alive settings.
+	 */
+	public Client(ClientConfig config){
+		this(config,null);
+	}
+	/**
+	 * @param config Pool, timeout and keep-alive settings.
+	 * @param ProxyHost
+	 * @param ProxyPort
+	 */
+	public Client(ClientConfig config,String ProxyHost,int ProxyPort){
+		this(config,new HttpHost(ProxyHost,ProxyPort));
+	}
+	private Client(ClientConfig config,HttpHost proxy){
+		this.proxy=proxy;
+		maxRedirects=config.getMaxRedirects();
+		cache=config.getCache();
+		connections=new PoolingHttpClientConnectionManager(config.getTimeToLive(),TimeUnit.MILLISECONDS);
+		connections.setMaxTotal(config.getMaxTotal());
+		connections.setDefaultMaxPerRoute(config.getMaxPerRoute());
+		connections.setValidateAfterInactivity(config.getValidateAfterInactivity());
+		// applies to the handshakes too, which happen before the request config does
+		connections.setDefaultSocketConfig(SocketConfig.custom()
+				.setSoTimeout(config.getSocketTimeout())
+				.setTcpNoDelay(true)
+				.build());
+		client=init(config).build();
+		if(config.getEvictionInterval()>0){
+			evictor=new IdleConnectionEvictor(connections,config.getEvictionInterval(),TimeUnit.MILLISECONDS,
+					config.getMaxIdleTime(),TimeUnit.MILLISECONDS);
+			evictor.start();
+		}else
+			evictor=null;
+		final int maxInFlight=config.getMaxInFlight()>0 ? config.getMaxInFlight() : config.getMaxTotal();
+		final Executor executor;
+		if(config.getExecutor()==null){
+			final ThreadPoolExecutor pool=new ThreadPoolExecutor(maxInFlight,maxInFlight,60,TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),new ThreadFactory(){
+				private int count=0;
+				@Override
+				public synchronized Thread newThread(final Runnable r){
+					final Thread t=new Thread(r,"Client "+(++count));
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			pool.allowCoreThreadTimeOut(true);
+			executor=asyncPool=pool;
+		}else{
+			executor=config.getExecutor();
+			asyncPool=null;
+		}
+		limiter=new RequestLimiter(executor,maxInFlight,
+				config.getMaxInFlightPerHost()>0 ? config.getMaxInFlightPerHost() : config.getMaxPerRoute());
+	}
+	/**
+	 * @return Connections leased, waited for and idle over all hosts, and the most allowed.
+	 */
+	public PoolStats getPoolStats(){
+		return connections.getTotalStats();
+	}
+	/**
+	 * @return Connections leased, waited for and idle for each route the pool has
+	 * connected, and the most allowed on it.
+	 */
+	public Map<HttpRoute,PoolStats> getRouteStats(){
+		final Map<HttpRoute,PoolStats> ret=new LinkedHashMap<HttpRoute,PoolStats>();
+		for(HttpRoute route:connections.getRoutes())
+			ret.put(route,connections.getStats(route));
+		return ret;
+	}
+	/**Overrides {@link ClientConfig#getMaxPerRoute()} for one host.
+	 * @param host Host, with its scheme for https.
+	 * @param max Most connections open at once to it.
+	 */
+	public void setMaxPerRoute(HttpHost host,int max){
+		connections.setMaxPerRoute(routeTo(host),max);
+	}
+	/**
+	 * @param host
+	 * @return The route requests to <var>host</var> take, as the pool keys it.
+	 */
+	private HttpRoute routeTo(HttpHost host){
+		final boolean secure="https".equalsIgnoreCase(host.getSchemeName());
+		if(host.getPort()<0)
+			host=new HttpHost(host.getHostName(),secure ? 443 : 80,host.getSchemeName());
+		if(proxy==null)
+			return new HttpRoute(host,null,secure);
+		return new HttpRoute(host,null,proxy,secure);
+	}
+	/**Stops the eviction thread and closes the pooled connections. Async
+	 * requests still running fail.
+	 */
+	@Override
+	public void close() throws IOException{
+		if(asyncPool!=null)
+			asyncPool.shutdown();
+		if(evictor!=null)
+			evictor.shutdown();
+		client.close();
 	}
 	/**
 	 * Initializes the connection builder
 	 */
-	private HttpClientBuilder init(){
+	private HttpClientBuilder init(ClientConfig config){
 		HttpClientBuilder conBuilder= HttpClientBuilder.create();
+		conBuilder.setConnectionManager(connections);
+		// followed in send(...)
+		conBuilder.disableRedirectHandling();
+		// done by the interceptors below, both would decompress twice
+		conBuilder.disableContentCompression();
+		conBuilder.setDefaultRequestConfig(RequestConfig.custom()
+				.setConnectTimeout(config.getConnectTimeout())
+				.setSocketTimeout(config.getSocketTimeout())
+				.setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+				.build());
+		final long keepAlive=config.getKeepAlive();
+		conBuilder.setKeepAliveStrategy(new ConnectionKeepAliveStrategy(){
+				@Override
+				public long getKeepAliveDuration(final HttpResponse response,final HttpContext context){
+					// negative if the server didn't say
+					final long server=DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,context);
+					if(keepAlive<=0)
+						return server;
+					return (server<0 || server>keepAlive) ? keepAlive : server;
+				}
+			});
 		// Let the server know we want compressed if available
 		conBuilder.addInterceptorFirst(
 			new HttpRequestInterceptor(){
@@ -203,6 +690,9 @@ public final class Client{
 				@Override
 				public void process(final HttpResponse response,final HttpContext context) throws HttpException,IOException{
 					HttpEntity entity=response.getEntity();
+					// none on a 204 or 304
+					if(entity==null)
+						return;
 					Header ceheader=entity.getContentEncoding();
 					if(ceheader!=null){
 						HeaderElement[] codecs=ceheader.getElements();
@@ -224,7 +714,7 @@ public final class Client{
 		// set the proxy host
 		if(proxy != null)
 			conBuilder.setProxy(proxy);
-		conBuilder.setRetryHandler(RetryHandler);
+		conBuilder.setRetryHandler(retryHandler(config.getMaxRetries()));
 
 		return conBuilder;
 	}
@@ -0,0 +1,264 @@
+/**
+ *
+ */
+package simple.net.http;
+
+import java.util.concurrent.Executor;
+
+/**Connection pool, timeout and keep-alive settings for a {@link Client}.<br>
+ * The client reads them once when it is made, so changing a config later
+ * does not change clients already made with it.<br>
+ * Times are in milliseconds.
+ * <dl>
+ * <dt>Pool</dt><dd>{@link #setMaxTotal(int)} connections over all hosts,
+ * {@link #setMaxPerRoute(int)} to any one host. A request waits for a
+ * connection when either is reached.</dd>
+ * <dt>Health</dt><dd>A connection that sat idle in the pool longer than
+ * {@link #setValidateAfterInactivity(int)} is checked before it is reused,
+ * and none is kept longer than {@link #setTimeToLive(long)}.</dd>
+ * <dt>Eviction</dt><dd>Every {@link #setEvictionInterval(long)} a daemon
+ * thread closes connections that expired or were idle longer than
+ * {@link #setMaxIdleTime(long)}, so a server dropping them is noticed before
+ * they are reused.</dd>
+ * <dt>Timeouts</dt><dd>{@link #setConnectTimeout(int)} to open a connection,
+ * {@link #setSocketTimeout(int)} between packets of a response and
+ * {@link #setConnectionRequestTimeout(int)} to get a connection from the
+ * pool. 0 waits forever.</dd>
+ * <dt>Retries</dt><dd>A request that failed without a response is sent
+ * again up to {@link #setMaxRetries(int)} times. Timeouts aren't retried.</dd>
+ * <dt>Keep-alive</dt><dd>How long a connection is kept for reuse is what
+ * the server's Keep-Alive header says, capped at {@link #setKeepAlive(long)},
+ * or that if the server doesn't say.</dd>
+ * <dt>Async</dt><dd>{@link Client#getAsync(simple.net.Uri, org.apache.http.Header[])}
+ * and the like run at most {@link #setMaxInFlight(int)} requests at once,
+ * {@link #setMaxInFlightPerHost(int)} to any one host, on
+ * {@link #setExecutor(Executor)}. The rest wait in a queue without holding a
+ * thread.</dd>
+ * <dt>Redirects</dt><dd>At most {@link #setMaxRedirects(int)} are followed
+ * for one request.</dd>
+ * <dt>Cache</dt><dd>GET responses are answered from and kept in
+ * {@link #setCache(HttpCache)} if there is one.</dd>
+ * </dl>
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class ClientConfig {
+	private int maxTotal=200;
+	private int maxPerRoute=20;
+	private int validateAfterInactivity=2000;
+	private long timeToLive=-1;
+	private long evictionInterval=5000;
+	private long maxIdleTime=30000;
+	private int connectTimeout=10000;
+	private int socketTimeout=30000;
+	private int connectionRequestTimeout=10000;
+	private long keepAlive=30000;
+	private int maxInFlight=0;
+	private int maxInFlightPerHost=0;
+	private Executor executor=null;
+	private int maxRetries=4;
+	private int maxRedirects=10;
+	private HttpCache cache=null;
+
+	/**200 connections, 20 per host, connections checked after 2 seconds
+	 * idle and evicted after 30, 10 second connect and pool timeouts, 30
+	 * second socket timeout, at most 30 seconds of keep-alive, 4 retries and
+	 * 10 redirects.
+	 */
+	public ClientConfig() {}
+	/**
+	 * @param maxTotal Most connections open at once over all hosts.
+	 */
+	public void setMaxTotal(final int maxTotal) {
+		if (maxTotal<1)
+			throw new IllegalArgumentException("maxTotal must be positive.");
+		this.maxTotal=maxTotal;
+	}
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+	/**
+	 * @param maxPerRoute Most connections open at once to one host.
+	 */
+	public void setMaxPerRoute(final int maxPerRoute) {
+		if (maxPerRoute<1)
+			throw new IllegalArgumentException("maxPerRoute must be positive.");
+		this.maxPerRoute=maxPerRoute;
+	}
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+	/**
+	 * @param validateAfterInactivity Idle time after which a pooled connection
+	 * is checked before it is reused. Negative to never check.
+	 */
+	public void setValidateAfterInactivity(final int validateAfterInactivity) {
+		this.validateAfterInactivity=validateAfterInactivity;
+	}
+	public int getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+	/**
+	 * @param timeToLive Longest a connection is used from when it was opened.
+	 * Zero or negative to not limit it.
+	 */
+	public void setTimeToLive(final long timeToLive) {
+		this.timeToLive=timeToLive;
+	}
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+	/**
+	 * @param evictionInterval Time between runs of the eviction thread. Zero
+	 * or negative for no thread, in which case dead connections are only
+	 * found by validation.
+	 */
+	public void setEvictionInterval(final long evictionInterval) {
+		this.evictionInterval=evictionInterval;
+	}
+	public long getEvictionInterval() {
+		return evictionInterval;
+	}
+	/**
+	 * @param maxIdleTime Idle time after which the eviction thread closes a
+	 * pooled connection. Zero or negative to only close expired ones.
+	 */
+	public void setMaxIdleTime(final long maxIdleTime) {
+		this.maxIdleTime=maxIdleTime;
+	}
+	public long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+	/**
+	 * @param connectTimeout Time to open a connection, 0 for no limit.
+	 */
+	public void setConnectTimeout(final int connectTimeout) {
+		if (connectTimeout<0)
+			throw new IllegalArgumentException("connectTimeout must not be negative.");
+		this.connectTimeout=connectTimeout;
+	}
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+	/**
+	 * @param socketTimeout Longest wait for data once connected, 0 for no limit.
+	 */
+	public void setSocketTimeout(final int socketTimeout) {
+		if (socketTimeout<0)
+			throw new IllegalArgumentException("socketTimeout must not be negative.");
+		this.socketTimeout=socketTimeout;
+	}
+	public int getSocketTimeout() {
+		return socketTimeout;
+	}
+	/**
+	 * @param connectionRequestTimeout Longest wait for a connection from the
+	 * pool when it is full, 0 for no limit.
+	 */
+	public void setConnectionRequestTimeout(final int connectionRequestTimeout) {
+		if (connectionRequestTimeout<0)
+			throw new IllegalArgumentException("connectionRequestTimeout must not be negative.");
+		this.connectionRequestTimeout=connectionRequestTimeout;
+	}
+	public int getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+	/**
+	 * @param keepAlive Longest a connection is kept for reuse. Zero or negative
+	 * to keep it as long as the server says, or until it is evicted if the
+	 * server doesn't say.
+	 */
+	public void setKeepAlive(final long keepAlive) {
+		this.keepAlive=keepAlive;
+	}
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+	/**
+	 * @param maxInFlight Most async requests running at once. 0 for
+	 * {@link #getMaxTotal()}, more than that only waits for a connection on a
+	 * thread instead of in the queue.
+	 */
+	public void setMaxInFlight(final int maxInFlight) {
+		if (maxInFlight<0)
+			throw new IllegalArgumentException("maxInFlight must not be negative.");
+		this.maxInFlight=maxInFlight;
+	}
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+	/**
+	 * @param maxInFlightPerHost Most async requests running at once to one
+	 * host. 0 for {@link #getMaxPerRoute()}.
+	 */
+	public void setMaxInFlightPerHost(final int maxInFlightPerHost) {
+		if (maxInFlightPerHost<0)
+			throw new IllegalArgumentException("maxInFlightPerHost must not be negative.");
+		this.maxInFlightPerHost=maxInFlightPerHost;
+	}
+	public int getMaxInFlightPerHost() {
+		return maxInFlightPerHost;
+	}
+	/**Each async request blocks the thread it runs on until its response
+	 * arrives, so the executor needs as many threads as
+	 * {@link #getMaxInFlight()}. On Java 21 and up
+	 * <code>Executors.newVirtualThreadPerTaskExecutor()</code> fits.
+	 * @param executor Runs the async requests. Null for a pool of daemon
+	 * threads the client makes and shuts down when it is closed. The client
+	 * never shuts down one given here.
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor=executor;
+	}
+	public Executor getExecutor() {
+		return executor;
+	}
+	/**A request is retried when the server closed the connection without
+	 * answering, or when an idempotent request failed in some other way. A
+	 * timeout, an unknown host, a refused connection or a failed SSL handshake
+	 * is never retried, so a stalled host costs one timeout. Each retry of a
+	 * dropped connection can wait the full timeouts again though, so the
+	 * longest one request can take is <var>maxRetries</var>+1 times them.
+	 * @param maxRetries Most times a request is sent again, 0 for never.
+	 */
+	public void setMaxRetries(final int maxRetries) {
+		if (maxRetries<0)
+			throw new IllegalArgumentException("maxRetries must not be negative.");
+		this.maxRetries=maxRetries;
+	}
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+	/**
+	 * @param maxRedirects Most redirects followed for one request, 0 to return
+	 * the redirect instead of following it.
+	 */
+	public void setMaxRedirects(final int maxRedirects) {
+		if (maxRedirects<0)
+			throw new IllegalArgumentException("maxRedirects must not be negative.");
+		this.maxRedirects=maxRedirects;
+	}
+	public int getMaxRedirects() {
+		return maxRedirects;
+	}
+	/**
+	 * @param cache Cache for GET responses, null for none. The client doesn't
+	 * close it, so it can be shared.
+	 */
+	public void setCache(final HttpCache cache) {
+		this.cache=cache;
+	}
+	public HttpCache getCache() {
+		return cache;
+	}
+	@Override
+	public String toString() {
+		return "ClientConfig[maxTotal="+maxTotal+", maxPerRoute="+maxPerRoute
+			+", validateAfterInactivity="+validateAfterInactivity+", timeToLive="+timeToLive
+			+", evictionInterval="+evictionInterval+", maxIdleTime="+maxIdleTime
+			+", connectTimeout="+connectTimeout+", socketTimeout="+socketTimeout
+			+", connectionRequestTimeout="+connectionRequestTimeout+", keepAlive="+keepAlive
+			+", maxInFlight="+maxInFlight+", maxInFlightPerHost="+maxInFlightPerHost+", executor="+executor
+			+", maxRetries="+maxRetries+", maxRedirects="+maxRedirects+", cache="+cache+"]";
+	}
+}
@@ -0,0 +1,444 @@
+/**
+ *
+ */
+package simple.net.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+import simple.util.logging.Log;
+import simple.util.logging.LogFactory;
+
+/**The on-disk half of a {@link HttpCache}.<br>
+ * Each entry is two files named by the hash of its key: <code>hash.head</code>
+ * with the {@link CacheEntry} and <code>hash-id.body</code> with the body.
+ * Both are written to a temporary file and renamed into place, and a new
+ * body gets a new id, so a reader never sees half an entry and a body being
+ * read isn't overwritten. A revalidation only rewrites the head.<br>
+ * The index, a memory-mapped hash table of the key hashes, keeps the size
+ * and last use of each entry so a lookup opens one file and eviction, least
+ * recently used first, opens none. It is marked dirty while open. One found
+ * dirty, from a crash, or missing is rebuilt from the head files, so the
+ * files are what survive a restart and the index only makes them fast.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+final class DiskCache {
+	private static final Log log=LogFactory.getLogFor(DiskCache.class);
+	private static final int MAGIC=0x53524331;// SRC1
+	private static final int VERSION=1;
+	private static final int HEADER=32;
+	/** Slot: key hash, last use, size on disk, body id. */
+	private static final int SLOT=32;
+	private static final long EMPTY=0, DELETED=1;
+	private static final int MIN_SLOTS=1024;
+
+	private final File dir;
+	private final long maxBytes;
+	private File indexFile;
+	private FileChannel channel;
+	private MappedByteBuffer index;
+	private int slots;
+	private int count=0;
+	private int deleted=0;
+	private long bytes=0;
+	private long lastBodyId;
+	private long evictions=0;
+
+	/**
+	 * @param dir Directory to keep the files in, made if missing.
+	 * @param maxBytes Most bytes of heads and bodies kept.
+	 * @throws IOException
+	 */
+	DiskCache(final File dir, final long maxBytes) throws IOException {
+		this.dir=dir;
+		this.maxBytes=maxBytes;
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Can't make the cache directory "+dir);
+		indexFile=new File(dir, "index");
+		lastBodyId=System.currentTimeMillis();
+		if (!open())
+			rebuild();
+		// left by a crash in the middle of a write
+		for (final File f:dir.listFiles())
+			if (f.getName().endsWith(".tmp"))
+				f.delete();
+		setDirty(true);
+	}
+	/** @return False if there's no usable index. */
+	private boolean open() throws IOException {
+		if (!indexFile.isFile() || indexFile.length()<HEADER)
+			return false;
+		map(indexFile, -1);
+		if (index.getInt(0)!=MAGIC || index.getInt(4)!=VERSION || index.getInt(12)!=0
+				|| indexFile.length()!=HEADER+(long)slots*SLOT) {
+			log.informationf("Rebuilding the cache index in {}", dir);
+			channel.close();
+			return false;
+		}
+		for (int i=0;i<slots;i++) {
+			final long hash=index.getLong(slot(i));
+			if (hash==DELETED)
+				deleted++;
+			else if (hash!=EMPTY) {
+				count++;
+				bytes+=index.getLong(slot(i)+16);
+				lastBodyId=Math.max(lastBodyId, index.getLong(slot(i)+24));
+			}
+		}
+		return true;
+	}
+	/**Maps <var>file</var> as the index.
+	 * @param newSlots Slots for a new index, -1 to read them from the file.
+	 */
+	private void map(final File file, final int newSlots) throws IOException {
+		final RandomAccessFile raf=new RandomAccessFile(file, "rw");
+		channel=raf.getChannel();
+		if (newSlots>0) {
+			raf.setLength(0);
+			raf.setLength(HEADER+(long)newSlots*SLOT);
+		}
+		index=channel.map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+		if (newSlots>0) {
+			index.putInt(0, MAGIC);
+			index.putInt(4, VERSION);
+			index.putInt(8, newSlots);
+			index.putInt(12, 1);
+		}
+		slots=index.getInt(8);
+		if (slots<=0 || Integer.bitCount(slots)!=1)
+			slots=0;
+	}
+	/** Makes a new index from the head files and deletes bodies no head names. */
+	private void rebuild() throws IOException {
+		final File[] files=dir.listFiles();
+		final HashSet<String> bodies=new HashSet<String>();
+		int heads=0;
+		for (final File f:files)
+			if (f.getName().endsWith(".head"))
+				heads++;
+		newIndex(indexFile, slotsFor(heads));
+		for (final File f:files) {
+			if (!f.getName().endsWith(".head"))
+				continue;
+			final CacheEntry e=readHead(f);
+			final File body=(e==null) ? null : bodyFile(e);
+			if (e==null || !body.isFile() || body.length()!=e.bodyLength
+					|| !f.getName().equals(name(hash(e.key))+".head")) {
+				f.delete();
+				continue;
+			}
+			bodies.add(body.getName());
+			insert(hash(e.key), f.lastModified(), f.length()+body.length(), e.bodyId);
+			lastBodyId=Math.max(lastBodyId, e.bodyId);
+		}
+		for (final File f:files)
+			if (f.getName().endsWith(".body") && !bodies.contains(f.getName()))
+				f.delete();
+	}
+	private void newIndex(final File file, final int newSlots) throws IOException {
+		if (channel!=null)
+			channel.close();
+		map(file, newSlots);
+		count=deleted=0;
+		bytes=0;
+	}
+	private static int slotsFor(final int entries) {
+		int ret=MIN_SLOTS;
+		while (ret<entries*2)
+			ret<<=1;
+		return ret;
+	}
+	private void setDirty(final boolean dirty) {
+		index.putInt(12, dirty ? 1 : 0);
+		index.force();
+	}
+	private static int slot(final int i) {
+		return HEADER+i*SLOT;
+	}
+	/** FNV-1a over the chars, never {@link #EMPTY} or {@link #DELETED}. */
+	static long hash(final String key) {
+		long h=0xcbf29ce484222325L;
+		for (int i=0;i<key.length();i++) {
+			h^=key.charAt(i);
+			h*=0x100000001b3L;
+		}
+		h^=h>>>29;
+		return (h==EMPTY || h==DELETED) ? h+2 : h;
+	}
+	private static String name(final long hash) {
+		final String hex=Long.toHexString(hash);
+		return "0000000000000000".substring(hex.length())+hex;
+	}
+	private File headFile(final long hash) {
+		return new File(dir, name(hash)+".head");
+	}
+	File bodyFile(final CacheEntry e) {
+		return new File(dir, name(hash(e.key))+"-"+Long.toHexString(e.bodyId)+".body");
+	}
+	/** @return The slot of <var>hash</var> or -1. */
+	private int find(final long hash) {
+		final int mask=slots-1;
+		for (int i=(int)(hash^(hash>>>32))&mask, n=0;n<slots;i=(i+1)&mask, n++) {
+			final long h=index.getLong(slot(i));
+			if (h==hash)
+				return i;
+			if (h==EMPTY)
+				return -1;
+		}
+		return -1;
+	}
+	private void insert(final long hash, final long used, final long size, final long bodyId) throws IOException {
+		if ((count+deleted+1)*4L>slots*3L)
+			resize();
+		final int mask=slots-1;
+		int i=(int)(hash^(hash>>>32))&mask;
+		while (true) {
+			final long h=index.getLong(slot(i));
+			if (h==EMPTY || h==DELETED) {
+				if (h==DELETED)
+					deleted--;
+				break;
+			}
+			i=(i+1)&mask;
+		}
+		final int at=slot(i);
+		index.putLong(at, hash);
+		index.putLong(at+8, used);
+		index.putLong(at+16, size);
+		index.putLong(at+24, bodyId);
+		count++;
+		bytes+=size;
+	}
+	/** Copies the live slots to a new index, twice as big if they fill half. */
+	private void resize() throws IOException {
+		final long[] live=new long[count*4];
+		int n=0;
+		for (int i=0;i<slots;i++) {
+			final int at=slot(i);
+			final long h=index.getLong(at);
+			if (h!=EMPTY && h!=DELETED) {
+				live[n++]=h;
+				live[n++]=index.getLong(at+8);
+				live[n++]=index.getLong(at+16);
+				live[n++]=index.getLong(at+24);
+			}
+		}
+		final File tmp=new File(dir, "index.tmp");
+		newIndex(tmp, slotsFor(n/4+1));
+		for (int i=0;i<n;i+=4)
+			insert(live[i], live[i+1], live[i+2], live[i+3]);
+		index.force();
+		channel.close();
+		Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		map(indexFile, -1);
+	}
+	private void delete(final int i) {
+		final int at=slot(i);
+		index.putLong(at, DELETED);
+		bytes-=index.getLong(at+16);
+		count--;
+		deleted++;
+	}
+	private CacheEntry readHead(final File f) {
+		try {
+			final DataInputStream in=new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+			try {
+				return CacheEntry.read(in);
+			} finally {
+				in.close();
+			}
+		} catch (final FileNotFoundException e) {
+			return null;
+		} catch (final IOException e) {
+			log.warningf("Unreadable cache entry {}", f);
+			return null;
+		}
+	}
+	/**
+	 * @param key
+	 * @return The entry for <var>key</var>, without its body, or null.
+	 */
+	CacheEntry get(final String key) {
+		final long hash=hash(key);
+		synchronized (this) {
+			if (find(hash)<0)
+				return null;
+		}
+		final CacheEntry e=readHead(headFile(hash));
+		if (e==null || !e.key.equals(key))
+			return null;
+		synchronized (this) {
+			final int i=find(hash);
+			if (i>=0)
+				index.putLong(slot(i)+8, System.currentTimeMillis());
+		}
+		return e;
+	}
+	/**
+	 * @param e
+	 * @return The body of <var>e</var> or null if it was replaced or evicted.
+	 */
+	InputStream openBody(final CacheEntry e) {
+		try {
+			return new FileInputStream(bodyFile(e));
+		} catch (final FileNotFoundException ex) {
+			return null;
+		}
+	}
+	/**
+	 * @param e
+	 * @return The body of <var>e</var> or null if it was replaced or evicted.
+	 */
+	byte[] readBody(final CacheEntry e) {
+		final InputStream in=openBody(e);
+		if (in==null)
+			return null;
+		try {
+			try {
+				final byte[] ret=new byte[(int)e.bodyLength];
+				new DataInputStream(in).readFully(ret);
+				return ret;
+			} finally {
+				in.close();
+			}
+		} catch (final IOException ex) {
+			return null;
+		}
+	}
+	/**Stores a new response.
+	 * @param e
+	 * @param body
+	 * @return <var>e</var> with the id of its body file.
+	 * @throws IOException
+	 */
+	CacheEntry put(CacheEntry e, final byte[] body) throws IOException {
+		final long bodyId;
+		synchronized (this) {
+			bodyId=++lastBodyId;
+		}
+		e=e.withBody(bodyId);
+		final File bodyFile=bodyFile(e);
+		final File tmp=new File(dir, bodyFile.getName()+".tmp");
+		final FileOutputStream out=new FileOutputStream(tmp);
+		try {
+			out.write(body);
+		} finally {
+			out.close();
+		}
+		Files.move(tmp.toPath(), bodyFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		writeHead(e, false);
+		return e;
+	}
+	/**Replaces the head of an entry after a revalidation. Does nothing if
+	 * the entry was replaced or evicted since.
+	 * @param e
+	 * @throws IOException
+	 */
+	void update(final CacheEntry e) throws IOException {
+		writeHead(e, true);
+	}
+	/**
+	 * @param e
+	 * @param update True to only replace the head of the entry with the same body.
+	 */
+	private void writeHead(final CacheEntry e, final boolean update) throws IOException {
+		final long hash=hash(e.key);
+		final File head=headFile(hash);
+		final File tmp=new File(dir, head.getName()+"."+e.bodyId+".tmp");
+		final DataOutputStream out=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			e.write(out);
+		} finally {
+			out.close();
+		}
+		synchronized (this) {
+			final int i=find(hash);
+			if (update && (i<0 || index.getLong(slot(i)+24)!=e.bodyId)) {
+				tmp.delete();
+				return;
+			}
+			long oldBody=0;
+			if (i>=0) {
+				oldBody=index.getLong(slot(i)+24);
+				delete(i);
+			}
+			Files.move(tmp.toPath(), head.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			insert(hash, System.currentTimeMillis(), head.length()+e.bodyLength, e.bodyId);
+			if (oldBody!=0 && oldBody!=e.bodyId)
+				new File(dir, name(hash)+"-"+Long.toHexString(oldBody)+".body").delete();
+			if (bytes>maxBytes)
+				evict();
+		}
+	}
+	/**
+	 * @param key
+	 */
+	synchronized void remove(final String key) {
+		final long hash=hash(key);
+		final int i=find(hash);
+		if (i>=0)
+			remove(i, hash);
+	}
+	private void remove(final int i, final long hash) {
+		final long bodyId=index.getLong(slot(i)+24);
+		delete(i);
+		headFile(hash).delete();
+		new File(dir, name(hash)+"-"+Long.toHexString(bodyId)+".body").delete();
+	}
+	/** Removes the least recently used entries until a tenth under the limit. */
+	private void evict() {
+		final Integer[] order=new Integer[count];
+		int n=0;
+		for (int i=0;i<slots;i++) {
+			final long h=index.getLong(slot(i));
+			if (h!=EMPTY && h!=DELETED)
+				order[n++]=i;
+		}
+		Arrays.sort(order, 0, n, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				final long x=index.getLong(slot(a)+8), y=index.getLong(slot(b)+8);
+				return (x<y) ? -1 : (x==y ? 0 : 1);
+			}
+		});
+		final long target=maxBytes-maxBytes/10;
+		for (int j=0;j<n && bytes>target;j++) {
+			final int i=order[j];
+			remove(i, index.getLong(slot(i)));
+			evictions++;
+		}
+	}
+	synchronized int size() {
+		return count;
+	}
+	synchronized long bytes() {
+		return bytes;
+	}
+	synchronized long evictions() {
+		return evictions;
+	}
+	/**Writes out the index and marks it clean.
+	 * @throws IOException
+	 */
+	synchronized void close() throws IOException {
+		setDirty(false);
+		channel.close();
+	}
+}
@@ -0,0 +1,577 @@
+/**
+ *
+ */
+package simple.net.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import simple.net.Uri;
+import simple.util.logging.Log;
+import simple.util.logging.LogFactory;
+
+/**Caches the responses to a {@link Client}'s GET requests, set with
+ * {@link ClientConfig#setCache(HttpCache)}.<br>
+ * Responses are kept in memory, least recently used dropped first, and if
+ * a directory is given on disk too, where they outlast the process. The key
+ * is the URI without its fragment, with the scheme and host in lower case
+ * and without the default port.<br>
+ * It's a private cache as RFC 7234 has it:
+ * <ul>
+ * <li>A response is fresh for its Cache-Control max-age, or until its
+ * Expires, or a tenth of the time since its Last-Modified up to a day.
+ * no-cache makes it stale at once and no-store keeps it out of the cache.</li>
+ * <li>A stale response with an ETag or Last-Modified is revalidated with
+ * If-None-Match or If-Modified-Since. A 304 refreshes it without sending the
+ * body again.</li>
+ * <li>Within its stale-while-revalidate a stale response is served at once
+ * and revalidated on a background thread, unless it says must-revalidate.</li>
+ * <li>The request's own no-store, no-cache, max-age and only-if-cached are
+ * honored, and Vary is matched against its headers. Requests with their own
+ * conditional or Range headers aren't cached.</li>
+ * </ul>
+ * Only whole bodies up to {@link #setMaxEntrySize(int)} are cached, and
+ * they're read into memory to store them. A body that turns out bigger is
+ * passed on to the caller as it streams in.<br>
+ * The counters tell how well the cache does. Safe to share between clients
+ * and threads. Close it when done with it to stop its thread and leave the
+ * disk index clean.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class HttpCache implements Closeable {
+	private static final Log log=LogFactory.getLogFor(HttpCache.class);
+	private static final Header[] NONE=new Header[0];
+	/** Statuses cacheable by default. */
+	private static final int[] CACHEABLE={200,203,204,300,301,308,404,405,410,414,501};
+	private final long maxMemory;
+	/** Bodies above this are only kept on disk. */
+	private final long maxMemoryBody;
+	private int maxEntrySize=4*1024*1024;
+	private final DiskCache disk;
+	/** Access ordered. */
+	private final LinkedHashMap<String,Stored> memory=new LinkedHashMap<String,Stored>(64, 0.75f, true);
+	private long memoryBytes=0;
+	/** Keys being revalidated in the background. */
+	private final Set<String> revalidating=Collections.synchronizedSet(new HashSet<String>());
+	private final ThreadPoolExecutor background;
+	private final AtomicLong hits=new AtomicLong(), staleHits=new AtomicLong(), misses=new AtomicLong(),
+			revalidations=new AtomicLong(), notModified=new AtomicLong(), stores=new AtomicLong(),
+			memoryEvictions=new AtomicLong();
+
+	/**Gets a response from the server, for {@link #execute(Uri, Header[], HttpContext, Fetcher)}. */
+	interface Fetcher {
+		/**
+		 * @param conditional Headers to add to the request.
+		 * @param context For the request, has the {@link Client#REDIRECT_CHAIN} after.
+		 * @param background True if not for the caller, nothing of the caller's may be used.
+		 * @return The response.
+		 * @throws IOException
+		 */
+		HttpResponse fetch(Header[] conditional, HttpContext context, boolean background) throws IOException;
+	}
+	/** An entry and its body, null if the body is only on disk. */
+	private static final class Stored {
+		final CacheEntry entry;
+		final byte[] body;
+		Stored(final CacheEntry entry, final byte[] body) {
+			this.entry=entry;
+			this.body=body;
+		}
+		long size() {
+			return entry.size()+(body==null ? 0 : body.length);
+		}
+	}
+
+	/**Keeps responses in memory only.
+	 * @param maxMemory Most bytes of responses kept. Bodies over an eighth of
+	 * it aren't kept.
+	 */
+	public HttpCache(final long maxMemory) {
+		this(maxMemory, null);
+	}
+	/**
+	 * @param maxMemory Most bytes of responses kept in memory. Bodies over an
+	 * eighth of it are only kept on disk.
+	 * @param directory Directory to keep responses in, made if missing.
+	 * Entries already there are used.
+	 * @param maxDisk Most bytes of responses kept in <var>directory</var>.
+	 * @throws IOException If the directory can't be made or its index can't be read or rebuilt.
+	 */
+	public HttpCache(final long maxMemory, final File directory, final long maxDisk) throws IOException {
+		this(maxMemory, new DiskCache(directory, maxDisk));
+	}
+	private HttpCache(final long maxMemory, final DiskCache disk) {
+		if (maxMemory<0)
+			throw new IllegalArgumentException("maxMemory must not be negative.");
+		this.maxMemory=maxMemory;
+		maxMemoryBody=maxMemory/8;
+		this.disk=disk;
+		background=new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			private int count=0;
+			@Override
+			public synchronized Thread newThread(final Runnable r) {
+				final Thread t=new Thread(r, "HttpCache "+(++count));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		background.allowCoreThreadTimeOut(true);
+	}
+	/**
+	 * @param maxEntrySize Largest body cached. It is held in memory while it's read.
+	 */
+	public void setMaxEntrySize(final int maxEntrySize) {
+		if (maxEntrySize<0)
+			throw new IllegalArgumentException("maxEntrySize must not be negative.");
+		this.maxEntrySize=maxEntrySize;
+	}
+	public int getMaxEntrySize() {
+		return maxEntrySize;
+	}
+	/**
+	 * @param uri
+	 * @return The key <var>uri</var> is cached under.
+	 */
+	public static String key(final Uri uri) {
+		final String scheme=uri.getScheme().toLowerCase();
+		final StringBuilder ret=new StringBuilder(uri.toString().length()).append(scheme).append("://")
+				.append(uri.getHost().toLowerCase());
+		final int port=uri.getPort();
+		if (port>=0 && !(port==80 && scheme.equals("http")) && !(port==443 && scheme.equals("https")))
+			ret.append(':').append(port);
+		final String path=uri.getPath()+uri.getFile();
+		ret.append(path.isEmpty() ? "/" : path);
+		if (!uri.getQuery().isEmpty())
+			ret.append('?').append(uri.getQuery());
+		return ret.toString();
+	}
+//	========== start requests ===========
+	/**Answers a GET from the cache, the server or both.
+	 * @param uri
+	 * @param requestHeaders Headers the request is sent with, for Vary.
+	 * @param context The caller's or null.
+	 * @param fetcher Sends the request.
+	 * @return The response.
+	 * @throws IOException
+	 */
+	HttpResponse execute(final Uri uri, final Header[] requestHeaders, final HttpContext context, final Fetcher fetcher) throws IOException {
+		final String key=key(uri);
+		if (directive(requestHeaders, "no-store")!=null || CacheEntry.first(requestHeaders, "If-None-Match")!=null
+				|| CacheEntry.first(requestHeaders, "If-Modified-Since")!=null || CacheEntry.first(requestHeaders, "Range")!=null) {
+			misses.incrementAndGet();
+			return fetcher.fetch(NONE, context, false);
+		}
+		final boolean noCache=directive(requestHeaders, "no-cache")!=null
+				|| (CacheEntry.first(requestHeaders, "Cache-Control")==null && pragmaNoCache(requestHeaders));
+		final long maxAge=CacheEntry.seconds(directive(requestHeaders, "max-age"), -1);
+		final Stored s=lookup(key, requestHeaders);
+		if (s!=null && !noCache) {
+			final long age=s.entry.age(System.currentTimeMillis());
+			final long lifetime=(maxAge>=0) ? Math.min(maxAge, s.entry.lifetime()) : s.entry.lifetime();
+			if (age<lifetime) {
+				final HttpResponse ret=respond(s, age, false);
+				if (ret!=null) {
+					hits.incrementAndGet();
+					return ret;
+				}
+			} else if (maxAge<0 && age<lifetime+s.entry.staleWhileRevalidate()) {
+				final HttpResponse ret=respond(s, age, true);
+				if (ret!=null) {
+					staleHits.incrementAndGet();
+					revalidateLater(key, s, requestHeaders, fetcher);
+					return ret;
+				}
+			}
+		}
+		if (directive(requestHeaders, "only-if-cached")!=null) {
+			misses.incrementAndGet();
+			return new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_GATEWAY_TIMEOUT, "Not Cached");
+		}
+		if (s!=null && s.entry.isValidatable())
+			return revalidate(key, s, requestHeaders, context, fetcher, false);
+		misses.incrementAndGet();
+		final HttpContext ctx=(context==null) ? new BasicHttpContext() : context;
+		final long requestTime=System.currentTimeMillis();
+		return store(key, requestHeaders, ctx, requestTime, fetcher.fetch(NONE, ctx, false));
+	}
+	/**Drops the response for <var>uri</var>, as after a request that changed it.
+	 * @param uri
+	 */
+	public void invalidate(final Uri uri) {
+		remove(key(uri));
+	}
+	private void remove(final String key) {
+		synchronized (memory) {
+			final Stored old=memory.remove(key);
+			if (old!=null)
+				memoryBytes-=old.size();
+		}
+		if (disk!=null)
+			disk.remove(key);
+	}
+	private HttpResponse revalidate(final String key, final Stored s, final Header[] requestHeaders, final HttpContext context,
+			final Fetcher fetcher, final boolean inBackground) throws IOException {
+		revalidations.incrementAndGet();
+		final HttpContext ctx=(context==null) ? new BasicHttpContext() : context;
+		final long requestTime=System.currentTimeMillis();
+		final HttpResponse response=fetcher.fetch(s.entry.conditionalHeaders(), ctx, inBackground);
+		if (response.getStatusLine().getStatusCode()!=HttpStatus.SC_NOT_MODIFIED)
+			return store(key, requestHeaders, ctx, requestTime, response);
+		notModified.incrementAndGet();
+		release(response);
+		final long now=System.currentTimeMillis();
+		final Stored updated=new Stored(s.entry.updated(response, requestTime, now), s.body);
+		if (disk!=null) {
+			try {
+				disk.update(updated.entry);
+			} catch (final IOException e) {
+				log.warningf("Updating {} on disk failed: {}", key, e);
+			}
+		}
+		remember(updated);
+		final HttpResponse ret=respond(updated, updated.entry.age(now), false);
+		if (ret!=null)
+			return ret;
+		// the body was evicted in the meantime
+		misses.incrementAndGet();
+		return store(key, requestHeaders, ctx, System.currentTimeMillis(), fetcher.fetch(NONE, ctx, inBackground));
+	}
+	private void revalidateLater(final String key, final Stored s, final Header[] requestHeaders, final Fetcher fetcher) {
+		if (!revalidating.add(key))
+			return;
+		try {
+			background.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						EntityUtils.consume(revalidate(key, s, requestHeaders, null, fetcher, true).getEntity());
+					} catch (final Exception e) {
+						log.debugf("Revalidating {} failed: {}", key, e);
+					} finally {
+						revalidating.remove(key);
+					}
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			// closed
+			revalidating.remove(key);
+		}
+	}
+	/**Caches <var>response</var> if it may be.
+	 * @return <var>response</var> or the cached copy of it.
+	 */
+	private HttpResponse store(final String key, final Header[] requestHeaders, final HttpContext context,
+			final long requestTime, final HttpResponse response) throws IOException {
+		final long responseTime=System.currentTimeMillis();
+		final int status=response.getStatusLine().getStatusCode();
+		final Header[] headers=response.getAllHeaders();
+		final String[] vary=CacheEntry.vary(response, requestHeaders);
+		final Object chain=context.getAttribute(Client.REDIRECT_CHAIN);
+		if (Arrays.binarySearch(CACHEABLE, status)<0 || vary==null || directive(headers, "no-store")!=null
+				|| (CacheEntry.first(requestHeaders, "Authorization")!=null && directive(headers, "public")==null
+					&& directive(headers, "must-revalidate")==null && directive(headers, "s-maxage")==null)
+				|| (chain instanceof List && ((List<?>)chain).size()>1)) {
+			if (status/100==2)
+				remove(key);
+			return response;
+		}
+		final HttpEntity entity=response.getEntity();
+		final byte[] body;
+		if (entity==null)
+			body=new byte[0];
+		else {
+			if (entity.getContentLength()>maxEntrySize)
+				return response;
+			final InputStream in=entity.getContent();
+			final long length=entity.getContentLength();
+			byte[] buf=new byte[(length>=0) ? (int)length : 8192];
+			int len=0;
+			while (len!=length) {
+				if (len==buf.length) {
+					if (len>maxEntrySize) {
+						// too big, hand on what was read and the rest
+						final InputStreamEntity rest=new InputStreamEntity(new SequenceInputStream(
+								new ByteArrayInputStream(buf, 0, len), in), -1);
+						rest.setContentType(entity.getContentType());
+						response.setEntity(rest);
+						return response;
+					}
+					buf=Arrays.copyOf(buf, Math.min(Math.max(len*2, 8192), maxEntrySize+1));
+				}
+				final int read=in.read(buf, len, buf.length-len);
+				if (read<0)
+					break;
+				len+=read;
+			}
+			in.close();
+			body=(len==buf.length) ? buf : Arrays.copyOf(buf, len);
+		}
+		close(response);
+		CacheEntry e=new CacheEntry(key, status, response.getStatusLine().getReasonPhrase(), headers, vary,
+				requestTime, responseTime, 0, body.length);
+		final Stored ret;
+		if (e.lifetime()==0 && !e.isValidatable()) {
+			// nothing to gain from keeping it
+			remove(key);
+			ret=new Stored(e, body);
+		} else if (disk!=null) {
+			try {
+				e=disk.put(e, body);
+				stores.incrementAndGet();
+			} catch (final IOException ex) {
+				log.warningf("Storing {} on disk failed: {}", key, ex);
+			}
+			ret=new Stored(e, body);
+			remember(ret);
+		} else {
+			ret=new Stored(e, body);
+			if (remember(ret))
+				stores.incrementAndGet();
+		}
+		return respond(ret, e.age(responseTime), false);
+	}
+	private static void release(final HttpResponse response) {
+		try {
+			EntityUtils.consume(response.getEntity());
+		} catch (final IOException e) {
+			log.debug("Reading the rest of a response failed", e);
+		}
+		close(response);
+	}
+	private static void close(final HttpResponse response) {
+		if (response instanceof Closeable) {
+			try {
+				((Closeable)response).close();
+			} catch (final IOException e) {
+				log.debug("Closing a response failed", e);
+			}
+		}
+	}
+	/**
+	 * @return A response from <var>s</var> or null if its body is gone from disk.
+	 */
+	private HttpResponse respond(final Stored s, final long age, final boolean stale) {
+		final AbstractHttpEntity entity;
+		if (s.body!=null)
+			entity=new ByteArrayEntity(s.body);
+		else {
+			final InputStream in=disk.openBody(s.entry);
+			if (in==null)
+				return null;
+			entity=new InputStreamEntity(in, s.entry.bodyLength);
+		}
+		final BasicHttpResponse ret=new BasicHttpResponse(HttpVersion.HTTP_1_1, s.entry.status, s.entry.reason);
+		ret.setHeaders(s.entry.headers);
+		ret.setHeader("Content-Length", Long.toString(s.entry.bodyLength));
+		ret.setHeader("Age", Long.toString(age/1000));
+		if (stale)
+			ret.addHeader("Warning", "110 - \"Response is Stale\"");
+		entity.setContentType(ret.getFirstHeader("Content-Type"));
+		ret.setEntity(entity);
+		return ret;
+	}
+//	========== end requests ===========
+//	========== start memory ===========
+	/** @return The entry for <var>key</var> that <var>requestHeaders</var> match, or null. */
+	private Stored lookup(final String key, final Header[] requestHeaders) {
+		Stored s;
+		synchronized (memory) {
+			s=memory.get(key);
+		}
+		if (s!=null)
+			return s.entry.matches(requestHeaders) ? s : null;
+		if (disk==null)
+			return null;
+		final CacheEntry e=disk.get(key);
+		if (e==null || !e.matches(requestHeaders))
+			return null;
+		if (e.bodyLength>maxMemoryBody)
+			return new Stored(e, null);
+		final byte[] body=disk.readBody(e);
+		if (body==null)
+			return null;
+		s=new Stored(e, body);
+		remember(s);
+		return s;
+	}
+	/**Keeps <var>s</var> in memory if its body is small enough, dropping the
+	 * least recently used to make room.
+	 * @return True if kept.
+	 */
+	private boolean remember(final Stored s) {
+		final boolean fits=s.body!=null && s.body.length<=maxMemoryBody;
+		synchronized (memory) {
+			final Stored old=fits ? memory.put(s.entry.key, s) : memory.remove(s.entry.key);
+			if (old!=null)
+				memoryBytes-=old.size();
+			if (!fits)
+				return false;
+			memoryBytes+=s.size();
+			final Iterator<Map.Entry<String,Stored>> it=memory.entrySet().iterator();
+			while (memoryBytes>maxMemory && it.hasNext()) {
+				final Stored eldest=it.next().getValue();
+				memoryBytes-=eldest.size();
+				it.remove();
+				memoryEvictions.incrementAndGet();
+			}
+			return memory.containsKey(s.entry.key);
+		}
+	}
+//	========== end memory ===========
+	/**
+	 * @return The value of the Cache-Control directive, "" if it has none, or
+	 * null if it isn't there.
+	 */
+	private static String directive(final Header[] headers, final String name) {
+		for (final Header h:headers) {
+			if (!h.getName().equalsIgnoreCase("Cache-Control"))
+				continue;
+			for (final HeaderElement el:h.getElements())
+				if (el.getName().equalsIgnoreCase(name))
+					return (el.getValue()==null) ? "" : el.getValue();
+		}
+		return null;
+	}
+	private static boolean pragmaNoCache(final Header[] headers) {
+		for (final Header h:headers)
+			if (h.getName().equalsIgnoreCase("Pragma") && h.getValue().toLowerCase().contains("no-cache"))
+				return true;
+		return false;
+	}
+//	========== start counters ===========
+	/**
+	 * @return Responses served fresh from the cache without asking the server.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+	/**
+	 * @return Stale responses served while they were revalidated in the background.
+	 */
+	public long getStaleHits() {
+		return staleHits.get();
+	}
+	/**
+	 * @return Requests sent without anything cached to revalidate.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+	/**
+	 * @return Conditional requests sent to revalidate a response.
+	 */
+	public long getRevalidations() {
+		return revalidations.get();
+	}
+	/**
+	 * @return Revalidations the server answered with 304 Not Modified.
+	 */
+	public long getNotModified() {
+		return notModified.get();
+	}
+	/**
+	 * @return Responses added to the cache.
+	 */
+	public long getStores() {
+		return stores.get();
+	}
+	/**
+	 * @return Responses dropped from memory to make room, they may still be on disk.
+	 */
+	public long getMemoryEvictions() {
+		return memoryEvictions.get();
+	}
+	/**
+	 * @return Responses dropped from disk to make room.
+	 */
+	public long getDiskEvictions() {
+		return (disk==null) ? 0 : disk.evictions();
+	}
+	/**
+	 * @return Responses in memory.
+	 */
+	public int getMemoryEntries() {
+		synchronized (memory) {
+			return memory.size();
+		}
+	}
+	/**
+	 * @return Rough bytes of memory the responses take.
+	 */
+	public long getMemoryBytes() {
+		synchronized (memory) {
+			return memoryBytes;
+		}
+	}
+	/**
+	 * @return Responses on disk.
+	 */
+	public int getDiskEntries() {
+		return (disk==null) ? 0 : disk.size();
+	}
+	/**
+	 * @return Bytes on disk.
+	 */
+	public long getDiskBytes() {
+		return (disk==null) ? 0 : disk.bytes();
+	}
+	/**Sets the counters back to 0.
+	 */
+	public void resetCounters() {
+		hits.set(0);
+		staleHits.set(0);
+		misses.set(0);
+		revalidations.set(0);
+		notModified.set(0);
+		stores.set(0);
+		memoryEvictions.set(0);
+	}
+//	========== end counters ===========
+	/**Stops the background revalidation and writes out the disk index.
+	 */
+	@Override
+	public void close() throws IOException {
+		background.shutdown();
+		if (disk!=null)
+			disk.close();
+	}
+	@Override
+	public String toString() {
+		return "HttpCache[hits="+getHits()+", staleHits="+getStaleHits()+", misses="+getMisses()
+			+", revalidations="+getRevalidations()+", notModified="+getNotModified()+", stores="+getStores()
+			+", memory="+getMemoryEntries()+"/"+getMemoryBytes()+"B, disk="+getDiskEntries()+"/"+getDiskBytes()+"B]";
+	}
+}
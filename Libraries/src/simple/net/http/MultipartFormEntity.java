@@ -1,81 +1,80 @@
 package simple.net.http;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
 
 import org.apache.http.entity.AbstractHttpEntity;
 
-import simple.io.FileUtil;
-import simple.io.StreamFactory;
 import simple.net.http.clientparams.ClientParam;
 import simple.net.http.clientparams.FileParam;
-import simple.net.http.clientparams.StringParam;
 
+/**A multipart/form-data body that streams its files instead of holding them.<br>
+ * The part headers are made up front and the files are only measured, so
+ * the Content-Length is known without reading them. Each time the body is
+ * written the files are copied straight to the output in large blocks, so
+ * memory use doesn't grow with the files and the body can be sent again on
+ * a retry or redirect.<br>
+ * A file that changes size after the entity is made fails the write.
+ * @author Kenneth Pierce
+ */
 public class MultipartFormEntity extends AbstractHttpEntity{
-	private final ClientParam[] params;
-	private final String boundary;
-	private byte[] content=null;
-	private final Object contentSync=new Object();
-	private boolean tooBig=false;
+	private static final Charset UTF8=Charset.forName("UTF-8");
+	private static final int BUFFER=64*1024;
+	private static final byte[] CRLF={'\r','\n'};
+	/** Everything up to each part's body: the boundary and the part's headers. */
+	private final byte[][] heads;
+	/** Body of each string part, null for files. */
+	private final byte[][] values;
+	/** File of each file part, null for strings. */
+	private final File[] files;
+	private final long[] fileLengths;
+	private final byte[] end;
+	private final long length;
+	/**
+	 * @param params String and file parameters, files named with '/' as the separator.
+	 * @param boundary
+	 * @throws IllegalArgumentException If a file doesn't exist.
+	 */
 	public MultipartFormEntity(ClientParam[] params,String boundary){
-		this.params=params;
-		this.boundary=boundary;
-	}
-	private void generate(){
-		ByteArrayOutputStream tmp=new ByteArrayOutputStream(params.length*4192);
-		synchronized(contentSync){
-			for(int i=0;i<params.length;i++){
-				try{
-					tmp.write(("--"+boundary+"\r\n").getBytes());
-					tmp.write(getParam(i));
-				}catch(IOException e){
-					e.printStackTrace();
-				}
-			}
-			try{
-				tmp.write(("--"+boundary+"--\r\n").getBytes());
-			}catch(IOException e){
-				e.printStackTrace();
-			}
-			content=tmp.toByteArray();
-		}
-	}
-	private byte[] getParam(int index){
-		ClientParam param=params[index];
-		if(param instanceof StringParam){
-			return ("Content-Disposition: form-data; name=\""+param.getName()+"\"\r\n\r\n"+param.getValue()+"\r\n").getBytes();
-		}else if(param instanceof FileParam){
-			File file=new File(param.getValue().replace('/',File.separatorChar));
-			ByteArrayOutputStream tmp=new ByteArrayOutputStream(10000000);
-			if(!file.exists())throw new IllegalArgumentException("File does not exists! "+file.getAbsolutePath());
-			if(file.length()>15000000){
-				tooBig=true;
-				content=null;
-				return null;
-			}
-			try{
-				tmp.write(("Content-Disposition: form-data; name=\""+param.getName()
-						+"\"; filename=\""+param.getValue().substring(param.getValue().lastIndexOf('/'))
-						+"\"\r\nContent-Type: "+((FileParam)param).getContentType()+"\r\n\r\n").getBytes());
-				InputStream in =StreamFactory.getBufferedInputStream(file);
-				FileUtil.copy(in,tmp,6000);
-				tmp.write("\r\n".getBytes());
-				FileUtil.close(in);
-			}catch(FileNotFoundException e){
-				throw new IllegalArgumentException("File does not exists! "+file,e);
-			}
-			catch(IOException e){
-				throw new RuntimeException(e);
+		heads=new byte[params.length][];
+		values=new byte[params.length][];
+		files=new File[params.length];
+		fileLengths=new long[params.length];
+		long len=0;
+		for(int i=0;i<params.length;i++){
+			final ClientParam param=params[i];
+			if(param instanceof FileParam){
+				final File file=new File(param.getValue().replace('/',File.separatorChar));
+				if(!file.isFile())throw new IllegalArgumentException("File does not exists! "+file.getAbsolutePath());
+				final String filename=param.getValue().substring(param.getValue().lastIndexOf('/')+1);
+				heads[i]=("--"+boundary+"\r\nContent-Disposition: form-data; name=\""+param.getName()
+						+"\"; filename=\""+filename
+						+"\"\r\nContent-Type: "+((FileParam)param).getContentType()+"\r\n\r\n").getBytes(UTF8);
+				files[i]=file;
+				fileLengths[i]=file.length();
+				len+=fileLengths[i];
+			}else{
+				heads[i]=("--"+boundary+"\r\nContent-Disposition: form-data; name=\""+param.getName()+"\"\r\n\r\n").getBytes(UTF8);
+				values[i]=String.valueOf(param.getValue()).getBytes(UTF8);
+				len+=values[i].length;
 			}
-			return tmp.toByteArray();
-		}else{
-			return null;
+			// and the \r\n after the body
+			len+=heads[i].length+2;
 		}
+		end=("--"+boundary+"--\r\n").getBytes(UTF8);
+		length=len+end.length;
+		setContentType("multipart/form-data; boundary="+boundary);
 	}
 
 	@Override
@@ -83,88 +82,144 @@ public class MultipartFormEntity extends AbstractHttpEntity{
 
 	@Override
 	public long getContentLength(){
-		if(!tooBig && content==null)generate();
-		if(tooBig)return -1;
-		return content.length;
+		return length;
 	}
 
+	/**
+	 * @return The body, reading each file as it gets to it.
+	 */
 	@Override
 	public InputStream getContent() throws IOException,IllegalStateException{
-		if(getContentLength()!=-1)
-			return new ByteArrayInputStream(content);
-		else
-			return new ContentStream();
+		return new SequenceInputStream(new Enumeration<InputStream>(){
+			/** Part, times three for its head, body and \r\n, and the end after them. */
+			private int next=0;
+			@Override
+			public boolean hasMoreElements(){
+				return next<=heads.length*3;
+			}
+			@Override
+			public InputStream nextElement(){
+				if(!hasMoreElements())
+					throw new NoSuchElementException();
+				final int part=next/3;
+				final int piece=next%3;
+				next++;
+				if(part==heads.length)
+					return new ByteArrayInputStream(end);
+				switch(piece){
+				case 0:
+					return new ByteArrayInputStream(heads[part]);
+				case 1:
+					if(values[part]!=null)
+						return new ByteArrayInputStream(values[part]);
+					return new FilePart(files[part],fileLengths[part]);
+				default:
+					return new ByteArrayInputStream(CRLF);
+				}
+			}
+		});
 	}
-
 	@Override
 	public void writeTo(OutputStream outstream) throws IOException{
-		//StreamFactory.copy(getContent(),System.out,9000);
-		FileUtil.copy(getContent(),outstream,9000);
+		byte[] buf=null;
+		for(int i=0;i<heads.length;i++){
+			outstream.write(heads[i]);
+			if(values[i]!=null)
+				outstream.write(values[i]);
+			else{
+				if(buf==null && !(outstream instanceof FileOutputStream))
+					buf=new byte[BUFFER];
+				copy(files[i],fileLengths[i],outstream,buf);
+			}
+			outstream.write(CRLF);
+		}
+		outstream.write(end);
+		outstream.flush();
+	}
+	/**Copies exactly <var>length</var> bytes of <var>file</var> to <var>out</var>,
+	 * by the channels if it's a file or through <var>buf</var>.
+	 */
+	private static void copy(File file,long length,OutputStream out,byte[] buf) throws IOException{
+		final FileInputStream in=new FileInputStream(file);
+		try{
+			if(out instanceof FileOutputStream){
+				final FileChannel src=in.getChannel(), dst=((FileOutputStream)out).getChannel();
+				long pos=0;
+				while(pos<length){
+					final long n=src.transferTo(pos,length-pos,dst);
+					if(n<=0)
+						break;
+					pos+=n;
+				}
+				if(pos<length || src.size()!=length)
+					throw changed(file);
+				return;
+			}
+			long left=length;
+			while(left>0){
+				final int n=in.read(buf,0,(int)Math.min(buf.length,left));
+				if(n<0)
+					throw changed(file);
+				out.write(buf,0,n);
+				left-=n;
+			}
+			if(in.read()>=0)
+				throw changed(file);
+		}finally{
+			in.close();
+		}
+	}
+	private static IOException changed(File file){
+		return new IOException("File changed size while being sent: "+file);
 	}
 
 	@Override
 	public boolean isStreaming(){return false;}
 
-
-	class ContentStream extends InputStream{
-		int currentItem=0;
-		InputStream in=null;
-		int bbyte;
-		@Override
-		public int read() throws IOException{
-			if(in==null && !setupNextRead()) return -1;
-			bbyte=in.read();
-			if(bbyte==-1 && setupNextRead())
-				bbyte=in.read();
-			return bbyte;
+	/**The first <var>length</var> bytes of a file, failing if it has fewer or more. */
+	private static final class FilePart extends InputStream{
+		private final File file;
+		private InputStream in=null;
+		private long left;
+		FilePart(File file,long length){
+			this.file=file;
+			left=length;
 		}
-		private boolean setupNextRead() throws FileNotFoundException{
-			if(currentItem==params.length){
-				in=new ByteArrayInputStream(("--"+boundary+"--\r\n").getBytes());
-				return true;
+		private InputStream in() throws IOException{
+			// opened on the first read so only one file is open at a time
+			if(in==null){
+				try{
+					in=new FileInputStream(file);
+				}catch(FileNotFoundException e){
+					throw changed(file);
+				}
 			}
-			if(currentItem==-1)return false;
-			currentItem++;
-			if(params[currentItem] instanceof FileParam)
-				in=new FileStream((FileParam)params[currentItem]);
-			else
-				in=new ByteArrayInputStream(getParam(currentItem));
-			return true;
-		}
-	}
-	class FileStream extends InputStream{
-		final byte[] header;
-		int offset=0,bbyte;
-		final InputStream filestream;
-		public FileStream(FileParam param) throws FileNotFoundException{
-			File file=new File(param.getValue().replace('/',File.separatorChar));
-			String filename=param.getValue();
-			if(filename.contains("/"))
-				filename=filename.substring(filename.lastIndexOf('/'));
-			header=(boundary+"\r\nContent-Disposition: form-data; name=\""+param.getName()
-					+"\"; filename=\""+filename
-					+"\"\r\nContent-Type: "+(param).getContentType()+"\r\n\r\n").getBytes();
-			filestream =StreamFactory.getBufferedInputStream(file);
+			return in;
 		}
 		@Override
 		public int read() throws IOException{
-			if(offset<0){
-				if(offset==-1){
-					offset--;
-					return '\n';
-				}
+			final byte[] b=new byte[1];
+			return (read(b,0,1)<0) ? -1 : b[0]&0xFF;
+		}
+		@Override
+		public int read(byte[] b,int off,int len) throws IOException{
+			if(len==0)
+				return 0;
+			if(left==0){
+				if(in().read()>=0)
+					throw changed(file);
 				return -1;
 			}
-			if(offset==header.length){
-				bbyte=filestream.read();
-				if(bbyte==-1){
-					offset=-1;
-					return '\r';
-				}
-				return bbyte;
-			}
-			return header[offset++];
+			final int n=in().read(b,off,(int)Math.min(len,left));
+			if(n<0)
+				throw changed(file);
+			left-=n;
+			return n;
+		}
+		@Override
+		public void close() throws IOException{
+			if(in!=null)
+				in.close();
 		}
-
 	}
 }
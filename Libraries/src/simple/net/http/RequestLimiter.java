@@ -0,0 +1,204 @@
+/**
+ *
+ */
+package simple.net.http;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**Caps the requests running at once, over all hosts and to each host, for
+ * {@link Client}'s async requests.<br>
+ * Requests over a cap wait in a queue for their host instead of holding a
+ * thread, so any number can be queued. When one finishes the next is taken
+ * from the hosts that are under their cap, in the order they started
+ * waiting, so a busy host doesn't starve the others.<br>
+ * A request the executor won't take gives its place to the next. Once the
+ * executor is shut down every waiting request is rejected.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+final class RequestLimiter {
+	private final Executor executor;
+	private final int maxTotal;
+	private final int maxPerHost;
+	private int running=0;
+	/** Running and waiting requests of each host with any. */
+	private final HashMap<String,Host> hosts=new HashMap<String,Host>();
+	/** Hosts with requests waiting that are under their cap. */
+	private final LinkedHashSet<Host> ready=new LinkedHashSet<Host>();
+
+	/**A request to run. */
+	interface Task extends Runnable {
+		/**Called instead of running when the executor won't take the task.
+		 * @param e Why.
+		 */
+		void rejected(RuntimeException e);
+	}
+
+	private static final class Host {
+		final String name;
+		int running=0;
+		final ArrayDeque<Task> waiting=new ArrayDeque<Task>();
+		Host(final String name) {
+			this.name=name;
+		}
+	}
+
+	/**
+	 * @param executor Runs the requests.
+	 * @param maxTotal Most requests running at once.
+	 * @param maxPerHost Most requests running at once to one host.
+	 */
+	RequestLimiter(final Executor executor, final int maxTotal, final int maxPerHost) {
+		this.executor=executor;
+		this.maxTotal=maxTotal;
+		this.maxPerHost=maxPerHost;
+	}
+	/**Runs <var>task</var> now if the caps allow, or when they do. The task has
+	 * to call {@link #release(String)} with the same host when it is done.
+	 * @param host
+	 * @param task
+	 */
+	void submit(final String host, final Task task) {
+		synchronized (this) {
+			Host h=hosts.get(host);
+			if (h==null) {
+				h=new Host(host);
+				hosts.put(host, h);
+			}
+			if (running>=maxTotal || h.running>=maxPerHost || !h.waiting.isEmpty()) {
+				h.waiting.add(task);
+				if (h.running<maxPerHost)
+					ready.add(h);
+				return;
+			}
+			h.running++;
+			running++;
+		}
+		start(host, task);
+	}
+	/**Lets the next waiting request run.
+	 * @param host Host of the request that finished.
+	 */
+	void release(final String host) {
+		final Task next;
+		final String nextHost;
+		synchronized (this) {
+			free(host);
+			final Host n=nextHost();
+			if (n==null)
+				return;
+			next=take(n);
+			nextHost=n.name;
+		}
+		start(nextHost, next);
+	}
+	/**
+	 * @return Requests running now.
+	 */
+	synchronized int getRunning() {
+		return running;
+	}
+	/**
+	 * @return Requests waiting for a cap.
+	 */
+	synchronized int getWaiting() {
+		int ret=0;
+		for (final Host h:hosts.values())
+			ret+=h.waiting.size();
+		return ret;
+	}
+	/**Gives the executor <var>task</var>, which already counts as running. If
+	 * it is rejected the next waiting request is tried, in a loop rather than
+	 * through {@link #release(String)} so a long queue can't overflow the stack.
+	 * @param host
+	 * @param task
+	 */
+	private void start(String host, Task task) {
+		while (true) {
+			final RuntimeException e;
+			try {
+				executor.execute(task);
+				return;
+			} catch (final RuntimeException ex) {
+				e=ex;
+			}
+			final Task failed=task;
+			ArrayList<Task> drained=null;
+			synchronized (this) {
+				free(host);
+				if (executor instanceof ExecutorService && ((ExecutorService)executor).isShutdown()) {
+					drained=drain();
+					task=null;
+				} else {
+					final Host n=nextHost();
+					if (n==null)
+						task=null;
+					else {
+						task=take(n);
+						host=n.name;
+					}
+				}
+			}
+			failed.rejected(e);
+			if (drained!=null)
+				for (final Task t:drained)
+					t.rejected(e);
+			if (task==null)
+				return;
+		}
+	}
+	/**Stops counting a request of <var>host</var> as running. Caller holds the lock.
+	 * @param host
+	 */
+	private void free(final String host) {
+		final Host h=hosts.get(host);
+		h.running--;
+		running--;
+		if (!h.waiting.isEmpty())
+			ready.add(h);
+		else if (h.running==0)
+			hosts.remove(host);
+	}
+	/**Caller holds the lock.
+	 * @return The host whose request runs next, null if none can.
+	 */
+	private Host nextHost() {
+		final Iterator<Host> it=ready.iterator();
+		return it.hasNext() ? it.next() : null;
+	}
+	/**Takes the next waiting request of <var>h</var> and counts it as running.
+	 * Caller holds the lock.
+	 * @param h A host from {@link #nextHost()}.
+	 * @return The request.
+	 */
+	private Task take(final Host h) {
+		final Task ret=h.waiting.poll();
+		if (h.waiting.isEmpty() || h.running+1>=maxPerHost)
+			ready.remove(h);
+		h.running++;
+		running++;
+		return ret;
+	}
+	/**Takes every waiting request. Caller holds the lock.
+	 * @return The requests.
+	 */
+	private ArrayList<Task> drain() {
+		final ArrayList<Task> ret=new ArrayList<Task>();
+		final Iterator<Host> it=hosts.values().iterator();
+		while (it.hasNext()) {
+			final Host h=it.next();
+			ret.addAll(h.waiting);
+			h.waiting.clear();
+			if (h.running==0)
+				it.remove();
+		}
+		ready.clear();
+		return ret;
+	}
+}
@@ -62,12 +62,11 @@ public final class BitArray {
   }
   public BitArray(byte[] b) {
 	  bits = new boolean[b.length*8];
-	  int index = 0;
 	  int j = 0;
 	  for (int i = 0;i<b.length; i++) {
 		  for (j=0;j<8;j++) {
 			  if (((b[i]>>j)&0x01) == 0x01) {
-				  setBitAt(index++);
+				  setBitAt(i*8+j);
 			  }
 		  }
 	  }
@@ -85,7 +84,7 @@ public long getValue() {
 	  long v = 0;
 	  for(int i = 0;i<getSize();i++) {
 		  if (bits[i]) {
-			  v = v|(1<<i);
+			  v = v|(1L<<i);
 		  }
 	  }
 	  return v;
@@ -12,6 +12,7 @@ import java.util.concurrent.TimeUnit;
 /**Blocks until the list has an item.
  * <br>Created: Feb 8, 2010
  * @author Kenneth Pierce
+ * @see BlockingQueueFactory
  */
 public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	private final Vector<E> list;
@@ -45,23 +46,23 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #offer(Object)
 	 */
 	public boolean add(E e) {
-		if (isFull())
-		{	throw new IllegalStateException("List is full.");	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		boolean res = list.add(e);
 		synchronized (list) {
+			if (isFull())
+			{	throw new IllegalStateException("List is full.");	}
+			boolean res = list.add(e);
 			list.notifyAll();
+			return res;
 		}
-		return res;
 	}
 	public void addFirst(E e) {
-		if (isFull())
-		{	throw new IllegalStateException("List is full.");	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		list.insertElementAt(e, 0);
 		synchronized (list) {
+			if (isFull())
+			{	throw new IllegalStateException("List is full.");	}
+			list.insertElementAt(e, 0);
 			list.notifyAll();
 		}
 	}
@@ -79,15 +80,15 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #offer(Object, long, TimeUnit)
 	 */
 	public boolean offer(E e) {
-		if (isFull())
-		{	return false;	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		boolean res = list.add(e);
 		synchronized (list) {
+			if (isFull())
+			{	return false;	}
+			boolean res = list.add(e);
 			list.notifyAll();
+			return res;
 		}
-		return res;
 	}
 	/** Attempts to add <code>e</code> to the queue. Will wait the specified time
 	 * if the queue is full.
@@ -117,16 +118,15 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 		}
 	}
 	public boolean offerFirst(E e) {
-		if (isFull())
-		{	return false;	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		list.add(0, e);
-		boolean res = list.firstElement() == e;
 		synchronized (list) {
+			if (isFull())
+			{	return false;	}
+			list.add(0, e);
 			list.notifyAll();
+			return true;
 		}
-		return res;
 	}
 	public boolean offerFirst(E e, long timeout, TimeUnit unit)
 			throws InterruptedException {
@@ -180,14 +180,18 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	
 	//-----------------------------------------------------------------------------------
 	public E getFirst() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("The queue is empty.");	}
-		return list.firstElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("The queue is empty.");	}
+			return list.firstElement();
+		}
 	}
 	public E getLast() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("The queue is empty.");	}
-		return list.lastElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("The queue is empty.");	}
+			return list.lastElement();
+		}
 	}
 	
 	//-----------------------------------------------------------------------------------
@@ -202,11 +206,14 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 		return remove(o);
 	}
 	public boolean removeLastOccurrence(Object o) {
-		boolean res = (list.remove(list.lastIndexOf(o))!=null);
 		synchronized (list) {
+			final int index = list.lastIndexOf(o);
+			if (index < 0)
+			{	return false;	}
+			list.remove(index);
 			list.notifyAll();
+			return true;
 		}
-		return res;
 	}
 	/**
 	 * Removes and returns the first element added. Throws an exception if the queue is empty.
@@ -216,17 +223,21 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #poll()
 	 */
 	public E remove() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("Queue is empty.");	}
-		return remove(0);
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("Queue is empty.");	}
+			return remove(0);
+		}
 	}
 	public E removeFirst() {
 		return remove();
 	}
 	public E removeLast() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("Queue is empty.");	}
-		return remove(list.size()-1);
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("Queue is empty.");	}
+			return remove(list.size()-1);
+		}
 	}
 
 	/** Removes and returns the element at the specified index and notifies all waiting threads.
@@ -234,11 +245,11 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @return The element at <code>index</code>
 	 */
 	private E remove(int index) {
-		E tmp = list.remove(index);
 		synchronized (list) {
+			E tmp = list.remove(index);
 			list.notifyAll();
+			return tmp;
 		}
-		return tmp;
 	}
 	private E waitForFirstException() throws InterruptedException {
 		synchronized (list) {
@@ -311,9 +322,11 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #getFirst()
 	 */
 	public E element() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("Queue is empty.");	}
-		return list.firstElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("Queue is empty.");	}
+			return list.firstElement();
+		}
 	}
 	
 	//-----------------------------------------------------------------------------------
@@ -325,17 +338,21 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #take()
 	 */
 	public E peek() {
-		if (list.isEmpty())
-		{	return null;	}
-		return list.firstElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			return list.firstElement();
+		}
 	}
 	public E peekFirst() {
 		return peek();
 	}
 	public E peekLast() {
-		if (list.isEmpty())
-		{	return null;	}
-		return list.lastElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			return list.lastElement();
+		}
 	}
 	
 	//-----------------------------------------------------------------------------------
@@ -365,17 +382,21 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	 * @see #poll(long, TimeUnit)
 	 */
 	public E poll() {
-		if (list.isEmpty())
-		{	return null;	}
-		return remove(0);
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			return remove(0);
+		}
 	}
 	public E pollFirst() {
 		return poll();
 	}
 	public E pollLast() {
-		if (list.isEmpty())
-		{	return null;	}
-		return remove(list.size()-1);
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			return remove(list.size()-1);
+		}
 	}
 	
 	/* ***************************
@@ -419,18 +440,40 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	}
 	/**
 	 * Adds the collection to the queue if there is enough room.
+	 * The whole collection is added under one lock and waiting threads are notified once.
 	 * @return <code>true</code> if all were added, <code>false</code> otherwise.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
 	 * @see java.util.Collection#addAll(java.util.Collection)
 	 */
 	public boolean addAll(Collection<? extends E> c) {
-		boolean res = false;
-		if (remainingCapacity() <= c.size()) {
-			res = list.addAll(c);
-			synchronized (list) {
-				list.notifyAll();
-			}
-		}
-		return res;
+		return VectorBatch.addAll(list, list, fixedSize, c);
+	}
+	/**
+	 * Adds all of <code>c</code> to the queue, waiting up to the specified time for
+	 * enough room. Either the whole collection is added or none of it.
+	 * Waiting threads are notified once for the whole batch.
+	 * @param c Elements to add.
+	 * @param timeout Length of time to wait.
+	 * @param unit Units of time to wait.
+	 * @return <code>false</code> if the waited time elapsed without enough room or <code>c</code>
+	 * 			is larger than the capacity of the queue.
+	 * @throws {@link java.lang.InterruptedException} if interrupted
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	public boolean offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return VectorBatch.offerAll(list, list, fixedSize, c, timeout, unit);
+	}
+	/**
+	 * Adds all of <code>c</code> to the queue, blocking while the queue is full.
+	 * Elements are added in as few chunks as the free room allows and waiting
+	 * threads are notified once per chunk.
+	 * @param c Elements to add.
+	 * @throws {@link java.lang.InterruptedException} if interrupted. Elements already added stay in the queue.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	public void putAll(Collection<? extends E> c) throws InterruptedException {
+		VectorBatch.putAll(list, list, fixedSize, c);
 	}
 
 	public boolean containsAll(Collection<?> c) {
@@ -463,34 +506,29 @@ public class BlockingDeque<E> implements java.util.concurrent.BlockingDeque<E> {
 	public boolean contains(Object e) {
 		return list.contains(e);
 	}
+	/**
+	 * Removes every element and adds them to <code>c</code>.
+	 * @see #drainTo(Collection, int)
+	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection)
+	 */
 	public int drainTo(Collection<? super E> c) {
-		if (c == this)
-		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
-		int copied = 0;
-		E tmp;
-		while ((tmp = this.poll()) != null) {
-			if (!c.add(tmp)) {	break;	}
-			copied++;
-		}
-		synchronized (list) {
-			list.notifyAll();
-		}
-		return copied;
+		return drainTo(c, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Removes up to <code>max</code> elements, first added first, and adds them to <code>c</code>.
+	 * The elements are removed under one lock with a single array copy and waiting
+	 * threads are notified once.
+	 * @param c Collection to receive the elements.
+	 * @param max Maximum number of elements to remove.
+	 * @return The number of elements removed.
+	 * @throws {@link java.lang.IllegalArgumentException} if <code>c</code> is this queue.
+	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection, int)
+	 */
 	public int drainTo(Collection<? super E> c, int max) {
 		if (c == this)
 		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
-		int copied = 0;
-		E tmp;
-		for (copied = 0; copied < max; copied++) {
-			tmp = this.poll();
-			if (tmp == null || !c.add(tmp)) {	break;	}
-		}
-		synchronized (list) {
-			list.notifyAll();
-		}
-		return copied;
+		return VectorBatch.drainTo(list, list, c, max, false);
 	}
 	public void push(E e) {
 		addFirst(e);
@@ -12,6 +12,7 @@ import java.util.concurrent.TimeUnit;
 /** Blocks until the list has an item.
  * <br>Created: Feb 8, 2010
  * @author Kenneth Pierce
+ * @see BlockingQueueFactory
  */
 public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	private final Vector<E> list;
@@ -44,15 +45,15 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #offer(Object)
 	 */
 	public boolean add(E e) {
-		if (isFull())
-		{	throw new IllegalStateException("List is full.");	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		boolean res = list.add(e);
 		synchronized (list) {
+			if (isFull())
+			{	throw new IllegalStateException("List is full.");	}
+			boolean res = list.add(e);
 			list.notifyAll();
+			return res;
 		}
-		return res;
 	}
 	
 	/** Attempts to add <code>e</code> to the queue.
@@ -64,15 +65,15 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #offer(Object, long, TimeUnit)
 	 */
 	public boolean offer(E e) {
-		if (isFull())
-		{	return false;	}
 		if (e == null)
 		{ throw new NullPointerException("Can not add a null element.");	}
-		boolean res = list.add(e);
 		synchronized (list) {
+			if (isFull())
+			{	return false;	}
+			boolean res = list.add(e);
 			list.notifyAll();
+			return res;
 		}
-		return res;
 	}
 
 	/** Attempts to add <code>e</code> to the queue. Will wait the specified time
@@ -176,9 +177,11 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #take()
 	 */
 	public E element() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("Queue is empty.");	}
-		return list.firstElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("Queue is empty.");	}
+			return list.firstElement();
+		}
 	}
 
 	/**
@@ -189,9 +192,11 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #take()
 	 */
 	public E peek() {
-		if (list.isEmpty())
-		{	return null;	}
-		return list.firstElement();
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			return list.firstElement();
+		}
 	}
 
 	/**
@@ -202,9 +207,13 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #poll(long, TimeUnit)
 	 */
 	public E poll() {
-		if (list.isEmpty())
-		{	return null;	}
-		return list.remove(0);
+		synchronized (list) {
+			if (list.isEmpty())
+			{	return null;	}
+			E tmp = list.remove(0);
+			list.notifyAll();
+			return tmp;
+		}
 	}
 
 	/**
@@ -215,13 +224,13 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	 * @see #poll()
 	 */
 	public E remove() {
-		if (list.isEmpty())
-		{	throw new NoSuchElementException("Queue is empty.");	}
-		E tmp = list.remove(0);
 		synchronized (list) {
+			if (list.isEmpty())
+			{	throw new NoSuchElementException("Queue is empty.");	}
+			E tmp = list.remove(0);
 			list.notifyAll();
+			return tmp;
 		}
-		return tmp;
 	}
 	
 	/* ***************************
@@ -265,18 +274,40 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 	}
 	/**
 	 * Adds the collection to the queue if there is enough room.
+	 * The whole collection is added under one lock and waiting threads are notified once.
 	 * @return <code>true</code> if all were added, <code>false</code> otherwise.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
 	 * @see java.util.Collection#addAll(java.util.Collection)
 	 */
 	public boolean addAll(Collection<? extends E> c) {
-		boolean res = false;
-		if (remainingCapacity() <= c.size()) {
-			res = list.addAll(c);
-			synchronized (list) {
-				list.notifyAll();
-			}
-		}
-		return res;
+		return VectorBatch.addAll(list, list, fixedSize, c);
+	}
+	/**
+	 * Adds all of <code>c</code> to the queue, waiting up to the specified time for
+	 * enough room. Either the whole collection is added or none of it.
+	 * Waiting threads are notified once for the whole batch.
+	 * @param c Elements to add.
+	 * @param timeout Length of time to wait.
+	 * @param unit Units of time to wait.
+	 * @return <code>false</code> if the waited time elapsed without enough room or <code>c</code>
+	 * 			is larger than the capacity of the queue.
+	 * @throws {@link java.lang.InterruptedException} if interrupted
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	public boolean offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return VectorBatch.offerAll(list, list, fixedSize, c, timeout, unit);
+	}
+	/**
+	 * Adds all of <code>c</code> to the queue, blocking while the queue is full.
+	 * Elements are added in as few chunks as the free room allows and waiting
+	 * threads are notified once per chunk.
+	 * @param c Elements to add.
+	 * @throws {@link java.lang.InterruptedException} if interrupted. Elements already added stay in the queue.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	public void putAll(Collection<? extends E> c) throws InterruptedException {
+		VectorBatch.putAll(list, list, fixedSize, c);
 	}
 
 	public boolean containsAll(Collection<?> c) {
@@ -313,39 +344,28 @@ public class BlockingQueue<E> implements java.util.concurrent.BlockingQueue<E> {
 		return list.contains(e);
 	}
 
-	/* (non-Javadoc)
+	/**
+	 * Removes every element and adds them to <code>c</code>.
+	 * @see #drainTo(Collection, int)
 	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection)
 	 */
 	public int drainTo(Collection<? super E> c) {
-		if (c == this)
-		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
-		int copied = 0;
-		E tmp;
-		while ((tmp = this.poll()) != null) {
-			if (!c.add(tmp)) {	break;	}
-			copied++;
-		}
-		synchronized (list) {
-			list.notifyAll();
-		}
-		return copied;
+		return drainTo(c, Integer.MAX_VALUE);
 	}
 
-	/* (non-Javadoc)
+	/**
+	 * Removes up to <code>max</code> elements, first added first, and adds them to <code>c</code>.
+	 * The elements are removed under one lock with a single array copy and waiting
+	 * threads are notified once.
+	 * @param c Collection to receive the elements.
+	 * @param max Maximum number of elements to remove.
+	 * @return The number of elements removed.
+	 * @throws {@link java.lang.IllegalArgumentException} if <code>c</code> is this queue.
 	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection, int)
 	 */
 	public int drainTo(Collection<? super E> c, int max) {
 		if (c == this)
 		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
-		int copied = 0;
-		E tmp;
-		for (copied = 0; copied < max; copied++) {
-			tmp = this.poll();
-			if (tmp == null || !c.add(tmp)) {	break;	}
-		}
-		synchronized (list) {
-			list.notifyAll();
-		}
-		return copied;
+		return VectorBatch.drainTo(list, list, c, max, false);
 	}
 }
@@ -0,0 +1,75 @@
+/**
+ *
+ */
+package simple.util;
+
+/**
+ * Convenience factory for choosing a {@link java.util.concurrent.BlockingQueue} implementation.
+ * <dl>
+ * <dt>{@link #createFixed(int)}</dt><dd>{@link BlockingQueue} backed by a fixed size Vector.</dd>
+ * <dt>{@link #createGrowable(int, int)}</dt><dd>{@link BlockingQueue} backed by a Vector that grows when full.</dd>
+ * <dt>{@link #createRingBuffer(int)}</dt><dd>{@link RingBlockingQueue}. Bounded and lock free, for high throughput
+ * producer/consumer pipelines.</dd>
+ * <dt>{@link #createDeque(int)}</dt><dd>{@link BlockingDeque} backed by a fixed size Vector.</dd>
+ * <dt>{@link #createGrowableDeque(int, int)}</dt><dd>{@link BlockingDeque} backed by a Vector that grows when full.</dd>
+ * <dt>{@link #createLinkedDeque(int)}</dt><dd>{@link TwoLockBlockingDeque}. Each end has its own lock, for
+ * work stealing and other uses where both ends are busy.</dd>
+ * </dl>
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class BlockingQueueFactory {
+
+	private BlockingQueueFactory(){}
+
+	/**
+	 * @param size Capacity of the queue
+	 * @return A new fixed size Vector backed queue.
+	 * @see BlockingQueue#BlockingQueue(int)
+	 */
+	public static <E> java.util.concurrent.BlockingQueue<E> createFixed(int size){
+		return new BlockingQueue<E>(size);
+	}
+	/**
+	 * @param size Initial size of the queue
+	 * @param increment Number of slots to add when full. If negative or zero the number of slots double.
+	 * @return A new Vector backed queue that grows as needed.
+	 * @see BlockingQueue#BlockingQueue(int, int)
+	 */
+	public static <E> java.util.concurrent.BlockingQueue<E> createGrowable(int size, int increment){
+		return new BlockingQueue<E>(size, increment);
+	}
+	/**
+	 * @param size Capacity of the queue. Rounded up to the next power of two.
+	 * @return A new ring buffer backed queue.
+	 * @see RingBlockingQueue#RingBlockingQueue(int)
+	 */
+	public static <E> java.util.concurrent.BlockingQueue<E> createRingBuffer(int size){
+		return new RingBlockingQueue<E>(size);
+	}
+	/**
+	 * @param size Capacity of the deque
+	 * @return A new fixed size Vector backed deque.
+	 * @see BlockingDeque#BlockingDeque(int)
+	 */
+	public static <E> java.util.concurrent.BlockingDeque<E> createDeque(int size){
+		return new BlockingDeque<E>(size);
+	}
+	/**
+	 * @param size Initial size of the deque
+	 * @param increment Number of slots to add when full. If negative or zero the number of slots double.
+	 * @return A new Vector backed deque that grows as needed.
+	 * @see BlockingDeque#BlockingDeque(int, int)
+	 */
+	public static <E> java.util.concurrent.BlockingDeque<E> createGrowableDeque(int size, int increment){
+		return new BlockingDeque<E>(size, increment);
+	}
+	/**
+	 * @param size Capacity of the deque. {@link Integer#MAX_VALUE} for unbounded.
+	 * @return A new linked deque with a lock for each end.
+	 * @see TwoLockBlockingDeque#TwoLockBlockingDeque(int)
+	 */
+	public static <E> java.util.concurrent.BlockingDeque<E> createLinkedDeque(int size){
+		return new TwoLockBlockingDeque<E>(size);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ *
+ */
+package simple.util;
+
+import simple.CIString;
+
+/**Set of strings that can only tell that a string was probably added, or
+ * certainly wasn't. Takes a fixed number of bits no matter how many strings
+ * are added.<br>
+ * A string is hashed once into 64 bits. The halves are combined into the
+ * <var>k</var> bit positions, <code>h1+i*h2</code>, instead of hashing
+ * <var>k</var> times.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see Utils#distinctApprox(java.util.Iterator, boolean, long, double)
+ */
+public final class BloomFilter {
+	private final PackedBitArray bits;
+	private final int size;
+	private final int hashes;
+	private final boolean ignorecase;
+	private long added=0;
+
+	/**
+	 * @param expected Number of strings expected to be added.
+	 * @param fpp Chance of {@link #mightContain(CharSequence)} returning true for
+	 * 		a string that wasn't added, once <var>expected</var> strings are added.
+	 * @param ignorecase Treat strings that differ only in case as the same.
+	 */
+	public BloomFilter(final long expected, final double fpp, final boolean ignorecase) {
+		if (expected<1)
+			throw new IllegalArgumentException("expected must be positive.");
+		if (!(fpp>0 && fpp<1))
+			throw new IllegalArgumentException("fpp must be between 0 and 1.");
+		// m=-n*ln(p)/ln(2)^2, k=m/n*ln(2)
+		final double ln2=Math.log(2);
+		final long m=(long)Math.ceil(-expected*Math.log(fpp)/(ln2*ln2));
+		size=(int)Math.max(64, Math.min(m, Integer.MAX_VALUE-63));
+		hashes=(int)Math.max(1, Math.min(30, Math.round((double)size/expected*ln2)));
+		bits=new PackedBitArray(size);
+		this.ignorecase=ignorecase;
+	}
+	/**
+	 * @param s
+	 * @return True if <var>s</var> wasn't in the filter yet. False means it was
+	 * 		probably added before.
+	 */
+	public boolean add(final CharSequence s) {
+		final long h=hash(s);
+		final int h1=(int)h, h2=(int)(h>>>32);
+		boolean changed=false;
+		for (int i=0;i<hashes;i++) {
+			final int index=((h1+i*h2)&Integer.MAX_VALUE)%size;
+			if (!bits.get(index)) {
+				bits.setBitAt(index);
+				changed=true;
+			}
+		}
+		if (changed)
+			added++;
+		return changed;
+	}
+	/**
+	 * @param s
+	 * @return False if <var>s</var> was certainly not added, true if it probably was.
+	 */
+	public boolean mightContain(final CharSequence s) {
+		final long h=hash(s);
+		final int h1=(int)h, h2=(int)(h>>>32);
+		for (int i=0;i<hashes;i++)
+			if (!bits.get(((h1+i*h2)&Integer.MAX_VALUE)%size))
+				return false;
+		return true;
+	}
+	/** FNV-1a over the chars, then mixed so both halves are usable. */
+	private long hash(final CharSequence s) {
+		long h=0xCBF29CE484222325L;
+		final int len=s.length();
+		for (int i=0;i<len;i++) {
+			final char c=ignorecase ? CIString.fold(s.charAt(i)) : s.charAt(i);
+			h=(h^c)*0x100000001B3L;
+		}
+		h^=h>>>33;
+		h*=0xFF51AFD7ED558CCDL;
+		h^=h>>>33;
+		return h;
+	}
+	/**
+	 * @return Number of strings that changed the filter. Close to the number of distinct strings added.
+	 */
+	public long getAdded() {
+		return added;
+	}
+	/**
+	 * @return Size of the filter in bits.
+	 */
+	public int getSize() {
+		return size;
+	}
+	/**
+	 * @return Bits set per string.
+	 */
+	public int getHashCount() {
+		return hashes;
+	}
+	/**Removes everything.
+	 */
+	public void clear() {
+		bits.unsetAll();
+		added=0;
+	}
+}
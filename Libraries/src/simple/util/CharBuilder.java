@@ -0,0 +1,216 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+
+/**A StringBuilder whose chars can be handed out as {@link CharSlice}s
+ * without copying them.<br>
+ * Slices share the array, so they change when the builder does. Turn them
+ * into Strings to keep them.<br>
+ * {@link #acquire()} and {@link #release(CharBuilder)} keep a few builders
+ * per thread, so a parser reuses one buffer for every document it reads
+ * instead of growing a new one each time.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see CharSlice
+ */
+public final class CharBuilder implements CharSequence, Appendable {
+	private char[] value;
+	private int count = 0;
+
+	public CharBuilder() {
+		this(256);
+	}
+	/**
+	 * @param capacity Number of chars to make room for.
+	 */
+	public CharBuilder(final int capacity) {
+		value = new char[capacity];
+	}
+	/**
+	 * @param capacity Number of chars the builder holds without growing.
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity>value.length)
+			value = Arrays.copyOf(value, Math.max(capacity, value.length*2+2));
+	}
+	public int length() {
+		return count;
+	}
+	/**
+	 * @return Number of chars the builder holds without growing.
+	 */
+	public int capacity() {
+		return value.length;
+	}
+	/**Shortens the builder or pads it with '\0'.
+	 * @param length
+	 */
+	public void setLength(final int length) {
+		if (length<0)
+			throw new StringIndexOutOfBoundsException(length);
+		ensureCapacity(length);
+		if (length>count)
+			Arrays.fill(value, count, length, '\0');
+		count = length;
+	}
+	public char charAt(final int index) {
+		if (index<0 || index>=count)
+			throw new StringIndexOutOfBoundsException(index);
+		return value[index];
+	}
+	public void setCharAt(final int index, final char c) {
+		if (index<0 || index>=count)
+			throw new StringIndexOutOfBoundsException(index);
+		value[index] = c;
+	}
+	public CharBuilder append(final char c) {
+		if (count==value.length)
+			ensureCapacity(count+1);
+		value[count++] = c;
+		return this;
+	}
+	public CharBuilder append(final char[] chars, final int offset, final int len) {
+		ensureCapacity(count+len);
+		System.arraycopy(chars, offset, value, count, len);
+		count += len;
+		return this;
+	}
+	public CharBuilder append(final String s) {
+		final String str = (s==null) ? "null" : s;
+		final int len = str.length();
+		ensureCapacity(count+len);
+		str.getChars(0, len, value, count);
+		count += len;
+		return this;
+	}
+	public CharBuilder append(final CharSequence s) {
+		if (s==null || s instanceof String)
+			return append((String)s);
+		return append(s, 0, s.length());
+	}
+	public CharBuilder append(final CharSequence s, final int start, final int end) {
+		if (s==null)
+			return append("null", start, end);
+		if (s instanceof CharSlice) {
+			final CharSlice slice = (CharSlice)s;
+			if (start<0 || end>slice.length() || start>end)
+				throw new StringIndexOutOfBoundsException("start "+start+", end "+end+" of "+slice.length());
+			return append(slice.getArray(), slice.getOffset()+start, end-start);
+		}
+		ensureCapacity(count+end-start);
+		for (int i = start; i<end; i++)
+			value[count++] = s.charAt(i);
+		return this;
+	}
+	/**Removes the chars from <var>start</var> to <var>end</var>.
+	 * @param start
+	 * @param end Clipped to the length.
+	 * @return This builder.
+	 */
+	public CharBuilder delete(final int start, int end) {
+		if (end>count)
+			end = count;
+		if (start<0 || start>end)
+			throw new StringIndexOutOfBoundsException("start "+start+", end "+end+" of "+count);
+		System.arraycopy(value, end, value, start, count-end);
+		count -= end-start;
+		return this;
+	}
+	public CharBuilder deleteCharAt(final int index) {
+		if (index<0 || index>=count)
+			throw new StringIndexOutOfBoundsException(index);
+		return delete(index, index+1);
+	}
+	/**
+	 * @param start
+	 * @param end
+	 * @return A view of the chars, valid until the builder changes.
+	 */
+	public CharSlice slice(final int start, final int end) {
+		if (start<0 || end>count || start>end)
+			throw new StringIndexOutOfBoundsException("start "+start+", end "+end+" of "+count);
+		return new CharSlice(value, start, end-start);
+	}
+	/**
+	 * @return A view of the chars, valid until the builder changes.
+	 */
+	public CharSlice subSequence(final int start, final int end) {
+		return slice(start, end);
+	}
+	/**
+	 * @param start
+	 * @param end
+	 * @return A new String of the chars.
+	 */
+	public String substring(final int start, final int end) {
+		if (start<0 || end>count || start>end)
+			throw new StringIndexOutOfBoundsException("start "+start+", end "+end+" of "+count);
+		return new String(value, start, end-start);
+	}
+	public String substring(final int start) {
+		return substring(start, count);
+	}
+	/**
+	 * @return The array the chars are kept in. It is replaced when the builder grows.
+	 */
+	public char[] getArray() {
+		return value;
+	}
+	/**
+	 * @return A new String of the chars.
+	 */
+	@Override
+	public String toString() {
+		return new String(value, 0, count);
+	}
+//	========== start pool ===========
+	/** Builders kept per thread. */
+	private static final int POOLED = 4;
+	/** Bigger builders are dropped when released so one huge document doesn't pin its buffer. */
+	private static final int MAX_POOLED_CAPACITY = 1<<16;
+	private static final ThreadLocal<CharBuilder[]> pool = new ThreadLocal<CharBuilder[]>() {
+		@Override
+		protected CharBuilder[] initialValue() {
+			return new CharBuilder[POOLED];
+		}
+	};
+	/**Takes an empty builder from this thread's pool, or makes one.
+	 * Hand it back with {@link #release(CharBuilder)} when done.
+	 * @return An empty builder.
+	 */
+	public static CharBuilder acquire() {
+		final CharBuilder[] builders = pool.get();
+		for (int i = POOLED-1; i>=0; i--) {
+			final CharBuilder b = builders[i];
+			if (b!=null) {
+				builders[i] = null;
+				return b;
+			}
+		}
+		return new CharBuilder(512);
+	}
+	/**Empties <var>b</var> and puts it in this thread's pool. Slices of it
+	 * must not be used after this.
+	 * @param b
+	 */
+	public static void release(final CharBuilder b) {
+		if (b.value.length>MAX_POOLED_CAPACITY)
+			return;
+		b.count = 0;
+		final CharBuilder[] builders = pool.get();
+		int free = -1;
+		for (int i = 0; i<POOLED; i++) {
+			if (builders[i]==b)
+				return;
+			if (builders[i]==null)
+				free = i;
+		}
+		if (free>=0)
+			builders[free] = b;
+	}
+//	========== end pool ===========
+}
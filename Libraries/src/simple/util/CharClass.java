@@ -0,0 +1,164 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+
+/**A set of chars for scanning text.<br>
+ * Chars below 256 are bits in four longs, so testing one is a shift and a
+ * mask no matter how many chars are in the set. Other chars are kept sorted
+ * and binary searched.<br>
+ * Ranges are <var>from</var> inclusive to <var>to</var> exclusive.
+ * {@link CharSlice}s and {@link CharBuilder}s are scanned through their arrays.<br>
+ * Immutable and safe to share between threads.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see StringSearcher
+ */
+public final class CharClass {
+	private final long bits0, bits1, bits2, bits3;
+	/** Chars from 256 up, sorted. */
+	private final char[] high;
+
+	/**
+	 * @param chars The chars in the set.
+	 */
+	public CharClass(final CharSequence chars) {
+		long b0=0, b1=0, b2=0, b3=0;
+		char[] hi=new char[0];
+		int n=0;
+		for (int i=0;i<chars.length();i++) {
+			final char c=chars.charAt(i);
+			switch (c>>>6) {
+			case 0: b0|=1L<<c; break;
+			case 1: b1|=1L<<c; break;
+			case 2: b2|=1L<<c; break;
+			case 3: b3|=1L<<c; break;
+			default:
+				if (n==hi.length)
+					hi=Arrays.copyOf(hi, n*2+4);
+				hi[n++]=c;
+			}
+		}
+		bits0=b0;
+		bits1=b1;
+		bits2=b2;
+		bits3=b3;
+		Arrays.sort(hi, 0, n);
+		// drop repeats
+		int len=0;
+		for (int i=0;i<n;i++)
+			if (len==0 || hi[len-1]!=hi[i])
+				hi[len++]=hi[i];
+		high=Arrays.copyOf(hi, len);
+	}
+	/**
+	 * @param chars
+	 * @return The set of <var>chars</var>.
+	 */
+	public static CharClass of(final CharSequence chars) {
+		return new CharClass(chars);
+	}
+	public boolean contains(final char c) {
+		switch (c>>>6) {
+		case 0: return (bits0&(1L<<c))!=0;
+		case 1: return (bits1&(1L<<c))!=0;
+		case 2: return (bits2&(1L<<c))!=0;
+		case 3: return (bits3&(1L<<c))!=0;
+		default: return high.length!=0 && Arrays.binarySearch(high, c)>=0;
+		}
+	}
+	public int indexOfAny(final CharSequence s, final int from) {
+		return indexOfAny(s, from, s.length());
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from
+	 * @param to
+	 * @return Index of the first char in the set or -1.
+	 */
+	public int indexOfAny(final CharSequence s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		if (s instanceof CharSlice) {
+			final CharSlice slice=(CharSlice)s;
+			final int i=indexOfAny(slice.getArray(), slice.getOffset()+from, slice.getOffset()+to);
+			return (i<0) ? -1 : i-slice.getOffset();
+		}
+		if (s instanceof CharBuilder)
+			return indexOfAny(((CharBuilder)s).getArray(), from, to);
+		for (;from<to;from++)
+			if (contains(s.charAt(from)))
+				return from;
+		return -1;
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from
+	 * @param to
+	 * @return Index of the first char in the set or -1.
+	 */
+	public int indexOfAny(final char[] s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length)
+			to=s.length;
+		for (;from<to;from++)
+			if (contains(s[from]))
+				return from;
+		return -1;
+	}
+	public int indexOfMissing(final CharSequence s, final int from) {
+		return indexOfMissing(s, from, s.length());
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from
+	 * @param to
+	 * @return Index of the first char not in the set or -1.
+	 */
+	public int indexOfMissing(final CharSequence s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		if (s instanceof CharSlice) {
+			final CharSlice slice=(CharSlice)s;
+			final int i=indexOfMissing(slice.getArray(), slice.getOffset()+from, slice.getOffset()+to);
+			return (i<0) ? -1 : i-slice.getOffset();
+		}
+		if (s instanceof CharBuilder)
+			return indexOfMissing(((CharBuilder)s).getArray(), from, to);
+		for (;from<to;from++)
+			if (!contains(s.charAt(from)))
+				return from;
+		return -1;
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from
+	 * @param to
+	 * @return Index of the first char not in the set or -1.
+	 */
+	public int indexOfMissing(final char[] s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length)
+			to=s.length;
+		for (;from<to;from++)
+			if (!contains(s[from]))
+				return from;
+		return -1;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder().append('[');
+		for (char c=0;c<256;c++)
+			if (contains(c))
+				buf.append(c);
+		return buf.append(high).append(']').toString();
+	}
+}
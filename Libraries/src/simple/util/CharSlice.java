@@ -0,0 +1,205 @@
+/**
+ *
+ */
+package simple.util;
+
+import simple.CIString;
+
+/**A view of part of a char array, for handing out tokens without copying them.<br>
+ * The array is shared, not copied, so a slice of a buffer that is reused
+ * changes with it. Call {@link #toString()} to keep the text.<br>
+ * The hash code is the one of the String with the same chars, but a slice
+ * only equals another slice. Use {@link #contentEquals(CharSequence)} to
+ * compare it with a String. {@link CIString#intern(CharSequence)} and
+ * {@link CIString#equals(Object)} take slices without making a String.<br>
+ * The hash code isn't kept since the chars can change under the slice, so
+ * a slice of a reused buffer can't be a key in a map or set. Copy it with
+ * {@link #CharSlice(CharSequence)} first.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see CharBuilder
+ */
+public final class CharSlice implements CharSequence, Comparable<CharSequence> {
+	public static final CharSlice EMPTY = new CharSlice(new char[0], 0, 0);
+	private final char[] array;
+	private final int offset;
+	private final int length;
+
+	/**Copies <var>chars</var>.
+	 * @param chars
+	 */
+	public CharSlice(final CharSequence chars) {
+		array = chars.toString().toCharArray();
+		offset = 0;
+		length = array.length;
+	}
+	/**A view of all of <var>array</var>.
+	 * @param array
+	 */
+	public CharSlice(final char[] array) {
+		this(array, 0, array.length);
+	}
+	/**A view of part of <var>array</var>.
+	 * @param array
+	 * @param offset First char of the slice.
+	 * @param length Number of chars in the slice.
+	 */
+	public CharSlice(final char[] array, final int offset, final int length) {
+		if (offset<0 || length<0 || offset>array.length-length)
+			throw new StringIndexOutOfBoundsException("offset "+offset+", length "+length+" of "+array.length);
+		this.array = array;
+		this.offset = offset;
+		this.length = length;
+	}
+	/**
+	 * @return The shared array. The slice starts at {@link #getOffset()}.
+	 */
+	public char[] getArray() {
+		return array;
+	}
+	/**
+	 * @return Index in {@link #getArray()} of the first char.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+	public int length() {
+		return length;
+	}
+	public boolean isEmpty() {
+		return length==0;
+	}
+	public char charAt(final int index) {
+		if (index<0 || index>=length)
+			throw new StringIndexOutOfBoundsException(index);
+		return array[offset+index];
+	}
+	/**
+	 * @return A slice of the same array.
+	 */
+	public CharSlice subSequence(final int start, final int end) {
+		return slice(start, end);
+	}
+	/**
+	 * @param start
+	 * @param end
+	 * @return A slice of the same array.
+	 */
+	public CharSlice slice(final int start, final int end) {
+		if (start<0 || end>length || start>end)
+			throw new StringIndexOutOfBoundsException("start "+start+", end "+end+" of "+length);
+		if (start==0 && end==length)
+			return this;
+		return new CharSlice(array, offset+start, end-start);
+	}
+	/**
+	 * @return A slice without the leading and trailing whitespace, like {@link String#trim()}.
+	 */
+	public CharSlice trim() {
+		int start = 0, end = length;
+		while (start<end && array[offset+start]<=' ')
+			start++;
+		while (end>start && array[offset+end-1]<=' ')
+			end--;
+		return slice(start, end);
+	}
+	/**Copies chars into <var>dst</var>.
+	 * @param srcBegin
+	 * @param srcEnd
+	 * @param dst
+	 * @param dstBegin
+	 */
+	public void getChars(final int srcBegin, final int srcEnd, final char[] dst, final int dstBegin) {
+		if (srcBegin<0 || srcEnd>length || srcBegin>srcEnd)
+			throw new StringIndexOutOfBoundsException("start "+srcBegin+", end "+srcEnd+" of "+length);
+		System.arraycopy(array, offset+srcBegin, dst, dstBegin, srcEnd-srcBegin);
+	}
+	public int indexOf(final char c, final int from) {
+		for (int i = Math.max(from, 0); i<length; i++)
+			if (array[offset+i]==c)
+				return i;
+		return -1;
+	}
+	/**
+	 * @param prefix
+	 * @return True if the slice starts with <var>prefix</var>.
+	 */
+	public boolean startsWith(final CharSequence prefix) {
+		final int len = prefix.length();
+		if (len>length)
+			return false;
+		for (int i = 0; i<len; i++)
+			if (array[offset+i]!=prefix.charAt(i))
+				return false;
+		return true;
+	}
+	/**
+	 * @param cs
+	 * @return True if <var>cs</var> has the same chars.
+	 */
+	public boolean contentEquals(final CharSequence cs) {
+		if (cs.length()!=length)
+			return false;
+		for (int i = 0; i<length; i++)
+			if (array[offset+i]!=cs.charAt(i))
+				return false;
+		return true;
+	}
+	/**
+	 * @param cs
+	 * @return True if <var>cs</var> has the same chars, ignoring case the way {@link String#equalsIgnoreCase(String)} does.
+	 */
+	public boolean equalsIgnoreCase(final CharSequence cs) {
+		if (cs.length()!=length)
+			return false;
+		for (int i = 0; i<length; i++) {
+			final char c = array[offset+i], d = cs.charAt(i);
+			if (c!=d && CIString.fold(c)!=CIString.fold(d))
+				return false;
+		}
+		return true;
+	}
+	/**
+	 * @return The hash code a {@link CIString} of the same chars has.
+	 */
+	public int hashIgnoreCase() {
+		return CIString.hashOf(this);
+	}
+	/**Same as {@link String#hashCode()} of the same chars. Worked out on
+	 * each call, from the chars as they are then.
+	 */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = 0; i<length; i++)
+			h = 31*h+array[offset+i];
+		return h;
+	}
+	/**Equal to a slice with the same chars. Not equal to a String, since the
+	 * String wouldn't be equal to it, use {@link #contentEquals(CharSequence)}.
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj==this)
+			return true;
+		if (obj instanceof CharSlice)
+			return contentEquals((CharSlice)obj);
+		return false;
+	}
+	public int compareTo(final CharSequence o) {
+		final int n = Math.min(length, o.length());
+		for (int i = 0; i<n; i++) {
+			final char c = array[offset+i], d = o.charAt(i);
+			if (c!=d)
+				return c-d;
+		}
+		return length-o.length();
+	}
+	/**
+	 * @return A new String of the chars.
+	 */
+	@Override
+	public String toString() {
+		return new String(array, offset, length);
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+
+/**Map of int to int without boxing.<br>
+ * Keys and values are kept side by side in one array probed linearly. 0
+ * marks an empty slot, the key 0 is kept on the side. Removal moves the following entries
+ * back instead of leaving markers, so lookups never slow down.<br>
+ * Lookups of missing keys return the value given to the constructor, 0 by
+ * default.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class IntIntMap {
+	/** Key at <code>i*2</code>, value at <code>i*2+1</code>. One cache line for both. */
+	private int[] table;
+	private int mask;
+	private int threshold;
+	private int size=0;
+	private boolean hasZero=false;
+	private int zeroValue;
+	private final int missing;
+
+	public IntIntMap() {
+		this(8, 0);
+	}
+	/**
+	 * @param expected Number of entries to make room for.
+	 */
+	public IntIntMap(final int expected) {
+		this(expected, 0);
+	}
+	/**
+	 * @param expected Number of entries to make room for.
+	 * @param missing Value returned for keys that aren't in the map.
+	 */
+	public IntIntMap(final int expected, final int missing) {
+		final int capacity=OpenHash.capacity(expected);
+		table=new int[capacity<<1];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		this.missing=missing;
+	}
+	/** @return Slot of <var>key</var> or -1. <var>key</var> must not be 0. */
+	private int find(final int key) {
+		int pos=OpenHash.mix(key)&mask, k;
+		while ((k=table[pos<<1])!=0) {
+			if (k==key)
+				return pos;
+			pos=(pos+1)&mask;
+		}
+		return -1;
+	}
+	/**
+	 * @param key
+	 * @return The value or the missing value.
+	 */
+	public int get(final int key) {
+		if (key==0)
+			return hasZero ? zeroValue : missing;
+		final int pos=find(key);
+		return (pos<0) ? missing : table[(pos<<1)+1];
+	}
+	/**
+	 * @param key
+	 * @param def
+	 * @return The value or <var>def</var> if the key isn't in the map.
+	 */
+	public int get(final int key, final int def) {
+		if (key==0)
+			return hasZero ? zeroValue : def;
+		final int pos=find(key);
+		return (pos<0) ? def : table[(pos<<1)+1];
+	}
+	public boolean containsKey(final int key) {
+		return (key==0) ? hasZero : find(key)>=0;
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return The previous value or the missing value.
+	 */
+	public int put(final int key, final int value) {
+		if (key==0) {
+			final int old=hasZero ? zeroValue : missing;
+			if (!hasZero) {
+				hasZero=true;
+				size++;
+			}
+			zeroValue=value;
+			return old;
+		}
+		int pos=OpenHash.mix(key)&mask, k;
+		while ((k=table[pos<<1])!=0) {
+			if (k==key) {
+				final int old=table[(pos<<1)+1];
+				table[(pos<<1)+1]=value;
+				return old;
+			}
+			pos=(pos+1)&mask;
+		}
+		table[pos<<1]=key;
+		table[(pos<<1)+1]=value;
+		if (++size>threshold)
+			rehash(table.length);
+		return missing;
+	}
+	/**Adds <var>delta</var> to the value of <var>key</var>, starting from the
+	 * missing value. Handy for counting.
+	 * @param key
+	 * @param delta
+	 * @return The new value.
+	 */
+	public int addTo(final int key, final int delta) {
+		if (key==0) {
+			if (!hasZero) {
+				hasZero=true;
+				zeroValue=missing;
+				size++;
+			}
+			return zeroValue+=delta;
+		}
+		int pos=OpenHash.mix(key)&mask, k;
+		while ((k=table[pos<<1])!=0) {
+			if (k==key)
+				return table[(pos<<1)+1]+=delta;
+			pos=(pos+1)&mask;
+		}
+		table[pos<<1]=key;
+		final int value=table[(pos<<1)+1]=missing+delta;
+		if (++size>threshold)
+			rehash(table.length);
+		return value;
+	}
+	/**
+	 * @param key
+	 * @return The removed value or the missing value.
+	 */
+	public int remove(final int key) {
+		if (key==0) {
+			if (!hasZero)
+				return missing;
+			hasZero=false;
+			size--;
+			return zeroValue;
+		}
+		final int pos=find(key);
+		if (pos<0)
+			return missing;
+		final int old=table[(pos<<1)+1];
+		shiftKeys(pos);
+		size--;
+		return old;
+	}
+	/** Fills the emptied slot with the entries after it that belong before it. */
+	private void shiftKeys(int pos) {
+		int last, k;
+		while (true) {
+			pos=((last=pos)+1)&mask;
+			while (true) {
+				if ((k=table[pos<<1])==0) {
+					table[last<<1]=0;
+					return;
+				}
+				if (OpenHash.canShift(last, OpenHash.mix(k)&mask, pos))
+					break;
+				pos=(pos+1)&mask;
+			}
+			table[last<<1]=k;
+			table[(last<<1)+1]=table[(pos<<1)+1];
+		}
+	}
+	private void rehash(final int capacity) {
+		if (capacity>OpenHash.MAX_CAPACITY)
+			throw new IllegalStateException("Map is full");
+		final int[] old=table;
+		table=new int[capacity<<1];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		for (int i=(old.length>>>1)-1;i>=0;i--) {
+			final int k=old[i<<1];
+			if (k==0)
+				continue;
+			int pos=OpenHash.mix(k)&mask;
+			while (table[pos<<1]!=0)
+				pos=(pos+1)&mask;
+			table[pos<<1]=k;
+			table[(pos<<1)+1]=old[(i<<1)+1];
+		}
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size==0;
+	}
+	public void clear() {
+		Arrays.fill(table, 0);
+		hasZero=false;
+		size=0;
+	}
+	/**
+	 * @return The value returned for keys that aren't in the map.
+	 */
+	public int getMissingValue() {
+		return missing;
+	}
+	/**
+	 * @return The keys in no particular order.
+	 */
+	public int[] keys() {
+		final int[] ret=new int[size];
+		int n=0;
+		if (hasZero)
+			ret[n++]=0;
+		for (int i=0;i<table.length>>>1;i++)
+			if (table[i<<1]!=0)
+				ret[n++]=table[i<<1];
+		return ret;
+	}
+	/**
+	 * @return The values in the same order as {@link #keys()}.
+	 */
+	public int[] values() {
+		final int[] ret=new int[size];
+		int n=0;
+		if (hasZero)
+			ret[n++]=zeroValue;
+		for (int i=0;i<table.length>>>1;i++)
+			if (table[i<<1]!=0)
+				ret[n++]=table[(i<<1)+1];
+		return ret;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder(size*8+2).append('{');
+		if (hasZero)
+			buf.append("0=").append(zeroValue).append(", ");
+		for (int i=0;i<table.length>>>1;i++)
+			if (table[i<<1]!=0)
+				buf.append(table[i<<1]).append('=').append(table[(i<<1)+1]).append(", ");
+		if (size>0)
+			buf.setLength(buf.length()-2);
+		return buf.append('}').toString();
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+
+/**Growable list of longs without boxing.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see IntArrayList
+ */
+public final class LongArrayList {
+	private long[] data;
+	private int size=0;
+
+	public LongArrayList() {
+		this(10);
+	}
+	/**
+	 * @param capacity Number of elements to make room for.
+	 */
+	public LongArrayList(final int capacity) {
+		if (capacity<0)
+			throw new IllegalArgumentException("capacity must not be negative: "+capacity);
+		data=new long[capacity];
+	}
+	/**
+	 * @param values Copied into the list.
+	 */
+	public LongArrayList(final long[] values) {
+		data=values.clone();
+		size=values.length;
+	}
+	private void checkIndex(final int index) {
+		if (index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" of "+size);
+	}
+	/**
+	 * @param capacity Number of elements the list holds without growing.
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity>data.length)
+			data=Arrays.copyOf(data, Math.max(capacity, data.length+(data.length>>>1)+1));
+	}
+	/**Drops the unused capacity.
+	 */
+	public void trimToSize() {
+		if (size<data.length)
+			data=Arrays.copyOf(data, size);
+	}
+	public void add(final long value) {
+		if (size==data.length)
+			ensureCapacity(size+1);
+		data[size++]=value;
+	}
+	/**
+	 * @param index Where to insert, 0 to {@link #size()}.
+	 * @param value
+	 */
+	public void add(final int index, final long value) {
+		if (index<0 || index>size)
+			throw new IndexOutOfBoundsException("Index "+index+" of "+size);
+		if (size==data.length)
+			ensureCapacity(size+1);
+		System.arraycopy(data, index, data, index+1, size-index);
+		data[index]=value;
+		size++;
+	}
+	public void addAll(final long[] values) {
+		addAll(values, 0, values.length);
+	}
+	/**
+	 * @param values
+	 * @param off First element to add.
+	 * @param len Number of elements to add.
+	 */
+	public void addAll(final long[] values, final int off, final int len) {
+		ensureCapacity(size+len);
+		System.arraycopy(values, off, data, size, len);
+		size+=len;
+	}
+	public long get(final int index) {
+		checkIndex(index);
+		return data[index];
+	}
+	/**
+	 * @param index
+	 * @param value
+	 * @return The previous value.
+	 */
+	public long set(final int index, final long value) {
+		checkIndex(index);
+		final long old=data[index];
+		data[index]=value;
+		return old;
+	}
+	/**
+	 * @param index
+	 * @return The removed value.
+	 */
+	public long removeAt(final int index) {
+		checkIndex(index);
+		final long old=data[index];
+		System.arraycopy(data, index+1, data, index, size-index-1);
+		size--;
+		return old;
+	}
+	/**
+	 * @param value
+	 * @return Index of the first <var>value</var> or -1.
+	 */
+	public int indexOf(final long value) {
+		for (int i=0;i<size;i++)
+			if (data[i]==value)
+				return i;
+		return -1;
+	}
+	public boolean contains(final long value) {
+		return indexOf(value)>=0;
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size==0;
+	}
+	/**Empties the list. The capacity is kept.
+	 */
+	public void clear() {
+		size=0;
+	}
+	/**
+	 * @see do_sort#introSort(long[], int, int)
+	 */
+	public void sort() {
+		do_sort.introSort(data, 0, size);
+	}
+	/**
+	 * @return A copy of the elements.
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+	@Override
+	public boolean equals(final Object o) {
+		if (!(o instanceof LongArrayList))
+			return false;
+		final LongArrayList other=(LongArrayList)o;
+		if (size!=other.size)
+			return false;
+		for (int i=0;i<size;i++)
+			if (data[i]!=other.data[i])
+				return false;
+		return true;
+	}
+	@Override
+	public int hashCode() {
+		int h=1;
+		for (int i=0;i<size;i++)
+			h=31*h+(int)(data[i]^(data[i]>>>32));
+		return h;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder(size*8+2).append('[');
+		for (int i=0;i<size;i++) {
+			if (i>0)
+				buf.append(", ");
+			buf.append(data[i]);
+		}
+		return buf.append(']').toString();
+	}
+}
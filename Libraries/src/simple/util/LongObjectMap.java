@@ -0,0 +1,213 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**Map of long to object without boxing the keys.<br>
+ * Keys and values are kept in two arrays probed linearly. 0 marks an empty
+ * slot, the key 0 is kept on the side. Removal moves the following entries
+ * back instead of leaving markers, so lookups never slow down.<br>
+ * null values are allowed, but can't be told apart from a missing key by
+ * {@link #get(long)}.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @param <V> Type of the stored values.
+ */
+public final class LongObjectMap<V> {
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int threshold;
+	private int size=0;
+	private boolean hasZero=false;
+	private V zeroValue=null;
+
+	public LongObjectMap() {
+		this(8);
+	}
+	/**
+	 * @param expected Number of entries to make room for.
+	 */
+	public LongObjectMap(final int expected) {
+		final int capacity=OpenHash.capacity(expected);
+		keys=new long[capacity];
+		values=new Object[capacity];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+	}
+	/** @return Slot of <var>key</var> or -1. <var>key</var> must not be 0. */
+	private int find(final long key) {
+		int pos=OpenHash.mix(key)&mask;
+		long k;
+		while ((k=keys[pos])!=0) {
+			if (k==key)
+				return pos;
+			pos=(pos+1)&mask;
+		}
+		return -1;
+	}
+	/**
+	 * @param key
+	 * @return The value or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(final long key) {
+		if (key==0)
+			return zeroValue;
+		final int pos=find(key);
+		return (pos<0) ? null : (V)values[pos];
+	}
+	public boolean containsKey(final long key) {
+		return (key==0) ? hasZero : find(key)>=0;
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return The previous value or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(final long key, final V value) {
+		if (key==0) {
+			final V old=zeroValue;
+			if (!hasZero) {
+				hasZero=true;
+				size++;
+			}
+			zeroValue=value;
+			return old;
+		}
+		int pos=OpenHash.mix(key)&mask;
+		long k;
+		while ((k=keys[pos])!=0) {
+			if (k==key) {
+				final V old=(V)values[pos];
+				values[pos]=value;
+				return old;
+			}
+			pos=(pos+1)&mask;
+		}
+		keys[pos]=key;
+		values[pos]=value;
+		if (++size>threshold)
+			rehash(keys.length<<1);
+		return null;
+	}
+	/**
+	 * @param key
+	 * @return The removed value or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(final long key) {
+		if (key==0) {
+			if (!hasZero)
+				return null;
+			final V old=zeroValue;
+			hasZero=false;
+			zeroValue=null;
+			size--;
+			return old;
+		}
+		final int pos=find(key);
+		if (pos<0)
+			return null;
+		final V old=(V)values[pos];
+		shiftKeys(pos);
+		size--;
+		return old;
+	}
+	/** Fills the emptied slot with the entries after it that belong before it. */
+	private void shiftKeys(int pos) {
+		int last;
+		long k;
+		while (true) {
+			pos=((last=pos)+1)&mask;
+			while (true) {
+				if ((k=keys[pos])==0) {
+					keys[last]=0;
+					values[last]=null;
+					return;
+				}
+				if (OpenHash.canShift(last, OpenHash.mix(k)&mask, pos))
+					break;
+				pos=(pos+1)&mask;
+			}
+			keys[last]=k;
+			values[last]=values[pos];
+		}
+	}
+	private void rehash(final int capacity) {
+		if (capacity>OpenHash.MAX_CAPACITY)
+			throw new IllegalStateException("Map is full");
+		final long[] oldKeys=keys;
+		final Object[] oldValues=values;
+		keys=new long[capacity];
+		values=new Object[capacity];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		for (int i=oldKeys.length-1;i>=0;i--) {
+			final long k=oldKeys[i];
+			if (k==0)
+				continue;
+			int pos=OpenHash.mix(k)&mask;
+			while (keys[pos]!=0)
+				pos=(pos+1)&mask;
+			keys[pos]=k;
+			values[pos]=oldValues[i];
+		}
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size==0;
+	}
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, null);
+		hasZero=false;
+		zeroValue=null;
+		size=0;
+	}
+	/**
+	 * @return The keys in no particular order.
+	 */
+	public long[] keys() {
+		final long[] ret=new long[size];
+		int n=0;
+		if (hasZero)
+			ret[n++]=0;
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=0)
+				ret[n++]=keys[i];
+		return ret;
+	}
+	/**
+	 * @return The values in the same order as {@link #keys()}.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<V> values() {
+		final ArrayList<V> ret=new ArrayList<V>(size);
+		if (hasZero)
+			ret.add(zeroValue);
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=0)
+				ret.add((V)values[i]);
+		return ret;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder(size*16+2).append('{');
+		if (hasZero)
+			buf.append("0=").append(zeroValue).append(", ");
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=0)
+				buf.append(keys[i]).append('=').append(values[i]).append(", ");
+		if (size>0)
+			buf.setLength(buf.length()-2);
+		return buf.append('}').toString();
+	}
+}
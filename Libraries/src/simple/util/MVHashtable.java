@@ -3,29 +3,93 @@
  */
 package simple.util;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
 
-/**Allows multiple values to be stored for each key. Identical values can be
- * stored for a key if, and only if, the hash is different.
+/**Allows multiple values to be stored for each key. A value is stored once per key.<br>
+ * Backed by a {@link MultiValueMap}, so there is no set object for each key.
+ * Every method is synchronized on the table.
  * <br>Created: Nov 3, 2010
  * @author Kenneth Pierce
  * @param <K> Type of the key.
  * @param <V> Type of the stored values.
  */
-public final class MVHashtable<K, V> extends HashMap<K, HashSet<V>> {
-	private static final long serialVersionUID = -6236840157697527805L;
-	public synchronized void add(K key, V value) {
-		HashSet<V> tmp = get(key);
-		if (tmp==null) {
-			tmp = new HashSet<V>(5,5);
-			put(key, tmp);
-		}
-		tmp.add(value);
-	}
-	public boolean contains(K key, V value) {
-		HashSet<V> tmp = get(key);
-		if (tmp==null) return false;
-		return tmp.contains(value);
+public final class MVHashtable<K, V> {
+	private final MultiValueMap<K, V> map;
+	public MVHashtable() {
+		map = new MultiValueMap<K, V>();
+	}
+	/**
+	 * @param expected Number of keys expected.
+	 */
+	public MVHashtable(final int expected) {
+		map = new MultiValueMap<K, V>(expected);
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return True if <var>value</var> wasn't stored for <var>key</var> yet.
+	 */
+	public synchronized boolean add(final K key, final V value) {
+		return map.add(key, value);
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return True if <var>value</var> is stored for <var>key</var>.
+	 */
+	public synchronized boolean contains(final Object key, final Object value) {
+		return map.contains(key, value);
+	}
+	public synchronized boolean containsKey(final Object key) {
+		return map.containsKey(key);
+	}
+	/**
+	 * @param key
+	 * @return A read-only copy of the values of <var>key</var>, null if there are none.
+	 * Use {@link #add(Object, Object)} and {@link #remove(Object, Object)} to change them.
+	 */
+	public synchronized Set<V> get(final Object key) {
+		final ArrayList<V> vals = map.get(key);
+		return (vals==null) ? null : Collections.unmodifiableSet(new HashSet<V>(vals));
+	}
+	/**Removes one value of <var>key</var>. The key is removed with its last value.
+	 * @param key
+	 * @param value
+	 * @return True if the value was stored.
+	 */
+	public synchronized boolean remove(final Object key, final Object value) {
+		return map.remove(key, value);
+	}
+	/**Removes the key and all its values.
+	 * @param key
+	 * @return Number of values removed.
+	 */
+	public synchronized int remove(final Object key) {
+		return map.remove(key);
+	}
+	/**
+	 * @return The keys in no particular order.
+	 */
+	public synchronized ArrayList<K> keys() {
+		return map.keys();
+	}
+	/**
+	 * @return Number of keys.
+	 */
+	public synchronized int size() {
+		return map.size();
+	}
+	public synchronized boolean isEmpty() {
+		return map.isEmpty();
+	}
+	public synchronized void clear() {
+		map.clear();
+	}
+	@Override
+	public synchronized String toString() {
+		return map.toString();
 	}
 }
@@ -0,0 +1,290 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import simple.CIString;
+
+/**Finds any of several needles in one pass over the text.<br>
+ * Aho-Corasick: the needles are a trie with links from each node to the
+ * longest suffix of it that is also in the trie, so the text is read once
+ * no matter how many needles there are. Each node of the trie keeps its
+ * children sorted in shared arrays, the root also has a table for the chars
+ * below 256.<br>
+ * {@link #indexOf(CharSequence, int, int)} returns the leftmost match. If
+ * several needles match there, the shortest wins.<br>
+ * Ranges are <var>from</var> inclusive to <var>to</var> exclusive. A match
+ * has to end by <var>to</var>.<br>
+ * Immutable and safe to share between threads.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see StringSearcher
+ */
+public final class MultiStringSearcher {
+	private final String[] needles;
+	private final boolean ignoreCase;
+	/** Children of node n are at <code>first[n]</code> to <code>first[n+1]</code>, sorted by char. */
+	private final int[] first;
+	private final char[] label;
+	private final int[] target;
+	/** Children of the root by char, 0 for none. */
+	private final int[] root;
+	private final int[] fail;
+	private final int[] depth;
+	/** Needle ending at each node, -1 for none. */
+	private final int[] needleAt;
+	/** Nearest node on the fail links, the node itself included, that ends a needle. -1 for none. */
+	private final int[] out;
+
+	/**
+	 * @param needles Texts to find. None may be empty.
+	 */
+	public MultiStringSearcher(final CharSequence... needles) {
+		this(false, needles);
+	}
+	/**
+	 * @param needles Texts to find. None may be empty.
+	 * @param ignoreCase
+	 */
+	public MultiStringSearcher(final Collection<? extends CharSequence> needles, final boolean ignoreCase) {
+		this(ignoreCase, needles.toArray(new CharSequence[needles.size()]));
+	}
+	/**
+	 * @param ignoreCase
+	 * @param needles Texts to find. None may be empty.
+	 */
+	public MultiStringSearcher(final boolean ignoreCase, final CharSequence... needles) {
+		this.needles=new String[needles.length];
+		this.ignoreCase=ignoreCase;
+		// build the trie with a map per node
+		final ArrayList<IntIntMap> children=new ArrayList<IntIntMap>();
+		final IntArrayList ends=new IntArrayList();
+		final IntArrayList depths=new IntArrayList();
+		children.add(new IntIntMap(8, -1));
+		ends.add(-1);
+		depths.add(0);
+		for (int n=0;n<needles.length;n++) {
+			final String needle=needles[n].toString();
+			if (needle.isEmpty())
+				throw new IllegalArgumentException("Needle "+n+" is empty");
+			this.needles[n]=needle;
+			final String chars=ignoreCase ? CIString.fold(needle) : needle;
+			int node=0;
+			for (int i=0;i<chars.length();i++) {
+				int next=children.get(node).get(chars.charAt(i));
+				if (next<0) {
+					next=children.size();
+					children.add(new IntIntMap(2, -1));
+					ends.add(-1);
+					depths.add(i+1);
+					children.get(node).put(chars.charAt(i), next);
+				}
+				node=next;
+			}
+			if (ends.get(node)<0)
+				ends.set(node, n);
+		}
+		final int nodes=children.size();
+		// flatten the children
+		first=new int[nodes+1];
+		int edges=0;
+		for (int n=0;n<nodes;n++) {
+			first[n]=edges;
+			edges+=children.get(n).size();
+		}
+		first[nodes]=edges;
+		label=new char[edges];
+		target=new int[edges];
+		for (int n=0;n<nodes;n++) {
+			final IntIntMap map=children.get(n);
+			final int[] keys=map.keys();
+			Arrays.sort(keys);
+			for (int i=0;i<keys.length;i++) {
+				label[first[n]+i]=(char)keys[i];
+				target[first[n]+i]=map.get(keys[i]);
+			}
+		}
+		root=new int[256];
+		for (int i=first[0];i<first[1] && label[i]<256;i++)
+			root[label[i]]=target[i];
+		depth=depths.toArray();
+		needleAt=ends.toArray();
+		// fail links breadth first, parents before children
+		fail=new int[nodes];
+		out=new int[nodes];
+		out[0]=-1;
+		final int[] queue=new int[nodes];
+		int head=0, tail=0;
+		for (int i=first[0];i<first[1];i++) {
+			final int child=target[i];
+			out[child]=(needleAt[child]>=0) ? child : -1;
+			queue[tail++]=child;
+		}
+		while (head<tail) {
+			final int node=queue[head++];
+			for (int i=first[node];i<first[node+1];i++) {
+				final int child=target[i];
+				fail[child]=next(fail[node], label[i]);
+				out[child]=(needleAt[child]>=0) ? child : out[fail[child]];
+				queue[tail++]=child;
+			}
+		}
+	}
+	/** @return The child of <var>node</var> for <var>c</var> or -1. */
+	private int child(final int node, final char c) {
+		final int i=Arrays.binarySearch(label, first[node], first[node+1], c);
+		return (i<0) ? -1 : target[i];
+	}
+	/** @return The node after reading <var>c</var> in <var>node</var>. */
+	private int next(int node, final char c) {
+		while (node!=0) {
+			final int t=child(node, c);
+			if (t>=0)
+				return t;
+			node=fail[node];
+		}
+		if (c<256)
+			return root[c];
+		final int t=child(0, c);
+		return (t<0) ? 0 : t;
+	}
+	/**
+	 * @return Number of needles.
+	 */
+	public int size() {
+		return needles.length;
+	}
+	/**
+	 * @param index
+	 * @return The needle as it was given.
+	 */
+	public String getNeedle(final int index) {
+		return needles[index];
+	}
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+	public int indexOf(final CharSequence s) {
+		return indexOf(s, 0, s.length());
+	}
+	public int indexOf(final CharSequence s, final int from) {
+		return indexOf(s, from, s.length());
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the leftmost match or -1.
+	 */
+	public int indexOf(final CharSequence s, final int from, final int to) {
+		return (int)(find(s, from, to)>>32);
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the leftmost match or -1.
+	 */
+	public int indexOf(final char[] s, final int from, final int to) {
+		return (int)(find(s, from, to)>>32);
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the leftmost match and the index of the needle found there, or null.
+	 */
+	public int[] match(final CharSequence s, final int from, final int to) {
+		final long found=find(s, from, to);
+		return (found<0) ? null : new int[]{(int)(found>>32), (int)found};
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the leftmost match and the index of the needle found there, or null.
+	 */
+	public int[] match(final char[] s, final int from, final int to) {
+		final long found=find(s, from, to);
+		return (found<0) ? null : new int[]{(int)(found>>32), (int)found};
+	}
+	/** @return The match index in the high half and the needle in the low half, or -1. */
+	private long find(final CharSequence s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		if (s instanceof CharSlice) {
+			final CharSlice slice=(CharSlice)s;
+			final long found=find(slice.getArray(), slice.getOffset()+from, slice.getOffset()+to);
+			return (found<0) ? -1 : found-((long)slice.getOffset()<<32);
+		}
+		if (s instanceof CharBuilder)
+			return find(((CharBuilder)s).getArray(), from, to);
+		int node=0, best=-1, bestNeedle=-1;
+		for (int i=from;i<to;i++) {
+			final char c=ignoreCase ? CIString.fold(s.charAt(i)) : s.charAt(i);
+			node=next(node, c);
+			// nothing still being matched can start before the best
+			if (best>=0 && i+1-depth[node]>=best)
+				break;
+			final int o=out[node];
+			if (o>=0 && (best<0 || i+1-depth[o]<best)) {
+				best=i+1-depth[o];
+				bestNeedle=needleAt[o];
+			}
+		}
+		return (best<0) ? -1 : ((long)best<<32)|bestNeedle;
+	}
+	/** @return The match index in the high half and the needle in the low half, or -1. */
+	private long find(final char[] s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length)
+			to=s.length;
+		int node=0, best=-1, bestNeedle=-1;
+		for (int i=from;i<to;i++) {
+			final char c=ignoreCase ? CIString.fold(s[i]) : s[i];
+			node=next(node, c);
+			if (best>=0 && i+1-depth[node]>=best)
+				break;
+			final int o=out[node];
+			if (o>=0 && (best<0 || i+1-depth[o]<best)) {
+				best=i+1-depth[o];
+				bestNeedle=needleAt[o];
+			}
+		}
+		return (best<0) ? -1 : ((long)best<<32)|bestNeedle;
+	}
+	/**Finds every match, overlapping ones included, in the order they end.
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the matches have to end by.
+	 * @return Index of each match followed by the index of its needle.
+	 */
+	public IntArrayList matchAll(final CharSequence s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		final IntArrayList ret=new IntArrayList();
+		int node=0;
+		for (int i=from;i<to;i++) {
+			final char c=ignoreCase ? CIString.fold(s.charAt(i)) : s.charAt(i);
+			node=next(node, c);
+			for (int o=out[node];o>=0;o=out[fail[o]]) {
+				ret.add(i+1-depth[o]);
+				ret.add(needleAt[o]);
+			}
+		}
+		return ret;
+	}
+	@Override
+	public String toString() {
+		return Arrays.toString(needles)+(ignoreCase ? " (ignoring case)" : "");
+	}
+}
@@ -0,0 +1,351 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**Map that stores a set of values for each key without a collection object
+ * per key.<br>
+ * Keys are probed linearly in one array. Their hash codes are kept so
+ * <code>equals</code> is only called on keys that likely match. The values
+ * of a key are kept in a plain array, scanned while there are at most 8, and
+ * turned into a small open addressing table after that. A value is stored
+ * once per key.<br>
+ * null keys and values are not allowed.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ * @see MVHashtable
+ */
+public class MultiValueMap<K, V> {
+	/** Largest value array that is scanned instead of hashed. */
+	private static final int LINEAR=8;
+	private Object[] keys;
+	/** Hash code of the key at <code>i*2</code>, number of values at <code>i*2+1</code>. */
+	private int[] hc;
+	/** Value array of each key. */
+	private Object[][] values;
+	private int mask;
+	private int threshold;
+	private int size=0;
+	private int valueCount=0;
+
+	public MultiValueMap() {
+		this(8);
+	}
+	/**
+	 * @param expected Number of keys to make room for.
+	 */
+	public MultiValueMap(final int expected) {
+		final int capacity=OpenHash.capacity(expected);
+		keys=new Object[capacity];
+		hc=new int[capacity<<1];
+		values=new Object[capacity][];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+	}
+	/** @return Slot of <var>key</var> or -1. */
+	private int find(final Object key) {
+		final int hash=key.hashCode();
+		int pos=OpenHash.mix(hash)&mask;
+		Object k;
+		while ((k=keys[pos])!=null) {
+			if (hc[pos<<1]==hash && (k==key || k.equals(key)))
+				return pos;
+			pos=(pos+1)&mask;
+		}
+		return -1;
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return True if <var>value</var> wasn't stored for <var>key</var> yet.
+	 */
+	public boolean add(final K key, final V value) {
+		if (key==null || value==null)
+			throw new NullPointerException("null keys and values are not allowed");
+		final int hash=key.hashCode();
+		int pos=OpenHash.mix(hash)&mask;
+		Object k;
+		while ((k=keys[pos])!=null) {
+			if (hc[pos<<1]==hash && (k==key || k.equals(key)))
+				break;
+			pos=(pos+1)&mask;
+		}
+		if (k==null) {
+			keys[pos]=key;
+			hc[pos<<1]=hash;
+			values[pos]=new Object[2];
+			values[pos][0]=value;
+			hc[(pos<<1)+1]=1;
+			valueCount++;
+			if (++size>threshold)
+				rehash(keys.length<<1);
+			return true;
+		}
+		final Object[] vals=values[pos];
+		final int count=hc[(pos<<1)+1];
+		if (vals.length<=LINEAR) {
+			if (indexOf(vals, count, value)>=0)
+				return false;
+			if (count<vals.length)
+				vals[count]=value;
+			else if (count<LINEAR)
+				(values[pos]=Arrays.copyOf(vals, Math.min(count*2, LINEAR)))[count]=value;
+			else {
+				values[pos]=toTable(vals, count);
+				insert(values[pos], value);
+			}
+		} else {
+			if (findValue(vals, value)>=0)
+				return false;
+			// half full at most
+			if (count+1>vals.length>>>1)
+				values[pos]=grow(vals);
+			insert(values[pos], value);
+		}
+		hc[(pos<<1)+1]=count+1;
+		valueCount++;
+		return true;
+	}
+	/**
+	 * @param key
+	 * @param value
+	 * @return True if <var>value</var> is stored for <var>key</var>.
+	 */
+	public boolean contains(final Object key, final Object value) {
+		final int pos=find(key);
+		if (pos<0)
+			return false;
+		final Object[] vals=values[pos];
+		if (vals.length<=LINEAR)
+			return indexOf(vals, hc[(pos<<1)+1], value)>=0;
+		return findValue(vals, value)>=0;
+	}
+	public boolean containsKey(final Object key) {
+		return find(key)>=0;
+	}
+	/**
+	 * @param key
+	 * @return Number of values stored for <var>key</var>.
+	 */
+	public int count(final Object key) {
+		final int pos=find(key);
+		return (pos<0) ? 0 : hc[(pos<<1)+1];
+	}
+	/**
+	 * @param key
+	 * @return A copy of the values of <var>key</var>, null if there are none.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<V> get(final Object key) {
+		final int pos=find(key);
+		if (pos<0)
+			return null;
+		final Object[] vals=values[pos];
+		final ArrayList<V> ret=new ArrayList<V>(hc[(pos<<1)+1]);
+		if (vals.length<=LINEAR) {
+			for (int i=0;i<hc[(pos<<1)+1];i++)
+				ret.add((V)vals[i]);
+		} else {
+			for (final Object v : vals)
+				if (v!=null)
+					ret.add((V)v);
+		}
+		return ret;
+	}
+	/**Removes one value of <var>key</var>. The key is removed with its last value.
+	 * @param key
+	 * @param value
+	 * @return True if the value was stored.
+	 */
+	public boolean remove(final Object key, final Object value) {
+		final int pos=find(key);
+		if (pos<0)
+			return false;
+		final Object[] vals=values[pos];
+		final int count=hc[(pos<<1)+1];
+		if (vals.length<=LINEAR) {
+			final int i=indexOf(vals, count, value);
+			if (i<0)
+				return false;
+			vals[i]=vals[count-1];
+			vals[count-1]=null;
+		} else {
+			final int i=findValue(vals, value);
+			if (i<0)
+				return false;
+			removeValue(vals, i);
+		}
+		valueCount--;
+		if (count==1)
+			removeKey(pos);
+		else
+			hc[(pos<<1)+1]=count-1;
+		return true;
+	}
+	/**Removes the key and all its values.
+	 * @param key
+	 * @return Number of values removed.
+	 */
+	public int remove(final Object key) {
+		final int pos=find(key);
+		if (pos<0)
+			return 0;
+		final int count=hc[(pos<<1)+1];
+		valueCount-=count;
+		removeKey(pos);
+		return count;
+	}
+	private static int indexOf(final Object[] vals, final int count, final Object value) {
+		for (int i=0;i<count;i++)
+			if (vals[i]==value || vals[i].equals(value))
+				return i;
+		return -1;
+	}
+//	========== start value tables ===========
+	private static int findValue(final Object[] table, final Object value) {
+		final int vmask=table.length-1;
+		int pos=OpenHash.mix(value.hashCode())&vmask;
+		Object v;
+		while ((v=table[pos])!=null) {
+			if (v==value || v.equals(value))
+				return pos;
+			pos=(pos+1)&vmask;
+		}
+		return -1;
+	}
+	/** Puts a value known not to be in the table into it. */
+	private static void insert(final Object[] table, final Object value) {
+		final int vmask=table.length-1;
+		int pos=OpenHash.mix(value.hashCode())&vmask;
+		while (table[pos]!=null)
+			pos=(pos+1)&vmask;
+		table[pos]=value;
+	}
+	private static Object[] toTable(final Object[] vals, final int count) {
+		final Object[] table=new Object[OpenHash.capacity(count+1)];
+		for (int i=0;i<count;i++)
+			insert(table, vals[i]);
+		return table;
+	}
+	private static Object[] grow(final Object[] table) {
+		final Object[] bigger=new Object[table.length<<1];
+		for (final Object v : table)
+			if (v!=null)
+				insert(bigger, v);
+		return bigger;
+	}
+	private static void removeValue(final Object[] table, int pos) {
+		final int vmask=table.length-1;
+		int last;
+		Object v;
+		while (true) {
+			pos=((last=pos)+1)&vmask;
+			while (true) {
+				if ((v=table[pos])==null) {
+					table[last]=null;
+					return;
+				}
+				if (OpenHash.canShift(last, OpenHash.mix(v.hashCode())&vmask, pos))
+					break;
+				pos=(pos+1)&vmask;
+			}
+			table[last]=v;
+		}
+	}
+//	========== end value tables ===========
+	/** Empties the key's slot and fills it with the entries after it that belong before it. */
+	private void removeKey(int pos) {
+		size--;
+		int last;
+		Object k;
+		while (true) {
+			pos=((last=pos)+1)&mask;
+			while (true) {
+				if ((k=keys[pos])==null) {
+					keys[last]=null;
+					values[last]=null;
+					return;
+				}
+				if (OpenHash.canShift(last, OpenHash.mix(hc[pos<<1])&mask, pos))
+					break;
+				pos=(pos+1)&mask;
+			}
+			keys[last]=k;
+			hc[last<<1]=hc[pos<<1];
+			values[last]=values[pos];
+			hc[(last<<1)+1]=hc[(pos<<1)+1];
+		}
+	}
+	private void rehash(final int capacity) {
+		if (capacity>OpenHash.MAX_CAPACITY)
+			throw new IllegalStateException("Map is full");
+		final Object[] oldKeys=keys;
+		final Object[][] oldValues=values;
+		final int[] oldHc=hc;
+		keys=new Object[capacity];
+		hc=new int[capacity<<1];
+		values=new Object[capacity][];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		for (int i=oldKeys.length-1;i>=0;i--) {
+			final Object k=oldKeys[i];
+			if (k==null)
+				continue;
+			int pos=OpenHash.mix(oldHc[i<<1])&mask;
+			while (keys[pos]!=null)
+				pos=(pos+1)&mask;
+			keys[pos]=k;
+			hc[pos<<1]=oldHc[i<<1];
+			values[pos]=oldValues[i];
+			hc[(pos<<1)+1]=oldHc[(i<<1)+1];
+		}
+	}
+	/**
+	 * @return Number of keys.
+	 */
+	public int size() {
+		return size;
+	}
+	/**
+	 * @return Number of values of all keys.
+	 */
+	public int valueCount() {
+		return valueCount;
+	}
+	public boolean isEmpty() {
+		return size==0;
+	}
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size=0;
+		valueCount=0;
+	}
+	/**
+	 * @return The keys in no particular order.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<K> keys() {
+		final ArrayList<K> ret=new ArrayList<K>(size);
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=null)
+				ret.add((K)keys[i]);
+		return ret;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder(size*16+2).append('{');
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=null)
+				buf.append(keys[i]).append('=').append(get(keys[i])).append(", ");
+		if (size>0)
+			buf.setLength(buf.length()-2);
+		return buf.append('}').toString();
+	}
+}
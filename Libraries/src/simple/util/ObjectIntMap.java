@@ -0,0 +1,247 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**Map of object to int without boxing the values.<br>
+ * Keys and values are kept in two arrays probed linearly, null marks an
+ * empty slot so null keys are not allowed. The hash codes of the keys are
+ * kept next to the values, so <code>equals</code> is only called on keys that
+ * likely match. Removal moves the following entries back instead of leaving
+ * markers, so lookups never slow down.<br>
+ * Lookups of missing keys return the value given to the constructor, 0 by
+ * default.<br>
+ * Not synchronized.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @param <K> Type of the keys.
+ */
+public final class ObjectIntMap<K> {
+	private Object[] keys;
+	/** Hash code of the key at <code>i*2</code>, value at <code>i*2+1</code>. One cache line for both. */
+	private int[] hv;
+	private int mask;
+	private int threshold;
+	private int size=0;
+	private final int missing;
+
+	public ObjectIntMap() {
+		this(8, 0);
+	}
+	/**
+	 * @param expected Number of entries to make room for.
+	 */
+	public ObjectIntMap(final int expected) {
+		this(expected, 0);
+	}
+	/**
+	 * @param expected Number of entries to make room for.
+	 * @param missing Value returned for keys that aren't in the map.
+	 */
+	public ObjectIntMap(final int expected, final int missing) {
+		final int capacity=OpenHash.capacity(expected);
+		keys=new Object[capacity];
+		hv=new int[capacity<<1];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		this.missing=missing;
+	}
+	/**Copies <var>map</var>, for copy on write use.
+	 * @param map
+	 */
+	public ObjectIntMap(final ObjectIntMap<? extends K> map) {
+		keys=map.keys.clone();
+		hv=map.hv.clone();
+		mask=map.mask;
+		threshold=map.threshold;
+		size=map.size;
+		missing=map.missing;
+	}
+	/** @return Slot of <var>key</var> or -1. */
+	private int find(final Object key) {
+		final int hash=key.hashCode();
+		int pos=OpenHash.mix(hash)&mask;
+		Object k;
+		while ((k=keys[pos])!=null) {
+			if (hv[pos<<1]==hash && (k==key || k.equals(key)))
+				return pos;
+			pos=(pos+1)&mask;
+		}
+		return -1;
+	}
+	/**
+	 * @param key
+	 * @return The value or the missing value.
+	 */
+	public int get(final Object key) {
+		final int pos=find(key);
+		return (pos<0) ? missing : hv[(pos<<1)+1];
+	}
+	/**
+	 * @param key
+	 * @param def
+	 * @return The value or <var>def</var> if the key isn't in the map.
+	 */
+	public int get(final Object key, final int def) {
+		final int pos=find(key);
+		return (pos<0) ? def : hv[(pos<<1)+1];
+	}
+	public boolean containsKey(final Object key) {
+		return find(key)>=0;
+	}
+	/**
+	 * @param key Must not be null.
+	 * @param value
+	 * @return The previous value or the missing value.
+	 */
+	public int put(final K key, final int value) {
+		if (key==null)
+			throw new NullPointerException("null keys are not allowed");
+		final int hash=key.hashCode();
+		int pos=OpenHash.mix(hash)&mask;
+		Object k;
+		while ((k=keys[pos])!=null) {
+			if (hv[pos<<1]==hash && (k==key || k.equals(key))) {
+				final int old=hv[(pos<<1)+1];
+				hv[(pos<<1)+1]=value;
+				return old;
+			}
+			pos=(pos+1)&mask;
+		}
+		keys[pos]=key;
+		hv[pos<<1]=hash;
+		hv[(pos<<1)+1]=value;
+		if (++size>threshold)
+			rehash(keys.length<<1);
+		return missing;
+	}
+	/**Adds <var>delta</var> to the value of <var>key</var>, starting from the
+	 * missing value. Handy for counting.
+	 * @param key Must not be null.
+	 * @param delta
+	 * @return The new value.
+	 */
+	public int addTo(final K key, final int delta) {
+		if (key==null)
+			throw new NullPointerException("null keys are not allowed");
+		final int hash=key.hashCode();
+		int pos=OpenHash.mix(hash)&mask;
+		Object k;
+		while ((k=keys[pos])!=null) {
+			if (hv[pos<<1]==hash && (k==key || k.equals(key)))
+				return hv[(pos<<1)+1]+=delta;
+			pos=(pos+1)&mask;
+		}
+		keys[pos]=key;
+		hv[pos<<1]=hash;
+		final int value=hv[(pos<<1)+1]=missing+delta;
+		if (++size>threshold)
+			rehash(keys.length<<1);
+		return value;
+	}
+	/**
+	 * @param key
+	 * @return The removed value or the missing value.
+	 */
+	public int remove(final Object key) {
+		final int pos=find(key);
+		if (pos<0)
+			return missing;
+		final int old=hv[(pos<<1)+1];
+		shiftKeys(pos);
+		size--;
+		return old;
+	}
+	/** Fills the emptied slot with the entries after it that belong before it. */
+	private void shiftKeys(int pos) {
+		int last;
+		Object k;
+		while (true) {
+			pos=((last=pos)+1)&mask;
+			while (true) {
+				if ((k=keys[pos])==null) {
+					keys[last]=null;
+					return;
+				}
+				if (OpenHash.canShift(last, OpenHash.mix(hv[pos<<1])&mask, pos))
+					break;
+				pos=(pos+1)&mask;
+			}
+			keys[last]=k;
+			hv[last<<1]=hv[pos<<1];
+			hv[(last<<1)+1]=hv[(pos<<1)+1];
+		}
+	}
+	private void rehash(final int capacity) {
+		if (capacity>OpenHash.MAX_CAPACITY)
+			throw new IllegalStateException("Map is full");
+		final Object[] oldKeys=keys;
+		final int[] oldHv=hv;
+		keys=new Object[capacity];
+		hv=new int[capacity<<1];
+		mask=capacity-1;
+		threshold=OpenHash.threshold(capacity);
+		for (int i=oldKeys.length-1;i>=0;i--) {
+			final Object k=oldKeys[i];
+			if (k==null)
+				continue;
+			int pos=OpenHash.mix(oldHv[i<<1])&mask;
+			while (keys[pos]!=null)
+				pos=(pos+1)&mask;
+			keys[pos]=k;
+			hv[pos<<1]=oldHv[i<<1];
+			hv[(pos<<1)+1]=oldHv[(i<<1)+1];
+		}
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size==0;
+	}
+	public void clear() {
+		Arrays.fill(keys, null);
+		size=0;
+	}
+	/**
+	 * @return The value returned for keys that aren't in the map.
+	 */
+	public int getMissingValue() {
+		return missing;
+	}
+	/**
+	 * @return The keys in no particular order.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<K> keys() {
+		final ArrayList<K> ret=new ArrayList<K>(size);
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=null)
+				ret.add((K)keys[i]);
+		return ret;
+	}
+	/**
+	 * @return The values in the same order as {@link #keys()}.
+	 */
+	public int[] values() {
+		final int[] ret=new int[size];
+		int n=0;
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=null)
+				ret[n++]=hv[(i<<1)+1];
+		return ret;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buf=new StringBuilder(size*16+2).append('{');
+		for (int i=0;i<keys.length;i++)
+			if (keys[i]!=null)
+				buf.append(keys[i]).append('=').append(hv[(i<<1)+1]).append(", ");
+		if (size>0)
+			buf.setLength(buf.length()-2);
+		return buf.append('}').toString();
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ *
+ */
+package simple.util;
+
+/**Shared parts of the open addressing collections. Tables are a power of two
+ * in size, at most half full, and probed linearly.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see IntIntMap
+ * @see LongObjectMap
+ * @see ObjectIntMap
+ * @see MultiValueMap
+ */
+final class OpenHash {
+	private OpenHash(){}
+	/** Largest table size. */
+	static final int MAX_CAPACITY=1<<30;
+
+	/**Spreads the bits of a hash code so the low ones can be used as a table index.
+	 * @param hash
+	 * @return The mixed hash.
+	 */
+	static int mix(final int hash) {
+		final int h=hash*0x9E3779B9;
+		return h^(h>>>16);
+	}
+	/**
+	 * @param key
+	 * @return The mixed hash of a long.
+	 */
+	static int mix(final long key) {
+		long h=key*0x9E3779B97F4A7C15L;
+		h^=h>>>32;
+		return (int)(h^(h>>>16));
+	}
+	/**
+	 * @param expected Number of entries.
+	 * @return Table size that holds <var>expected</var> entries at most half full.
+	 */
+	static int capacity(final int expected) {
+		if (expected<0)
+			throw new IllegalArgumentException("expected must not be negative: "+expected);
+		int capacity=4;
+		while (capacity<expected*2L && capacity<MAX_CAPACITY)
+			capacity<<=1;
+		return capacity;
+	}
+	/**
+	 * @param capacity Table size.
+	 * @return Entries allowed before the table grows.
+	 */
+	static int threshold(final int capacity) {
+		return (capacity==MAX_CAPACITY) ? MAX_CAPACITY-1 : capacity>>>1;
+	}
+	/**
+	 * @param last Empty slot.
+	 * @param slot Home slot of the entry at <var>pos</var>.
+	 * @param pos
+	 * @return True if the entry at <var>pos</var> can move back to <var>last</var>
+	 * 		without going before its home slot.
+	 */
+	static boolean canShift(final int last, final int slot, final int pos) {
+		return (last<=pos) ? (last>=slot || slot>pos) : (last>=slot && slot>pos);
+	}
+}
@@ -0,0 +1,391 @@
+package simple.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Bits packed 64 to a long.<br>
+ * Getting and setting a bit is a shift and a mask, the bulk operations work
+ * a whole word at a time. Bit <var>i</var> is bit <code>i%8</code> of byte
+ * <code>i/8</code>, the same layout {@link BitArray#BitArray(byte[])} reads,
+ * so {@link #toByteArray()} and {@link #fromByteArray(byte[])} move whole
+ * words instead of single bits.<br>
+ * The size is fixed unless the array is made growable, then setting a bit
+ * past the end grows it. {@link #setSize(int)} works either way.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see BitArray
+ */
+public final class PackedBitArray {
+	private long[] words;
+	private int size;
+	private final boolean growable;
+
+	/**
+	 * Creates a fixed size PackedBitArray with <var>size</var> bits, all unset.
+	 * @param size The number of bits to be used.
+	 */
+	public PackedBitArray(int size) {
+		this(size, false);
+	}
+	/**
+	 * @param size The number of bits to start with.
+	 * @param growable Grow when a bit past the end is set.
+	 */
+	public PackedBitArray(int size, boolean growable) {
+		if (size<0)
+			throw new IllegalArgumentException("size must not be negative: "+size);
+		words=new long[wordCount(size)];
+		this.size=size;
+		this.growable=growable;
+	}
+	/**
+	 * Same bits as {@link BitArray#BitArray(byte[])}. The size is <code>b.length*8</code>.
+	 * @param b
+	 */
+	public PackedBitArray(byte[] b) {
+		this(b.length*8, false);
+		ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words, 0, b.length/8);
+		// the bytes that don't fill a word
+		for (int i=b.length&~7;i<b.length;i++)
+			words[i>>>3]|=(b[i]&0xFFL)<<((i&7)<<3);
+	}
+	/**
+	 * @param b
+	 * @return A fixed size array of <code>b.length*8</code> bits.
+	 * @see #toByteArray()
+	 */
+	public static PackedBitArray fromByteArray(byte[] b) {
+		return new PackedBitArray(b);
+	}
+	/**
+	 * @return The bits in <code>(size+7)/8</code> bytes, layout as described above.
+	 */
+	public byte[] toByteArray() {
+		final byte[] b=new byte[(size+7)>>>3];
+		final int whole=b.length>>>3;
+		ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(words, 0, whole);
+		for (int i=whole<<3;i<b.length;i++)
+			b[i]=(byte)(words[i>>>3]>>>((i&7)<<3));
+		return b;
+	}
+	private static int wordCount(int bits) {
+		return (bits+63)>>>6;
+	}
+	/**
+	 * @return number of bits in array.
+	 */
+	public int getSize() {
+		return size;
+	}
+	/**
+	 * @return True if setting a bit past the end grows the array.
+	 */
+	public boolean isGrowable() {
+		return growable;
+	}
+	/**
+	 * Changes the number of bits. Bits past a smaller size are dropped, new bits are unset.
+	 * @param newSize
+	 */
+	public void setSize(int newSize) {
+		if (newSize<0)
+			throw new IllegalArgumentException("size must not be negative: "+newSize);
+		final int count=wordCount(newSize);
+		if (count!=words.length)
+			words=Arrays.copyOf(words, count);
+		size=newSize;
+		clearTail();
+	}
+	/** Keeps the bits past the size in the last used word unset. Words past that are always 0. */
+	private void clearTail() {
+		if ((size&63)!=0)
+			words[(size-1)>>>6]&=-1L>>>-size;
+	}
+	private void checkIndex(int index) {
+		if (index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Bit "+index+" of "+size);
+	}
+	/** Checks the index, growing the array to hold it if it is growable. */
+	private void ensureIndex(int index) {
+		if (index>=size && growable && index>=0) {
+			if (index>=words.length<<6)
+				words=Arrays.copyOf(words, Math.max(wordCount(index+1), words.length*2));
+			size=index+1;
+		}
+		checkIndex(index);
+	}
+	/**
+	 * @param index
+	 * @return True if the bit at <var>index</var> is set.
+	 */
+	public boolean get(int index) {
+		checkIndex(index);
+		return (words[index>>>6]&(1L<<index))!=0;
+	}
+	/**
+	 * Sets bit at index <var>index</var> to true.
+	 * @param index
+	 */
+	public void setBitAt(int index) {
+		ensureIndex(index);
+		words[index>>>6]|=1L<<index;
+	}
+	/**
+	 * Sets bit at index <var>index</var> to false.
+	 * @param index
+	 */
+	public void unsetBitAt(int index) {
+		checkIndex(index);
+		words[index>>>6]&=~(1L<<index);
+	}
+	/**
+	 * Toggles bit at index <var>index</var>.
+	 * @param index
+	 */
+	public void toggleBitAt(int index) {
+		ensureIndex(index);
+		words[index>>>6]^=1L<<index;
+	}
+	/**
+	 * @param index
+	 * @param value
+	 */
+	public void set(int index, boolean value) {
+		if (value)
+			setBitAt(index);
+		else
+			unsetBitAt(index);
+	}
+	/**
+	 * Sets the bits from <var>from</var> up to but not including <var>to</var>.
+	 * @param from
+	 * @param to
+	 */
+	public void setRange(int from, int to) {
+		if (from>=to)
+			return;
+		ensureIndex(to-1);
+		checkIndex(from);
+		final int first=from>>>6, last=(to-1)>>>6;
+		final long firstMask=-1L<<from, lastMask=-1L>>>-to;
+		if (first==last) {
+			words[first]|=firstMask&lastMask;
+			return;
+		}
+		words[first]|=firstMask;
+		for (int i=first+1;i<last;i++)
+			words[i]=-1L;
+		words[last]|=lastMask;
+	}
+	/**
+	 * Unsets the bits from <var>from</var> up to but not including <var>to</var>.
+	 * @param from
+	 * @param to
+	 */
+	public void unsetRange(int from, int to) {
+		if (from>=to)
+			return;
+		checkIndex(from);
+		checkIndex(to-1);
+		final int first=from>>>6, last=(to-1)>>>6;
+		final long firstMask=-1L<<from, lastMask=-1L>>>-to;
+		if (first==last) {
+			words[first]&=~(firstMask&lastMask);
+			return;
+		}
+		words[first]&=~firstMask;
+		for (int i=first+1;i<last;i++)
+			words[i]=0;
+		words[last]&=~lastMask;
+	}
+	/**
+	 * Sets all bits to true.
+	 */
+	public void setAll() {
+		Arrays.fill(words, 0, wordCount(size), -1L);
+		clearTail();
+	}
+	/**
+	 * Sets all bits to false.
+	 */
+	public void unsetAll() {
+		Arrays.fill(words, 0);
+	}
+	/**
+	 * Inverts the current set of bits.
+	 */
+	public void toggleAll() {
+		for (int i=wordCount(size)-1;i>=0;i--)
+			words[i]=~words[i];
+		clearTail();
+	}
+	/**
+	 * Keeps only the bits also set in <var>other</var>. Bits past the end of
+	 * <var>other</var> are unset.
+	 * @param other
+	 */
+	public void and(PackedBitArray other) {
+		final int n=Math.min(wordCount(size), wordCount(other.size));
+		for (int i=0;i<n;i++)
+			words[i]&=other.words[i];
+		Arrays.fill(words, n, wordCount(size), 0);
+	}
+	/**
+	 * Sets the bits set in <var>other</var>. A growable array grows to
+	 * <var>other</var>'s size, otherwise bits past the end are ignored.
+	 * @param other
+	 */
+	public void or(PackedBitArray other) {
+		if (growable && other.size>size)
+			setSize(other.size);
+		final int n=Math.min(wordCount(size), wordCount(other.size));
+		for (int i=0;i<n;i++)
+			words[i]|=other.words[i];
+		clearTail();
+	}
+	/**
+	 * Toggles the bits set in <var>other</var>. A growable array grows to
+	 * <var>other</var>'s size, otherwise bits past the end are ignored.
+	 * @param other
+	 */
+	public void xor(PackedBitArray other) {
+		if (growable && other.size>size)
+			setSize(other.size);
+		final int n=Math.min(wordCount(size), wordCount(other.size));
+		for (int i=0;i<n;i++)
+			words[i]^=other.words[i];
+		clearTail();
+	}
+	/**
+	 * Unsets the bits set in <var>other</var>.
+	 * @param other
+	 */
+	public void andNot(PackedBitArray other) {
+		final int n=Math.min(wordCount(size), wordCount(other.size));
+		for (int i=0;i<n;i++)
+			words[i]&=~other.words[i];
+	}
+	/**
+	 * @param other
+	 * @return True if a bit is set in both.
+	 */
+	public boolean intersects(PackedBitArray other) {
+		final int n=Math.min(wordCount(size), wordCount(other.size));
+		for (int i=0;i<n;i++)
+			if ((words[i]&other.words[i])!=0)
+				return true;
+		return false;
+	}
+	/**
+	 * @return The number of set bits.
+	 */
+	public int cardinality() {
+		int count=0;
+		for (int i=0;i<words.length;i++)
+			count+=Long.bitCount(words[i]);
+		return count;
+	}
+	/**
+	 * Loop over the set bits with
+	 * <code>for (int i=bits.nextSetBit(0);i!=-1;i=bits.nextSetBit(i+1))</code>
+	 * @param from First index to look at.
+	 * @return Index of the first set bit at or after <var>from</var>, -1 if there is none.
+	 */
+	public int nextSetBit(int from) {
+		if (from<0)
+			throw new IndexOutOfBoundsException("Bit "+from+" of "+size);
+		if (from>=size)
+			return -1;
+		int i=from>>>6;
+		long word=words[i]&(-1L<<from);
+		while (word==0) {
+			if (++i==words.length)
+				return -1;
+			word=words[i];
+		}
+		return (i<<6)+Long.numberOfTrailingZeros(word);
+	}
+	/**
+	 * @param from First index to look at.
+	 * @return Index of the first unset bit at or after <var>from</var>, -1 if there is none.
+	 */
+	public int nextClearBit(int from) {
+		if (from<0)
+			throw new IndexOutOfBoundsException("Bit "+from+" of "+size);
+		if (from>=size)
+			return -1;
+		int i=from>>>6;
+		long word=~words[i]&(-1L<<from);
+		while (word==0) {
+			if (++i==words.length)
+				return -1;
+			word=~words[i];
+		}
+		final int index=(i<<6)+Long.numberOfTrailingZeros(word);
+		return (index<size) ? index : -1;
+	}
+	/**
+	 * @return The value of the lowest 64 bits.
+	 */
+	public long getValue() {
+		return (words.length==0) ? 0 : words[0];
+	}
+	/**
+	 * Sets the bits set in <var>bits</var>, starting at <var>start</var>.
+	 * @param bits
+	 * @param start Index of the lowest bit of <var>bits</var>.
+	 */
+	public void setBits(long bits, int start) {
+		if (bits==0)
+			return;
+		ensureIndex(start+63-Long.numberOfLeadingZeros(bits));
+		checkIndex(start);
+		final int i=start>>>6, shift=start&63;
+		words[i]|=bits<<shift;
+		if (shift!=0 && i+1<words.length)
+			words[i+1]|=bits>>>(64-shift);
+	}
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof PackedBitArray))
+			return false;
+		final PackedBitArray other=(PackedBitArray)o;
+		if (size!=other.size)
+			return false;
+		for (int i=wordCount(size)-1;i>=0;i--)
+			if (words[i]!=other.words[i])
+				return false;
+		return true;
+	}
+	@Override
+	public int hashCode() {
+		long h=size;
+		for (int i=wordCount(size)-1;i>=0;i--)
+			h=h*31+words[i];
+		return (int)(h^(h>>>32));
+	}
+	/**
+	 * @return A string of binary, highest bit first like {@link BitArray#toString()}.
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder t=new StringBuilder(size);
+		for (int i=size-1;i>=0;i--)
+			t.append((words[i>>>6]&(1L<<i))!=0 ? '1' : '0');
+		return t.toString();
+	}
+	/**
+	 * @param bitSeperator Charater to place between each byte(8 bits).
+	 * @return A string of binary numbers.
+	 */
+	public String toString(char bitSeperator) {
+		final StringBuilder t=new StringBuilder(size+size/8);
+		for (int i=size-1;i>=0;i--) {
+			t.append((words[i>>>6]&(1L<<i))!=0 ? '1' : '0');
+			if (i%8==0)	t.append(bitSeperator);
+		}
+		return t.toString();
+	}
+}
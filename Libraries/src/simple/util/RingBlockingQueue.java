@@ -0,0 +1,472 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**Bounded First In First Out queue backed by an array used as a ring buffer.
+ * <br>
+ * Offers and polls never take a lock. Each slot carries a sequence number so
+ * producers and consumers claim slots with a single compare and set on the
+ * tail or head sequence. Threads only block when the queue is full or empty,
+ * and only the opposite side is woken: a put wakes one waiting taker and a take
+ * wakes one waiting putter. Nothing is signalled when no one is waiting.
+ * <br>
+ * The capacity is rounded up to the next power of two.
+ * {@link #remove(Object)}, {@link #removeAll(Collection)} and {@link #retainAll(Collection)}
+ * are not supported. The iterator is a snapshot of the queue at the time it was created.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see BlockingQueueFactory
+ */
+public class RingBlockingQueue<E> extends AbstractQueue<E> implements java.util.concurrent.BlockingQueue<E> {
+	/** Indexes into {@link #counters}. Spaced so head and tail sit on different cache lines. */
+	private static final int HEAD = 8, TAIL = 24;
+	private final AtomicLongArray counters = new AtomicLongArray(32);
+	private final AtomicReferenceArray<E> buffer;
+	private final AtomicLongArray sequence;
+	private final int mask;
+	private final int capacity;
+
+	private final ReentrantLock waitLock = new ReentrantLock();
+	private final Condition notEmpty = waitLock.newCondition();
+	private final Condition notFull = waitLock.newCondition();
+	private final AtomicInteger takersWaiting = new AtomicInteger();
+	private final AtomicInteger puttersWaiting = new AtomicInteger();
+
+	/**
+	 * Creates a new fixed size First In First Out queue.
+	 * @param size Capacity of the queue. Rounded up to the next power of two.
+	 * @throws IllegalArgumentException if <code>size</code> is less than 1 or greater than 2^30.
+	 */
+	public RingBlockingQueue(int size) {
+		if (size < 1 || size > (1<<30))
+		{	throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");	}
+		capacity = (size == 1) ? 1 : Integer.highestOneBit(size-1)<<1;
+		mask = capacity-1;
+		buffer = new AtomicReferenceArray<E>(capacity);
+		sequence = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++)
+		{	sequence.set(i, i);	}
+	}
+
+	/* *********************
+	 * ***RING OPERATIONS***
+	 * *********************/
+	/** Claims the tail slot and stores <code>e</code> in it.
+	 * @return <code>false</code> if the queue is full.
+	 */
+	private boolean enqueue(E e) {
+		long pos = counters.get(TAIL);
+		int idx;
+		for (;;) {
+			idx = (int)pos & mask;
+			long dif = sequence.get(idx) - pos;
+			if (dif == 0) {
+				if (counters.compareAndSet(TAIL, pos, pos+1))
+				{	break;	}
+				pos = counters.get(TAIL);
+			} else if (dif < 0) {
+				return false;
+			} else {
+				pos = counters.get(TAIL);
+			}
+		}
+		buffer.lazySet(idx, e);
+		// publishes the element to consumers
+		sequence.set(idx, pos+1);
+		return true;
+	}
+	/** Claims the head slot and removes its element.
+	 * @return The element or null if the queue is empty.
+	 */
+	private E dequeue() {
+		long pos = counters.get(HEAD);
+		int idx;
+		for (;;) {
+			idx = (int)pos & mask;
+			long dif = sequence.get(idx) - (pos+1);
+			if (dif == 0) {
+				if (counters.compareAndSet(HEAD, pos, pos+1))
+				{	break;	}
+				pos = counters.get(HEAD);
+			} else if (dif < 0) {
+				return null;
+			} else {
+				pos = counters.get(HEAD);
+			}
+		}
+		E e = buffer.get(idx);
+		buffer.lazySet(idx, null);
+		// hands the slot back to producers for the next lap
+		sequence.set(idx, pos+capacity);
+		return e;
+	}
+	/** Wakes one blocked taker, if there is one. */
+	private void signalNotEmpty() {
+		if (takersWaiting.get() == 0)
+		{	return;	}
+		waitLock.lock();
+		try {
+			notEmpty.signal();
+		} finally {
+			waitLock.unlock();
+		}
+	}
+	/** Wakes one blocked putter, if there is one. */
+	private void signalNotFull() {
+		if (puttersWaiting.get() == 0)
+		{	return;	}
+		waitLock.lock();
+		try {
+			notFull.signal();
+		} finally {
+			waitLock.unlock();
+		}
+	}
+
+	/* *******************
+	 * ***INSERT/REMOVE***
+	 * *******************/
+	/** Attempts to add <code>e</code> to the queue.
+	 * @param e Element to add.
+	 * @return <code>false</code> if queue is full.
+	 * @throws {@link java.lang.NullPointerException} if <code>e</code> is null
+	 * @see java.util.concurrent.BlockingQueue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(E e) {
+		if (e == null)
+		{ throw new NullPointerException("Can not add a null element.");	}
+		if (!enqueue(e))
+		{	return false;	}
+		signalNotEmpty();
+		return true;
+	}
+
+	/** Attempts to add <code>e</code> to the queue. Will wait up to the specified time
+	 * if the queue is full.
+	 * @param e Element to add.
+	 * @param timeout Length of time to wait.
+	 * @param unit Units of time to wait.
+	 * @return <code>false</code> if the waited time elapsed and the queue is still full.
+	 * @throws {@link java.lang.InterruptedException} if interrupted
+	 * @throws {@link java.lang.NullPointerException} if <code>e</code> is null
+	 * @see java.util.concurrent.BlockingQueue#offer(java.lang.Object, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		if (e == null)
+		{ throw new NullPointerException("Can not add a null element.");	}
+		long nanos = unit.toNanos(timeout);
+		while (!enqueue(e)) {
+			if (nanos <= 0)
+			{	return false;	}
+			puttersWaiting.incrementAndGet();
+			waitLock.lockInterruptibly();
+			try {
+				if (isFull())
+				{	nanos = notFull.awaitNanos(nanos);	}
+			} finally {
+				waitLock.unlock();
+				puttersWaiting.decrementAndGet();
+			}
+		}
+		signalNotEmpty();
+		return true;
+	}
+
+	/**
+	 * Adds the element to the queue, blocking if the queue is full.
+	 * @throws {@link java.lang.InterruptedException} if interrupted.
+	 * @throws {@link java.lang.NullPointerException} if <code>e</code> is null
+	 * @see java.util.concurrent.BlockingQueue#put(java.lang.Object)
+	 */
+	@Override
+	public void put(E e) throws InterruptedException {
+		if (e == null)
+		{ throw new NullPointerException("Can not add a null element.");	}
+		while (!enqueue(e)) {
+			puttersWaiting.incrementAndGet();
+			waitLock.lockInterruptibly();
+			try {
+				if (isFull())
+				{	notFull.await();	}
+			} finally {
+				waitLock.unlock();
+				puttersWaiting.decrementAndGet();
+			}
+		}
+		signalNotEmpty();
+	}
+
+	/**
+	 * Removes and returns the first element added or null if the queue is empty.
+	 * @return The first element added or null if the queue is empty.
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public E poll() {
+		E e = dequeue();
+		if (e != null)
+		{	signalNotFull();	}
+		return e;
+	}
+
+	/**
+	 * Removes and returns the first element added.
+	 * Will wait up to <code>timeout</code> <code>unit</code> if the queue is empty.
+	 * @param timeout Amount to wait
+	 * @param unit Units to wait
+	 * @return The first element added or null if timed out.
+	 * @throws {@link java.lang.InterruptedException} if interrupted.
+	 * @see java.util.concurrent.BlockingQueue#poll(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		E e;
+		while ((e = dequeue()) == null) {
+			if (nanos <= 0)
+			{	return null;	}
+			takersWaiting.incrementAndGet();
+			waitLock.lockInterruptibly();
+			try {
+				if (isEmpty())
+				{	nanos = notEmpty.awaitNanos(nanos);	}
+			} finally {
+				waitLock.unlock();
+				takersWaiting.decrementAndGet();
+			}
+		}
+		afterTake();
+		return e;
+	}
+
+	/**
+	 * Removes and returns the first element added, blocking if the queue is empty.
+	 * @return The first element added.
+	 * @throws {@link java.lang.InterruptedException} if interrupted.
+	 * @see java.util.concurrent.BlockingQueue#take()
+	 */
+	@Override
+	public E take() throws InterruptedException {
+		E e;
+		while ((e = dequeue()) == null) {
+			takersWaiting.incrementAndGet();
+			waitLock.lockInterruptibly();
+			try {
+				if (isEmpty())
+				{	notEmpty.await();	}
+			} finally {
+				waitLock.unlock();
+				takersWaiting.decrementAndGet();
+			}
+		}
+		afterTake();
+		return e;
+	}
+	/** Wakes a putter, and passes the wake-up on to another taker if elements
+	 * remain. The latter covers a taker that was signalled but timed out or was
+	 * beaten to the element by a non-blocking poll.
+	 */
+	private void afterTake() {
+		signalNotFull();
+		if (!isEmpty())
+		{	signalNotEmpty();	}
+	}
+
+	/**
+	 * Returns the first element added or null if the queue is empty.
+	 * The element may be taken by another thread before this returns.
+	 * @return the first element added or null if the queue is empty.
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public E peek() {
+		for (;;) {
+			long pos = counters.get(HEAD);
+			int idx = (int)pos & mask;
+			if (sequence.get(idx) != pos+1)
+			{	return null;	}
+			E e = buffer.get(idx);
+			if (e != null && counters.get(HEAD) == pos)
+			{	return e;	}
+		}
+	}
+
+	/** Not supported.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Can not remove from the middle of a ring buffer.");
+	}
+	/** Not supported.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Can not remove from the middle of a ring buffer.");
+	}
+	/** Not supported.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Can not remove from the middle of a ring buffer.");
+	}
+	/** Removes all elements currently in the queue. */
+	@Override
+	public void clear() {
+		while (dequeue() != null) {}
+		waitLock.lock();
+		try {
+			notFull.signalAll();
+		} finally {
+			waitLock.unlock();
+		}
+	}
+
+	/* ***************************
+	 * ***INFORMATION FUNCTIONS***
+	 * ***************************/
+	/**
+	 * @return The number of elements this queue can hold.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	/** Returns the remaining capacity of the queue.
+	 * @return The remaining capacity of the queue.
+	 * @see java.util.concurrent.BlockingQueue#remainingCapacity()
+	 */
+	@Override
+	public int remainingCapacity() {
+		return capacity-size();
+	}
+	/**
+	 * Whether the queue is full or not.
+	 * @return <code>true</code> if the queue is full.
+	 */
+	public boolean isFull() {
+		return size() == capacity;
+	}
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	/** The size is a snapshot and may be stale by the time it is returned.
+	 * @see java.util.Collection#size()
+	 */
+	@Override
+	public int size() {
+		for (;;) {
+			long head = counters.get(HEAD);
+			long tail = counters.get(TAIL);
+			if (head == counters.get(HEAD)) {
+				long size = tail-head;
+				if (size < 0)
+				{	return 0;	}
+				return (size > capacity) ? capacity : (int)size;
+			}
+		}
+	}
+	/** Returns an iterator over a snapshot of the queue.
+	 * {@link Iterator#remove()} is not supported.
+	 * @see java.util.Collection#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		final Object[] snap = toArray();
+		return new Iterator<E>() {
+			private int pos = 0;
+			@Override
+			public boolean hasNext() {
+				return pos < snap.length;
+			}
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if (!hasNext())
+				{	throw new NoSuchElementException();	}
+				return (E)snap[pos++];
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+	/** Copies the elements between the head and tail at the time of the call.
+	 * Elements taken while copying are skipped.
+	 * @see java.util.Collection#toArray()
+	 */
+	@Override
+	public Object[] toArray() {
+		long head = counters.get(HEAD);
+		long tail = counters.get(TAIL);
+		ArrayList<E> snap = new ArrayList<E>((int)Math.min(Math.max(tail-head, 0), capacity));
+		for (long pos = head; pos < tail; pos++) {
+			int idx = (int)pos & mask;
+			E e = buffer.get(idx);
+			if (e != null && sequence.get(idx) == pos+1)
+			{	snap.add(e);	}
+		}
+		return snap.toArray();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		Object[] snap = toArray();
+		if (a.length < snap.length)
+		{	a = (T[])java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), snap.length);	}
+		System.arraycopy(snap, 0, a, 0, snap.length);
+		if (a.length > snap.length)
+		{	a[snap.length] = null;	}
+		return a;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection)
+	 */
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.BlockingQueue#drainTo(java.util.Collection, int)
+	 */
+	@Override
+	public int drainTo(Collection<? super E> c, int max) {
+		if (c == this)
+		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
+		int copied = 0;
+		E tmp;
+		while (copied < max && (tmp = dequeue()) != null) {
+			c.add(tmp);
+			copied++;
+		}
+		if (copied > 0 && puttersWaiting.get() > 0) {
+			waitLock.lock();
+			try {
+				notFull.signalAll();
+			} finally {
+				waitLock.unlock();
+			}
+		}
+		return copied;
+	}
+}
@@ -0,0 +1,257 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+
+import simple.CIString;
+
+/**Finds one needle in text, compiled once and reused.<br>
+ * Uses Boyer-Moore-Horspool: the last char of the window is looked up in a
+ * table of how far the needle can move, so most of the text is skipped
+ * instead of compared. The table is indexed by the low byte of the char,
+ * chars that share it get the smallest of their shifts.<br>
+ * Case insensitive searchers compare chars the way
+ * {@link String#equalsIgnoreCase(String)} does.<br>
+ * Ranges are <var>from</var> inclusive to <var>to</var> exclusive. A match
+ * has to end by <var>to</var>.<br>
+ * {@link CharSlice}s and {@link CharBuilder}s are searched through their arrays.<br>
+ * Immutable and safe to share between threads.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see MultiStringSearcher
+ * @see CharClass
+ */
+public final class StringSearcher {
+	/** Below this many chars to search the table isn't worth making for a one off search. */
+	private static final int ONE_OFF=256;
+	private final String string;
+	/** The needle, folded if case is ignored. */
+	private final char[] needle;
+	private final boolean ignoreCase;
+	/** How far to move the needle by the low byte of the last char in the window. */
+	private final int[] skip;
+
+	/**
+	 * @param needle Text to find.
+	 */
+	public StringSearcher(final CharSequence needle) {
+		this(needle, false);
+	}
+	/**
+	 * @param needle Text to find.
+	 * @param ignoreCase
+	 */
+	public StringSearcher(final CharSequence needle, final boolean ignoreCase) {
+		string=needle.toString();
+		this.needle=ignoreCase ? CIString.fold(string).toCharArray() : string.toCharArray();
+		this.ignoreCase=ignoreCase;
+		final int m=this.needle.length;
+		skip=new int[256];
+		Arrays.fill(skip, Math.max(m, 1));
+		for (int i=0;i<m-1;i++)
+			skip[this.needle[i]&0xFF]=m-1-i;
+	}
+	/**
+	 * @return The needle as it was given.
+	 */
+	public String getNeedle() {
+		return string;
+	}
+	public int length() {
+		return needle.length;
+	}
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+	public int indexOf(final CharSequence s) {
+		return indexOf(s, 0, s.length());
+	}
+	public int indexOf(final CharSequence s, final int from) {
+		return indexOf(s, from, s.length());
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the first match or -1.
+	 */
+	public int indexOf(final CharSequence s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		final int m=needle.length;
+		if (m==0)
+			return (from<=to) ? from : -1;
+		if (s instanceof CharSlice) {
+			final CharSlice slice=(CharSlice)s;
+			final int i=indexOf(slice.getArray(), slice.getOffset()+from, slice.getOffset()+to);
+			return (i<0) ? -1 : i-slice.getOffset();
+		}
+		if (s instanceof CharBuilder)
+			return indexOf(((CharBuilder)s).getArray(), from, to);
+		if (!ignoreCase && to==s.length()) {
+			// the JDK's own search is vectorized
+			if (s instanceof String)
+				return ((String)s).indexOf(string, from);
+			if (s instanceof StringBuilder)
+				return ((StringBuilder)s).indexOf(string, from);
+		}
+		final char last=needle[m-1];
+		final int max=to-m;
+		int i=from;
+		if (ignoreCase) {
+			while (i<=max) {
+				final char c=CIString.fold(s.charAt(i+m-1));
+				if (c==last && matchesFolded(s, i))
+					return i;
+				i+=skip[c&0xFF];
+			}
+		} else {
+			while (i<=max) {
+				final char c=s.charAt(i+m-1);
+				if (c==last && matches(s, i))
+					return i;
+				i+=skip[c&0xFF];
+			}
+		}
+		return -1;
+	}
+	/**
+	 * @param s Text to search.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the first match or -1.
+	 */
+	public int indexOf(final char[] s, int from, int to) {
+		if (from<0)
+			from=0;
+		if (to>s.length)
+			to=s.length;
+		final int m=needle.length;
+		if (m==0)
+			return (from<=to) ? from : -1;
+		final char last=needle[m-1];
+		final int max=to-m;
+		int i=from;
+		if (ignoreCase) {
+			while (i<=max) {
+				final char c=CIString.fold(s[i+m-1]);
+				if (c==last) {
+					int j=m-2;
+					while (j>=0 && CIString.fold(s[i+j])==needle[j])
+						j--;
+					if (j<0)
+						return i;
+				}
+				i+=skip[c&0xFF];
+			}
+		} else {
+			while (i<=max) {
+				final char c=s[i+m-1];
+				if (c==last) {
+					int j=m-2;
+					while (j>=0 && s[i+j]==needle[j])
+						j--;
+					if (j<0)
+						return i;
+				}
+				i+=skip[c&0xFF];
+			}
+		}
+		return -1;
+	}
+	/**
+	 * @param s
+	 * @param from
+	 * @return True if the needle is at <var>from</var>.
+	 */
+	public boolean startsWith(final CharSequence s, final int from) {
+		if (from<0 || from+needle.length>s.length())
+			return false;
+		return ignoreCase ? matchesFolded(s, from) : matches(s, from);
+	}
+	private boolean matches(final CharSequence s, final int at) {
+		for (int j=needle.length-2;j>=0;j--)
+			if (s.charAt(at+j)!=needle[j])
+				return false;
+		return true;
+	}
+	private boolean matchesFolded(final CharSequence s, final int at) {
+		for (int j=needle.length-2;j>=0;j--)
+			if (CIString.fold(s.charAt(at+j))!=needle[j])
+				return false;
+		return true;
+	}
+	@Override
+	public String toString() {
+		return ignoreCase ? string+" (ignoring case)" : string;
+	}
+//	========== start one off searches ===========
+	/**Finds <var>needle</var> without keeping a searcher around. Short
+	 * searches compare in place, long ones make a searcher.
+	 * @param s Text to search.
+	 * @param needle Text to find.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the first match or -1.
+	 */
+	public static int indexOf(final CharSequence s, final CharSequence needle, final int from, final int to) {
+		return indexOf(s, needle, from, to, false);
+	}
+	/**Case insensitive {@link #indexOf(CharSequence, CharSequence, int, int)}.
+	 * @param s Text to search.
+	 * @param needle Text to find.
+	 * @param from First index to search.
+	 * @param to Index the match has to end by.
+	 * @return Index of the first match or -1.
+	 */
+	public static int indexOfIgnoreCase(final CharSequence s, final CharSequence needle, final int from, final int to) {
+		return indexOf(s, needle, from, to, true);
+	}
+	private static int indexOf(final CharSequence s, final CharSequence needle, int from, int to, final boolean ignoreCase) {
+		if (from<0)
+			from=0;
+		if (to>s.length())
+			to=s.length();
+		final int m=needle.length();
+		if (m==0)
+			return (from<=to) ? from : -1;
+		if (!ignoreCase && to==s.length()) {
+			if (s instanceof String)
+				return ((String)s).indexOf(needle.toString(), from);
+			if (s instanceof StringBuilder)
+				return ((StringBuilder)s).indexOf(needle.toString(), from);
+		}
+		if (m>1 && to-from>=ONE_OFF)
+			return new StringSearcher(needle, ignoreCase).indexOf(s, from, to);
+		final int max=to-m;
+		if (ignoreCase) {
+			final char first=CIString.fold(needle.charAt(0));
+			for (int i=from;i<=max;i++) {
+				if (CIString.fold(s.charAt(i))!=first)
+					continue;
+				int j=1;
+				while (j<m && CIString.fold(s.charAt(i+j))==CIString.fold(needle.charAt(j)))
+					j++;
+				if (j==m)
+					return i;
+			}
+		} else {
+			final char first=needle.charAt(0);
+			for (int i=from;i<=max;i++) {
+				if (s.charAt(i)!=first)
+					continue;
+				int j=1;
+				while (j<m && s.charAt(i+j)==needle.charAt(j))
+					j++;
+				if (j==m)
+					return i;
+			}
+		}
+		return -1;
+	}
+//	========== end one off searches ===========
+}
@@ -0,0 +1,735 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**Doubly linked deque with a separate lock for each end.
+ * <br>
+ * Operations on the first end only take the first lock and operations on the
+ * last end only take the last lock, so a producer at one end never stalls a
+ * consumer at the other. When the deque holds fewer than {@value #SHARED} elements
+ * the two ends may touch the same nodes, so both locks are taken (first, then last).
+ * <br>
+ * Threads only block when the deque is full or empty. A blocked taker is woken
+ * by the next insert and a blocked putter by the next removal; nothing is
+ * signalled when no one is waiting and there is no timed polling.
+ * <br>
+ * Suited to work stealing: the owner pushes and pops the last end while thieves
+ * take from the first end.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see BlockingQueueFactory
+ */
+public class TwoLockBlockingDeque<E> extends AbstractQueue<E> implements java.util.concurrent.BlockingDeque<E> {
+	/** Below this size both locks are required. */
+	private static final int SHARED = 4;
+	private static final class Node<E> {
+		E item;
+		Node<E> prev, next;
+		Node(E item) {
+			this.item = item;
+		}
+	}
+	/** Sentinels. <code>head.next</code> is the first element and <code>tail.prev</code> the last. */
+	private final Node<E> head = new Node<E>(null), tail = new Node<E>(null);
+	private final int capacity;
+	/** Only changed while holding at least one end lock. */
+	private final AtomicInteger count = new AtomicInteger();
+	private final ReentrantLock firstLock = new ReentrantLock();
+	private final ReentrantLock lastLock = new ReentrantLock();
+
+	private final ReentrantLock waitLock = new ReentrantLock();
+	private final Condition notEmpty = waitLock.newCondition();
+	private final Condition notFull = waitLock.newCondition();
+	private final AtomicInteger takersWaiting = new AtomicInteger();
+	private final AtomicInteger puttersWaiting = new AtomicInteger();
+
+	/**
+	 * Creates a new unbounded deque.
+	 */
+	public TwoLockBlockingDeque() {
+		this(Integer.MAX_VALUE);
+	}
+	/**
+	 * Creates a new fixed size deque.
+	 * @param size Capacity of the deque
+	 * @throws IllegalArgumentException if <code>size</code> is less than 1.
+	 */
+	public TwoLockBlockingDeque(int size) {
+		if (size < 1)
+		{	throw new IllegalArgumentException("Capacity must be at least 1.");	}
+		capacity = size;
+		head.next = tail;
+		tail.prev = head;
+	}
+
+	/* ********************
+	 * ***LOCK FUNCTIONS***
+	 * ********************/
+	private void fullyLock() {
+		firstLock.lock();
+		lastLock.lock();
+	}
+	private void fullyUnlock() {
+		lastLock.unlock();
+		firstLock.unlock();
+	}
+	/** Reserves room for one element.
+	 * @return <code>false</code> if the deque is full.
+	 */
+	private boolean reserve() {
+		for (;;) {
+			int c = count.get();
+			if (c >= capacity)
+			{	return false;	}
+			if (count.compareAndSet(c, c+1))
+			{	return true;	}
+		}
+	}
+
+	/* *********************
+	 * ***LINK FUNCTIONS***
+	 * *********************/
+	private void linkFirst(E e) {
+		Node<E> node = new Node<E>(e);
+		Node<E> next = head.next;
+		node.prev = head;
+		node.next = next;
+		next.prev = node;
+		head.next = node;
+	}
+	private void linkLast(E e) {
+		Node<E> node = new Node<E>(e);
+		Node<E> prev = tail.prev;
+		node.next = tail;
+		node.prev = prev;
+		prev.next = node;
+		tail.prev = node;
+	}
+	private E unlinkFirst() {
+		Node<E> node = head.next;
+		Node<E> next = node.next;
+		head.next = next;
+		next.prev = head;
+		E e = node.item;
+		node.item = null;
+		node.next = node.prev = null;
+		count.decrementAndGet();
+		return e;
+	}
+	private E unlinkLast() {
+		Node<E> node = tail.prev;
+		Node<E> prev = node.prev;
+		tail.prev = prev;
+		prev.next = tail;
+		E e = node.item;
+		node.item = null;
+		node.next = node.prev = null;
+		count.decrementAndGet();
+		return e;
+	}
+	/** Removes an interior node. Both locks must be held. */
+	private void unlink(Node<E> node) {
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.item = null;
+		node.next = node.prev = null;
+		count.decrementAndGet();
+	}
+
+	/* ****************************
+	 * ***NON-BLOCKING WORKHORSE***
+	 * ****************************/
+	private boolean tryAddFirst(E e) {
+		if (e == null)
+		{ throw new NullPointerException("Can not add a null element.");	}
+		firstLock.lock();
+		try {
+			if (count.get() >= SHARED) {
+				if (!reserve())
+				{	return false;	}
+				linkFirst(e);
+				return true;
+			}
+		} finally {
+			firstLock.unlock();
+		}
+		fullyLock();
+		try {
+			if (!reserve())
+			{	return false;	}
+			linkFirst(e);
+			return true;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	private boolean tryAddLast(E e) {
+		if (e == null)
+		{ throw new NullPointerException("Can not add a null element.");	}
+		lastLock.lock();
+		try {
+			if (count.get() >= SHARED) {
+				if (!reserve())
+				{	return false;	}
+				linkLast(e);
+				return true;
+			}
+		} finally {
+			lastLock.unlock();
+		}
+		fullyLock();
+		try {
+			if (!reserve())
+			{	return false;	}
+			linkLast(e);
+			return true;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	private E tryRemoveFirst() {
+		firstLock.lock();
+		try {
+			if (count.get() >= SHARED)
+			{	return unlinkFirst();	}
+		} finally {
+			firstLock.unlock();
+		}
+		fullyLock();
+		try {
+			if (count.get() == 0)
+			{	return null;	}
+			return unlinkFirst();
+		} finally {
+			fullyUnlock();
+		}
+	}
+	private E tryRemoveLast() {
+		lastLock.lock();
+		try {
+			if (count.get() >= SHARED)
+			{	return unlinkLast();	}
+		} finally {
+			lastLock.unlock();
+		}
+		fullyLock();
+		try {
+			if (count.get() == 0)
+			{	return null;	}
+			return unlinkLast();
+		} finally {
+			fullyUnlock();
+		}
+	}
+
+	/* *****************
+	 * ***WAIT/SIGNAL***
+	 * *****************/
+	/** Wakes one blocked taker, if there is one. */
+	private void signalNotEmpty() {
+		if (takersWaiting.get() == 0)
+		{	return;	}
+		waitLock.lock();
+		try {
+			notEmpty.signal();
+		} finally {
+			waitLock.unlock();
+		}
+	}
+	/** Wakes one blocked putter, if there is one. */
+	private void signalNotFull() {
+		if (puttersWaiting.get() == 0)
+		{	return;	}
+		waitLock.lock();
+		try {
+			notFull.signal();
+		} finally {
+			waitLock.unlock();
+		}
+	}
+	/** Wakes a putter, and passes the wake-up on to another taker if elements remain. */
+	private void afterTake() {
+		signalNotFull();
+		if (count.get() > 0)
+		{	signalNotEmpty();	}
+	}
+	/** Waits until the deque may have room.
+	 * @param nanos Time to wait or a negative number to wait forever.
+	 * @return The time left.
+	 */
+	private long awaitNotFull(long nanos) throws InterruptedException {
+		puttersWaiting.incrementAndGet();
+		waitLock.lockInterruptibly();
+		try {
+			if (count.get() >= capacity) {
+				if (nanos < 0)
+					notFull.await();
+				else
+					nanos = notFull.awaitNanos(nanos);
+			}
+		} finally {
+			waitLock.unlock();
+			puttersWaiting.decrementAndGet();
+		}
+		return nanos;
+	}
+	/** Waits until the deque may have an element.
+	 * @param nanos Time to wait or a negative number to wait forever.
+	 * @return The time left.
+	 */
+	private long awaitNotEmpty(long nanos) throws InterruptedException {
+		takersWaiting.incrementAndGet();
+		waitLock.lockInterruptibly();
+		try {
+			if (count.get() == 0) {
+				if (nanos < 0)
+					notEmpty.await();
+				else
+					nanos = notEmpty.awaitNanos(nanos);
+			}
+		} finally {
+			waitLock.unlock();
+			takersWaiting.decrementAndGet();
+		}
+		return nanos;
+	}
+
+	//-----------------------------------------------------------------------------------
+	/** Attempts to add <code>e</code> to the end, throwing an exception if the deque is full.
+	 * @throws {@link java.lang.IllegalStateException} if the deque is full.
+	 * @throws {@link java.lang.NullPointerException} if <code>e</code> is null.
+	 * @see java.util.concurrent.BlockingDeque#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E e) {
+		addLast(e);
+		return true;
+	}
+	@Override
+	public void addFirst(E e) {
+		if (!offerFirst(e))
+		{	throw new IllegalStateException("List is full.");	}
+	}
+	@Override
+	public void addLast(E e) {
+		if (!offerLast(e))
+		{	throw new IllegalStateException("List is full.");	}
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public boolean offer(E e) {
+		return offerLast(e);
+	}
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		return offerLast(e, timeout, unit);
+	}
+	@Override
+	public boolean offerFirst(E e) {
+		if (!tryAddFirst(e))
+		{	return false;	}
+		signalNotEmpty();
+		return true;
+	}
+	@Override
+	public boolean offerLast(E e) {
+		if (!tryAddLast(e))
+		{	return false;	}
+		signalNotEmpty();
+		return true;
+	}
+	@Override
+	public boolean offerFirst(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		while (!tryAddFirst(e)) {
+			if (nanos <= 0)
+			{	return false;	}
+			nanos = awaitNotFull(nanos);
+		}
+		signalNotEmpty();
+		return true;
+	}
+	@Override
+	public boolean offerLast(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		while (!tryAddLast(e)) {
+			if (nanos <= 0)
+			{	return false;	}
+			nanos = awaitNotFull(nanos);
+		}
+		signalNotEmpty();
+		return true;
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public void put(E e) throws InterruptedException {
+		putLast(e);
+	}
+	@Override
+	public void putFirst(E e) throws InterruptedException {
+		while (!tryAddFirst(e))
+		{	awaitNotFull(-1);	}
+		signalNotEmpty();
+	}
+	@Override
+	public void putLast(E e) throws InterruptedException {
+		while (!tryAddLast(e))
+		{	awaitNotFull(-1);	}
+		signalNotEmpty();
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public E take() throws InterruptedException {
+		return takeFirst();
+	}
+	@Override
+	public E takeFirst() throws InterruptedException {
+		E e;
+		while ((e = tryRemoveFirst()) == null)
+		{	awaitNotEmpty(-1);	}
+		afterTake();
+		return e;
+	}
+	@Override
+	public E takeLast() throws InterruptedException {
+		E e;
+		while ((e = tryRemoveLast()) == null)
+		{	awaitNotEmpty(-1);	}
+		afterTake();
+		return e;
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public E poll() {
+		return pollFirst();
+	}
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+	@Override
+	public E pollFirst() {
+		E e = tryRemoveFirst();
+		if (e != null)
+		{	signalNotFull();	}
+		return e;
+	}
+	@Override
+	public E pollLast() {
+		E e = tryRemoveLast();
+		if (e != null)
+		{	signalNotFull();	}
+		return e;
+	}
+	@Override
+	public E pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		E e;
+		while ((e = tryRemoveFirst()) == null) {
+			if (nanos <= 0)
+			{	return null;	}
+			nanos = awaitNotEmpty(nanos);
+		}
+		afterTake();
+		return e;
+	}
+	@Override
+	public E pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		E e;
+		while ((e = tryRemoveLast()) == null) {
+			if (nanos <= 0)
+			{	return null;	}
+			nanos = awaitNotEmpty(nanos);
+		}
+		afterTake();
+		return e;
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public E remove() {
+		return removeFirst();
+	}
+	@Override
+	public E removeFirst() {
+		E e = pollFirst();
+		if (e == null)
+		{	throw new NoSuchElementException("Queue is empty.");	}
+		return e;
+	}
+	@Override
+	public E removeLast() {
+		E e = pollLast();
+		if (e == null)
+		{	throw new NoSuchElementException("Queue is empty.");	}
+		return e;
+	}
+	@Override
+	public void push(E e) {
+		addFirst(e);
+	}
+	@Override
+	public E pop() {
+		return removeFirst();
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public E element() {
+		return getFirst();
+	}
+	@Override
+	public E getFirst() {
+		E e = peekFirst();
+		if (e == null)
+		{	throw new NoSuchElementException("The queue is empty.");	}
+		return e;
+	}
+	@Override
+	public E getLast() {
+		E e = peekLast();
+		if (e == null)
+		{	throw new NoSuchElementException("The queue is empty.");	}
+		return e;
+	}
+	@Override
+	public E peek() {
+		return peekFirst();
+	}
+	@Override
+	public E peekFirst() {
+		fullyLock();
+		try {
+			return head.next.item;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	@Override
+	public E peekLast() {
+		fullyLock();
+		try {
+			return tail.prev.item;
+		} finally {
+			fullyUnlock();
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	@Override
+	public boolean remove(Object o) {
+		return removeFirstOccurrence(o);
+	}
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		if (o == null)
+		{	return false;	}
+		fullyLock();
+		try {
+			for (Node<E> node = head.next; node != tail; node = node.next) {
+				if (o.equals(node.item)) {
+					unlink(node);
+					signalNotFull();
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		if (o == null)
+		{	return false;	}
+		fullyLock();
+		try {
+			for (Node<E> node = tail.prev; node != head; node = node.prev) {
+				if (o.equals(node.item)) {
+					unlink(node);
+					signalNotFull();
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	@Override
+	public boolean contains(Object o) {
+		if (o == null)
+		{	return false;	}
+		fullyLock();
+		try {
+			for (Node<E> node = head.next; node != tail; node = node.next) {
+				if (o.equals(node.item))
+				{	return true;	}
+			}
+			return false;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	@Override
+	public void clear() {
+		fullyLock();
+		try {
+			while (count.get() > 0)
+			{	unlinkFirst();	}
+		} finally {
+			fullyUnlock();
+		}
+		if (puttersWaiting.get() > 0) {
+			waitLock.lock();
+			try {
+				notFull.signalAll();
+			} finally {
+				waitLock.unlock();
+			}
+		}
+	}
+
+	/* ***************************
+	 * ***INFORMATION FUNCTIONS***
+	 * ***************************/
+	/** Returns the remaining capacity of the deque.
+	 * @return The remaining capacity of the deque or {@linkplain java.lang.Integer#MAX_VALUE} if unbounded.
+	 * @see java.util.concurrent.BlockingQueue#remainingCapacity()
+	 */
+	@Override
+	public int remainingCapacity() {
+		if (capacity == Integer.MAX_VALUE)
+		{	return Integer.MAX_VALUE;	}
+		return capacity-count.get();
+	}
+	/**
+	 * Whether the deque is full or not.
+	 * @return <code>true</code> if the deque is full.
+	 */
+	public boolean isFull() {
+		return count.get() >= capacity;
+	}
+	@Override
+	public boolean isEmpty() {
+		return count.get() == 0;
+	}
+	@Override
+	public int size() {
+		return count.get();
+	}
+	@Override
+	public Object[] toArray() {
+		fullyLock();
+		try {
+			Object[] arr = new Object[count.get()];
+			int i = 0;
+			for (Node<E> node = head.next; node != tail; node = node.next)
+			{	arr[i++] = node.item;	}
+			return arr;
+		} finally {
+			fullyUnlock();
+		}
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		Object[] snap = toArray();
+		if (a.length < snap.length)
+		{	a = (T[])java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), snap.length);	}
+		System.arraycopy(snap, 0, a, 0, snap.length);
+		if (a.length > snap.length)
+		{	a[snap.length] = null;	}
+		return a;
+	}
+	/** Returns an iterator over a snapshot of the deque, first to last.
+	 * {@link Iterator#remove()} removes the first occurrence of the last returned element.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new SnapshotIterator(toArray(), false);
+	}
+	/** Returns an iterator over a snapshot of the deque, last to first.
+	 * {@link Iterator#remove()} removes the last occurrence of the last returned element.
+	 */
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new SnapshotIterator(toArray(), true);
+	}
+	private final class SnapshotIterator implements Iterator<E> {
+		private final Object[] snap;
+		private final boolean descending;
+		private int pos = 0;
+		private Object last = null;
+		SnapshotIterator(Object[] snap, boolean descending) {
+			this.snap = snap;
+			this.descending = descending;
+		}
+		@Override
+		public boolean hasNext() {
+			return pos < snap.length;
+		}
+		@SuppressWarnings("unchecked")
+		@Override
+		public E next() {
+			if (!hasNext())
+			{	throw new NoSuchElementException();	}
+			last = snap[descending ? snap.length-1-pos : pos];
+			pos++;
+			return (E)last;
+		}
+		@Override
+		public void remove() {
+			if (last == null)
+			{	throw new IllegalStateException();	}
+			if (descending)
+				removeLastOccurrence(last);
+			else
+				removeFirstOccurrence(last);
+			last = null;
+		}
+	}
+
+	/* ************** *
+	 * Blah Blah Blah *
+	 * ************** */
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+	@Override
+	public int drainTo(Collection<? super E> c, int max) {
+		if (c == this)
+		{	throw new IllegalArgumentException("Can not add a queue to itself.");	}
+		int copied = 0;
+		E tmp;
+		while (copied < max && (tmp = tryRemoveFirst()) != null) {
+			c.add(tmp);
+			copied++;
+		}
+		if (copied > 0 && puttersWaiting.get() > 0) {
+			waitLock.lock();
+			try {
+				notFull.signalAll();
+			} finally {
+				waitLock.unlock();
+			}
+		}
+		return copied;
+	}
+}
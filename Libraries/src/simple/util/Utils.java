@@ -2,9 +2,16 @@ package simple.util;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Vector;
 
+import simple.CIString;
+
 /**Depends on do_sort
  * <br>Created: Jan 27, 2009
  * @author Kenneth Pierce
@@ -168,70 +175,171 @@ public final class Utils {
 		}
 		return vec;
 	}//*/
-	/** Removes the duplicates and returns a new array. NOTE: this WILL modify the original array(sorts it).
-	 * Do not use if you need the original array unchanged.
+	/**Removes the duplicates and returns a new array. The original array is not changed.
+	 * Runs in linear time using an open addressing hash table of indexes. With
+	 * <var>ignorecase</var> strings are hashed with {@link CIString#hashOf(CharSequence)}
+	 * instead of being lower cased.<br>
+	 * null elements are dropped.
 	 * @param s
 	 * @param ignorecase
-	 * @param keeporder Set to true only if the array is unsorted and order is important. (decreases speed significantly)
-	 * @return The new array of unique values. Will be the same length as original with trailing nulls.
+	 * @param keeporder Keep the first of each value in its original order. Otherwise
+	 * 		the result is sorted.
+	 * @return The new array of unique values.
+	 * @see #distinct(Iterator, boolean, int) for streams
+	 * @see simple.io.ExternalSort#setDistinct(boolean) for input too big for memory
 	 */
-	public static final String[] removeDuplicates(String[] s, final boolean ignorecase, final boolean keeporder) {
+	public static final String[] removeDuplicates(final String[] s, final boolean ignorecase, final boolean keeporder) {
 		final String[] res = new String[s.length];
 		int index = 0;
-		if (!keeporder) {
-			do_sort.quickSort(s);
-			if (ignorecase) {
-				for (int i = 0; i < s.length-1; i++) {
-					if (s[i].equalsIgnoreCase(s[i+1])) {
-						continue;
-					}
-					res[index++] = s[i];
-				}
-				if (!s[s.length-1].equalsIgnoreCase(s[s.length-2])) {
-					res[index++] = s[s.length-1];
-				}
-			} else {
-				for (int i = 0; i < s.length-1; i++) {
-					if (s[i].equals(s[i+1])) {
-						continue;
+		// load factor at most 1/2
+		int capacity = 2;
+		while (capacity < s.length*2 && capacity < 1<<30)
+			capacity <<= 1;
+		final int mask = capacity-1;
+		// index+1 into res of the string in the slot, 0 for empty
+		final int[] table = new int[capacity];
+		final int[] hashes = new int[capacity];
+		for (int i = 0; i < s.length; i++) {
+			final String str = s[i];
+			if (str==null)
+				continue;
+			final int hash = ignorecase ? CIString.hashOf(str) : str.hashCode();
+			int slot = spread(hash)&mask;
+			boolean found = false;
+			while (table[slot]!=0) {
+				if (hashes[slot]==hash) {
+					final String other = res[table[slot]-1];
+					if (ignorecase ? other.equalsIgnoreCase(str) : other.equals(str)) {
+						found = true;
+						break;
 					}
-					res[index++] = s[i];
-				}
-				if (!s[s.length-1].equals(s[s.length-2])) {
-					res[index++] = s[s.length-1];
 				}
+				slot = (slot+1)&mask;
 			}
-		} else {//keep order
-			if (ignorecase) {
-				for (int i = 0; i < s.length; i++) {
-					if (s[i]==null) {
-						continue;
-					}
-					res[index++] = s[i];
-					for (int j = i+1; j < s.length; j++) {
-						if (s[i].equalsIgnoreCase(s[j])) {
-							s[j] = null;
-						}
-					}
-				}
-			} else {
-				for (int i = 0; i < s.length; i++) {
-					if (s[i]==null) {
-						continue;
-					}
-					res[index++] = s[i];
-					for (int j = i+1; j < s.length; j++) {
-						if (s[i].equals(s[j])) {
-							s[j] = null;
-						}
-					}
+			if (!found) {
+				res[index++] = str;
+				table[slot] = index;
+				hashes[slot] = hash;
+			}
+		}
+		final String[] unique = Arrays.copyOf(res, index);
+		if (!keeporder)
+			do_sort.quickSort(unique);
+		return unique;
+	}
+	/** Spreads the bits of a hash code so the low ones can be used as a table index. */
+	private static int spread(final int hash) {
+		final int h = hash*0x9E3779B9;
+		return h^(h>>>16);
+	}
+	/**Lazily skips strings already returned. Only the last <var>window</var>
+	 * distinct strings are remembered, so a string repeated further apart
+	 * than that comes out again, but memory stays bounded.<br>
+	 * null elements are dropped.
+	 * @param it
+	 * @param ignorecase
+	 * @param window Number of distinct strings to remember.
+	 * @return Iterator of the strings of <var>it</var> without repeats.
+	 */
+	public static Iterator<String> distinct(final Iterator<String> it, final boolean ignorecase, final int window) {
+		if (window<1)
+			throw new IllegalArgumentException("window must be positive.");
+		// access order, so a repeated string stays remembered
+		final LinkedHashMap<Object, Boolean> seen = new LinkedHashMap<Object, Boolean>(Math.min(window, 1<<16), 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Object, Boolean> eldest) {
+				return size() > window;
+			}
+		};
+		if (!ignorecase)
+			return new FilterIterator(it) {
+				@Override
+				boolean accept(final String str) {
+					return seen.put(str, Boolean.TRUE)==null;
 				}
+			};
+		// looked up with one reused key, a key is only made for a new string
+		final CIKey probe = new CIKey();
+		return new FilterIterator(it) {
+			@Override
+			boolean accept(final String str) {
+				probe.str = str;
+				probe.hash = CIString.hashOf(str);
+				if (seen.get(probe)!=null)
+					return false;
+				final CIKey key = new CIKey();
+				key.str = str;
+				key.hash = probe.hash;
+				seen.put(key, Boolean.TRUE);
+				return true;
+			}
+		};
+	}
+	/** Case insensitive map key that doesn't fold a copy of its string. */
+	private static final class CIKey {
+		String str;
+		int hash;
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof CIKey))
+				return false;
+			final CIKey other = (CIKey)obj;
+			return hash==other.hash && str.equalsIgnoreCase(other.str);
+		}
+	}
+	/**Lazily skips strings already returned, remembering them in a {@link BloomFilter}.
+	 * Memory is fixed by <var>expected</var> and <var>fpp</var>. A string is never
+	 * returned twice, but about <var>fpp</var> of the distinct strings are wrongly
+	 * taken as repeats and skipped.<br>
+	 * null elements are dropped.
+	 * @param it
+	 * @param ignorecase
+	 * @param expected Number of distinct strings expected.
+	 * @param fpp Chance of a new string being skipped once <var>expected</var> strings were returned.
+	 * @return Iterator of the strings of <var>it</var> without repeats.
+	 */
+	public static Iterator<String> distinctApprox(final Iterator<String> it, final boolean ignorecase, final long expected, final double fpp) {
+		final BloomFilter seen = new BloomFilter(expected, fpp, ignorecase);
+		return new FilterIterator(it) {
+			@Override
+			boolean accept(final String str) {
+				return seen.add(str);
 			}
+		};
+	}
+	/** Returns the non null strings <code>accept</code> takes. */
+	private static abstract class FilterIterator implements Iterator<String> {
+		private final Iterator<String> it;
+		private String next = null;
+		FilterIterator(final Iterator<String> it) {
+			this.it = it;
+		}
+		abstract boolean accept(String str);
+		@Override
+		public boolean hasNext() {
+			while (next==null && it.hasNext()) {
+				final String str = it.next();
+				if (str!=null && accept(str))
+					next = str;
+			}
+			return next!=null;
+		}
+		@Override
+		public String next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			final String str = next;
+			next = null;
+			return str;
 		}
-		s = new String[index];
-		for (int i = 0; i < index && res[i]!=null; i++) {
-			s[i] = res[i];
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
-		return s;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+/**
+ *
+ */
+package simple.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+/**The batch operations shared by {@link BlockingQueue}, {@link BlockingStack}
+ * and {@link BlockingDeque}: addAll, offerAll, putAll and drainTo on the
+ * backing Vector. Each takes the Vector, the monitor the collection waits and
+ * notifies on, and whether the Vector's capacity is the collection's limit.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+final class VectorBatch {
+	private VectorBatch() {}
+	/**
+	 * Adds the collection if there is enough room, under one lock, notifying once.
+	 * @return <code>true</code> if all were added, <code>false</code> otherwise.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	static <E> boolean addAll(Vector<E> list, Object lock, boolean fixedSize, Collection<? extends E> c) {
+		final List<E> batch = toBatch(c);
+		synchronized (lock) {
+			if (remainingCapacity(list, fixedSize) < batch.size())
+			{	return false;	}
+			list.addAll(batch);
+			lock.notifyAll();
+		}
+		return true;
+	}
+	/**
+	 * Adds all of <code>c</code>, waiting up to the specified time for enough room.
+	 * Either the whole collection is added or none of it, notifying once.
+	 * @return <code>false</code> if the waited time elapsed without enough room or <code>c</code>
+	 * 			is larger than the capacity.
+	 * @throws {@link java.lang.InterruptedException} if interrupted
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	static <E> boolean offerAll(Vector<E> list, Object lock, boolean fixedSize, Collection<? extends E> c, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		final List<E> batch = toBatch(c);
+		if (fixedSize && batch.size() > list.capacity())
+		{	return false;	}
+		long nanos = unit.toNanos(timeout);
+		final long deadline = System.nanoTime()+nanos;
+		synchronized (lock) {
+			while (remainingCapacity(list, fixedSize) < batch.size()) {
+				if (nanos <= 0)
+				{	return false;	}
+				TimeUnit.NANOSECONDS.timedWait(lock, nanos);
+				nanos = deadline-System.nanoTime();
+			}
+			list.addAll(batch);
+			lock.notifyAll();
+		}
+		return true;
+	}
+	/**
+	 * Adds all of <code>c</code>, blocking while there is no room, in as few
+	 * chunks as the free room allows and notifying once per chunk.
+	 * @throws {@link java.lang.InterruptedException} if interrupted. Elements already added stay.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	static <E> void putAll(Vector<E> list, Object lock, boolean fixedSize, Collection<? extends E> c) throws InterruptedException {
+		final List<E> batch = toBatch(c);
+		int pos = 0;
+		synchronized (lock) {
+			while (pos < batch.size()) {
+				while (remainingCapacity(list, fixedSize) == 0) {	lock.wait(5000);	}
+				final int n = Math.min(remainingCapacity(list, fixedSize), batch.size()-pos);
+				list.addAll(batch.subList(pos, pos+n));
+				pos += n;
+				lock.notifyAll();
+			}
+		}
+	}
+	/**
+	 * Removes up to <code>max</code> elements under one lock with a single
+	 * array copy, notifying once, and adds them to <code>c</code>.
+	 * @param lastFirst Take them from the end of the Vector, last added first,
+	 * 			instead of from the start.
+	 * @return The number of elements removed.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> int drainTo(Vector<E> list, Object lock, Collection<? super E> c, int max, boolean lastFirst) {
+		if (max <= 0)
+		{	return 0;	}
+		final Object[] batch;
+		synchronized (lock) {
+			final int size = list.size();
+			final int n = Math.min(max, size);
+			if (n == 0)
+			{	return 0;	}
+			final List<E> taken = lastFirst ? list.subList(size-n, size) : list.subList(0, n);
+			batch = taken.toArray();
+			taken.clear();
+			lock.notifyAll();
+		}
+		if (lastFirst) {
+			for (int l = 0, r = batch.length-1; l < r; l++, r--) {
+				final Object tmp = batch[l];
+				batch[l] = batch[r];
+				batch[r] = tmp;
+			}
+		}
+		c.addAll((List<E>)Arrays.asList(batch));
+		return batch.length;
+	}
+	private static int remainingCapacity(Vector<?> list, boolean fixedSize) {
+		return fixedSize ? list.capacity()-list.size() : Integer.MAX_VALUE;
+	}
+	/** Copies <code>c</code> so it can be added without calling back into it while locked.
+	 * @throws {@link java.lang.NullPointerException} if <code>c</code> contains a null element.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> List<E> toBatch(Collection<? extends E> c) {
+		final Object[] arr = c.toArray();
+		for (final Object o : arr) {
+			if (o == null)
+			{ throw new NullPointerException("Can not add a null element.");	}
+		}
+		return (List<E>)Arrays.asList(arr);
+	}
+}
@@ -1,52 +1,2829 @@
 package simple.util;
 
-/**
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**Bulk math on primitive arrays.<br>
+ * The kernels are plain counted loops over a range that is checked once up
+ * front, so the JIT drops the per element bounds checks. Reductions keep
+ * four running values and combine them at the end, which lets the CPU work
+ * on several elements at once and lets the JIT use vector instructions.
+ * Floating point sums are added up in a different order than a simple loop,
+ * so the last bits can differ from one; {@link #kahanSum(double[])} is there
+ * when that matters.<br>
+ * Integer sums are kept in a long, float sums in a double. Neither is
+ * checked for overflow.<br>
+ * The <code>parallel</code> methods split arrays of at least
+ * {@link #PARALLEL_THRESHOLD} elements into chunks on the common
+ * {@link ForkJoinPool} and do smaller ones on the calling thread.
  * <br>Created: 2006
  * @author Kenneth Pierce
  */
 public final class do_math {
-	public static long sum(int[] x) {
-		long sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/** Arrays shorter than this are never split across threads. */
+	public static final int PARALLEL_THRESHOLD = 1<<16;
+	/** Smallest chunk a parallel method gives a thread. */
+	private static final int MIN_CHUNK = 1<<14;
+	private static void checkRange(final int length, final int from, final int to) {
+		if (from > to)
+			throw new IllegalArgumentException("from("+from+") > to("+to+")");
+		if (from < 0)
+			throw new ArrayIndexOutOfBoundsException(from);
+		if (to > length)
+			throw new ArrayIndexOutOfBoundsException(to);
+	}
+	private static void checkNotEmpty(final int from, final int to) {
+		if (from == to)
+			throw new IllegalArgumentException("Empty range");
+	}
+	private static void checkSameLength(final int a, final int b) {
+		if (a != b)
+			throw new IllegalArgumentException("Lengths differ: "+a+" != "+b);
+	}
+	private static void checkBins(final boolean ordered, final int bins) {
+		if (!ordered)
+			throw new IllegalArgumentException("lo must be less than hi");
+		if (bins < 1)
+			throw new IllegalArgumentException("bins must be positive: "+bins);
+	}
+//	========== start chunks ===========
+	/**
+	 * @param n Number of elements.
+	 * @return Number of chunks to split them into, 1 to stay on the calling thread.
+	 */
+	private static int chunks(final int n) {
+		final int threads = ForkJoinPool.getCommonPoolParallelism();
+		if (n < PARALLEL_THRESHOLD || threads < 2)
+			return 1;
+		return Math.min(threads<<2, n/MIN_CHUNK);
+	}
+	/** Work done on one chunk of a parallel method. */
+	private interface Chunk {
+		/**
+		 * @param chunk Index of the chunk.
+		 * @param from first index, inclusive
+		 * @param to last index, exclusive
+		 */
+		void run(int chunk, int from, int to);
+	}
+	/** Runs <var>chunk</var> on each of <var>chunks</var> even parts of <var>n</var> elements and waits for all of them. */
+	private static void forEachChunk(final int n, final int chunks, final Chunk chunk) {
+		ForkJoinPool.commonPool().invoke(new ChunkTask(n, chunks, 0, chunks, chunk));
+	}
+	/** Splits the chunks in half until there is one left to run. */
+	private static final class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int n, chunks, lo, hi;
+		private final Chunk chunk;
+		ChunkTask(final int n, final int chunks, final int lo, final int hi, final Chunk chunk) {
+			this.n = n;
+			this.chunks = chunks;
+			this.lo = lo;
+			this.hi = hi;
+			this.chunk = chunk;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo == 1) {
+				chunk.run(lo, (int)((long)n*lo/chunks), (int)((long)n*hi/chunks));
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new ChunkTask(n, chunks, lo, mid, chunk), new ChunkTask(n, chunks, mid, hi, chunk));
+		}
+	}
+//	========== end chunks ===========
+//	========== start sum ===========
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 */
+	public static long sum(final int[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static long sum(final int[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**Sums the chunks on the common {@link ForkJoinPool}.
+	 * @param x
+	 * @return The sum of the elements.
+	 */
+	public static long parallelSum(final int[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static long sum(final long[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static long sum(final long[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static long parallelSum(final long[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static long sum(final short[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static long sum(final short[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static long parallelSum(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static long sum(final char[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static long sum(final char[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static long parallelSum(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static long sum(final byte[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static long sum(final byte[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static long parallelSum(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static double sum(final float[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static double sum(final float[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static double parallelSum(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #sum(int[])
+	 */
+	public static double sum(final double[] x) {
+		return sum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 */
+	public static double sum(final double[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += x[i];
+			s1 += x[i+1];
+			s2 += x[i+2];
+			s3 += x[i+3];
+		}
+		for (; i < to; i++)
+			s0 += x[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #parallelSum(int[])
+	 */
+	public static double parallelSum(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return sum(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = sum(x, from, to);
+			}
+		});
+		return sum(part);
+	}
+//	========== end sum ===========
+//	========== start kahan sum ===========
+	/**Sums with Neumaier's variant of Kahan summation. The rounding error of
+	 * each addition is added up on the side and put back at the end, so the
+	 * result is as if the sum were kept with about twice the precision. About
+	 * four times slower than {@link #sum(float[])}.
+	 * @param x
+	 * @return The sum of the elements.
+	 */
+	public static double kahanSum(final float[] x) {
+		return kahanSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 * @see #kahanSum(float[])
+	 */
+	public static double kahanSum(final float[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		double sum = 0, c = 0;
+		for (int i = from; i < to; i++) {
+			final double v = x[i];
+			final double t = sum+v;
+			if (Math.abs(sum) >= Math.abs(v))
+				c += (sum-t)+v;
+			else
+				c += (v-t)+sum;
+			sum = t;
+		}
+		return sum+c;
+	}
+	/**Compensated sums of the chunks, added up compensated too.
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #kahanSum(float[])
+	 */
+	public static double parallelKahanSum(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return kahanSum(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = kahanSum(x, from, to);
+			}
+		});
+		return kahanSum(part);
+	}
+	/**
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #kahanSum(float[])
+	 */
+	public static double kahanSum(final double[] x) {
+		return kahanSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the elements in the range.
+	 * @see #kahanSum(float[])
+	 */
+	public static double kahanSum(final double[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		double sum = 0, c = 0;
+		for (int i = from; i < to; i++) {
+			final double v = x[i];
+			final double t = sum+v;
+			if (Math.abs(sum) >= Math.abs(v))
+				c += (sum-t)+v;
+			else
+				c += (v-t)+sum;
+			sum = t;
+		}
+		return sum+c;
+	}
+	/**Compensated sums of the chunks, added up compensated too.
+	 * @param x
+	 * @return The sum of the elements.
+	 * @see #kahanSum(float[])
+	 */
+	public static double parallelKahanSum(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return kahanSum(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = kahanSum(x, from, to);
+			}
+		});
+		return kahanSum(part);
+	}
+//	========== end kahan sum ===========
+//	========== start min ===========
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 */
+	public static int min(final int[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static int min(final int[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Integer.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(int[])
+	 */
+	public static int parallelMin(final int[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final int[] part = new int[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(int[])
+	 */
+	public static long min(final long[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static long min(final long[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		long m0 = Long.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(long[])
+	 */
+	public static long parallelMin(final long[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(int[])
+	 */
+	public static short min(final short[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static short min(final short[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Short.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return (short)Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(short[])
+	 */
+	public static short parallelMin(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final short[] part = new short[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(int[])
+	 */
+	public static char min(final char[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static char min(final char[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Character.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return (char)Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(char[])
+	 */
+	public static char parallelMin(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final char[] part = new char[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(int[])
+	 */
+	public static byte min(final byte[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static byte min(final byte[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Byte.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return (byte)Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(byte[])
+	 */
+	public static byte parallelMin(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final byte[] part = new byte[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element. NaN if any element is NaN.
+	 * @see #min(int[])
+	 */
+	public static float min(final float[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static float min(final float[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		float m0 = Float.POSITIVE_INFINITY, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(float[])
+	 */
+	public static float parallelMin(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final float[] part = new float[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element. NaN if any element is NaN.
+	 * @see #min(int[])
+	 */
+	public static double min(final double[] x) {
+		return min(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The smallest element in the range.
+	 */
+	public static double min(final double[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		double m0 = Double.POSITIVE_INFINITY, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.min(m0, x[i]);
+			m1 = Math.min(m1, x[i+1]);
+			m2 = Math.min(m2, x[i+2]);
+			m3 = Math.min(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.min(m0, x[i]);
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The smallest element.
+	 * @see #min(double[])
+	 */
+	public static double parallelMin(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return min(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = min(x, from, to);
+			}
+		});
+		return min(part);
+	}
+//	========== end min ===========
+//	========== start max ===========
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 */
+	public static int max(final int[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static int max(final int[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Integer.MIN_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(int[])
+	 */
+	public static int parallelMax(final int[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final int[] part = new int[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(int[])
+	 */
+	public static long max(final long[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static long max(final long[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		long m0 = Long.MIN_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
+		}
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(long[])
+	 */
+	public static long parallelMax(final long[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final long[] part = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(int[])
+	 */
+	public static short max(final short[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static short max(final short[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Short.MIN_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
 		}
-		return sum;
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return (short)Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(short[])
+	 */
+	public static short parallelMax(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final short[] part = new short[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
 	}
-	public static long sum(short[] x) {
-		long sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(int[])
+	 */
+	public static char max(final char[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static char max(final char[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Character.MIN_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
 		}
-		return sum;
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return (char)Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(char[])
+	 */
+	public static char parallelMax(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final char[] part = new char[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
 	}
-	public static long sum(char[] x) {
-		long sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(int[])
+	 */
+	public static byte max(final byte[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static byte max(final byte[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		int m0 = Byte.MIN_VALUE, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
 		}
-		return sum;
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return (byte)Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(byte[])
+	 */
+	public static byte parallelMax(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final byte[] part = new byte[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
 	}
-	public static double sum(float[] x) {
-		double sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element. NaN if any element is NaN.
+	 * @see #max(int[])
+	 */
+	public static float max(final float[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static float max(final float[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		float m0 = Float.NEGATIVE_INFINITY, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
 		}
-		return sum;
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(float[])
+	 */
+	public static float parallelMax(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final float[] part = new float[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
 	}
-	public static double sum(double[] x) {
-		double sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element. NaN if any element is NaN.
+	 * @see #max(int[])
+	 */
+	public static double max(final double[] x) {
+		return max(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive. Must be more than <var>from</var>.
+	 * @return The largest element in the range.
+	 */
+	public static double max(final double[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		checkNotEmpty(from, to);
+		double m0 = Double.NEGATIVE_INFINITY, m1 = m0, m2 = m0, m3 = m0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			m0 = Math.max(m0, x[i]);
+			m1 = Math.max(m1, x[i+1]);
+			m2 = Math.max(m2, x[i+2]);
+			m3 = Math.max(m3, x[i+3]);
 		}
-		return sum;
+		for (; i < to; i++)
+			m0 = Math.max(m0, x[i]);
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+	/**
+	 * @param x Must not be empty.
+	 * @return The largest element.
+	 * @see #max(double[])
+	 */
+	public static double parallelMax(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return max(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = max(x, from, to);
+			}
+		});
+		return max(part);
+	}
+//	========== end max ===========
+//	========== start mean / variance ===========
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 */
+	public static double mean(final int[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final int[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(int[])
+	 */
+	public static double parallelMean(final int[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**Population variance, the average squared distance from the mean. Made
+	 * in two passes, the mean first, which loses less precision than summing
+	 * the squares. Multiply by <code>n/(n-1)</code> for the sample variance.
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 */
+	public static double variance(final int[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final int[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final int[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final int[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final long[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final long[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(long[])
+	 */
+	public static double parallelMean(final long[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final long[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final long[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final long[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final long[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final short[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final short[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(short[])
+	 */
+	public static double parallelMean(final short[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final short[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final short[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final short[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final char[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final char[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(char[])
+	 */
+	public static double parallelMean(final char[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final char[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final char[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final char[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final byte[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final byte[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(byte[])
+	 */
+	public static double parallelMean(final byte[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final byte[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final byte[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final byte[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final float[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final float[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(float[])
+	 */
+	public static double parallelMean(final float[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final float[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final float[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final float[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #mean(int[])
+	 */
+	public static double mean(final double[] x) {
+		return mean(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The average of the elements in the range, NaN if it is empty.
+	 */
+	public static double mean(final double[] x, final int from, final int to) {
+		return sum(x, from, to)/(double)(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The average of the elements, NaN if there are none.
+	 * @see #parallelSum(double[])
+	 */
+	public static double parallelMean(final double[] x) {
+		return parallelSum(x)/(double)x.length;
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final double[] x) {
+		return variance(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The variance of the elements in the range, NaN if it is empty.
+	 * @see #variance(int[])
+	 */
+	public static double variance(final double[] x, final int from, final int to) {
+		final double mean = mean(x, from, to);
+		return squaredDistance(x, from, to, mean)/(to-from);
+	}
+	/**
+	 * @param x
+	 * @return The variance of the elements, NaN if there are none.
+	 * @see #variance(int[])
+	 */
+	public static double parallelVariance(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return variance(x);
+		final double mean = parallelMean(x);
+		final double[] part = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = squaredDistance(x, from, to, mean);
+			}
+		});
+		return sum(part)/x.length;
+	}
+	/** @return The sum of the squared distances from <var>mean</var>. */
+	private static double squaredDistance(final double[] x, final int from, final int to, final double mean) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			final double d0 = x[i]-mean, d1 = x[i+1]-mean, d2 = x[i+2]-mean, d3 = x[i+3]-mean;
+			s0 += d0*d0;
+			s1 += d1*d1;
+			s2 += d2*d2;
+			s3 += d3*d3;
+		}
+		for (; i < to; i++) {
+			final double d = x[i]-mean;
+			s0 += d*d;
+		}
+		return (s0+s1)+(s2+s3);
+	}
+//	========== end mean / variance ===========
+//	========== start dot ===========
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 */
+	public static long dot(final int[] a, final int[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static long dot(final int[] a, final int[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += (long)a[i]*b[i];
+			s1 += (long)a[i+1]*b[i+1];
+			s2 += (long)a[i+2]*b[i+2];
+			s3 += (long)a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += (long)a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static long parallelDot(final int[] a, final int[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final long[] part = new long[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static long dot(final long[] a, final long[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static long dot(final long[] a, final long[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += a[i]*b[i];
+			s1 += a[i+1]*b[i+1];
+			s2 += a[i+2]*b[i+2];
+			s3 += a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(long[], long[])
+	 */
+	public static long parallelDot(final long[] a, final long[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final long[] part = new long[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static long dot(final short[] a, final short[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static long dot(final short[] a, final short[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += (long)a[i]*b[i];
+			s1 += (long)a[i+1]*b[i+1];
+			s2 += (long)a[i+2]*b[i+2];
+			s3 += (long)a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += (long)a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(short[], short[])
+	 */
+	public static long parallelDot(final short[] a, final short[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final long[] part = new long[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static long dot(final char[] a, final char[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static long dot(final char[] a, final char[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += (long)a[i]*b[i];
+			s1 += (long)a[i+1]*b[i+1];
+			s2 += (long)a[i+2]*b[i+2];
+			s3 += (long)a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += (long)a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(char[], char[])
+	 */
+	public static long parallelDot(final char[] a, final char[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final long[] part = new long[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static long dot(final byte[] a, final byte[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static long dot(final byte[] a, final byte[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += (long)a[i]*b[i];
+			s1 += (long)a[i+1]*b[i+1];
+			s2 += (long)a[i+2]*b[i+2];
+			s3 += (long)a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += (long)a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(byte[], byte[])
+	 */
+	public static long parallelDot(final byte[] a, final byte[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final long[] part = new long[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static double dot(final float[] a, final float[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static double dot(final float[] a, final float[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += (double)a[i]*b[i];
+			s1 += (double)a[i+1]*b[i+1];
+			s2 += (double)a[i+2]*b[i+2];
+			s3 += (double)a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += (double)a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(float[], float[])
+	 */
+	public static double parallelDot(final float[] a, final float[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final double[] part = new double[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(int[], int[])
+	 */
+	public static double dot(final double[] a, final double[] b) {
+		checkSameLength(a.length, b.length);
+		return dot(a, b, 0, a.length);
+	}
+	/**
+	 * @param a
+	 * @param b
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The sum of the products of the elements at the same index in the range.
+	 */
+	public static double dot(final double[] a, final double[] b, final int from, final int to) {
+		checkRange(a.length, from, to);
+		checkRange(b.length, from, to);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (final int end = to-3; i < end; i += 4) {
+			s0 += a[i]*b[i];
+			s1 += a[i+1]*b[i+1];
+			s2 += a[i+2]*b[i+2];
+			s3 += a[i+3]*b[i+3];
+		}
+		for (; i < to; i++)
+			s0 += a[i]*b[i];
+		return (s0+s1)+(s2+s3);
+	}
+	/**
+	 * @param a
+	 * @param b Same length as <var>a</var>.
+	 * @return The sum of the products of the elements at the same index.
+	 * @see #dot(double[], double[])
+	 */
+	public static double parallelDot(final double[] a, final double[] b) {
+		checkSameLength(a.length, b.length);
+		final int chunks = chunks(a.length);
+		if (chunks < 2)
+			return dot(a, b, 0, a.length);
+		final double[] part = new double[chunks];
+		forEachChunk(a.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				part[chunk] = dot(a, b, from, to);
+			}
+		});
+		return sum(part);
+	}
+//	========== end dot ===========
+//	========== start prefix sum ===========
+	/**Running totals: element i of the result is the sum of the elements up
+	 * to and including i. The totals are kept in the same type as {@link #sum(int[])}.
+	 * @param x
+	 * @return The running totals.
+	 */
+	public static long[] prefixSum(final int[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final int[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final long[] out = new long[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] parallelPrefixSum(final int[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final long[] out = new long[x.length];
+		final long[] start = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		long total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final long s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final int[] x, final int from, final int to, final long[] out, final int shift, long total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final long[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final long[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final long[] out = new long[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] parallelPrefixSum(final long[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final long[] out = new long[x.length];
+		final long[] start = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		long total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final long s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final long[] x, final int from, final int to, final long[] out, final int shift, long total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final short[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final short[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final long[] out = new long[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] parallelPrefixSum(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final long[] out = new long[x.length];
+		final long[] start = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		long total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final long s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final short[] x, final int from, final int to, final long[] out, final int shift, long total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final char[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final char[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final long[] out = new long[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] parallelPrefixSum(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final long[] out = new long[x.length];
+		final long[] start = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		long total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final long s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final char[] x, final int from, final int to, final long[] out, final int shift, long total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final byte[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] prefixSum(final byte[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final long[] out = new long[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static long[] parallelPrefixSum(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final long[] out = new long[x.length];
+		final long[] start = new long[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		long total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final long s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final byte[] x, final int from, final int to, final long[] out, final int shift, long total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] prefixSum(final float[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] prefixSum(final float[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final double[] out = new double[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] parallelPrefixSum(final float[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final double[] out = new double[x.length];
+		final double[] start = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		double total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final double s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final float[] x, final int from, final int to, final double[] out, final int shift, double total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+	/**
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] prefixSum(final double[] x) {
+		return prefixSum(x, 0, x.length);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return The running totals of the range, <var>to</var>-<var>from</var> long.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] prefixSum(final double[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final double[] out = new double[to-from];
+		prefixSum(x, from, to, out, from, 0);
+		return out;
+	}
+	/**Sums the chunks in parallel, then fills in the running totals of each
+	 * chunk in parallel starting from the total of the chunks before it.
+	 * @param x
+	 * @return The running totals.
+	 * @see #prefixSum(int[])
+	 */
+	public static double[] parallelPrefixSum(final double[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return prefixSum(x);
+		final double[] out = new double[x.length];
+		final double[] start = new double[chunks];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				start[chunk] = sum(x, from, to);
+			}
+		});
+		double total = 0;
+		for (int c = 0; c < chunks; c++) {
+			final double s = start[c];
+			start[c] = total;
+			total += s;
+		}
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				prefixSum(x, from, to, out, 0, start[chunk]);
+			}
+		});
+		return out;
+	}
+	/** Writes the running totals of the range, starting from <var>total</var>, to <var>out</var> at the same indices less <var>shift</var>. */
+	private static void prefixSum(final double[] x, final int from, final int to, final double[] out, final int shift, double total) {
+		for (int i = from; i < to; i++)
+			out[i-shift] = total += x[i];
+	}
+//	========== end prefix sum ===========
+//	========== start histogram ===========
+	/**Counts the elements in <var>bins</var> equal width bins from
+	 * <var>lo</var> to <var>hi</var>. Elements outside of it are not counted.
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 */
+	public static int[] histogram(final int[] x, final int lo, final int hi, final int bins) {
+		return histogram(x, 0, x.length, lo, hi, bins);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in the range in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final int[] x, final int from, final int to, final int lo, final int hi, final int bins) {
+		checkRange(x.length, from, to);
+		checkBins(lo < hi, bins);
+		final int[] count = new int[bins];
+		histogram(x, from, to, lo, hi, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] parallelHistogram(final int[] x, final int lo, final int hi, final int bins) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x, lo, hi, bins);
+		checkBins(lo < hi, bins);
+		final int[][] part = new int[chunks][bins];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, lo, hi, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final int[] x, final int from, final int to, final int lo, final int hi, final int[] count) {
+		final int bins = count.length;
+		final long width = (long)hi-lo;
+		for (int i = from; i < to; i++) {
+			final int v = x[i];
+			if (v >= lo && v < hi)
+				count[(int)(((long)v-lo)*bins/width)]++;
+		}
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final long[] x, final long lo, final long hi, final int bins) {
+		return histogram(x, 0, x.length, lo, hi, bins);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in the range in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final long[] x, final int from, final int to, final long lo, final long hi, final int bins) {
+		checkRange(x.length, from, to);
+		checkBins(lo < hi, bins);
+		final int[] count = new int[bins];
+		histogram(x, from, to, lo, hi, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] parallelHistogram(final long[] x, final long lo, final long hi, final int bins) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x, lo, hi, bins);
+		checkBins(lo < hi, bins);
+		final int[][] part = new int[chunks][bins];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, lo, hi, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final long[] x, final int from, final int to, final long lo, final long hi, final int[] count) {
+		final int bins = count.length;
+		// hi-lo can overflow a long, so the bin is worked out in doubles
+		final double scale = bins/((double)hi-(double)lo);
+		for (int i = from; i < to; i++) {
+			final long v = x[i];
+			if (v >= lo && v < hi)
+				count[Math.min((int)(((double)v-(double)lo)*scale), bins-1)]++;
+		}
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin. NaN is not counted.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final float[] x, final float lo, final float hi, final int bins) {
+		return histogram(x, 0, x.length, lo, hi, bins);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in the range in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final float[] x, final int from, final int to, final float lo, final float hi, final int bins) {
+		checkRange(x.length, from, to);
+		checkBins(lo < hi, bins);
+		final int[] count = new int[bins];
+		histogram(x, from, to, lo, hi, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] parallelHistogram(final float[] x, final float lo, final float hi, final int bins) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x, lo, hi, bins);
+		checkBins(lo < hi, bins);
+		final int[][] part = new int[chunks][bins];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, lo, hi, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final float[] x, final int from, final int to, final float lo, final float hi, final int[] count) {
+		final int bins = count.length;
+		final double scale = bins/((double)hi-lo);
+		for (int i = from; i < to; i++) {
+			final float v = x[i];
+			// false for NaN
+			if (v >= lo && v < hi)
+				count[Math.min((int)((v-(double)lo)*scale), bins-1)]++;
+		}
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin. NaN is not counted.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final double[] x, final double lo, final double hi, final int bins) {
+		return histogram(x, 0, x.length, lo, hi, bins);
+	}
+	/**
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in the range in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] histogram(final double[] x, final int from, final int to, final double lo, final double hi, final int bins) {
+		checkRange(x.length, from, to);
+		checkBins(lo < hi, bins);
+		final int[] count = new int[bins];
+		histogram(x, from, to, lo, hi, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @param lo Lowest value of the first bin, inclusive.
+	 * @param hi Highest value of the last bin, exclusive.
+	 * @param bins Number of bins.
+	 * @return Number of elements in each bin.
+	 * @see #histogram(int[], int, int, int)
+	 */
+	public static int[] parallelHistogram(final double[] x, final double lo, final double hi, final int bins) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x, lo, hi, bins);
+		checkBins(lo < hi, bins);
+		final int[][] part = new int[chunks][bins];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, lo, hi, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final double[] x, final int from, final int to, final double lo, final double hi, final int[] count) {
+		final int bins = count.length;
+		final double scale = bins/(hi-lo);
+		for (int i = from; i < to; i++) {
+			final double v = x[i];
+			// false for NaN
+			if (v >= lo && v < hi)
+				count[Math.min((int)((v-lo)*scale), bins-1)]++;
+		}
+	}
+	/**Counts each value.
+	 * @param x
+	 * @return Number of elements of each value, indexed by value less {@link Short#MIN_VALUE}.
+	 */
+	public static int[] histogram(final short[] x) {
+		return histogram(x, 0, x.length);
+	}
+	/**Counts each value.
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return Number of elements in the range of each value, indexed by value less {@link Short#MIN_VALUE}.
+	 */
+	public static int[] histogram(final short[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final int[] count = new int[1<<16];
+		histogram(x, from, to, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @return Number of elements of each value, indexed by value less {@link Short#MIN_VALUE}.
+	 * @see #histogram(short[])
+	 */
+	public static int[] parallelHistogram(final short[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x);
+		final int[][] part = new int[chunks][1<<16];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final short[] x, final int from, final int to, final int[] count) {
+		for (int i = from; i < to; i++)
+			count[x[i]-Short.MIN_VALUE]++;
+	}
+	/**Counts each value.
+	 * @param x
+	 * @return Number of elements of each value, indexed by value.
+	 */
+	public static int[] histogram(final char[] x) {
+		return histogram(x, 0, x.length);
+	}
+	/**Counts each value.
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return Number of elements in the range of each value, indexed by value.
+	 */
+	public static int[] histogram(final char[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final int[] count = new int[1<<16];
+		histogram(x, from, to, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @return Number of elements of each value, indexed by value.
+	 * @see #histogram(char[])
+	 */
+	public static int[] parallelHistogram(final char[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x);
+		final int[][] part = new int[chunks][1<<16];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final char[] x, final int from, final int to, final int[] count) {
+		for (int i = from; i < to; i++)
+			count[x[i]]++;
+	}
+	/**Counts each value.
+	 * @param x
+	 * @return Number of elements of each value, indexed by value less {@link Byte#MIN_VALUE}.
+	 */
+	public static int[] histogram(final byte[] x) {
+		return histogram(x, 0, x.length);
+	}
+	/**Counts each value.
+	 * @param x
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @return Number of elements in the range of each value, indexed by value less {@link Byte#MIN_VALUE}.
+	 */
+	public static int[] histogram(final byte[] x, final int from, final int to) {
+		checkRange(x.length, from, to);
+		final int[] count = new int[1<<8];
+		histogram(x, from, to, count);
+		return count;
+	}
+	/**
+	 * @param x
+	 * @return Number of elements of each value, indexed by value less {@link Byte#MIN_VALUE}.
+	 * @see #histogram(byte[])
+	 */
+	public static int[] parallelHistogram(final byte[] x) {
+		final int chunks = chunks(x.length);
+		if (chunks < 2)
+			return histogram(x);
+		final int[][] part = new int[chunks][1<<8];
+		forEachChunk(x.length, chunks, new Chunk() {
+			public void run(final int chunk, final int from, final int to) {
+				histogram(x, from, to, part[chunk]);
+			}
+		});
+		return merge(part);
+	}
+	private static void histogram(final byte[] x, final int from, final int to, final int[] count) {
+		for (int i = from; i < to; i++)
+			count[x[i]-Byte.MIN_VALUE]++;
 	}
-	public static long sum(long[] x) {
-		long sum = 0;
-		for(int i = 0;i<x.length;i++) {
-			sum += x[i];
+	/** @return The per chunk counts added together, in the first of them. */
+	private static int[] merge(final int[][] part) {
+		final int[] count = part[0];
+		for (int c = 1; c < part.length; c++) {
+			final int[] p = part[c];
+			for (int i = 0; i < count.length; i++)
+				count[i] += p[i];
 		}
-		return sum;
+		return count;
 	}
+//	========== end histogram ===========
 	public static long factorial(long n) {
 		long ans = 1;
 		for(; n>1 ; n--)
@@ -1,6 +1,10 @@
 package simple.util;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Not sure if I use these. Created as an assignment for a database management class.
@@ -8,6 +12,16 @@ import java.io.File;
  * @author Kenneth Pierce
  */
 public final class do_sort {
+	/** Arrays shorter than this are never sorted in parallel. */
+	public static final int PARALLEL_THRESHOLD = 1<<13;
+	/** Partitions this small are insertion sorted. */
+	private static final int INSERTION_LIMIT = 16;
+	/** Merges this small are done on one thread. */
+	private static final int MERGE_GRAIN = 1<<12;
+	/** {@link #sort(int[])} and friends use a comparison sort below this length. */
+	public static final int RADIX_THRESHOLD = 1<<10;
+	/** {@link #sort(short[])} and {@link #sort(byte[])} use a comparison sort below this length. */
+	public static final int COUNTING_THRESHOLD = 1<<8;
 	/*public static void main (String[] args) {
 		int size = 50;
 		int[] data = new int[size];
@@ -41,6 +55,16 @@ public final class do_sort {
 		data[e0] = data[e1];
 		data[e1] = tmp;
 	}
+	public static void swap(final char data[], final int e0, final int e1) {
+		final char tmp = data[e0];
+		data[e0] = data[e1];
+		data[e1] = tmp;
+	}
+	public static void swap(final byte data[], final int e0, final int e1) {
+		final byte tmp = data[e0];
+		data[e0] = data[e1];
+		data[e1] = tmp;
+	}
 	public static void swap(final Object data[], final int e0, final int e1) {
 		final Object tmp = data[e0];
 		data[e0] = data[e1];
@@ -399,6 +423,306 @@ public final class do_sort {
 		}
 	}
 //	========== end qsort ===============
+//	========== start radix / counting sort ==========
+	/**LSD radix sort, one byte at a time. Passes where every value has the
+	 * same byte are skipped, so narrow ranges take fewer passes.
+	 * Uses a second array of the same size.
+	 * @param data
+	 */
+	public static void radixSort(final int data[]) {
+		for (int i = 0; i<data.length; i++)
+			data[i] ^= Integer.MIN_VALUE;
+		radixSortUnsigned(data, null);
+		for (int i = 0; i<data.length; i++)
+			data[i] ^= Integer.MIN_VALUE;
+	}
+	/**LSD radix sort, one byte at a time.
+	 * @param data
+	 * @see #radixSort(int[])
+	 */
+	public static void radixSort(final long data[]) {
+		for (int i = 0; i<data.length; i++)
+			data[i] ^= Long.MIN_VALUE;
+		radixSortUnsigned(data, null);
+		for (int i = 0; i<data.length; i++)
+			data[i] ^= Long.MIN_VALUE;
+	}
+	/**LSD radix sort on the bits of the values with the sign bit flipped for
+	 * positive values and all bits flipped for negative ones, which orders them
+	 * as numbers. Same order as {@link Arrays#sort(float[])}: -0.0 before 0.0 and NaN last.
+	 * @param data
+	 */
+	public static void radixSort(final float data[]) {
+		final int[] keys = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = floatKey(data[i]);
+		radixSortUnsigned(keys, null);
+		for (int i = 0; i<data.length; i++)
+			data[i] = keyFloat(keys[i]);
+	}
+	/**
+	 * @param data
+	 * @see #radixSort(float[])
+	 */
+	public static void radixSort(final double data[]) {
+		final long[] keys = new long[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = doubleKey(data[i]);
+		radixSortUnsigned(keys, null);
+		for (int i = 0; i<data.length; i++)
+			data[i] = keyDouble(keys[i]);
+	}
+	/** @return a before b in the order of {@link Float#compare(float, float)}: -0.0 before 0.0 and NaN last */
+	private static boolean less(final float a, final float b) {
+		return a < b || (!(a > b) && Float.compare(a, b) < 0);
+	}
+	/** @return a before b in the order of {@link Double#compare(double, double)}: -0.0 before 0.0 and NaN last */
+	private static boolean less(final double a, final double b) {
+		return a < b || (!(a > b) && Double.compare(a, b) < 0);
+	}
+	private static int floatKey(final float f) {
+		final int bits = Float.floatToIntBits(f);
+		return bits ^ ((bits>>31) | Integer.MIN_VALUE);
+	}
+	private static float keyFloat(final int key) {
+		return Float.intBitsToFloat(key ^ ((~key>>31) | Integer.MIN_VALUE));
+	}
+	private static long doubleKey(final double d) {
+		final long bits = Double.doubleToLongBits(d);
+		return bits ^ ((bits>>63) | Long.MIN_VALUE);
+	}
+	private static double keyDouble(final long key) {
+		return Double.longBitsToDouble(key ^ ((~key>>63) | Long.MIN_VALUE));
+	}
+	/**Sorts keys as unsigned values, moving idx along with them.
+	 * @param keys
+	 * @param idx null or the same length as keys
+	 */
+	private static void radixSortUnsigned(final int keys[], final int idx[]) {
+		final int n = keys.length;
+		if (n < 2)
+			return;
+		// all four histograms in one read
+		final int[][] hist = new int[4][256];
+		for (int i = 0; i<n; i++) {
+			final int k = keys[i];
+			hist[0][k&0xFF]++;
+			hist[1][(k>>>8)&0xFF]++;
+			hist[2][(k>>>16)&0xFF]++;
+			hist[3][k>>>24]++;
+		}
+		int[] src = keys, dst = null, isrc = idx, idst = null;
+		for (int pass = 0, shift = 0; pass<4; pass++, shift+=8) {
+			final int[] count = hist[pass];
+			if (count[(keys[0]>>>shift)&0xFF] == n)
+				continue;
+			if (dst == null) {
+				dst = new int[n];
+				if (idx != null)
+					idst = new int[n];
+			}
+			for (int i = 0, sum = 0; i<256; i++) {
+				final int c = count[i];
+				count[i] = sum;
+				sum += c;
+			}
+			for (int i = 0; i<n; i++) {
+				final int k = src[i];
+				final int pos = count[(k>>>shift)&0xFF]++;
+				dst[pos] = k;
+				if (isrc != null)
+					idst[pos] = isrc[i];
+			}
+			int[] t = src; src = dst; dst = t;
+			t = isrc; isrc = idst; idst = t;
+		}
+		if (src != keys) {
+			System.arraycopy(src, 0, keys, 0, n);
+			if (idx != null)
+				System.arraycopy(isrc, 0, idx, 0, n);
+		}
+	}
+	/**Sorts keys as unsigned values, moving idx along with them.
+	 * @param keys
+	 * @param idx null or the same length as keys
+	 */
+	private static void radixSortUnsigned(final long keys[], final int idx[]) {
+		final int n = keys.length;
+		if (n < 2)
+			return;
+		final int[][] hist = new int[8][256];
+		for (int i = 0; i<n; i++) {
+			final long k = keys[i];
+			for (int pass = 0; pass<8; pass++)
+				hist[pass][(int)(k>>>(pass<<3))&0xFF]++;
+		}
+		long[] src = keys, dst = null;
+		int[] isrc = idx, idst = null;
+		for (int pass = 0, shift = 0; pass<8; pass++, shift+=8) {
+			final int[] count = hist[pass];
+			if (count[(int)(keys[0]>>>shift)&0xFF] == n)
+				continue;
+			if (dst == null) {
+				dst = new long[n];
+				if (idx != null)
+					idst = new int[n];
+			}
+			for (int i = 0, sum = 0; i<256; i++) {
+				final int c = count[i];
+				count[i] = sum;
+				sum += c;
+			}
+			for (int i = 0; i<n; i++) {
+				final long k = src[i];
+				final int pos = count[(int)(k>>>shift)&0xFF]++;
+				dst[pos] = k;
+				if (isrc != null)
+					idst[pos] = isrc[i];
+			}
+			final long[] t = src; src = dst; dst = t;
+			final int[] it = isrc; isrc = idst; idst = it;
+		}
+		if (src != keys) {
+			System.arraycopy(src, 0, keys, 0, n);
+			if (idx != null)
+				System.arraycopy(isrc, 0, idx, 0, n);
+		}
+	}
+	/**Counts each value and writes them back in order. Memory is one int per
+	 * value between the smallest and largest.
+	 * @param data
+	 */
+	public static void countingSort(final short data[]) {
+		if (data.length < 2)
+			return;
+		short min = data[0], max = data[0];
+		for (final short v : data) {
+			if (v < min)	min = v;
+			else if (v > max)	max = v;
+		}
+		final int[] count = new int[max-min+1];
+		for (final short v : data)
+			count[v-min]++;
+		for (int i = 0, pos = 0; i<count.length; i++)
+			for (int c = count[i]; c>0; c--)
+				data[pos++] = (short)(i+min);
+	}
+	/**Counts each value and writes them back in order.
+	 * @param data
+	 */
+	public static void countingSort(final byte data[]) {
+		final int[] count = new int[256];
+		for (final byte v : data)
+			count[v+128]++;
+		for (int i = 0, pos = 0; i<256; i++)
+			for (int c = count[i]; c>0; c--)
+				data[pos++] = (byte)(i-128);
+	}
+	/**Counts each value and writes them back in order. Memory is one int per
+	 * value between min and max, so only use it for narrow ranges.
+	 * @param data
+	 * @param min no value is smaller
+	 * @param max no value is larger
+	 */
+	public static void countingSort(final int data[], final int min, final int max) {
+		final long range = (long)max-min+1;
+		if (range > Integer.MAX_VALUE-8)
+			throw new IllegalArgumentException("Range too large for a counting sort: "+min+" to "+max);
+		final int[] count = new int[(int)range];
+		for (final int v : data)
+			count[v-min]++;
+		for (int i = 0, pos = 0; i<count.length; i++)
+			for (int c = count[i]; c>0; c--)
+				data[pos++] = i+min;
+	}
+	/* Index sorts. data is not changed, idx[0] is the index of the smallest
+	 * value, idx[1] the next and so on. All of them are stable.
+	 */
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order.
+	 */
+	public static int[] indexSort(final int data[]) {
+		final int[] keys = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = data[i]^Integer.MIN_VALUE;
+		final int[] idx = identity(data.length);
+		radixSortUnsigned(keys, idx);
+		return idx;
+	}
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order.
+	 */
+	public static int[] indexSort(final long data[]) {
+		final long[] keys = new long[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = data[i]^Long.MIN_VALUE;
+		final int[] idx = identity(data.length);
+		radixSortUnsigned(keys, idx);
+		return idx;
+	}
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order, same order as {@link #radixSort(float[])}.
+	 */
+	public static int[] indexSort(final float data[]) {
+		final int[] keys = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = floatKey(data[i]);
+		final int[] idx = identity(data.length);
+		radixSortUnsigned(keys, idx);
+		return idx;
+	}
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order, same order as {@link #radixSort(double[])}.
+	 */
+	public static int[] indexSort(final double data[]) {
+		final long[] keys = new long[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = doubleKey(data[i]);
+		final int[] idx = identity(data.length);
+		radixSortUnsigned(keys, idx);
+		return idx;
+	}
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order.
+	 */
+	public static int[] indexSort(final short data[]) {
+		final int[] start = new int[65537];
+		for (final short v : data)
+			start[v+32769]++;
+		for (int i = 1; i<start.length; i++)
+			start[i] += start[i-1];
+		final int[] idx = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			idx[start[data[i]+32768]++] = i;
+		return idx;
+	}
+	/**
+	 * @param data
+	 * @return Indexes of data in sorted order.
+	 */
+	public static int[] indexSort(final byte data[]) {
+		final int[] start = new int[257];
+		for (final byte v : data)
+			start[v+129]++;
+		for (int i = 1; i<start.length; i++)
+			start[i] += start[i-1];
+		final int[] idx = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			idx[start[data[i]+128]++] = i;
+		return idx;
+	}
+	private static int[] identity(final int n) {
+		final int[] idx = new int[n];
+		for (int i = 0; i<n; i++)
+			idx[i] = i;
+		return idx;
+	}
+//	========== end radix / counting sort ============
 //	========== start msort =============
 	public static void mergeSort(final int data[]) {
 		/* passing this tmp space increases speed slightly
@@ -418,7 +742,7 @@ public final class do_sort {
 				right= mid+1,
 				k;
 			//int[] temp = new int [max-min+1];
-			for (k = min; k<max; k++){
+			for (k = min; k<=max; k++){
 				if (left<=mid && (right>max || data[right]>data[left])) {
 					temp[k] = data[left];
 					left++;
@@ -427,7 +751,7 @@ public final class do_sort {
 					right++;
 				}
 			}
-			for(k = min; k<max; k++) {
+			for(k = min; k<=max; k++) {
 				data[k] = temp[k];
 			}
 		}
@@ -450,7 +774,7 @@ public final class do_sort {
 				right= mid+1,
 				k;
 			//int[] temp = new int [max-min+1];
-			for (k = min; k<max; k++){
+			for (k = min; k<=max; k++){
 				if (left<=mid && (right>max || data[right].length()>data[left].length())) {
 					temp[k] = data[left];
 					left++;
@@ -459,11 +783,1512 @@ public final class do_sort {
 					right++;
 				}
 			}
-			for(k = min; k<max; k++) {
+			for(k = min; k<=max; k++) {
 				data[k] = temp[k];
 			}
 		}
 	}
 //	========= end msort ===============
+//	========= start introsort / parallel sort =========
+	/**
+	 * @param n Number of elements.
+	 * @return Elements each parallel task sorts on its own, 0 to sort on the calling thread.
+	 */
+	private static int grain(final int n) {
+		final int threads = ForkJoinPool.getCommonPoolParallelism();
+		if (n < PARALLEL_THRESHOLD || threads < 2)
+			return 0;
+		return Math.max(n/(threads<<2), PARALLEL_THRESHOLD>>>1);
+	}
+	/** @return 2*floor(log2(n)), the depth after which introsort switches to heap sort */
+	private static int maxDepth(final int n) {
+		return 2*(31-Integer.numberOfLeadingZeros(Math.max(n, 1)));
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * @param data
+	 */
+	public static void introSort(final int data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(int[])
+	 */
+	public static void introSort(final int data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final int data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final int data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (data[mid] < data[lo])	swap(data, mid, lo);
+		if (data[hi-1] < data[lo])	swap(data, hi-1, lo);
+		if (data[hi-1] < data[mid])	swap(data, hi-1, mid);
+		final int pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (data[i] < pivot);
+			do j--; while (data[j] > pivot);
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final int data[], final int lo, final int hi) {
+		int key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && data[pos-1] > key) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final int data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final int data[], final int lo, int i, final int n) {
+		final int v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && data[lo+child] < data[lo+child+1])
+				child++;
+			if (!(v < data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(int[])} on the calling thread.
+	 * @param data
+	 */
+	public static void parallelSort(final int data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new IntSortTask(data, new int[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class IntSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] data, work;
+		private final int lo, hi, grain;
+		IntSortTask(final int[] data, final int[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new IntSortTask(data, work, lo, mid, grain), new IntSortTask(data, work, mid, hi, grain));
+			if (!(data[mid] < data[mid-1]))
+				return;
+			new IntMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class IntMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		IntMergeTask(final int[] data, final int[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (data[j] < data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new IntMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new IntMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final int data[], int lo, int hi, final int key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] < key)
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final int data[], int lo, int hi, final int key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] > key)
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * @param data
+	 */
+	public static void introSort(final long data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(long[])
+	 */
+	public static void introSort(final long data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final long data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final long data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (data[mid] < data[lo])	swap(data, mid, lo);
+		if (data[hi-1] < data[lo])	swap(data, hi-1, lo);
+		if (data[hi-1] < data[mid])	swap(data, hi-1, mid);
+		final long pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (data[i] < pivot);
+			do j--; while (data[j] > pivot);
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final long data[], final int lo, final int hi) {
+		long key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && data[pos-1] > key) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final long data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final long data[], final int lo, int i, final int n) {
+		final long v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && data[lo+child] < data[lo+child+1])
+				child++;
+			if (!(v < data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(long[])} on the calling thread.
+	 * @param data
+	 */
+	public static void parallelSort(final long data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new LongSortTask(data, new long[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class LongSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final long[] data, work;
+		private final int lo, hi, grain;
+		LongSortTask(final long[] data, final long[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new LongSortTask(data, work, lo, mid, grain), new LongSortTask(data, work, mid, hi, grain));
+			if (!(data[mid] < data[mid-1]))
+				return;
+			new LongMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class LongMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final long[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		LongMergeTask(final long[] data, final long[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (data[j] < data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new LongMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new LongMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final long data[], int lo, int hi, final long key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] < key)
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final long data[], int lo, int hi, final long key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] > key)
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * @param data
+	 */
+	public static void introSort(final short data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(short[])
+	 */
+	public static void introSort(final short data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final short data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final short data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (data[mid] < data[lo])	swap(data, mid, lo);
+		if (data[hi-1] < data[lo])	swap(data, hi-1, lo);
+		if (data[hi-1] < data[mid])	swap(data, hi-1, mid);
+		final short pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (data[i] < pivot);
+			do j--; while (data[j] > pivot);
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final short data[], final int lo, final int hi) {
+		short key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && data[pos-1] > key) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final short data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final short data[], final int lo, int i, final int n) {
+		final short v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && data[lo+child] < data[lo+child+1])
+				child++;
+			if (!(v < data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(short[])} on the calling thread.
+	 * @param data
+	 */
+	public static void parallelSort(final short data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new ShortSortTask(data, new short[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class ShortSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final short[] data, work;
+		private final int lo, hi, grain;
+		ShortSortTask(final short[] data, final short[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new ShortSortTask(data, work, lo, mid, grain), new ShortSortTask(data, work, mid, hi, grain));
+			if (!(data[mid] < data[mid-1]))
+				return;
+			new ShortMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class ShortMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final short[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		ShortMergeTask(final short[] data, final short[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (data[j] < data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new ShortMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new ShortMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final short data[], int lo, int hi, final short key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] < key)
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final short data[], int lo, int hi, final short key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] > key)
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * @param data
+	 */
+	public static void introSort(final char data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(char[])
+	 */
+	public static void introSort(final char data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final char data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final char data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (data[mid] < data[lo])	swap(data, mid, lo);
+		if (data[hi-1] < data[lo])	swap(data, hi-1, lo);
+		if (data[hi-1] < data[mid])	swap(data, hi-1, mid);
+		final char pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (data[i] < pivot);
+			do j--; while (data[j] > pivot);
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final char data[], final int lo, final int hi) {
+		char key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && data[pos-1] > key) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final char data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final char data[], final int lo, int i, final int n) {
+		final char v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && data[lo+child] < data[lo+child+1])
+				child++;
+			if (!(v < data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(char[])} on the calling thread.
+	 * @param data
+	 */
+	public static void parallelSort(final char data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new CharSortTask(data, new char[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class CharSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final char[] data, work;
+		private final int lo, hi, grain;
+		CharSortTask(final char[] data, final char[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new CharSortTask(data, work, lo, mid, grain), new CharSortTask(data, work, mid, hi, grain));
+			if (!(data[mid] < data[mid-1]))
+				return;
+			new CharMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class CharMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final char[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		CharMergeTask(final char[] data, final char[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (data[j] < data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new CharMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new CharMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final char data[], int lo, int hi, final char key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] < key)
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final char data[], int lo, int hi, final char key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] > key)
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * @param data
+	 */
+	public static void introSort(final byte data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(byte[])
+	 */
+	public static void introSort(final byte data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final byte data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final byte data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (data[mid] < data[lo])	swap(data, mid, lo);
+		if (data[hi-1] < data[lo])	swap(data, hi-1, lo);
+		if (data[hi-1] < data[mid])	swap(data, hi-1, mid);
+		final byte pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (data[i] < pivot);
+			do j--; while (data[j] > pivot);
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final byte data[], final int lo, final int hi) {
+		byte key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && data[pos-1] > key) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final byte data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final byte data[], final int lo, int i, final int n) {
+		final byte v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && data[lo+child] < data[lo+child+1])
+				child++;
+			if (!(v < data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(byte[])} on the calling thread.
+	 * @param data
+	 */
+	public static void parallelSort(final byte data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new ByteSortTask(data, new byte[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class ByteSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final byte[] data, work;
+		private final int lo, hi, grain;
+		ByteSortTask(final byte[] data, final byte[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new ByteSortTask(data, work, lo, mid, grain), new ByteSortTask(data, work, mid, hi, grain));
+			if (!(data[mid] < data[mid-1]))
+				return;
+			new ByteMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class ByteMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final byte[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		ByteMergeTask(final byte[] data, final byte[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (data[j] < data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new ByteMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new ByteMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final byte data[], int lo, int hi, final byte key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] < key)
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final byte data[], int lo, int hi, final byte key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (data[mid] > key)
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * Same order as {@link Arrays#sort(float[])}: -0.0 before 0.0 and NaN last.
+	 * @param data
+	 */
+	public static void introSort(final float data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(float[])
+	 */
+	public static void introSort(final float data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final float data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final float data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (less(data[mid], data[lo]))	swap(data, mid, lo);
+		if (less(data[hi-1], data[lo]))	swap(data, hi-1, lo);
+		if (less(data[hi-1], data[mid]))	swap(data, hi-1, mid);
+		final float pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (less(data[i], pivot));
+			do j--; while (less(pivot, data[j]));
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final float data[], final int lo, final int hi) {
+		float key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && less(key, data[pos-1])) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final float data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final float data[], final int lo, int i, final int n) {
+		final float v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && less(data[lo+child], data[lo+child+1]))
+				child++;
+			if (!less(v, data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(float[])} on the calling thread.
+	 * Same order as {@link Arrays#sort(float[])}: -0.0 before 0.0 and NaN last.
+	 * @param data
+	 */
+	public static void parallelSort(final float data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new FloatSortTask(data, new float[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class FloatSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final float[] data, work;
+		private final int lo, hi, grain;
+		FloatSortTask(final float[] data, final float[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new FloatSortTask(data, work, lo, mid, grain), new FloatSortTask(data, work, mid, hi, grain));
+			if (!less(data[mid], data[mid-1]))
+				return;
+			new FloatMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class FloatMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final float[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		FloatMergeTask(final float[] data, final float[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = less(data[j], data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new FloatMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new FloatMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final float data[], int lo, int hi, final float key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (less(data[mid], key))
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final float data[], int lo, int hi, final float key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (less(key, data[mid]))
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Quick sort with a median of three pivot that switches to heap sort when the
+	 * partitions get too uneven, so it is O(n log n) for any input, and to
+	 * insertion sort for small partitions.
+	 * Same order as {@link Arrays#sort(double[])}: -0.0 before 0.0 and NaN last.
+	 * @param data
+	 */
+	public static void introSort(final double data[]) {
+		introSort(data, 0, data.length);
+	}
+	/**
+	 * @param data
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @see #introSort(double[])
+	 */
+	public static void introSort(final double data[], final int from, final int to) {
+		introSort(data, from, to, maxDepth(to-from));
+	}
+	private static void introSort(final double data[], int lo, int hi, int depth) {
+		while (hi-lo > INSERTION_LIMIT) {
+			if (depth-- == 0) {
+				heapSort(data, lo, hi);
+				return;
+			}
+			final int p = partition(data, lo, hi);
+			// recurse into the smaller part so the stack stays O(log n)
+			if (p-lo < hi-p) {
+				introSort(data, lo, p, depth);
+				lo = p;
+			} else {
+				introSort(data, p, hi, depth);
+				hi = p;
+			}
+		}
+		insertionSort(data, lo, hi);
+	}
+	/**Hoare partition around the median of the first, middle and last elements.
+	 * @return p where everything in [lo,p) is &lt;= everything in [p,hi)
+	 */
+	private static int partition(final double data[], final int lo, final int hi) {
+		final int mid = (lo+hi-1)>>>1;
+		if (less(data[mid], data[lo]))	swap(data, mid, lo);
+		if (less(data[hi-1], data[lo]))	swap(data, hi-1, lo);
+		if (less(data[hi-1], data[mid]))	swap(data, hi-1, mid);
+		final double pivot = data[mid];
+		int i = lo-1, j = hi;
+		while (true) {
+			do i++; while (less(data[i], pivot));
+			do j--; while (less(pivot, data[j]));
+			if (i >= j)
+				return j+1;
+			swap(data, i, j);
+		}
+	}
+	private static void insertionSort(final double data[], final int lo, final int hi) {
+		double key;
+		int pos;
+		for (int j=lo+1; j<hi; j++) {
+			key=data[j];
+			pos=j;
+			while(pos>lo && less(key, data[pos-1])) {
+				data[pos]=data[pos-1];
+				pos--;
+			}
+			data[pos]=key;
+		}
+	}
+	private static void heapSort(final double data[], final int lo, final int hi) {
+		final int n = hi-lo;
+		for (int i = (n>>>1)-1; i>=0; i--)
+			siftDown(data, lo, i, n);
+		for (int i = n-1; i>0; i--) {
+			swap(data, lo, lo+i);
+			siftDown(data, lo, 0, i);
+		}
+	}
+	private static void siftDown(final double data[], final int lo, int i, final int n) {
+		final double v = data[lo+i];
+		int child;
+		while ((child = 2*i+1) < n) {
+			if (child+1 < n && less(data[lo+child], data[lo+child+1]))
+				child++;
+			if (!less(v, data[lo+child]))
+				break;
+			data[lo+i] = data[lo+child];
+			i = child;
+		}
+		data[lo+i] = v;
+	}
+	/**Sorts on the common {@link ForkJoinPool}. Arrays shorter than
+	 * {@link #PARALLEL_THRESHOLD} are sorted with {@link #introSort(double[])} on the calling thread.
+	 * Same order as {@link Arrays#sort(double[])}: -0.0 before 0.0 and NaN last.
+	 * @param data
+	 */
+	public static void parallelSort(final double data[]) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			introSort(data);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new DoubleSortTask(data, new double[data.length], 0, data.length, grain));
+	}
+	/** Sorts the halves in parallel then merges them in parallel. */
+	private static final class DoubleSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final double[] data, work;
+		private final int lo, hi, grain;
+		DoubleSortTask(final double[] data, final double[] work, final int lo, final int hi, final int grain) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				introSort(data, lo, hi);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new DoubleSortTask(data, work, lo, mid, grain), new DoubleSortTask(data, work, mid, hi, grain));
+			if (!less(data[mid], data[mid-1]))
+				return;
+			new DoubleMergeTask(data, work, lo, mid, mid, hi, lo).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Merges two sorted runs of data into work, splitting the bigger run in half and the other where that half ends. */
+	private static final class DoubleMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final double[] data, work;
+		private final int lo1, hi1, lo2, hi2, out;
+		DoubleMergeTask(final double[] data, final double[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = less(data[j], data[i]) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				m2 = lowerBound(data, lo2, hi2, data[m1]);
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				m1 = upperBound(data, lo1, hi1, data[m2]);
+			}
+			invokeAll(new DoubleMergeTask(data, work, lo1, m1, lo2, m2, out),
+					new DoubleMergeTask(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2)));
+		}
+	}
+	/** @return first index in [lo,hi) whose element is not less than key */
+	private static int lowerBound(final double data[], int lo, int hi, final double key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (less(data[mid], key))
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+	/** @return first index in [lo,hi) whose element is greater than key */
+	private static int upperBound(final double data[], int lo, int hi, final double key) {
+		while (lo < hi) {
+			final int mid = (lo+hi)>>>1;
+			if (less(key, data[mid]))
+				hi = mid;
+			else
+				lo = mid+1;
+		}
+		return lo;
+	}
+	/**Stable sort on the common {@link ForkJoinPool}. Pieces are sorted with
+	 * {@link Arrays#sort(Object[], int, int, Comparator)} and merged in parallel.
+	 * Arrays shorter than {@link #PARALLEL_THRESHOLD} are sorted on the calling thread.
+	 * @param data
+	 * @param c
+	 */
+	public static <T> void parallelSort(final T data[], final Comparator<? super T> c) {
+		final int grain = grain(data.length);
+		if (grain == 0) {
+			Arrays.sort(data, c);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new ObjectSortTask<T>(data, new Object[data.length], 0, data.length, grain, c));
+	}
+	/**Stable sort in natural order on the common {@link ForkJoinPool}.
+	 * @param data
+	 * @see #parallelSort(Object[], Comparator)
+	 */
+	public static <T extends Comparable<? super T>> void parallelSort(final T data[]) {
+		parallelSort(data, new Comparator<T>() {
+			@Override
+			public int compare(final T o1, final T o2) {
+				return o1.compareTo(o2);
+			}
+		});
+	}
+	private static final class ObjectSortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] data;
+		private final Object[] work;
+		private final int lo, hi, grain;
+		private final Comparator<? super T> c;
+		ObjectSortTask(final T[] data, final Object[] work, final int lo, final int hi, final int grain, final Comparator<? super T> c) {
+			this.data = data;
+			this.work = work;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+			this.c = c;
+		}
+		@Override
+		protected void compute() {
+			if (hi-lo <= grain) {
+				Arrays.sort(data, lo, hi, c);
+				return;
+			}
+			final int mid = (lo+hi)>>>1;
+			invokeAll(new ObjectSortTask<T>(data, work, lo, mid, grain, c), new ObjectSortTask<T>(data, work, mid, hi, grain, c));
+			if (c.compare(data[mid], data[mid-1]) >= 0)
+				return;
+			new ObjectMergeTask<T>(data, work, lo, mid, mid, hi, lo, c).compute();
+			System.arraycopy(work, lo, data, lo, hi-lo);
+		}
+	}
+	/** Stable: equal elements from the first run go first. */
+	private static final class ObjectMergeTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] data;
+		private final Object[] work;
+		private final int lo1, hi1, lo2, hi2, out;
+		private final Comparator<? super T> c;
+		ObjectMergeTask(final T[] data, final Object[] work, final int lo1, final int hi1, final int lo2, final int hi2, final int out, final Comparator<? super T> c) {
+			this.data = data;
+			this.work = work;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.out = out;
+			this.c = c;
+		}
+		@Override
+		protected void compute() {
+			if ((hi1-lo1)+(hi2-lo2) <= MERGE_GRAIN) {
+				int i = lo1, j = lo2, k = out;
+				while (i < hi1 && j < hi2)
+					work[k++] = (c.compare(data[j], data[i]) < 0) ? data[j++] : data[i++];
+				System.arraycopy(data, i, work, k, hi1-i);
+				System.arraycopy(data, j, work, k+hi1-i, hi2-j);
+				return;
+			}
+			int m1, m2;
+			if (hi1-lo1 >= hi2-lo2) {
+				m1 = (lo1+hi1)>>>1;
+				// first in run 2 not less than the split
+				int l = lo2, h = hi2;
+				while (l < h) {
+					final int mid = (l+h)>>>1;
+					if (c.compare(data[mid], data[m1]) < 0)	l = mid+1;
+					else	h = mid;
+				}
+				m2 = l;
+			} else {
+				m2 = (lo2+hi2)>>>1;
+				// first in run 1 greater than the split
+				int l = lo1, h = hi1;
+				while (l < h) {
+					final int mid = (l+h)>>>1;
+					if (c.compare(data[mid], data[m2]) > 0)	h = mid;
+					else	l = mid+1;
+				}
+				m1 = l;
+			}
+			invokeAll(new ObjectMergeTask<T>(data, work, lo1, m1, lo2, m2, out, c),
+					new ObjectMergeTask<T>(data, work, m1, hi1, m2, hi2, out+(m1-lo1)+(m2-lo2), c));
+		}
+	}
+
+//	========= end introsort / parallel sort =========
+//	========= start sort dispatch =========
+	/* Pick a sort from the length and, for ints, the range of the values.
+	 * Short arrays get introsort, wide keys radix sort and narrow ranges
+	 * counting sort.
+	 */
+	/**Uses {@link #introSort(int[])} for short arrays, {@link #countingSort(int[], int, int)}
+	 * when there are fewer distinct possible values than elements and
+	 * {@link #radixSort(int[])} otherwise.
+	 * @param data
+	 */
+	public static void sort(final int data[]) {
+		if (data.length < RADIX_THRESHOLD) {
+			introSort(data);
+			return;
+		}
+		int min = data[0], max = data[0];
+		for (final int v : data) {
+			if (v < min)	min = v;
+			else if (v > max)	max = v;
+		}
+		if ((long)max-min < data.length)
+			countingSort(data, min, max);
+		else
+			radixSort(data);
+	}
+	/**Uses {@link #introSort(long[])} for short arrays and {@link #radixSort(long[])} otherwise.
+	 * @param data
+	 */
+	public static void sort(final long data[]) {
+		if (data.length < RADIX_THRESHOLD)
+			introSort(data);
+		else
+			radixSort(data);
+	}
+	/**Uses {@link #radixSort(float[])} for long arrays. Short ones are sorted by
+	 * introsort on the same keys, so the order is the same either way.
+	 * @param data
+	 */
+	public static void sort(final float data[]) {
+		if (data.length >= RADIX_THRESHOLD) {
+			radixSort(data);
+			return;
+		}
+		final int[] keys = new int[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = floatKey(data[i])^Integer.MIN_VALUE;
+		introSort(keys);
+		for (int i = 0; i<data.length; i++)
+			data[i] = keyFloat(keys[i]^Integer.MIN_VALUE);
+	}
+	/**Uses {@link #radixSort(double[])} for long arrays. Short ones are sorted by
+	 * introsort on the same keys, so the order is the same either way.
+	 * @param data
+	 */
+	public static void sort(final double data[]) {
+		if (data.length >= RADIX_THRESHOLD) {
+			radixSort(data);
+			return;
+		}
+		final long[] keys = new long[data.length];
+		for (int i = 0; i<data.length; i++)
+			keys[i] = doubleKey(data[i])^Long.MIN_VALUE;
+		introSort(keys);
+		for (int i = 0; i<data.length; i++)
+			data[i] = keyDouble(keys[i]^Long.MIN_VALUE);
+	}
+	/**Uses {@link #introSort(short[])} for short arrays and {@link #countingSort(short[])} otherwise.
+	 * @param data
+	 */
+	public static void sort(final short data[]) {
+		if (data.length < COUNTING_THRESHOLD)
+			introSort(data);
+		else
+			countingSort(data);
+	}
+	/**Uses {@link #introSort(byte[])} for short arrays and {@link #countingSort(byte[])} otherwise.
+	 * @param data
+	 */
+	public static void sort(final byte data[]) {
+		if (data.length < COUNTING_THRESHOLD)
+			introSort(data);
+		else
+			countingSort(data);
+	}
+//	========= end sort dispatch =========
 	private do_sort(){}
 }
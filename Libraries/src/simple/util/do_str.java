@@ -4,6 +4,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import simple.CIString;
 import simple.io.DoubleParsePosition;
 /**
  * Does various things for formatting and comparing Strings.
@@ -47,20 +48,14 @@ public final class do_str {
 		return do_str.indexOf(list, c, 0) != -1;
 	}
 	/** Returns the index of the first occurrence such that startsWith(s,f,offset) is true.
+	 * Keep a {@link StringSearcher} to search for the same string many times.
 	 * @param s The string to search
 	 * @param f The string to find
 	 * @param offset The starting index
 	 * @return The index f is found or -1
 	 */
 	public static final int indexOf(final CharSequence haystack, final CharSequence needle, int offset) {
-		if (needle.length()>haystack.length())return-1;
-		final int max = haystack.length()-needle.length();
-		for (;offset<=max; offset++)
-			if (do_str.startsWith(haystack,needle,offset)) {
-				break;
-			}
-		if (offset>max) return -1;
-		return offset;
+		return StringSearcher.indexOf(haystack, needle, offset, haystack.length());
 	}
 	/** Returns the index of the first occurrence such that startsWith(s,f,offset) is true.
 	 * @param s The string to search
@@ -78,12 +73,7 @@ public final class do_str {
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("The offset["+offset+"] is negative."); else return -1;
 		final int max = limit-needle.length()-1;
 		if (max < 0) return -1;
-		for (;offset<=max; offset++)
-			if (do_str.startsWith(haystack,needle,offset)) {
-				break;
-			}
-		if (offset>max) return -1;
-		return offset;
+		return StringSearcher.indexOf(haystack, needle, offset, max+needle.length());
 	}
 	/**Exists only to add indexOf(char,int) to classes like StringBuilder.
 	 * @param s The haystack
@@ -115,12 +105,8 @@ public final class do_str {
 	 * @return The index f is found or -1
 	 */
 	public static final int indexAfter(final CharSequence haystack, final CharSequence needle, int offset) {
-		final int max = haystack.length()-needle.length();
-		for (;offset<=max; offset++)
-			if (do_str.startsWith(haystack,needle,offset)) {
-				break;
-			}
-		if (offset>max) return -1;
+		offset = StringSearcher.indexOf(haystack, needle, offset, haystack.length());
+		if (offset==-1) return -1;
 		return offset+needle.length();
 	}
 	/** Returns the index after the first occurrence such that startsWith(s,f,offset) is true.
@@ -139,14 +125,12 @@ public final class do_str {
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("The offset["+offset+"] is negative."); else return -1;
 		final int max = limit-needle.length()-1;
 		if (max < 0) return -1;
-		for (;offset<=max; offset++)
-			if (do_str.startsWith(haystack,needle,offset)) {
-				break;
-			}
-		if (offset>max) return -1;
+		offset = StringSearcher.indexOf(haystack, needle, offset, max+needle.length());
+		if (offset==-1) return -1;
 		return offset+needle.length();
 	}
 	/** Returns the index of the first occurrence of any character in <code>list</code>.
+	 * Keep a {@link CharClass} to search for the same characters many times.
 	 * @param s String to search
 	 * @param list List of characters to search for
 	 * @param offset Index to start searching
@@ -160,11 +144,7 @@ public final class do_str {
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("Offset["+offset+"] must be less than or equal to the length["+haystack.length()+"]"); else return -1;
 		if (offset<0)
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("The offset["+offset+"] is negative."); else return -1;
-		for (;offset<=limit;offset++) {
-			for (int j = 0; j < needles.length(); j++)
-				if (haystack.charAt(offset)==needles.charAt(j)) return offset;
-		}
-		return -1;
+		return new CharClass(needles).indexOfAny(haystack, offset, limit+1);
 	}
 	/** Returns the index of the first occurrence of any character in <code>list</code>.
 	 * @param s String to search
@@ -198,15 +178,7 @@ public final class do_str {
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("Offset["+offset+"] must be less than or equal to the length["+s.length()+"]"); else return -1;
 		if (offset<0)
 			if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("The offset["+offset+"] is negative."); else return -1;
-		int j = 0;
-		for (;offset<=limit;offset++) {
-			for (j = 0; j < list.length(); j++)
-				if (s.charAt(offset)==list.charAt(j)) {
-					break;
-				}
-			if (j==list.length()) return offset;//character was not found in the list
-		}
-		return -1;
+		return new CharClass(list).indexOfMissing(s, offset, limit+1);
 	}
 	/**Convenience method for {@link #indexOfMissing(CharSequence, CharSequence, int, int)}
 	 * @param s
@@ -285,8 +257,24 @@ public final class do_str {
 		public static final int lastIndexOf(final CharSequence s, final char f, final int offset, final int limit) {
 			return do_str.lastIndexOf(s.toString().toLowerCase(),f,offset,limit);
 		}
-		public static final int lastIndexOf(final CharSequence s, final String f, final int offset, final int limit) {
-			return do_str.lastIndexOf(s.toString().toLowerCase(),f.toLowerCase(),offset,limit);
+		/**Compares in place instead of lower casing a copy of <code>s</code>.
+		 * @param s The haystack
+		 * @param f The needle
+		 * @param offset Index to start from
+		 * @param limit Index to stop at(inclusive; must be less than offset)
+		 * @return The index of <code>f</code> or -1.
+		 */
+		public static final int lastIndexOf(final CharSequence s, final String f, int offset, final int limit) {
+			if (limit > offset)
+				if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("Limit["+limit+"] must be less than or equal to the Offset["+offset+"]"); else return -1;
+			if (offset>s.length())
+				if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("Offset["+offset+"] must be less than or equal to the length["+s.length()+"]"); else return -1;
+			if (offset<0)
+				if (do_str.DEBUG) throw new StringIndexOutOfBoundsException("The offset["+offset+"] is negative."); else return -1;
+			for (final int stop=Math.max(limit, 0);offset>=stop;offset--) {
+				if (CI.startsWith(s,f,offset)) return offset;
+			}
+			return -1;
 		}
 		public static final int lastIndexOf(final CharSequence s, final String f) {
 			return do_str.CI.lastIndexOf(s,f,s.length(),0);
@@ -307,13 +295,7 @@ public final class do_str {
 		 * @return The index f is found or -1
 		 */
 		public static final int indexOf(final CharSequence s, final CharSequence f, int offset) {
-			final int max = s.length()-f.length();
-			for (;offset<=max; offset++)
-				if (CI.startsWith(s,f,offset)) {
-					break;
-				}
-			if (offset>max) return -1;
-			return offset;
+			return StringSearcher.indexOfIgnoreCase(s, f, offset, s.length());
 		}
 		/**Adds startsWith() to StringBuilder.
 		 * @param s String to search
@@ -325,7 +307,7 @@ public final class do_str {
 			if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative.");
 			if (offset+f.length() > s.length()) return false;
 			for (int i=0; i<f.length(); i++)
-				if (Character.toLowerCase(s.charAt(i+offset)) != Character.toLowerCase(f.charAt(i))) return false;
+				if (CIString.fold(s.charAt(i+offset)) != CIString.fold(f.charAt(i))) return false;
 			return true;
 		}
 		/**Adds endsWith() to StringBuilder
@@ -0,0 +1,289 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import simple.util.RingBlockingQueue;
+
+/**Writes log events on a background thread.<br>
+ * Logs attached to this writer only capture the call into a small record and
+ * put it on a bounded lock free queue. The writer thread takes events off the
+ * queue in batches, formats a whole batch into one buffer, writes it and flushes
+ * the stream once per batch. What happens when the queue is full is decided by
+ * the {@link OverflowPolicy}.
+ * <br>
+ * The writer drains the queue and stops when {@link #close()} is called or the
+ * JVM shuts down. It never closes the stream.
+ * <hr>
+ * Usually set up through {@link LogFactory#setGlobalLogStream(PrintStream, int, OverflowPolicy)}
+ * or {@link LogFactory#setGlobalLogFile(java.io.File, boolean, int, OverflowPolicy)}.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see Log#setAsyncWriter(AsyncLogWriter)
+ */
+public final class AsyncLogWriter implements LogSink {
+	/** Most events formatted per write. */
+	private static final int BATCH=1024;
+	/** Buffer size at which a batch is written early. */
+	private static final int FLUSH_AT=64*1024;
+	/** Put on the queue by {@link #close()} to stop the writer. */
+	private static final LogEvent CLOSE=new LogEvent(null,null,null,null,null,LogEvent.RAW,null,"",null,',');
+
+	private final PrintStream out;
+	private final OverflowPolicy policy;
+	private final RingBlockingQueue<LogEvent> queue;
+	/** What <var>out</var> writes to if it is a rolling file, null if it isn't known to be. */
+	private final RollingFileOutputStream file;
+	private final AtomicLong dropped=new AtomicLong(), written=new AtomicLong();
+	private final Thread writer;
+	private final Thread hook;
+	private volatile boolean closed=false;
+	private volatile boolean error=false;
+
+	/**
+	 * @param out Stream to write to.
+	 * @param capacity Number of events that can be queued. Rounded up to the next power of two.
+	 * @param policy What to do when the queue is full.
+	 */
+	public AsyncLogWriter(final PrintStream out, final int capacity, final OverflowPolicy policy) {
+		this(out, capacity, policy, null);
+	}
+	/**
+	 * @param out Stream to write to.
+	 * @param capacity Number of events that can be queued. Rounded up to the next power of two.
+	 * @param policy What to do when the queue is full.
+	 * @param file The file <var>out</var> writes to, or null. Its buffer is
+	 * written out after the last events instead of by its own shutdown hook,
+	 * which could close it before they are written.
+	 */
+	AsyncLogWriter(final PrintStream out, final int capacity, final OverflowPolicy policy, final RollingFileOutputStream file) {
+		if (out==null || policy==null)
+			throw new NullPointerException();
+		this.out=out;
+		this.file=file;
+		if (file!=null)
+			file.removeShutdownHook();
+		this.policy=policy;
+		queue=new RingBlockingQueue<LogEvent>(capacity);
+		writer=new Thread("AsyncLogWriter") {
+			@Override
+			public void run() {
+				drain();
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+		hook=new Thread("AsyncLogWriter shutdown") {
+			@Override
+			public void run() {
+				shutdown();
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(hook);
+	}
+	/**Queues a copy of the event that is safe to format on the writer thread.
+	 * @see LogEvent#snapshot()
+	 */
+	@Override
+	public boolean write(final LogEvent ev) {
+		return enqueue(ev.snapshot());
+	}
+	/**Queues the event.
+	 * @param ev Event to write.
+	 * @return <code>false</code> if the event was dropped.
+	 */
+	boolean enqueue(final LogEvent ev) {
+		if (closed) {
+			// late events from logs that haven't been switched yet
+			writeDirect(ev);
+			return true;
+		}
+		switch(policy) {
+		case BLOCK:
+			try {
+				queue.put(ev);
+				return queued();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				dropped.incrementAndGet();
+				return false;
+			}
+		case DROP_OLDEST:
+			while (!queue.offer(ev)) {
+				final LogEvent old=queue.poll();
+				if (old==CLOSE) {
+					// closed since the check above, the writer still has to get this
+					try {
+						queue.put(CLOSE);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+						queue.offer(CLOSE);
+					}
+					writeDirect(ev);
+					return true;
+				}
+				if (old!=null)
+					dropped.incrementAndGet();
+			}
+			return queued();
+		default:
+			if (queue.offer(ev))
+				return queued();
+			dropped.incrementAndGet();
+			return false;
+		}
+	}
+	/**Writes what is left on the queue if the writer stopped while this
+	 * thread was queuing, since nothing else would.
+	 * @return <code>true</code>
+	 */
+	private boolean queued() {
+		if (closed && !writer.isAlive())
+			writeLeft();
+		return true;
+	}
+	/** Writes the events queued behind {@link #CLOSE} on this thread. */
+	private void writeLeft() {
+		LogEvent ev;
+		while ((ev=queue.poll())!=null)
+			if (ev!=CLOSE)
+				writeDirect(ev);
+		flushAll();
+	}
+	/** Flushes the stream, and the file past its rate limit. */
+	private void flushAll() {
+		out.flush();
+		if (file!=null) {
+			try {
+				file.flushNow();
+			} catch (final IOException e) {
+				error=true;
+			}
+		}
+	}
+	/** Formats and writes the event on this thread. */
+	private void writeDirect(final LogEvent ev) {
+		final String text=ev.format(new StringBuilder(128)).toString();
+		synchronized(out) {
+			out.print(text);
+		}
+		written.incrementAndGet();
+	}
+	/** Body of the writer thread. */
+	private void drain() {
+		final ArrayList<LogEvent> batch=new ArrayList<LogEvent>(BATCH);
+		final StringBuilder buf=new StringBuilder(FLUSH_AT+1024);
+		boolean stop=false;
+		while (!stop) {
+			try {
+				batch.add(queue.take());
+			} catch (final InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, BATCH-1);
+			int count=0;
+			for (final LogEvent ev : batch) {
+				if (ev==CLOSE) {
+					stop=true;
+					continue;
+				}
+				ev.format(buf);
+				count++;
+				if (buf.length()>=FLUSH_AT) {
+					out.print(buf);
+					buf.setLength(0);
+				}
+			}
+			batch.clear();
+			if (buf.length()>0) {
+				out.print(buf);
+				buf.setLength(0);
+			}
+			if (buf.capacity()>FLUSH_AT*4)
+				buf.trimToSize();
+			// checkError also flushes
+			error=out.checkError();
+			written.addAndGet(count);
+		}
+	}
+	/**Stops accepting events, writes everything already queued and waits for the
+	 * writer thread to finish. Events logged after this are written directly.
+	 * The stream is not closed.
+	 */
+	@Override
+	public void close() {
+		try {
+			Runtime.getRuntime().removeShutdownHook(hook);
+		} catch (final IllegalStateException e) {
+			// already shutting down, the hook will finish up
+		}
+		shutdown();
+	}
+	private void shutdown() {
+		synchronized(this) {
+			if (closed)
+				return;
+			closed=true;
+		}
+		try {
+			queue.put(CLOSE);
+			writer.join(10000);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// events queued behind CLOSE by logs that got past the check in enqueue
+		if (!writer.isAlive())
+			writeLeft();
+		else
+			flushAll();
+	}
+	/**
+	 * @return The stream being written to.
+	 */
+	public PrintStream getStream() {
+		return out;
+	}
+	/**
+	 * @return The overflow policy.
+	 */
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+	/**
+	 * @return Number of events discarded because the queue was full.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+	/**
+	 * @return Number of events written so far.
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+	/**
+	 * @return Number of events waiting to be written.
+	 */
+	public int getQueued() {
+		return queue.size();
+	}
+	/**Does not flush. The writer thread updates this after every batch.
+	 * @return <code>true</code> if the stream reported an error the last time it was written to.
+	 * @see PrintStream#checkError()
+	 */
+	@Override
+	public boolean checkError() {
+		return error;
+	}
+	/**
+	 * @return <code>true</code> if {@link #close()} has been called.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+}
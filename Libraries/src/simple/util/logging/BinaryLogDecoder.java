@@ -0,0 +1,298 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+
+import simple.util.LongObjectMap;
+
+/**Turns a file written by {@link BinaryLogWriter} back into the text
+ * {@link Log} prints.<br>
+ * Usage: <code>java simple.util.logging.BinaryLogDecoder &lt;log file&gt; [&lt;output file&gt;]</code><br>
+ * Prints to System.out if no output file is given.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class BinaryLogDecoder {
+	private BinaryLogDecoder(){}
+	public static void main(final String[] args) throws IOException {
+		if (args.length<1 || args.length>2) {
+			System.err.println("Usage: BinaryLogDecoder <log file> [<output file>]");
+			System.exit(1);
+		}
+		final PrintStream out=(args.length==2) ?
+				new PrintStream(new BufferedOutputStream(new FileOutputStream(args[1]), 64*1024))
+				: System.out;
+		final long count=decode(new File(args[0]), out);
+		out.flush();
+		if (out!=System.out)
+			out.close();
+		System.err.println(count+" events");
+	}
+	/**Writes the text of every event in <var>file</var> to <var>out</var>.
+	 * @param file File written by {@link BinaryLogWriter}.
+	 * @param out Where to print the events.
+	 * @return Number of events printed.
+	 * @throws IOException if the file can't be read or isn't a binary log.
+	 */
+	public static long decode(final File file, final PrintStream out) throws IOException {
+		final DataInputStream in=new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64*1024));
+		try {
+			if (in.readInt()!=BinaryLogWriter.MAGIC)
+				throw new IOException(file+" is not a binary log");
+			final short version=in.readShort();
+			if (version<1 || version>BinaryLogWriter.VERSION)
+				throw new IOException("Unsupported binary log version "+version);
+			in.readShort();
+			final LongObjectMap<String> names=new LongObjectMap<String>(64);
+			final StringBuilder buf=new StringBuilder(256);
+			byte[] record=new byte[256];
+			long count=0, second=Long.MIN_VALUE;
+			String date=null, time=null;
+			while (true) {
+				final int len;
+				try {
+					len=in.readInt();
+				} catch (final EOFException e) {
+					break;
+				}
+				// a file that wasn't closed is padded with zeros
+				if (len<=0)
+					break;
+				if (record.length<len)
+					record=new byte[Math.max(len, record.length*2)];
+				in.readFully(record, 0, len);
+				final ByteBuffer rec=ByteBuffer.wrap(record, 0, len);
+				final byte kind=rec.get();
+				if (kind==BinaryLogWriter.NAME) {
+					final int id=rec.getInt();
+					names.put(id, getString(rec));
+					continue;
+				}
+				final long millis=rec.getLong();
+				final LogLevel level=toLevel(rec.get());
+				final byte flags=rec.get();
+				final String cName=names.get(rec.getInt());
+				final String section=names.get(rec.getInt());
+				final char sep=rec.getChar();
+				final String ref=getString(rec);
+				final Object msg;
+				Throwable thrown=null;
+				if (kind==LogEvent.THROWABLE) {
+					msg=getString(rec);
+					thrown=(Throwable)getArg(rec);
+				} else
+					msg=getPayload(kind, rec, version);
+				if (millis/1000!=second) {
+					second=millis/1000;
+					date=String.format("%1$tY%1$tm%1$td", millis);
+					time=String.format("%1$tH%1$tM%1$tS", millis);
+				}
+				final LogEvent ev=new LogEvent(level,
+						((flags&BinaryLogWriter.FLAG_DATE)!=0) ? date : null,
+						((flags&BinaryLogWriter.FLAG_TIME)!=0) ? time : null,
+						cName,section,kind,ref,msg,thrown,sep);
+				buf.setLength(0);
+				out.print(ev.format(buf));
+				count++;
+			}
+			return count;
+		} finally {
+			in.close();
+		}
+	}
+	/** Prints the text and stack trace of an exception that was logged. */
+	private static final class RecordedThrowable extends Throwable {
+		private static final long serialVersionUID = 1L;
+		private final String text, stack;
+		RecordedThrowable(final String text, final String stack) {
+			super(null, null, false, false);
+			this.text=text;
+			this.stack=stack;
+		}
+		@Override
+		public String toString() {
+			return text;
+		}
+		@Override
+		public void printStackTrace(final PrintWriter s) {
+			s.print(stack);
+		}
+	}
+	/**Dictionary of key and value pairs in the order they were written.
+	 * Keys are looked up by identity, every decoded key is its own object.
+	 */
+	private static final class Listing extends Dictionary<Object, Object> {
+		private final Object[] pairs;
+		private final IdentityHashMap<Object, Object> values;
+		Listing(final Object[] pairs) {
+			this.pairs=pairs;
+			values=new IdentityHashMap<Object, Object>(pairs.length);
+			for (int i=0;i+1<pairs.length;i+=2)
+				values.put(pairs[i], pairs[i+1]);
+		}
+		@Override
+		public int size() {
+			return pairs.length/2;
+		}
+		@Override
+		public boolean isEmpty() {
+			return pairs.length<2;
+		}
+		@Override
+		public Enumeration<Object> keys() {
+			return new Enumeration<Object>() {
+				private int i=0;
+				@Override
+				public boolean hasMoreElements() {
+					return i+1<pairs.length;
+				}
+				@Override
+				public Object nextElement() {
+					final Object key=pairs[i];
+					i+=2;
+					return key;
+				}
+			};
+		}
+		@Override
+		public Enumeration<Object> elements() {
+			return new Enumeration<Object>() {
+				private int i=1;
+				@Override
+				public boolean hasMoreElements() {
+					return i<pairs.length;
+				}
+				@Override
+				public Object nextElement() {
+					final Object value=pairs[i];
+					i+=2;
+					return value;
+				}
+			};
+		}
+		@Override
+		public Object get(final Object key) {
+			return values.get(key);
+		}
+		@Override
+		public Object put(final Object key, final Object value) {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public Object remove(final Object key) {
+			throw new UnsupportedOperationException();
+		}
+	}
+	private static LogLevel toLevel(final byte value) {
+		for (final LogLevel level : LogLevel.values())
+			if (level.getValue()==value)
+				return level;
+		return null;
+	}
+	private static String getString(final ByteBuffer rec) {
+		final int len=rec.getInt();
+		if (len<0)
+			return null;
+		final char[] chars=new char[len];
+		rec.asCharBuffer().get(chars);
+		rec.position(rec.position()+len*2);
+		return new String(chars);
+	}
+	/** Reads a template argument, boxing primitives so they print as they would have. */
+	private static Object getArg(final ByteBuffer rec) throws IOException {
+		final byte type=rec.get();
+		switch(type) {
+		case BinaryLogWriter.ARG_NULL:	return null;
+		case BinaryLogWriter.ARG_STRING:	return getString(rec);
+		case BinaryLogWriter.ARG_INT:	return Integer.valueOf(rec.getInt());
+		case BinaryLogWriter.ARG_LONG:	return Long.valueOf(rec.getLong());
+		case BinaryLogWriter.ARG_DOUBLE:	return Double.valueOf(rec.getDouble());
+		case BinaryLogWriter.ARG_FLOAT:	return Float.valueOf(rec.getFloat());
+		case BinaryLogWriter.ARG_SHORT:	return Short.valueOf(rec.getShort());
+		case BinaryLogWriter.ARG_BYTE:	return Byte.valueOf(rec.get());
+		case BinaryLogWriter.ARG_CHAR:	return Character.valueOf(rec.getChar());
+		case BinaryLogWriter.ARG_BOOLEAN:	return Boolean.valueOf(rec.get()!=0);
+		case BinaryLogWriter.ARG_THROWABLE:	return new RecordedThrowable(getString(rec), getString(rec));
+		default:
+			throw new IOException("Unknown template argument type "+type);
+		}
+	}
+	private static Object getPayload(final byte kind, final ByteBuffer rec, final short version) throws IOException {
+		final int len;
+		switch(kind) {
+		case LogEvent.BYTES: {
+			final byte[] arr=new byte[rec.getInt()];
+			rec.get(arr);
+			return arr;
+		}
+		case LogEvent.SHORTS: {
+			final short[] arr=new short[rec.getInt()];
+			rec.asShortBuffer().get(arr);
+			return arr;
+		}
+		case LogEvent.INTS: {
+			final int[] arr=new int[rec.getInt()];
+			rec.asIntBuffer().get(arr);
+			return arr;
+		}
+		case LogEvent.LONGS: {
+			final long[] arr=new long[rec.getInt()];
+			rec.asLongBuffer().get(arr);
+			return arr;
+		}
+		case LogEvent.FLOATS: {
+			final float[] arr=new float[rec.getInt()];
+			rec.asFloatBuffer().get(arr);
+			return arr;
+		}
+		case LogEvent.DOUBLES: {
+			final double[] arr=new double[rec.getInt()];
+			rec.asDoubleBuffer().get(arr);
+			return arr;
+		}
+		case LogEvent.TEMPLATE: {
+			len=rec.getInt();
+			final Object[] args=new Object[len];
+			for (int i=0;i<len;i++)
+				args[i]=(version==1) ? getString(rec) : getArg(rec);
+			return args;
+		}
+		case LogEvent.OBJECTS:
+		case LogEvent.ITERABLE:
+		case LogEvent.DICTIONARY: {
+			len=rec.getInt();
+			final Object[] elements=new Object[len];
+			for (int i=0;i<len;i++)
+				elements[i]=getArg(rec);
+			if (kind==LogEvent.OBJECTS)
+				return elements;
+			if (kind==LogEvent.ITERABLE)
+				return Arrays.asList(elements);
+			return new Listing(elements);
+		}
+		case LogEvent.RAW:
+		case LogEvent.RAW_LINE:
+		case LogEvent.OBJECT:
+		case LogEvent.BODY:
+			return getString(rec);
+		default:
+			throw new IOException("Unknown record kind "+kind);
+		}
+	}
+}
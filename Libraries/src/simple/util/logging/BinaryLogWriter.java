@@ -0,0 +1,456 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Enumeration;
+
+import simple.util.ObjectIntMap;
+
+/**Writes log events as binary records to a memory mapped file instead of
+ * formatting them as text. Meant for high volume tracing, the file is turned
+ * back into the usual text with {@link BinaryLogDecoder}.<br>
+ * Strings and primitive arrays are copied into the file as is, and so are
+ * template arguments and the elements of Object[], Iterable and Dictionary
+ * messages that are strings, primitives or their boxes. Class and section
+ * names are written once and then referred to by id. Messages, arguments and
+ * elements that are anything else are turned into their text first, and so is
+ * the stack trace of a logged exception. Nothing else is formatted on the
+ * calling thread.
+ * <hr>
+ * File layout, big endian:
+ * <pre>
+ * header: int magic, short version, short 0
+ * record: int length of the rest, byte kind, then
+ *   kind -1 (name):  int id, string
+ *   otherwise:       long millis, byte level, byte flags, int class id, int section id,
+ *                    char separator, string ref, payload
+ * string: int length in chars (-1 for null), the chars
+ * payload: string for text kinds, int count then the values for arrays,
+ *   int count then arguments for templates, Object[] and Iterable,
+ *   int count then key and value arguments for Dictionary,
+ *   string then a throwable argument for exceptions
+ * argument: byte type, then nothing for null, a string, the value as
+ *   int, long, double, float, short, byte, char or a byte of 0 or 1 for boolean,
+ *   or for a throwable its string and its stack trace as strings
+ * </pre>
+ * Version 1 files wrote every template argument as a string. Version 2 files
+ * wrote Object[], Iterable, Dictionary and exception events as text.
+ * The file is written a region at a time and cut to the written length on
+ * {@link #close()}. A file that wasn't closed ends with a record length of 0.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see LogFactory#setGlobalBinaryLogFile(File)
+ */
+public final class BinaryLogWriter implements LogSink {
+	static final int MAGIC=0x534A4C42;
+	static final short VERSION=3;
+	/** Record kind of a name definition. Others are {@link LogEvent} kinds. */
+	static final byte NAME=-1;
+	static final byte FLAG_DATE=1, FLAG_TIME=2;
+	/** Template argument types. */
+	static final byte ARG_NULL=0, ARG_STRING=1, ARG_INT=2, ARG_LONG=3, ARG_DOUBLE=4, ARG_FLOAT=5,
+			ARG_SHORT=6, ARG_BYTE=7, ARG_CHAR=8, ARG_BOOLEAN=9, ARG_THROWABLE=10;
+	/** Size of the fixed part of an event record after the length. */
+	private static final int EVENT_HEADER=1+8+1+1+4+4+2;
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final int regionSize;
+	private final ObjectIntMap<String> ids=new ObjectIntMap<String>(64, -1);
+	private final Thread hook;
+	private MappedByteBuffer region;
+	/** File position of the start of the region. */
+	private long regionStart;
+	private long written=0;
+	private volatile boolean closed=false;
+	private volatile boolean error=false;
+
+	/**Maps the file 16MB at a time.
+	 * @param file File to write to. Cleared if it exists.
+	 * @throws IOException
+	 */
+	public BinaryLogWriter(final File file) throws IOException {
+		this(file, 16*1024*1024);
+	}
+	/**
+	 * @param file File to write to. Cleared if it exists.
+	 * @param regionSize Bytes mapped at a time.
+	 * @throws IOException
+	 */
+	public BinaryLogWriter(final File file, final int regionSize) throws IOException {
+		if (regionSize<64)
+			throw new IllegalArgumentException("regionSize must be at least 64");
+		this.file=file;
+		this.regionSize=regionSize;
+		raf=new RandomAccessFile(file, "rw");
+		raf.setLength(0);
+		channel=raf.getChannel();
+		map(0, regionSize);
+		region.putInt(MAGIC).putShort(VERSION).putShort((short)0);
+		hook=new Thread("BinaryLogWriter shutdown") {
+			@Override
+			public void run() {
+				shutdown();
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(hook);
+	}
+	private void map(final long start, final int size) throws IOException {
+		region=channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+		regionStart=start;
+	}
+	/** Maps the next region if there isn't room for <var>bytes</var>. */
+	private void ensure(final int bytes) throws IOException {
+		if (region.remaining()>=bytes)
+			return;
+		map(regionStart+region.position(), Math.max(regionSize, bytes));
+	}
+	/**Only the text of messages, arguments and elements that aren't strings,
+	 * primitives or primitive arrays, and of stack traces, is made on the
+	 * calling thread. Everything else is copied into the file.
+	 */
+	@Override
+	public boolean write(final LogEvent ev) {
+		final long millis=System.currentTimeMillis();
+		byte kind=ev.kind;
+		String ref=ev.ref;
+		Object msg=ev.msg;
+		int size=0;
+		boolean asBody=false;
+		switch(kind) {
+		case LogEvent.RAW:
+		case LogEvent.RAW_LINE:
+		case LogEvent.OBJECT:
+		case LogEvent.BODY:
+			msg=String.valueOf(msg);
+			size=sizeOf((String)msg);
+			break;
+		case LogEvent.BYTES:
+			size=4+((byte[])msg).length;
+			break;
+		case LogEvent.SHORTS:
+			size=4+((short[])msg).length*2;
+			break;
+		case LogEvent.INTS:
+			size=4+((int[])msg).length*4;
+			break;
+		case LogEvent.LONGS:
+			size=4+((long[])msg).length*8;
+			break;
+		case LogEvent.FLOATS:
+			size=4+((float[])msg).length*4;
+			break;
+		case LogEvent.DOUBLES:
+			size=4+((double[])msg).length*8;
+			break;
+		case LogEvent.TEMPLATE: {
+			Object[] args=(Object[])msg;
+			final int last=args.length-1;
+			// a trailing exception without a {} gets its stack trace printed
+			final boolean trace=last>=0 && args[last] instanceof Throwable
+					&& LogEvent.placeholders(ref, args.length)<args.length;
+			size=4;
+			for (int i=0;i<args.length;i++) {
+				int n=argSize(args[i]);
+				if (n<0 || (trace && i==last)) {
+					// the object could change before a copy is formatted
+					if (args==msg)
+						args=args.clone();
+					args[i]=(trace && i==last) ? new Trace((Throwable)args[i]) : LogEvent.argString(args[i]);
+					n=argSize(args[i]);
+				}
+				size+=n;
+			}
+			msg=args;
+			break;
+		}
+		case LogEvent.OBJECTS: {
+			final Object[] elements=(Object[])msg;
+			msg=elements(elements, elements.length);
+			size=argsSize((Object[])msg);
+			break;
+		}
+		case LogEvent.ITERABLE: {
+			final ArrayList<Object> elements=new ArrayList<Object>();
+			for (final Object e : (Iterable<?>)msg)
+				elements.add(e);
+			msg=elements(elements.toArray(), elements.size());
+			size=argsSize((Object[])msg);
+			break;
+		}
+		case LogEvent.DICTIONARY: {
+			final Dictionary<?,?> dict=(Dictionary<?,?>)msg;
+			final Object[] pairs=new Object[dict.size()*2];
+			int n=0;
+			for (final Enumeration<?> keys=dict.keys();keys.hasMoreElements() && n<pairs.length;n+=2) {
+				pairs[n]=keys.nextElement();
+				pairs[n+1]=dict.get(pairs[n]);
+			}
+			msg=elements(pairs, n);
+			size=argsSize((Object[])msg);
+			break;
+		}
+		case LogEvent.THROWABLE:
+			if (ev.thrown==null) {
+				asBody=true;
+				break;
+			}
+			msg=new Object[]{String.valueOf(msg), new Trace(ev.thrown)};
+			size=sizeOf((String)((Object[])msg)[0])+argSize(((Object[])msg)[1]);
+			break;
+		default:
+			asBody=true;
+		}
+		if (asBody) {
+			kind=LogEvent.BODY;
+			ref=null;
+			msg=ev.body();
+			size=sizeOf((String)msg);
+		}
+		size+=EVENT_HEADER+sizeOf(ref);
+		final byte flags=(byte)((ev.date!=null ? FLAG_DATE : 0)|(ev.time!=null ? FLAG_TIME : 0));
+		try {
+			synchronized(this) {
+				if (closed)
+					return false;
+				final int classId=id(ev.cName), sectionId=id(ev.section);
+				ensure(4+size);
+				region.putInt(size).put(kind).putLong(millis)
+					.put(ev.level==null ? 0 : ev.level.getValue()).put(flags)
+					.putInt(classId).putInt(sectionId).putChar(ev.sep);
+				putString(ref);
+				putPayload(kind, msg);
+				written++;
+			}
+			return true;
+		} catch (final IOException e) {
+			error=true;
+			return false;
+		}
+	}
+	/** Id of the name, writing a name record the first time it is seen. -1 for null. */
+	private int id(final String name) throws IOException {
+		if (name==null)
+			return -1;
+		int id=ids.get(name);
+		if (id<0) {
+			id=ids.size();
+			ids.put(name, id);
+			final int size=1+4+sizeOf(name);
+			ensure(4+size);
+			region.putInt(size).put(NAME).putInt(id);
+			putString(name);
+		}
+		return id;
+	}
+	/**Copies the elements, turning those {@link #argSize(Object)} can't take
+	 * into their text the way the text log prints them.
+	 * @param elements
+	 * @param count Number of elements to take.
+	 * @return The elements to write.
+	 */
+	private static Object[] elements(final Object[] elements, final int count) {
+		final Object[] ret=new Object[count];
+		for (int i=0;i<count;i++)
+			ret[i]=(argSize(elements[i])<0) ? String.valueOf(elements[i]) : elements[i];
+		return ret;
+	}
+	/** Bytes a count and the arguments take. */
+	private static int argsSize(final Object[] args) {
+		int size=4;
+		for (final Object arg : args)
+			size+=argSize(arg);
+		return size;
+	}
+	/** Bytes the template argument takes, -1 if it has to be turned into text. */
+	private static int argSize(final Object arg) {
+		if (arg==null)
+			return 1;
+		if (arg instanceof String)
+			return 1+sizeOf((String)arg);
+		if (arg instanceof Integer || arg instanceof Float)
+			return 1+4;
+		if (arg instanceof Long || arg instanceof Double)
+			return 1+8;
+		if (arg instanceof Short || arg instanceof Character)
+			return 1+2;
+		if (arg instanceof Byte || arg instanceof Boolean)
+			return 1+1;
+		if (arg instanceof Trace)
+			return 1+sizeOf(((Trace)arg).text)+sizeOf(((Trace)arg).stack);
+		return -1;
+	}
+	private void putArg(final Object arg) {
+		if (arg==null)
+			region.put(ARG_NULL);
+		else if (arg instanceof String) {
+			region.put(ARG_STRING);
+			putString((String)arg);
+		} else if (arg instanceof Integer)
+			region.put(ARG_INT).putInt(((Integer)arg).intValue());
+		else if (arg instanceof Long)
+			region.put(ARG_LONG).putLong(((Long)arg).longValue());
+		else if (arg instanceof Double)
+			region.put(ARG_DOUBLE).putDouble(((Double)arg).doubleValue());
+		else if (arg instanceof Float)
+			region.put(ARG_FLOAT).putFloat(((Float)arg).floatValue());
+		else if (arg instanceof Short)
+			region.put(ARG_SHORT).putShort(((Short)arg).shortValue());
+		else if (arg instanceof Byte)
+			region.put(ARG_BYTE).put(((Byte)arg).byteValue());
+		else if (arg instanceof Character)
+			region.put(ARG_CHAR).putChar(((Character)arg).charValue());
+		else if (arg instanceof Trace) {
+			region.put(ARG_THROWABLE);
+			putString(((Trace)arg).text);
+			putString(((Trace)arg).stack);
+		} else
+			region.put(ARG_BOOLEAN).put((byte)(((Boolean)arg).booleanValue() ? 1 : 0));
+	}
+	private static int sizeOf(final String s) {
+		return (s==null) ? 4 : 4+s.length()*2;
+	}
+	private void putString(final String s) {
+		if (s==null) {
+			region.putInt(-1);
+			return;
+		}
+		final int len=s.length();
+		region.putInt(len);
+		for (int i=0;i<len;i++)
+			region.putChar(s.charAt(i));
+	}
+	private void putPayload(final byte kind, final Object msg) {
+		final int pos;
+		switch(kind) {
+		case LogEvent.BYTES: {
+			final byte[] arr=(byte[])msg;
+			region.putInt(arr.length).put(arr);
+			break;
+		}
+		case LogEvent.SHORTS: {
+			final short[] arr=(short[])msg;
+			pos=region.putInt(arr.length).position();
+			region.asShortBuffer().put(arr);
+			region.position(pos+arr.length*2);
+			break;
+		}
+		case LogEvent.INTS: {
+			final int[] arr=(int[])msg;
+			pos=region.putInt(arr.length).position();
+			region.asIntBuffer().put(arr);
+			region.position(pos+arr.length*4);
+			break;
+		}
+		case LogEvent.LONGS: {
+			final long[] arr=(long[])msg;
+			pos=region.putInt(arr.length).position();
+			region.asLongBuffer().put(arr);
+			region.position(pos+arr.length*8);
+			break;
+		}
+		case LogEvent.FLOATS: {
+			final float[] arr=(float[])msg;
+			pos=region.putInt(arr.length).position();
+			region.asFloatBuffer().put(arr);
+			region.position(pos+arr.length*4);
+			break;
+		}
+		case LogEvent.DOUBLES: {
+			final double[] arr=(double[])msg;
+			pos=region.putInt(arr.length).position();
+			region.asDoubleBuffer().put(arr);
+			region.position(pos+arr.length*8);
+			break;
+		}
+		case LogEvent.TEMPLATE:
+		case LogEvent.OBJECTS:
+		case LogEvent.ITERABLE:
+		case LogEvent.DICTIONARY: {
+			final Object[] args=(Object[])msg;
+			region.putInt(args.length);
+			for (final Object arg : args)
+				putArg(arg);
+			break;
+		}
+		case LogEvent.THROWABLE: {
+			final Object[] parts=(Object[])msg;
+			putString((String)parts[0]);
+			putArg(parts[1]);
+			break;
+		}
+		default:
+			putString((String)msg);
+		}
+	}
+	/** The text of an exception, the only part of it the log prints. */
+	private static final class Trace {
+		final String text, stack;
+		Trace(final Throwable t) {
+			text=String.valueOf(t);
+			stack=LogEvent.stackTrace(t);
+		}
+	}
+	/**Asks the OS to write the mapped region to the disk.
+	 */
+	public synchronized void force() {
+		if (!closed)
+			region.force();
+	}
+	/**Stops accepting events and cuts the file to the written length.
+	 */
+	@Override
+	public void close() {
+		try {
+			Runtime.getRuntime().removeShutdownHook(hook);
+		} catch (final IllegalStateException e) {
+			// already shutting down, the hook will finish up
+		}
+		shutdown();
+	}
+	private synchronized void shutdown() {
+		if (closed)
+			return;
+		closed=true;
+		try {
+			region.force();
+			final long end=regionStart+region.position();
+			region=null;
+			channel.truncate(end);
+			raf.close();
+		} catch (final IOException e) {
+			error=true;
+		}
+	}
+	/**
+	 * @return The file being written to.
+	 */
+	public File getFile() {
+		return file;
+	}
+	/**
+	 * @return Number of events written so far.
+	 */
+	public synchronized long getWritten() {
+		return written;
+	}
+	@Override
+	public boolean checkError() {
+		return error;
+	}
+	/**
+	 * @return <code>true</code> if {@link #close()} has been called.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+}
@@ -7,11 +7,10 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.util.Dictionary;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.function.Supplier;
 
 import simple.io.WriterOutputStream;
+import simple.util.ObjectIntMap;
 
 /** The preferred method for getting a log is to use {@link LogFactory#getLogFor(Class)}.<br>
  * This ensures that only one log will be used per class and each log outputs to
@@ -23,187 +22,257 @@ import simple.io.WriterOutputStream;
  * @author Kenneth Pierce
  */
 public final class Log {
-	private ErrorCodeResolver ecr=LogFactory.DEFAULTECR;
-	private PrintStream _out;
 	private final String _cName;
-	private boolean _printTime = false,
-		_printDate=false;
+	/** Settings set on this log. Everything not in its mask comes from {@link LogFactory}. */
+	private volatile LogConfig own;
+	/** Last merge of the factory's settings and <code>own</code>: {factory, own, merged} */
+	private volatile LogConfig[] merged;
 	private final Object writeSync=new Object();
 	public static final byte LDEBUG = LogLevel.DEBUG.getValue(),
 	LERROR = LogLevel.ERROR.getValue(),
 	LWARNING = LogLevel.WARNING.getValue(),
 	LINFORMATION = LogLevel.INFORMATION.getValue();
-	private final HashMap<String, Byte> section = new HashMap<String, Byte>();
-	/**<dl>
-	 * <dt>debug</dt><dd>0x1</dd>
-	 * <dt>error</dt><dd>0x2</dd>
-	 * <dt>warning</dt><dd>0x4</dd>
-	 * <dt>information</dt><dd>0x8</dd>
-	 */
-	private byte options = (byte)0xFF;
+	/** Replaced as a whole on every change so readers don't need to lock. */
+	private volatile ObjectIntMap<String> section = new ObjectIntMap<String>(8, -1);
 	public Log(final Class<?> clazz) {
 		this(System.out, clazz);
 	}
 	public Log(final OutputStream os, final Class<?> clazz) {
 		_cName = clazz.getCanonicalName();
 		if (os instanceof PrintStream)
-			_out = (PrintStream)os;
+			own = LogConfig.standalone((PrintStream)os);
 		else
-			_out = new PrintStream(os);
+			own = LogConfig.standalone(new PrintStream(os));
 	}
 	public Log(final Writer os, final Class<?> clazz) {
 		_cName = clazz.getCanonicalName();
-		_out = new PrintStream(new WriterOutputStream(os));
+		own = LogConfig.standalone(new PrintStream(new WriterOutputStream(os)));
 	}
-	public void setPrintTime(final boolean b) {
-		_printTime = b;
+	/**For {@link LogFactory}. The log follows the factory's settings until they are set on it.
+	 * @param clazz
+	 * @param own
+	 */
+	Log(final Class<?> clazz, final LogConfig own) {
+		_cName = clazz.getCanonicalName();
+		this.own = own;
+	}
+	/**
+	 * @return The settings in effect right now.
+	 */
+	private LogConfig config() {
+		final LogConfig own = this.own;
+		if (own.mask == LogConfig.ALL)
+			return own;
+		final LogConfig global = LogFactory.getConfig();
+		if (own.mask == 0)
+			return global;
+		final LogConfig[] m = merged;
+		if (m != null && m[0] == global && m[1] == own)
+			return m[2];
+		final LogConfig result = global.overlay(own);
+		merged = new LogConfig[]{global, own, result};
+		return result;
+	}
+	/**<dl>
+	 * <dt>debug</dt><dd>0x1</dd>
+	 * <dt>error</dt><dd>0x2</dd>
+	 * <dt>warning</dt><dd>0x4</dd>
+	 * <dt>information</dt><dd>0x8</dd>
+	 */
+	private byte options() {
+		return config().options;
+	}
+	/**For {@link LogFactory}'s global setters, which apply to every log.
+	 * @param bits Settings to take from the factory again. See {@link LogConfig#mask}
+	 */
+	synchronized void inherit(final int bits) {
+		if ((own.mask & bits) != 0)
+			own = own.inherit(bits);
+	}
+	public synchronized void setPrintTime(final boolean b) {
+		own = own.withPrintTime(b);
 	}
 	public boolean getPrintTime() {
-		return _printTime;
+		return config().printTime;
 	}
-	public void setPrintDate(final boolean b) {
-		_printDate = b;
+	public synchronized void setPrintDate(final boolean b) {
+		own = own.withPrintDate(b);
 	}
 	public boolean getPrintDate() {
-		return _printDate;
+		return config().printDate;
 	}
-	public void setPrint(final LogLevel level, final boolean print) {
-		if (print)
-			options |= level.getValue();
-		else
-			options &= ~level.getValue();
+	public synchronized void setPrint(final LogLevel level, final boolean print) {
+		own = own.withPrint(level, print);
 	}
 	public boolean getPrint(final LogLevel level) {
-		return (options & level.getValue()) == level.getValue();
+		return (options() & level.getValue()) == level.getValue();
 	}
 	public void setPrintDebug(final boolean b) {setPrint(LogLevel.DEBUG,b);}
 	public void setPrintError(final boolean b) {setPrint(LogLevel.ERROR,b);}
 	public void setPrintWarning(final boolean b) {setPrint(LogLevel.WARNING,b);}
 	public void setPrintInformation(final boolean b) {setPrint(LogLevel.INFORMATION,b);}
 	public synchronized void setSection(final String section, final LogLevel level, final boolean print) {
-		Byte options = this.section.remove(section);
-		if (options==null)
+		final ObjectIntMap<String> copy = new ObjectIntMap<String>(this.section);
+		int options = copy.get(section);
+		if (options<0)
 			options=0;
 		if (print)
-			options =(byte) (options.byteValue()|level.getValue());
-		else if ((options&level.getValue())==level.getValue())
-			options=(byte) (options.byteValue()&~level.getValue());
-		this.section.put(section, options);
+			options |= level.getValue()&0xFF;
+		else
+			options &= ~level.getValue();
+		copy.put(section, options);
+		this.section = copy;
+	}
+	/**
+	 * @param section
+	 * @return The options set for the section or the log's options.
+	 */
+	private byte sectionOptions(final String section) {
+		final int options = (section==null) ? -1 : this.section.get(section);
+		return (options<0) ? options() : (byte)options;
 	}
-	public void setStream(final OutputStream os) {
+	/**Sets the output stream. Messages are written on the calling thread.
+	 * @param os
+	 */
+	public synchronized void setStream(final OutputStream os) {
 		if (os instanceof PrintStream)
-			_out = (PrintStream)os;
+			own = own.withStream((PrintStream)os, null);
 		else
-			_out = new PrintStream(os);
+			own = own.withStream(new PrintStream(os), null);
 	}
-	public void setStream(final Writer os) {
-		_out = new PrintStream(new WriterOutputStream(os));
+	/**Sets the output writer. Messages are written on the calling thread.
+	 * @param os
+	 */
+	public synchronized void setStream(final Writer os) {
+		own = own.withStream(new PrintStream(new WriterOutputStream(os)), null);
+	}
+	/**Hands all further messages to <var>writer</var> to be written on its thread.
+	 * Log calls then return true if the message was dropped or the writer's stream
+	 * has reported an error.
+	 * @param writer The writer or null to go back to writing on the calling thread.
+	 * @see AsyncLogWriter
+	 */
+	public synchronized void setAsyncWriter(final AsyncLogWriter writer) {
+		if (writer!=null)
+			own = own.withStream(writer.getStream(), writer);
+		else
+			own = own.withStream(config().out, null);
+	}
+	/**
+	 * @return The async writer or null if messages are written on the calling thread.
+	 */
+	public AsyncLogWriter getAsyncWriter() {
+		final LogSink sink = config().sink;
+		return (sink instanceof AsyncLogWriter) ? (AsyncLogWriter)sink : null;
+	}
+	/**Writes all further messages to <var>writer</var> as binary records instead of text.
+	 * Log calls then return true if the writer has had an error.
+	 * @param writer The writer or null to go back to printing to the stream.
+	 * @see BinaryLogDecoder
+	 */
+	public synchronized void setBinaryWriter(final BinaryLogWriter writer) {
+		own = own.withStream(config().out, writer);
+	}
+	/**
+	 * @return The binary writer or null if messages are printed as text.
+	 */
+	public BinaryLogWriter getBinaryWriter() {
+		final LogSink sink = config().sink;
+		return (sink instanceof BinaryLogWriter) ? (BinaryLogWriter)sink : null;
 	}
 	public final boolean println() {
-		_out.println();
-		return _out.checkError();
+		return _write(null,null,LogEvent.RAW_LINE,null,"",null,',');
 	}
 	public final boolean println(final Object msg){
-		_out.println(msg);
-		return _out.checkError();
+		return _write(null,null,LogEvent.RAW_LINE,null,msg,null,',');
 	}
 	public final boolean print(final Object msg){
-		_out.print(msg);
-		return _out.checkError();
-	}
-	public final boolean log(final LogLevel type, final Object msg){return _log(type,msg,options);}
-	public final boolean log(final LogLevel type, final Exception msg){return _log(type,msg,options);}
-	public final boolean log(final LogLevel type, final Dictionary<?,?> msg){return _log(type,msg,options);}
-	public final boolean log(final LogLevel type, final String msg, final Exception e){return _log(type,msg,e,options);}
-	public final boolean log(final LogLevel type, final Iterable<?> msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final Object[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final byte[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final short[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final int[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final long[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final float[] msg){return _log(type,msg,',',options);}
-	public final boolean log(final LogLevel type, final double[] msg){return _log(type,msg,',',options);}
+		return _write(null,null,LogEvent.RAW,null,msg,null,',');
+	}
+	public final boolean log(final LogLevel type, final Object msg){return _log(null,type,msg,options());}
+	public final boolean log(final LogLevel type, final Exception msg){return _log(null,type,msg,options());}
+	public final boolean log(final LogLevel type, final Dictionary<?,?> msg){return _log(null,type,msg,options());}
+	public final boolean log(final LogLevel type, final String msg, final Exception e){return _log(null,type,msg,e,options());}
+	public final boolean log(final LogLevel type, final Iterable<?> msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final Object[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final byte[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final short[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final int[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final long[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final float[] msg){return _log(null,type,msg,',',options());}
+	public final boolean log(final LogLevel type, final double[] msg){return _log(null,type,msg,',',options());}
 
-	public final boolean log(final LogLevel type, final Object[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final byte[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final short[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final int[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final long[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final float[] msg,char sep){return _log(type,msg,sep,options);}
-	public final boolean log(final LogLevel type, final double[] msg,char sep){return _log(type,msg,sep,options);}
+	public final boolean log(final LogLevel type, final Object[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final byte[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final short[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final int[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final long[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final float[] msg,char sep){return _log(null,type,msg,sep,options());}
+	public final boolean log(final LogLevel type, final double[] msg,char sep){return _log(null,type,msg,sep,options());}
 /*
  * Reference Prefix
  */
-	public final boolean log(final LogLevel type, final String ref, final Iterable<?> msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final Object msg){return _log(type,ref,msg,options);}
-	public final boolean log(final LogLevel type, final String ref, final Object[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final byte[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final short[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final int[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final long[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final float[] msg){return _log(type,ref,msg,',',options);}
-	public final boolean log(final LogLevel type, final String ref, final double[] msg){return _log(type,ref,msg,',',options);}
+	public final boolean log(final LogLevel type, final String ref, final Iterable<?> msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final Object msg){return _log(null,type,ref,msg,options());}
+	public final boolean log(final LogLevel type, final String ref, final Object[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final byte[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final short[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final int[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final long[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final float[] msg){return _log(null,type,ref,msg,',',options());}
+	public final boolean log(final LogLevel type, final String ref, final double[] msg){return _log(null,type,ref,msg,',',options());}
 
-	public final boolean log(final LogLevel type, final String ref, final Iterable<?> msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final Object[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final byte[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final short[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final int[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final long[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final float[] msg,char sep){return _log(type,ref,msg,sep,options);}
-	public final boolean log(final LogLevel type, final String ref, final double[] msg,char sep){return _log(type,ref,msg,sep,options);}
+	public final boolean log(final LogLevel type, final String ref, final Iterable<?> msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final Object[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final byte[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final short[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final int[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final long[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final float[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
+	public final boolean log(final LogLevel type, final String ref, final double[] msg,char sep){return _log(null,type,ref,msg,sep,options());}
 	//Sectioned loggers
 	public final boolean log(final String section,final LogLevel type, final Object msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,options);
 	}
 	public final boolean log(final String section,final LogLevel type, final Exception msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,options);
 	}
 	public final boolean log(final String section,final LogLevel type, final Dictionary<?,?> msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,options);
 	}
 	public final boolean log(final String section,final LogLevel type, final String ref, final Object msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,ref,msg,options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,ref,msg,options);
 	}
 	public final boolean log(final String section,final LogLevel type, final String msg, final Exception e) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,e,options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,e,options);
 	}
 	public final boolean log(final String section,final LogLevel type, final Iterable<?> msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,',',options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,',',options);
 	}
 	public final boolean log(final String section,final LogLevel type, final String ref, final Iterable<?> msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,ref,msg,',',options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,ref,msg,',',options);
 	}
 	public final boolean log(final String section,final LogLevel type, final Object[] msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,msg,',',options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,msg,',',options);
 	}
 	public final boolean log(final String section,final LogLevel type, final String ref, final Object[] msg) {
-		Byte options = this.section.get(section);
-		if(options==null)	options=this.options;
-		return _log(type,ref,msg,',',options);
+		final byte options = sectionOptions(section);
+		return _log(section,type,ref,msg,',',options);
 	}
 	//Error Code Resolver code
-	public final void setECR(ErrorCodeResolver ecr){
-		this.ecr=ecr;
+	public final synchronized void setECR(ErrorCodeResolver ecr){
+		own = own.withECR(ecr);
 	}
 	public final ErrorCodeResolver getECR(){
-		return ecr;
+		return config().ecr;
 	}
 	/**
 	 * @param type
@@ -212,305 +281,230 @@ public final class Log {
 	 * @return true on error
 	 */
 	public final boolean log(final LogLevel type, ErrorCodeResolver msg, final int code) {
-		if ((options&type.getValue()) == type.getValue()) {
-			if (msg == null)
-				msg = ecr;
-			_out.println(_getPreMessage(type)+_cName+": "+"("+code+")"+msg.getErrorString(code));
-		}
-		return _out.checkError();
+		final LogConfig config = config();
+		if ((config.options&type.getValue()) != type.getValue())return config.out.checkError();
+		if (msg == null)
+			msg = config.ecr;
+		return _write(null,type,LogEvent.OBJECT,null,"("+code+")"+msg.getErrorString(code),null,',');
 	}
 	/**Shortcut for <code>log(LogLevel.ERROR, ErrorCodeResolver, errorCode)</code>
 	 * @param errorCode
 	 * @return true on error
 	 */
 	public final boolean log(final int errorCode) {
-		return log(LogLevel.ERROR, ecr, errorCode);
+		return log(LogLevel.ERROR, null, errorCode);
 	}
 	//workhorse loggers
-	private final boolean _log(final LogLevel type, final Object msg,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.println(_getPreMessage(type)+_cName+": "+msg);
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final Exception msg,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.println(_getPreMessage(type)+_cName+": "+msg);
-		msg.printStackTrace(_out);
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final Dictionary<?,?> msg,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.println(_getPreMessage(type)+_cName+": "+"Property listing:");
-		final Enumeration<?> keys = msg.keys();
-		Object key;
-		while(keys.hasMoreElements()) {
-			key = keys.nextElement();
-			_out.println("["+key+"="+msg.get(key)+"]");
-		}
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final String ref, final Object msg,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.println(_getPreMessage(type)+_cName+": "+ref+": "+msg);
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final String msg, final Exception e,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.println(_getPreMessage(type)+_cName+": "+msg);
-		e.printStackTrace(_out);
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final Iterable<?> msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+"{");
-		final Iterator<?> iter = msg.iterator();
-		_out.print(iter.next());
-		while (iter.hasNext()) {
-			_out.print(sep);
-			_out.print(iter.next());
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final String ref, final Iterable<?> msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : {");
-		final Iterator<?> iter = msg.iterator();
-		_out.print(iter.next());
-		while (iter.hasNext()) {
-			_out.print(sep);
-			_out.print(iter.next());
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final byte[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": byte[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final int[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": int[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final short[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": short[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final long[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": long[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final float[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": float[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
-	}
-	private final boolean _log(final LogLevel type, final double[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
+	private final boolean _log(final String section, final LogLevel type, final Object msg,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.OBJECT,null,msg,null,',');
+	}
+	private final boolean _log(final String section, final LogLevel type, final Exception msg,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.THROWABLE,null,msg,msg,',');
+	}
+	private final boolean _log(final String section, final LogLevel type, final Dictionary<?,?> msg,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.DICTIONARY,null,msg,null,',');
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final Object msg,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.OBJECT,ref,msg,null,',');
+	}
+	private final boolean _log(final String section, final LogLevel type, final String msg, final Exception e,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.THROWABLE,null,msg,e,',');
+	}
+	private final boolean _log(final String section, final LogLevel type, final Iterable<?> msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.ITERABLE,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final Iterable<?> msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.ITERABLE,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final byte[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.BYTES,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final int[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.INTS,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final short[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.SHORTS,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final long[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.LONGS,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final float[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.FLOATS,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final double[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.DOUBLES,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final Object[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.OBJECTS,null,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final Object[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.OBJECTS,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final byte[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.BYTES,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final int[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.INTS,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final short[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.SHORTS,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final long[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.LONGS,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final float[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.FLOATS,ref,msg,null,sep);
+	}
+	private final boolean _log(final String section, final LogLevel type, final String ref, final double[] msg,char sep,byte options) {
+		if((options&type.getValue()) != type.getValue())return config().out.checkError();
+		return _write(section,type,LogEvent.DOUBLES,ref,msg,null,sep);
+	}
+	/**Captures the call and either writes it now or hands it to the sink.
+	 * Events for a section are dropped first if the section is over its limit.
+	 * @return true on error or if the event was dropped by the sink
+	 * @see LogFactory#setSectionRateLimit(String, int, int)
+	 */
+	private final boolean _write(final String section, final LogLevel type, final byte kind, final String ref, final Object msg, final Throwable e, final char sep) {
+		if (section!=null && !LogFactory.admit(section))
+			return false;
+		return _emit(section,type,kind,ref,msg,e,sep);
+	}
+	private final boolean _emit(final String section, final LogLevel type, final byte kind, final String ref, final Object msg, final Throwable e, final char sep) {
+		final LogConfig config=config();
+		final LogEvent ev=new LogEvent(type,
+				(config.printDate)?LogFactory.getDateStamp():null,
+				(config.printTime)?LogFactory.getTimeStamp():null,
+				_cName,section,kind,ref,msg,e,sep);
+		final LogSink sink=config.sink;
+		if (sink!=null)
+			return !sink.write(ev) || sink.checkError();
+		final String text=ev.format(new StringBuilder(128)).toString();
 		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": double[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
+		config.out.print(text);
 		}
-		_out.println("}");
-		}
-		return _out.checkError();
+		return config.out.checkError();
 	}
-	private final boolean _log(final LogLevel type, final Object[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": Object[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	/* **************************************
+	 * ************************ NOTE:DEFERRED
+	 * **************************************
+	 * The level is checked before anything is allocated or formatted.
+	 * Templates replace each {} with the next argument. A trailing exception
+	 * without a {} has its stack trace printed. When writing asynchronously the
+	 * template is formatted on the writer's thread.
+	 */
+	/**
+	 * @param level
+	 * @return true if messages of this level are printed
+	 */
+	public final boolean isEnabled(final LogLevel level) {
+		return (options()&level.getValue()) != 0;
 	}
-	private final boolean _log(final LogLevel type, final String ref, final Object[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : Object[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	/**
+	 * @param section
+	 * @param level
+	 * @return true if messages of this level are printed for the section
+	 * @see #setSection(String, LogLevel, boolean)
+	 */
+	public final boolean isEnabled(final String section, final LogLevel level) {
+		return (sectionOptions(section)&level.getValue()) != 0;
 	}
-	private final boolean _log(final LogLevel type, final String ref, final byte[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : byte[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	public final boolean logf(final LogLevel type, final String template, final Object arg) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.TEMPLATE,template,new Object[]{arg},null,',');
 	}
-	private final boolean _log(final LogLevel type, final String ref, final int[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : int[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	public final boolean logf(final LogLevel type, final String template, final Object arg1, final Object arg2) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.TEMPLATE,template,new Object[]{arg1,arg2},null,',');
 	}
-	private final boolean _log(final LogLevel type, final String ref, final short[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : short[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	public final boolean logf(final LogLevel type, final String template, final Object arg1, final Object arg2, final Object arg3) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.TEMPLATE,template,new Object[]{arg1,arg2,arg3},null,',');
 	}
-	private final boolean _log(final LogLevel type, final String ref, final long[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : long[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	public final boolean logf(final LogLevel type, final String template, final Object... args) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.TEMPLATE,template,args,null,',');
 	}
-	private final boolean _log(final LogLevel type, final String ref, final float[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : float[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	public final boolean logf(final String section, final LogLevel type, final String template, final Object... args) {
+		if(!isEnabled(section, type))return false;
+		return _write(section,type,LogEvent.TEMPLATE,template,args,null,',');
 	}
-	private final boolean _log(final LogLevel type, final String ref, final double[] msg,char sep,byte options) {
-		if((options&type.getValue()) != type.getValue())return _out.checkError();
-		synchronized(writeSync){
-		_out.print(_getPreMessage(type)+_cName+": "+ref+" : double[]{");
-		if (msg.length>0) {
-			_out.print(msg[0]);
-			for (int i = 1; i < msg.length; i++) {
-				_out.print(sep);
-				_out.print(msg[i]);
-			}
-		}
-		_out.println("}");
-		}
-		return _out.checkError();
+	/**
+	 * @param type
+	 * @param msg Only called if the level is printed.
+	 * @return true on error
+	 */
+	public final boolean log(final LogLevel type, final Supplier<?> msg) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.OBJECT,null,msg.get(),null,',');
 	}
-	private final String _getPreMessage(final LogLevel type){
-		return type+": "+((_printDate)?(LogFactory.getDateStamp()+" "):"")+((_printTime)?(LogFactory.getTimeStamp()+" "):"");
+	/**
+	 * @param type
+	 * @param ref
+	 * @param msg Only called if the level is printed.
+	 * @return true on error
+	 */
+	public final boolean log(final LogLevel type, final String ref, final Supplier<?> msg) {
+		if((options()&type.getValue()) == 0)return false;
+		return _write(null,type,LogEvent.OBJECT,ref,msg.get(),null,',');
 	}
+	/**
+	 * @param section
+	 * @param type
+	 * @param msg Only called if the level is printed for the section and the section is within its limits.
+	 * @return true on error
+	 */
+	public final boolean log(final String section, final LogLevel type, final Supplier<?> msg) {
+		if(!isEnabled(section, type) || !LogFactory.admit(section))return false;
+		return _emit(section,type,LogEvent.OBJECT,null,msg.get(),null,',');
+	}
+	public final boolean debugf(final String template, final Object arg)	{return logf(LogLevel.DEBUG, template, arg);}
+	public final boolean debugf(final String template, final Object arg1, final Object arg2)	{return logf(LogLevel.DEBUG, template, arg1, arg2);}
+	public final boolean debugf(final String template, final Object arg1, final Object arg2, final Object arg3)	{return logf(LogLevel.DEBUG, template, arg1, arg2, arg3);}
+	public final boolean debugf(final String template, final Object... args)	{return logf(LogLevel.DEBUG, template, args);}
+	public final boolean debug(final Supplier<?> msg)	{return log(LogLevel.DEBUG, msg);}
+	public final boolean debug(final String ref, final Supplier<?> msg)	{return log(LogLevel.DEBUG, ref, msg);}
+	public final boolean debugSect(final String section, final Supplier<?> msg)	{return log(section, LogLevel.DEBUG, msg);}
+	public final boolean errorf(final String template, final Object arg)	{return logf(LogLevel.ERROR, template, arg);}
+	public final boolean errorf(final String template, final Object arg1, final Object arg2)	{return logf(LogLevel.ERROR, template, arg1, arg2);}
+	public final boolean errorf(final String template, final Object arg1, final Object arg2, final Object arg3)	{return logf(LogLevel.ERROR, template, arg1, arg2, arg3);}
+	public final boolean errorf(final String template, final Object... args)	{return logf(LogLevel.ERROR, template, args);}
+	public final boolean error(final Supplier<?> msg)	{return log(LogLevel.ERROR, msg);}
+	public final boolean error(final String ref, final Supplier<?> msg)	{return log(LogLevel.ERROR, ref, msg);}
+	public final boolean errorSect(final String section, final Supplier<?> msg)	{return log(section, LogLevel.ERROR, msg);}
+	public final boolean warningf(final String template, final Object arg)	{return logf(LogLevel.WARNING, template, arg);}
+	public final boolean warningf(final String template, final Object arg1, final Object arg2)	{return logf(LogLevel.WARNING, template, arg1, arg2);}
+	public final boolean warningf(final String template, final Object arg1, final Object arg2, final Object arg3)	{return logf(LogLevel.WARNING, template, arg1, arg2, arg3);}
+	public final boolean warningf(final String template, final Object... args)	{return logf(LogLevel.WARNING, template, args);}
+	public final boolean warning(final Supplier<?> msg)	{return log(LogLevel.WARNING, msg);}
+	public final boolean warning(final String ref, final Supplier<?> msg)	{return log(LogLevel.WARNING, ref, msg);}
+	public final boolean warningSect(final String section, final Supplier<?> msg)	{return log(section, LogLevel.WARNING, msg);}
+	public final boolean informationf(final String template, final Object arg)	{return logf(LogLevel.INFORMATION, template, arg);}
+	public final boolean informationf(final String template, final Object arg1, final Object arg2)	{return logf(LogLevel.INFORMATION, template, arg1, arg2);}
+	public final boolean informationf(final String template, final Object arg1, final Object arg2, final Object arg3)	{return logf(LogLevel.INFORMATION, template, arg1, arg2, arg3);}
+	public final boolean informationf(final String template, final Object... args)	{return logf(LogLevel.INFORMATION, template, args);}
+	public final boolean information(final Supplier<?> msg)	{return log(LogLevel.INFORMATION, msg);}
+	public final boolean information(final String ref, final Supplier<?> msg)	{return log(LogLevel.INFORMATION, ref, msg);}
+	public final boolean informationSect(final String section, final Supplier<?> msg)	{return log(section, LogLevel.INFORMATION, msg);}
 	/* **************************************
 	 * *************************** NOTE:DEBUG
 	 * **************************************
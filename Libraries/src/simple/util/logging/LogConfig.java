@@ -0,0 +1,95 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.PrintStream;
+
+/**Immutable set of the settings a {@link Log} prints with. Changes make a
+ * new copy so a log can read all of its settings with one volatile read and
+ * never see half of an update.<br>
+ * {@link LogFactory} keeps the one shared by every log it creates. A log
+ * keeps its own copy for whatever was set on it directly, <code>mask</code>
+ * says which of those settings it uses, and everything else comes from the
+ * factory's.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+final class LogConfig {
+	/** Bits of <code>mask</code> for settings other than the levels. The low 8 bits are the levels. */
+	static final int STREAM=0x100,
+		TIME=0x200,
+		DATE=0x400,
+		ECR=0x800,
+		ALL=0xFFF;
+	/** Everything from the factory. Starting point of logs made by {@link LogFactory}. */
+	static final LogConfig INHERIT=new LogConfig((byte)0,null,null,false,false,null,0);
+
+	/** Printed levels. See {@link LogLevel#getValue()} */
+	final byte options;
+	final PrintStream out;
+	/** Where events go instead of <code>out</code>, null to print them on the calling thread. */
+	final LogSink sink;
+	final boolean printTime, printDate;
+	final ErrorCodeResolver ecr;
+	/** Which settings are set. Only used for a log's own settings. */
+	final int mask;
+
+	LogConfig(final byte options, final PrintStream out, final LogSink sink,
+			final boolean printTime, final boolean printDate, final ErrorCodeResolver ecr, final int mask) {
+		this.options=options;
+		this.out=out;
+		this.sink=sink;
+		this.printTime=printTime;
+		this.printDate=printDate;
+		this.ecr=ecr;
+		this.mask=mask;
+	}
+	/**
+	 * @param out
+	 * @return A config that prints everything to <var>out</var> and does not use the factory's settings.
+	 */
+	static LogConfig standalone(final PrintStream out) {
+		return new LogConfig((byte)0xFF,out,null,false,false,LogFactory.DEFAULTECR,ALL);
+	}
+	LogConfig withPrint(final LogLevel level, final boolean print) {
+		final byte bit=level.getValue();
+		return new LogConfig((byte)(print ? options|bit : options&~bit),out,sink,printTime,printDate,ecr,mask|(bit&0xFF));
+	}
+	LogConfig withStream(final PrintStream out, final LogSink sink) {
+		return new LogConfig(options,out,sink,printTime,printDate,ecr,mask|STREAM);
+	}
+	LogConfig withPrintTime(final boolean print) {
+		return new LogConfig(options,out,sink,print,printDate,ecr,mask|TIME);
+	}
+	LogConfig withPrintDate(final boolean print) {
+		return new LogConfig(options,out,sink,printTime,print,ecr,mask|DATE);
+	}
+	LogConfig withECR(final ErrorCodeResolver ecr) {
+		return new LogConfig(options,out,sink,printTime,printDate,ecr,mask|ECR);
+	}
+	/**
+	 * @param bits Settings to take from the factory again.
+	 * @return This config without <var>bits</var> in its mask.
+	 */
+	LogConfig inherit(final int bits) {
+		return new LogConfig(options,out,sink,printTime,printDate,ecr,mask&~bits);
+	}
+	/**
+	 * @param own Settings that take precedence, only those in its mask are used.
+	 * @return This config with the settings from <var>own</var> laid over it.
+	 */
+	LogConfig overlay(final LogConfig own) {
+		final int m=own.mask;
+		if (m==ALL)
+			return own;
+		final boolean stream=(m&STREAM)!=0;
+		return new LogConfig((byte)((options&~m)|(own.options&m)),
+				stream ? own.out : out,
+				stream ? own.sink : sink,
+				((m&TIME)!=0) ? own.printTime : printTime,
+				((m&DATE)!=0) ? own.printDate : printDate,
+				((m&ECR)!=0) ? own.ecr : ecr,
+				0);
+	}
+}
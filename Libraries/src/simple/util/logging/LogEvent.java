@@ -0,0 +1,354 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.Iterator;
+
+/**A single log call captured as a record so it can be formatted later,
+ * possibly on another thread. Formatting produces exactly what {@link Log}
+ * has always printed.
+ * <hr>
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see AsyncLogWriter
+ */
+final class LogEvent {
+	/** What <code>msg</code> holds and how it is printed. */
+	static final byte OBJECT=0,
+		THROWABLE=1,
+		DICTIONARY=2,
+		ITERABLE=3,
+		OBJECTS=4,
+		BYTES=5,
+		SHORTS=6,
+		INTS=7,
+		LONGS=8,
+		FLOATS=9,
+		DOUBLES=10,
+		/** <code>msg</code> printed as is. No prefix, no line end. */
+		RAW=11,
+		/** <code>msg</code> printed as is followed by a line end. No prefix. */
+		RAW_LINE=12,
+		/** <code>ref</code> is a template and <code>msg</code> the Object[] of arguments for its {} */
+		TEMPLATE=13,
+		/** <code>msg</code> is the text after the prefix, already formatted, line end included. */
+		BODY=14;
+	private static final String NL=System.getProperty("line.separator");
+
+	final LogLevel level;
+	final String date, time, cName;
+	/** Section logged to or null. Not printed. */
+	final String section;
+	final byte kind;
+	final String ref;
+	final Object msg;
+	final Throwable thrown;
+	final char sep;
+
+	/**
+	 * @param level Level of the message. Ignored for raw events.
+	 * @param date Date stamp or null if not printed.
+	 * @param time Time stamp or null if not printed.
+	 * @param cName Name of the class logging.
+	 * @param section Section logged to or null.
+	 * @param kind One of the kind constants.
+	 * @param ref Reference prefix or null.
+	 * @param msg The message.
+	 * @param thrown Exception to print the stack trace of or null.
+	 * @param sep Separator for arrays and iterables.
+	 */
+	LogEvent(final LogLevel level, final String date, final String time, final String cName, final String section,
+			final byte kind, final String ref, final Object msg, final Throwable thrown, final char sep) {
+		this.level=level;
+		this.date=date;
+		this.time=time;
+		this.cName=cName;
+		this.section=section;
+		this.kind=kind;
+		this.ref=ref;
+		this.msg=msg;
+		this.thrown=thrown;
+		this.sep=sep;
+	}
+	/**Appends the formatted event, including the line end, to <var>buf</var>.
+	 * @param buf Target buffer.
+	 * @return <var>buf</var>
+	 */
+	StringBuilder format(final StringBuilder buf) {
+		switch(kind) {
+		case RAW:
+			return buf.append(msg);
+		case RAW_LINE:
+			return buf.append(msg).append(NL);
+		default:
+		}
+		buf.append(level).append(": ");
+		if (date!=null)	buf.append(date).append(' ');
+		if (time!=null)	buf.append(time).append(' ');
+		buf.append(cName).append(": ");
+		return formatBody(buf);
+	}
+	/**Appends everything after the prefix.
+	 * @param buf Target buffer.
+	 * @return <var>buf</var>
+	 */
+	private StringBuilder formatBody(final StringBuilder buf) {
+		switch(kind) {
+		case BODY:
+			buf.append(msg);
+			break;
+		case OBJECT:
+			if (ref!=null)	buf.append(ref).append(": ");
+			buf.append(msg).append(NL);
+			break;
+		case TEMPLATE:
+			final Object[] args=(Object[])msg;
+			final int used=appendTemplate(buf, ref, args);
+			buf.append(NL);
+			// a trailing exception without a {} gets its stack trace printed
+			if (used<args.length && args[args.length-1] instanceof Throwable)
+				appendStackTrace(buf, (Throwable)args[args.length-1]);
+			break;
+		case THROWABLE:
+			buf.append(msg).append(NL);
+			appendStackTrace(buf, thrown);
+			break;
+		case DICTIONARY:
+			buf.append("Property listing:").append(NL);
+			final Dictionary<?,?> dict=(Dictionary<?,?>)msg;
+			final Enumeration<?> keys=dict.keys();
+			Object key;
+			while(keys.hasMoreElements()) {
+				key=keys.nextElement();
+				buf.append('[').append(key).append('=').append(dict.get(key)).append(']').append(NL);
+			}
+			break;
+		case ITERABLE:
+			if (ref!=null)
+				buf.append(ref).append(" : {");
+			else
+				buf.append('{');
+			final Iterator<?> iter=((Iterable<?>)msg).iterator();
+			if (iter.hasNext())
+				buf.append(iter.next());
+			while (iter.hasNext())
+				buf.append(sep).append(iter.next());
+			buf.append('}').append(NL);
+			break;
+		default:
+			if (ref!=null)	buf.append(ref).append(" : ");
+			appendArray(buf);
+			buf.append('}').append(NL);
+		}
+		return buf;
+	}
+	/**Makes the event safe to format on another thread. Immutable values are kept
+	 * as is, primitive arrays are copied and anything else is formatted now.
+	 * @return this or an equivalent event that does not reference mutable objects.
+	 */
+	LogEvent snapshot() {
+		switch(kind) {
+		case RAW:
+		case RAW_LINE:
+		case OBJECT:
+			if (isImmutable(msg))
+				return this;
+			return new LogEvent(level,date,time,cName,section,kind,ref,String.valueOf(msg),thrown,sep);
+		case TEMPLATE: {
+			final Object[] args=(Object[])msg;
+			Object[] copy=null;
+			for (int i=0;i<args.length;i++) {
+				if (isImmutable(args[i]) || args[i] instanceof Throwable)
+					continue;
+				if (copy==null)
+					copy=args.clone();
+				final StringBuilder arg=new StringBuilder(32);
+				appendArg(arg, args[i]);
+				copy[i]=arg.toString();
+			}
+			if (copy==null)
+				return this;
+			return new LogEvent(level,date,time,cName,section,kind,ref,copy,thrown,sep);
+		}
+		case THROWABLE:
+			if (isImmutable(msg) || msg==thrown)
+				return this;
+			return new LogEvent(level,date,time,cName,section,kind,ref,String.valueOf(msg),thrown,sep);
+		case BYTES:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((byte[])msg).clone(),thrown,sep);
+		case SHORTS:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((short[])msg).clone(),thrown,sep);
+		case INTS:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((int[])msg).clone(),thrown,sep);
+		case LONGS:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((long[])msg).clone(),thrown,sep);
+		case FLOATS:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((float[])msg).clone(),thrown,sep);
+		case DOUBLES:
+			return new LogEvent(level,date,time,cName,section,kind,ref,((double[])msg).clone(),thrown,sep);
+		case BODY:
+			return this;
+		default:
+			return new LogEvent(level,date,time,cName,section,BODY,null,formatBody(new StringBuilder(128)).toString(),null,sep);
+		}
+	}
+	/**
+	 * @return Everything {@link #format(StringBuilder)} prints after the prefix.
+	 */
+	String body() {
+		return formatBody(new StringBuilder(128)).toString();
+	}
+	/**
+	 * @param arg Template argument.
+	 * @return The argument as a template prints it.
+	 */
+	static String argString(final Object arg) {
+		if (arg instanceof String)
+			return (String)arg;
+		final StringBuilder buf=new StringBuilder(32);
+		appendArg(buf, arg);
+		return buf.toString();
+	}
+	private static boolean isImmutable(final Object o) {
+		return o==null || o instanceof String || o instanceof Integer || o instanceof Long
+				|| o instanceof Boolean || o instanceof Character || o instanceof Double
+				|| o instanceof Float || o instanceof Short || o instanceof Byte || o instanceof Enum;
+	}
+	private static void appendStackTrace(final StringBuilder buf, final Throwable t) {
+		buf.append(stackTrace(t));
+	}
+	/**
+	 * @param t
+	 * @return What {@link Throwable#printStackTrace()} prints for <var>t</var>.
+	 */
+	static String stackTrace(final Throwable t) {
+		final StringWriter sw=new StringWriter(512);
+		final PrintWriter pw=new PrintWriter(sw);
+		t.printStackTrace(pw);
+		pw.flush();
+		return sw.toString();
+	}
+	/**
+	 * @return Number of arguments {@link #appendTemplate(StringBuilder, String, Object[])} uses, at most <var>args</var>.
+	 */
+	static int placeholders(final String template, final int args) {
+		int start=0, used=0, idx;
+		while (used<args && (idx=template.indexOf("{}", start))!=-1) {
+			used++;
+			start=idx+2;
+		}
+		return used;
+	}
+	/**Replaces each <code>{}</code> in <var>template</var> with the next argument.
+	 * Arrays are printed with their elements. Placeholders without an argument are left as is.
+	 * @return Number of arguments used.
+	 */
+	static int appendTemplate(final StringBuilder buf, final String template, final Object[] args) {
+		int start=0, used=0, idx;
+		while (used<args.length && (idx=template.indexOf("{}", start))!=-1) {
+			buf.append(template, start, idx);
+			appendArg(buf, args[used++]);
+			start=idx+2;
+		}
+		buf.append(template, start, template.length());
+		return used;
+	}
+	private static void appendArg(final StringBuilder buf, final Object arg) {
+		if (arg==null || !arg.getClass().isArray())
+			buf.append(arg);
+		else if (arg instanceof Object[])
+			buf.append(Arrays.deepToString((Object[])arg));
+		else if (arg instanceof int[])
+			buf.append(Arrays.toString((int[])arg));
+		else if (arg instanceof long[])
+			buf.append(Arrays.toString((long[])arg));
+		else if (arg instanceof byte[])
+			buf.append(Arrays.toString((byte[])arg));
+		else if (arg instanceof short[])
+			buf.append(Arrays.toString((short[])arg));
+		else if (arg instanceof char[])
+			buf.append(Arrays.toString((char[])arg));
+		else if (arg instanceof float[])
+			buf.append(Arrays.toString((float[])arg));
+		else if (arg instanceof double[])
+			buf.append(Arrays.toString((double[])arg));
+		else
+			buf.append(Arrays.toString((boolean[])arg));
+	}
+	/** Appends <code>type[]{</code> and the elements, without the closing brace. */
+	private void appendArray(final StringBuilder buf) {
+		switch(kind) {
+		case OBJECTS: {
+			final Object[] arr=(Object[])msg;
+			buf.append("Object[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case BYTES: {
+			final byte[] arr=(byte[])msg;
+			buf.append("byte[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case SHORTS: {
+			final short[] arr=(short[])msg;
+			buf.append("short[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case INTS: {
+			final int[] arr=(int[])msg;
+			buf.append("int[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case LONGS: {
+			final long[] arr=(long[])msg;
+			buf.append("long[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case FLOATS: {
+			final float[] arr=(float[])msg;
+			buf.append("float[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		case DOUBLES: {
+			final double[] arr=(double[])msg;
+			buf.append("double[]{");
+			for (int i=0;i<arr.length;i++) {
+				if (i>0)	buf.append(sep);
+				buf.append(arr[i]);
+			}
+			break;
+		}
+		default:
+			throw new IllegalStateException("Unknown log event kind: "+kind);
+		}
+	}
+}
@@ -3,15 +3,18 @@
  */
 package simple.util.logging;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 
 import simple.io.FileUtil;
 
@@ -22,25 +25,45 @@ import simple.io.FileUtil;
  * <ul>
  * <li>{@link #setGlobalLogFile(File, boolean)}</li>
  * <li>{@link #setGlobalLogStream(PrintStream)}</li>
+ * <li>{@link #setGlobalLogFile(File, boolean, int, OverflowPolicy)}</li>
+ * <li>{@link #setGlobalLogStream(PrintStream, int, OverflowPolicy)}</li>
+ * <li>{@link #setGlobalRollingLogFile(File, long, int)}</li>
+ * <li>{@link #setGlobalRollingLogFile(File, long, int, int, OverflowPolicy)}</li>
+ * <li>{@link #setGlobalBinaryLogFile(File)}</li>
  * <li>{@link #setLogFileFor(Class, File, boolean)}</li>
  * <li>{@link #setLogStreamFor(Class, PrintStream)}</li>
  * <li>{@link #setLogFor(Class, Log)}</li>
  * </ul>
+ * Limiting sections:
+ * <ul>
+ * <li>{@link #setSectionRateLimit(String, int, int)}</li>
+ * <li>{@link #setSectionSampling(String, int)}</li>
+ * <li>{@link #setSectionSummaryInterval(long)}</li>
+ * </ul>
  * You can change the log for a class after it has been gotten. Messages
- * logged before the change will not be transferred.
+ * logged before the change will not be transferred.<br>
+ * Logs created here read the factory's settings as they log. Anything set on
+ * a log directly is kept by that log until the same setting is changed here:
+ * the global setters apply to every log.
  * <hr>
  * Created: Oct 21, 2010
  * @author Kenneth Pierce
  * @see simple.util.logging.Log
  */
 public final class LogFactory {
-	private static HashMap<Class<?>, Log> logCache = new HashMap<Class<?>, Log>();
+	protected static final ErrorCodeResolver DEFAULTECR=new ErrorCodeResolver() {
+		@Override
+		public String getErrorString(final int code) {
+			return null;
+		}
+	};
+	private static final ConcurrentHashMap<Class<?>, Log> logCache = new ConcurrentHashMap<Class<?>, Log>();
 	//private static final Log _log = new Log(LogFactory.class);
-	private static PrintStream globalStream = System.out;
-	private static byte logOptions = (byte)0xFF;
-	private static boolean printTime=false,printDate=false;
+	/** Settings shared by every log from this factory. Replaced, never changed, while holding configSync. */
+	private static volatile LogConfig config = new LogConfig((byte)0xFF, System.out, null, false, false, DEFAULTECR, 0);
+	private static final Object configSync = new Object();
 	private static final Timer updater=new Timer();
-	private static String timestamp="",datestamp="";
+	private static volatile String timestamp="",datestamp="";
 	static {
 		final TimerTask tt=new TimerTask(){
 			// This task updates the time and date stamps
@@ -61,16 +84,30 @@ public final class LogFactory {
 	 * @param print Should this log level be printed?
 	 */
 	public static final void setPrint(final LogLevel level, final boolean print) {
-		synchronized(logCache){
-			if (print) {
-				logOptions |= level.getValue();
-			} else {
-				logOptions &= ~level.getValue();
-			}
-			for(final Log log:logCache.values()) {
-				log.setPrint(level, print);
-			}
+		synchronized(configSync){
+			config = config.withPrint(level, print);
 		}
+		inheritAll(level.getValue()&0xFF);
+	}
+	/**Makes every cached log take these settings from the factory again.
+	 * @param bits See {@link LogConfig#mask}
+	 */
+	private static void inheritAll(final int bits) {
+		for (final Log log : logCache.values())
+			log.inherit(bits);
+	}
+	/**
+	 * @return The settings shared by the logs created here.
+	 */
+	static LogConfig getConfig() {
+		return config;
+	}
+	/**Runs the task on the thread that updates the time and date stamps.
+	 * @param task
+	 * @param period Milliseconds between runs.
+	 */
+	static void schedule(final TimerTask task, final long period) {
+		updater.scheduleAtFixedRate(task, period, period);
 	}
 	/**
 	 * In HHMMSS format. 'His' for you PHP people
@@ -87,33 +124,67 @@ public final class LogFactory {
 		return datestamp;
 	}
 	public static final void setPrintTimeStamp(boolean print){
-		synchronized(logCache){
-			printTime=print;
-			for (final Log log : logCache.values()) {
-				log.setPrintTime(print);
-			}
+		synchronized(configSync){
+			config = config.withPrintTime(print);
 		}
+		inheritAll(LogConfig.TIME);
 	}
 	public static final void setPrintDateStamp(boolean print){
-		synchronized(logCache){
-			printDate=print;
-			for (final Log log : logCache.values()) {
-				log.setPrintDate(print);
-			}
+		synchronized(configSync){
+			config = config.withPrintDate(print);
 		}
+		inheritAll(LogConfig.DATE);
 	}
 	/**Sets the default stream for all logs created by this factory.
-	 * Also updates existing logs.
+	 * Also updates existing logs. Messages are written on the calling thread.
+	 * If the logs were writing asynchronously the old writer is drained and stopped.
 	 * @param stream
 	 */
 	public static void setGlobalLogStream(final PrintStream stream) {
-		synchronized(logCache){
-			globalStream = stream;
-			//_log.setStream(stream);
-			for (final Log log : logCache.values()) {
-				log.setStream(stream);
-			}
+		final LogSink old;
+		synchronized(configSync){
+			old = config.sink;
+			config = config.withStream(stream, null);
 		}
+		inheritAll(LogConfig.STREAM);
+		if (old != null)
+			old.close();
+	}
+	/**Sets the default stream for all logs created by this factory and writes
+	 * to it on a background thread. Also updates existing logs.
+	 * If the logs were already writing asynchronously the old writer is drained and stopped.
+	 * @param stream
+	 * @param queueSize Number of messages that can be waiting to be written.
+	 * @param policy What to do when <var>queueSize</var> messages are waiting.
+	 * @see AsyncLogWriter
+	 */
+	public static void setGlobalLogStream(final PrintStream stream, final int queueSize, final OverflowPolicy policy) {
+		setGlobalLogStream(stream, new AsyncLogWriter(stream, queueSize, policy));
+	}
+	private static void setGlobalLogStream(final PrintStream stream, final AsyncLogWriter writer) {
+		final LogSink old;
+		synchronized(configSync){
+			old = config.sink;
+			config = config.withStream(stream, writer);
+		}
+		inheritAll(LogConfig.STREAM);
+		if (old != null)
+			old.close();
+	}
+	/**
+	 * @return The writer used by all logs created by this factory or null if they write on the calling thread.
+	 */
+	public static AsyncLogWriter getGlobalAsyncWriter() {
+		final LogSink sink = config.sink;
+		return (sink instanceof AsyncLogWriter) ? (AsyncLogWriter)sink : null;
+	}
+	/**
+	 * @return Number of messages dropped by the global async writer, 0 if there isn't one.
+	 * @see AsyncLogWriter#getDropped()
+	 */
+	public static long getDroppedLogEvents() {
+		final AsyncLogWriter writer = getGlobalAsyncWriter();
+		return (writer == null) ? 0 : writer.getDropped();
 	}
 	/**Sets the output stream for the log associated with the class.
 	 * Creates a log if one does not exist.
@@ -135,6 +206,77 @@ public final class LogFactory {
 			throw new IOException("The file could not be created. No reason given.");
 		setGlobalLogStream(new PrintStream(new FileOutputStream(file, append)));
 	}
+	/**Sets the global output file for all log streams created by this factory
+	 * and writes to it on a background thread. Also updates existing logs.
+	 * The file is written through a buffer that is flushed after every batch of messages.
+	 * @param file target file
+	 * @param append append to the file or clear it
+	 * @param queueSize Number of messages that can be waiting to be written.
+	 * @param policy What to do when <var>queueSize</var> messages are waiting.
+	 * @throws IOException if file creation fails.
+	 * @see java.io.File#createNewFile()
+	 * @see AsyncLogWriter
+	 */
+	public static void setGlobalLogFile(final File file, final boolean append, final int queueSize, final OverflowPolicy policy) throws IOException {
+		if(!FileUtil.createFile(file))
+			throw new IOException("The file could not be created. No reason given.");
+		setGlobalLogStream(new PrintStream(new BufferedOutputStream(new FileOutputStream(file, append), 64*1024)), queueSize, policy);
+	}
+	/**Sets the global output file for all log streams created by this factory.
+	 * The file is buffered and rolls over when it reaches <var>maxSize</var> bytes or
+	 * the date changes. Rolled files are gzipped in the background.
+	 * Also updates existing logs.
+	 * @param file target file, appended to if it exists
+	 * @param maxSize size in bytes at which the file rolls over, 0 to only roll over daily
+	 * @param keep number of rolled files to keep, 0 to keep all
+	 * @throws IOException if file creation fails.
+	 * @see RollingFileOutputStream
+	 */
+	public static void setGlobalRollingLogFile(final File file, final long maxSize, final int keep) throws IOException {
+		if(!FileUtil.createFile(file))
+			throw new IOException("The file could not be created. No reason given.");
+		setGlobalLogStream(new PrintStream(new RollingFileOutputStream(file, true, maxSize, keep)));
+	}
+	/**Same as {@link #setGlobalRollingLogFile(File, long, int)} but the file is
+	 * written on a background thread.
+	 * @param file target file, appended to if it exists
+	 * @param maxSize size in bytes at which the file rolls over, 0 to only roll over daily
+	 * @param keep number of rolled files to keep, 0 to keep all
+	 * @param queueSize Number of messages that can be waiting to be written.
+	 * @param policy What to do when <var>queueSize</var> messages are waiting.
+	 * @throws IOException if file creation fails.
+	 * @see RollingFileOutputStream
+	 * @see AsyncLogWriter
+	 */
+	public static void setGlobalRollingLogFile(final File file, final long maxSize, final int keep, final int queueSize, final OverflowPolicy policy) throws IOException {
+		if(!FileUtil.createFile(file))
+			throw new IOException("The file could not be created. No reason given.");
+		final RollingFileOutputStream rolling = new RollingFileOutputStream(file, true, maxSize, keep);
+		final PrintStream stream = new PrintStream(rolling);
+		setGlobalLogStream(stream, new AsyncLogWriter(stream, queueSize, policy, rolling));
+	}
+	/**Writes all logs created by this factory to <var>file</var> as binary records
+	 * instead of text. Also updates existing logs. The previous writer, if any,
+	 * is drained and stopped. The global stream stays as it is and is used again by
+	 * {@link #setGlobalLogStream(PrintStream)}.
+	 * @param file target file, cleared if it exists
+	 * @throws IOException if the file can't be opened
+	 * @see BinaryLogWriter
+	 * @see BinaryLogDecoder
+	 */
+	public static void setGlobalBinaryLogFile(final File file) throws IOException {
+		if(!FileUtil.createFile(file))
+			throw new IOException("The file could not be created. No reason given.");
+		final BinaryLogWriter writer = new BinaryLogWriter(file);
+		final LogSink old;
+		synchronized(configSync){
+			old = config.sink;
+			config = config.withStream(config.out, writer);
+		}
+		inheritAll(LogConfig.STREAM);
+		if (old != null)
+			old.close();
+	}
 	/**Sets the output file for the specified class.
 	 * @param clazz target class log
 	 * @param file target file
@@ -148,7 +290,7 @@ public final class LogFactory {
 		setLogStreamFor(clazz, new PrintStream(new FileOutputStream(file, append)));
 	}
 	public static PrintStream getGlobalLogStream() {
-		return globalStream;
+		return config.out;
 	}
 	/**This should be called before instantiating any classes that use this
 	 * factory for it's logs if you want to specify a log for it to use.
@@ -156,10 +298,7 @@ public final class LogFactory {
 	 * @param log
 	 */
 	public static final void setLogFor(final Class<?> clazz, final Log log) {
-		synchronized(logCache){
-			logCache.remove(clazz);
-			logCache.put(clazz, log);
-		}
+		logCache.put(clazz, log);
 		//_log.information("setLogFor: "+clazz.getCanonicalName());
 	}
 	/**
@@ -170,19 +309,11 @@ public final class LogFactory {
 	public static final Log getLogFor(final Class<?> clazz) {
 		Log log = logCache.get(clazz);
 		if (log==null) {
-			synchronized(logCache){
-				log = logCache.get(clazz);
-				if(log==null){
-					log = new Log(globalStream,clazz);
-					for (final LogLevel ll:LogLevel.values()) {
-						log.setPrint(ll, (logOptions&ll.getValue())==ll.getValue());
-					}
-					log.setPrintTime(printTime);
-					log.setPrintDate(printDate);
-					log.setECR(ecr);
-					setLogFor(clazz, log);
-				}
-			}
+			// creating one is cheap, if another thread wins the race its log is used
+			final Log created = new Log(clazz, LogConfig.INHERIT);
+			log = logCache.putIfAbsent(clazz, created);
+			if (log==null)
+				log = created;
 		}
 		//_log.information("getLogFor: "+clazz.getCanonicalName());
 		return log;
@@ -199,23 +330,14 @@ public final class LogFactory {
 	 * Error Code Resolver
 	 * *************************/
 
-	protected static final ErrorCodeResolver DEFAULTECR=new ErrorCodeResolver() {
-		@Override
-		public String getErrorString(final int code) {
-			return null;
-		}
-	};
-	private static ErrorCodeResolver ecr = DEFAULTECR;
 	/**Sets the error code resolver.
 	 * @param ecr The new error code resolver
 	 */
 	public static final void setECR(final ErrorCodeResolver ecr) {
-		synchronized(logCache){
-			LogFactory.ecr = ecr;
-			for (final Log log : logCache.values()) {
-				log.setECR(ecr);
-			}
+		synchronized(configSync){
+			config = config.withECR(ecr);
 		}
+		inheritAll(LogConfig.ECR);
 	}
 	/**Gets the String associated with the code from the error code resolver.
 	 * Short for <code>LogFactory.getECR().getErrorString(code)</code>.
@@ -223,7 +345,126 @@ public final class LogFactory {
 	 * @return The error string associated with the error code.
 	 */
 	public static final String getErrorString(final int code) {
-		return ecr.getErrorString(code);
+		return config.ecr.getErrorString(code);
+	}
+
+	/* *************************
+	 * Section limits
+	 * *************************/
+
+	/** Replaced as a whole on every change so loggers don't need to lock. */
+	private static volatile HashMap<String, SectionLimit> sectionLimits = new HashMap<String, SectionLimit>();
+	private static final Object limitSync = new Object();
+	private static TimerTask summary = null;
+	private static long summaryInterval = 60000;
+	/**Limits how many events are written for the section by all logs.
+	 * Events over the limit are dropped and counted, the counts are logged every
+	 * {@link #setSectionSummaryInterval(long) summary interval}.
+	 * @param section
+	 * @param perSecond Events per second, 0 to remove the rate limit.
+	 * @param burst Events that can be written at once before the limit applies.
+	 * @see #setSectionSampling(String, int)
+	 */
+	public static void setSectionRateLimit(final String section, final int perSecond, final int burst) {
+		synchronized(limitSync){
+			final SectionLimit old = sectionLimits.get(section);
+			putLimit(section, new SectionLimit(perSecond, burst, (old==null) ? 1 : old.oneIn, old));
+		}
+	}
+	/**Same as <code>setSectionRateLimit(section, perSecond, perSecond)</code>
+	 * @param section
+	 * @param perSecond Events per second, 0 to remove the rate limit.
+	 */
+	public static void setSectionRateLimit(final String section, final int perSecond) {
+		setSectionRateLimit(section, perSecond, perSecond);
+	}
+	/**Writes a random 1 in <var>oneIn</var> of the events for the section. The rest
+	 * are dropped and counted like those over the rate limit.
+	 * @param section
+	 * @param oneIn 1 to write every event.
+	 * @see #setSectionRateLimit(String, int, int)
+	 */
+	public static void setSectionSampling(final String section, final int oneIn) {
+		synchronized(limitSync){
+			final SectionLimit old = sectionLimits.get(section);
+			if (old==null)
+				putLimit(section, new SectionLimit(0, 0, oneIn, null));
+			else
+				putLimit(section, new SectionLimit(old.perSecond, old.burst, oneIn, old));
+		}
+	}
+	/**Removes the rate limit and sampling from the section.
+	 * @param section
+	 */
+	public static void removeSectionLimits(final String section) {
+		synchronized(limitSync){
+			final HashMap<String, SectionLimit> copy = new HashMap<String, SectionLimit>(sectionLimits);
+			final SectionLimit old = copy.remove(section);
+			sectionLimits = copy;
+			if (old != null)
+				report(section, old);
+		}
+	}
+	/**
+	 * @param section
+	 * @return Number of events dropped for the section since it was first limited.
+	 */
+	public static long getSectionSuppressed(final String section) {
+		final SectionLimit limit = sectionLimits.get(section);
+		return (limit==null) ? 0 : limit.getSuppressed();
+	}
+	/**Sets how often the number of dropped events is logged. Sections that
+	 * dropped nothing are not reported.
+	 * @param millis Default is one minute.
+	 */
+	public static void setSectionSummaryInterval(final long millis) {
+		if (millis < 1)
+			throw new IllegalArgumentException("The interval must be positive.");
+		synchronized(limitSync){
+			summaryInterval = millis;
+			if (summary != null) {
+				summary.cancel();
+				summary = null;
+				startSummary();
+			}
+		}
+	}
+	/** Call holding limitSync. */
+	private static void putLimit(final String section, final SectionLimit limit) {
+		final HashMap<String, SectionLimit> copy = new HashMap<String, SectionLimit>(sectionLimits);
+		copy.put(section, limit);
+		sectionLimits = copy;
+		if (summary == null)
+			startSummary();
+	}
+	/** Call holding limitSync. */
+	private static void startSummary() {
+		summary = new TimerTask(){
+			@Override
+			public void run(){
+				for (final Map.Entry<String, SectionLimit> e : sectionLimits.entrySet())
+					report(e.getKey(), e.getValue());
+			}
+		};
+		schedule(summary, summaryInterval);
+	}
+	private static void report(final String section, final SectionLimit limit) {
+		final long[] counts = limit.drainCounts();
+		if (counts[0]+counts[1] == 0)
+			return;
+		getLogFor(LogFactory.class).information("Section "+section+" dropped "+(counts[0]+counts[1])
+				+" events ("+counts[0]+" sampled out, "+counts[1]+" over the rate limit)");
+	}
+	/**Checks the section's sampling and rate limit, counting the event if it is dropped.
+	 * @param section
+	 * @return <code>true</code> if the event may be written.
+	 */
+	static boolean admit(final String section) {
+		final HashMap<String, SectionLimit> limits = sectionLimits;
+		if (limits.isEmpty())
+			return true;
+		final SectionLimit limit = limits.get(section);
+		return limit == null || limit.allow();
 	}
 	private LogFactory(){}
 }
@@ -0,0 +1,25 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+/**Takes log events in place of a log's stream.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see AsyncLogWriter
+ * @see BinaryLogWriter
+ */
+interface LogSink {
+	/**Called on the logging thread. The event is only valid during the call,
+	 * anything kept for later must be copied.
+	 * @param ev Event to write.
+	 * @return <code>false</code> if the event was dropped.
+	 */
+	boolean write(LogEvent ev);
+	/**Must not block.
+	 * @return <code>true</code> if the sink has had an error.
+	 */
+	boolean checkError();
+	/** Writes anything still pending and releases the sink's resources. */
+	void close();
+}
@@ -0,0 +1,17 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+/**What an {@link AsyncLogWriter} does when its queue is full.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public enum OverflowPolicy {
+	/** The logging thread waits for room. Nothing is lost. */
+	BLOCK,
+	/** The oldest queued event is discarded to make room. */
+	DROP_OLDEST,
+	/** The new event is discarded. */
+	DROP_NEW;
+}
@@ -0,0 +1,329 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import simple.io.FileUtil;
+
+/**Log file that rolls over when it gets too big or the date changes.<br>
+ * Writes go into a large direct buffer that is written to the file when it
+ * fills, on {@link #flush()} if the last write out was at least
+ * <var>flushMillis</var> ago, and by {@link LogFactory}'s timer so nothing
+ * waits longer than that. Use {@link #flushNow()} to force it. A shutdown
+ * hook closes the stream, so what is buffered is written when the JVM exits.<br>
+ * When the file rolls over it is renamed to <code>name.YYYYMMDD.N</code>, where
+ * the date is the day it was written, and gzipped on a background thread
+ * to <code>name.YYYYMMDD.N.gz</code>. Only the newest <var>keep</var> rolled
+ * files are kept. The date comes from {@link LogFactory#getDateStamp()}.
+ * <hr>
+ * Usually set up through {@link LogFactory#setGlobalRollingLogFile(File, long, int)}.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public final class RollingFileOutputStream extends OutputStream {
+	/** Compresses rolled files for every instance, one at a time. */
+	private static final ExecutorService compressor=Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread t=new Thread(r, "RollingFileOutputStream gzip");
+			t.setDaemon(true);
+			return t;
+		}
+	});
+
+	private final File file;
+	private final long maxSize;
+	private final int keep;
+	private final long flushMillis;
+	/** Matches rolled files. Group 1 is the date and group 2 the sequence number. */
+	private final Pattern rolled;
+	private final ByteBuffer buffer;
+	private final TimerTask flusher;
+	private final Thread hook;
+	private FileChannel channel;
+	/** Bytes in the current file, buffered ones included. */
+	private long size;
+	/** Date the current file was started. */
+	private String date;
+	private int seq=0;
+	private long lastFlush;
+	/** When a roll that failed is tried again. */
+	private long rollRetry=0;
+	private boolean closed=false;
+
+	/**Uses a 256KB buffer written out at least once a second.
+	 * @param file The file to write to. Rolled files are put next to it.
+	 * @param append Add to the file if it exists or clear it.
+	 * @param maxSize Size in bytes at which the file rolls over. 0 to only roll over when the date changes.
+	 * @param keep Number of rolled files to keep. 0 to keep all of them.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public RollingFileOutputStream(final File file, final boolean append, final long maxSize, final int keep) throws IOException {
+		this(file, append, maxSize, keep, 256*1024, 1000);
+	}
+	/**
+	 * @param file The file to write to. Rolled files are put next to it.
+	 * @param append Add to the file if it exists or clear it.
+	 * @param maxSize Size in bytes at which the file rolls over. 0 to only roll over when the date changes.
+	 * @param keep Number of rolled files to keep. 0 to keep all of them.
+	 * @param bufferSize Bytes held before they are written to the file.
+	 * @param flushMillis Longest time buffered bytes wait to be written.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public RollingFileOutputStream(final File file, final boolean append, final long maxSize, final int keep,
+			final int bufferSize, final long flushMillis) throws IOException {
+		if (bufferSize<1 || flushMillis<1)
+			throw new IllegalArgumentException("bufferSize and flushMillis must be positive.");
+		this.file=file.getAbsoluteFile();
+		this.maxSize=maxSize;
+		this.keep=keep;
+		this.flushMillis=flushMillis;
+		rolled=Pattern.compile(Pattern.quote(this.file.getName())+"\\.(\\d{8})\\.(\\d+)(\\.gz)?");
+		buffer=ByteBuffer.allocateDirect(bufferSize);
+		if (append && this.file.length()>0)
+			date=String.format("%1$tY%1$tm%1$td", this.file.lastModified());
+		else
+			date=today();
+		open(append);
+		lastFlush=System.currentTimeMillis();
+		// finish what a previous run didn't get to
+		for (final File f : listRolled())
+			if (!f.getName().endsWith(".gz"))
+				compress(f);
+		flusher=new TimerTask() {
+			@Override
+			public void run() {
+				try {
+					flushNow();
+				} catch (final IOException e) {
+					// the next write reports it
+				}
+			}
+		};
+		LogFactory.schedule(flusher, flushMillis);
+		hook=new Thread("RollingFileOutputStream shutdown") {
+			@Override
+			public void run() {
+				try {
+					shutdown();
+				} catch (final IOException e) {
+					// nothing left to report it to
+				}
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(hook);
+	}
+	/**For a writer that writes out this stream itself when the JVM exits, so
+	 * the hook doesn't close it while the writer still has messages for it.
+	 * @see AsyncLogWriter
+	 */
+	void removeShutdownHook() {
+		try {
+			Runtime.getRuntime().removeShutdownHook(hook);
+		} catch (final IllegalStateException e) {
+			// already shutting down
+		}
+	}
+	private void open(final boolean append) throws IOException {
+		channel=new FileOutputStream(file, append).getChannel();
+		size=append ? channel.size() : 0;
+	}
+	private static String today() {
+		final String today=LogFactory.getDateStamp();
+		if (today.length()!=0)
+			return today;
+		return String.format("%1$tY%1$tm%1$td", System.currentTimeMillis());
+	}
+	@Override
+	public void write(final int b) throws IOException {
+		write(new byte[]{(byte)b}, 0, 1);
+	}
+	@Override
+	public synchronized void write(final byte[] b, int off, int len) throws IOException {
+		if (closed)
+			throw new IOException("Stream closed");
+		final String today=LogFactory.getDateStamp();
+		if (((today.length()!=0 && !today.equals(date)) || (maxSize>0 && size>0 && size+len>maxSize))
+				&& (rollRetry==0 || System.currentTimeMillis()>=rollRetry))
+			roll(today.length()!=0 ? today : date);
+		size+=len;
+		while (len>0) {
+			final int n=Math.min(len, buffer.remaining());
+			buffer.put(b, off, n);
+			off+=n;
+			len-=n;
+			if (!buffer.hasRemaining())
+				drain();
+		}
+	}
+	/** Writes the buffer to the file. */
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+		lastFlush=System.currentTimeMillis();
+	}
+	/**Closes the current file, renames it and queues it to be compressed.
+	 * If it can't be renamed the current file is kept and the roll is tried
+	 * again <var>flushMillis</var> later, so no message is lost.
+	 * @param today Date of the new file.
+	 */
+	private void roll(final String today) throws IOException {
+		drain();
+		channel.close();
+		File target;
+		int next=seq;
+		do {
+			next++;
+			target=new File(file.getParentFile(), file.getName()+'.'+date+'.'+next);
+		} while (target.exists() || new File(target.getPath()+".gz").exists());
+		if (!file.renameTo(target)) {
+			open(true);
+			rollRetry=System.currentTimeMillis()+flushMillis;
+			// not the log, it may be writing here
+			System.err.println("Could not rename "+file+" to "+target+", still writing to it");
+			return;
+		}
+		rollRetry=0;
+		seq=next;
+		if (!today.equals(date)) {
+			date=today;
+			seq=0;
+		}
+		open(false);
+		compress(target);
+	}
+	private void compress(final File target) {
+		compressor.execute(new Runnable() {
+			@Override
+			public void run() {
+				gzip(target);
+				prune();
+			}
+		});
+	}
+	private static void gzip(final File source) {
+		final File target=new File(source.getPath()+".gz");
+		boolean done=false;
+		InputStream in=null;
+		OutputStream out=null;
+		try {
+			in=new FileInputStream(source);
+			out=new GZIPOutputStream(new FileOutputStream(target), 64*1024);
+			FileUtil.copy(in, out, 64*1024);
+			out.close();
+			out=null;
+			done=true;
+		} catch (final IOException e) {
+			e.printStackTrace();
+		} finally {
+			// not FileUtil.close, that logs
+			try {
+				if (in!=null)	in.close();
+				if (out!=null)	out.close();
+			} catch (final IOException e) {}
+		}
+		if (done)
+			source.delete();
+		else
+			target.delete();
+	}
+	/** Deletes the oldest rolled files until only <var>keep</var> are left. */
+	private void prune() {
+		if (keep<1)
+			return;
+		final ArrayList<File> files=listRolled();
+		if (files.size()<=keep)
+			return;
+		Collections.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(final File a, final File b) {
+				final Matcher ma=rolled.matcher(a.getName()), mb=rolled.matcher(b.getName());
+				ma.matches();
+				mb.matches();
+				final int c=ma.group(1).compareTo(mb.group(1));
+				if (c!=0)
+					return c;
+				return Long.valueOf(ma.group(2)).compareTo(Long.valueOf(mb.group(2)));
+			}
+		});
+		for (int i=files.size()-keep-1;i>=0;i--)
+			files.get(i).delete();
+	}
+	private ArrayList<File> listRolled() {
+		final ArrayList<File> files=new ArrayList<File>();
+		final File[] all=file.getParentFile().listFiles();
+		if (all!=null)
+			for (final File f : all)
+				if (rolled.matcher(f.getName()).matches())
+					files.add(f);
+		return files;
+	}
+	/**Writes the buffer out only if it was last written out at least
+	 * <var>flushMillis</var> ago. {@link java.io.PrintStream#checkError()} flushes
+	 * after every message, this keeps that from defeating the buffer.
+	 * @see #flushNow()
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		if (!closed && buffer.position()>0 && System.currentTimeMillis()-lastFlush>=flushMillis)
+			drain();
+	}
+	/**Writes everything buffered to the file.
+	 * @throws IOException
+	 */
+	public synchronized void flushNow() throws IOException {
+		if (!closed && buffer.position()>0)
+			drain();
+	}
+	/**Writes out the buffer and closes the file. The file is not rolled over.
+	 */
+	@Override
+	public void close() throws IOException {
+		removeShutdownHook();
+		shutdown();
+	}
+	private synchronized void shutdown() throws IOException {
+		if (closed)
+			return;
+		closed=true;
+		flusher.cancel();
+		try {
+			drain();
+		} finally {
+			channel.close();
+		}
+	}
+	/**
+	 * @return The file being written to.
+	 */
+	public File getFile() {
+		return file;
+	}
+	/**
+	 * @return Bytes in the current file, including those not written out yet.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ *
+ */
+package simple.util.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**Limits how many events a log section lets through. Events are first sampled,
+ * 1 in <var>oneIn</var> is kept, then rate limited by a token bucket that holds
+ * <var>burst</var> tokens and gets <var>perSecond</var> of them a second.<br>
+ * Nothing locks. The bucket is a single time stamp moved forward with
+ * compare and set, sampling uses the thread's own random numbers and the
+ * counts of suppressed events are kept in {@link LongAdder}s.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ * @see LogFactory#setSectionRateLimit(String, int, int)
+ * @see LogFactory#setSectionSampling(String, int)
+ */
+final class SectionLimit {
+	final int perSecond, burst, oneIn;
+	/** Nanoseconds per token, 0 for no rate limit. */
+	private final long interval;
+	/** Furthest the bucket time stamp may get ahead of now. */
+	private final long tolerance;
+	/** When the bucket will be full again, in {@link System#nanoTime()} */
+	private final AtomicLong full;
+	/** Suppressed since the last summary. */
+	private final LongAdder sampled, limited;
+	/** Suppressed before the last summary. */
+	private final AtomicLong reported;
+
+	/**
+	 * @param perSecond Events per second, 0 for no rate limit.
+	 * @param burst Events that may go through at once.
+	 * @param oneIn Keep 1 in this many events, 1 or less for no sampling.
+	 * @param old Limit being replaced. Its counts are carried over. May be null.
+	 */
+	SectionLimit(final int perSecond, final int burst, final int oneIn, final SectionLimit old) {
+		if (perSecond<0 || (perSecond>0 && burst<1))
+			throw new IllegalArgumentException("perSecond must not be negative and burst must be positive.");
+		this.perSecond=perSecond;
+		this.burst=burst;
+		this.oneIn=oneIn;
+		interval=(perSecond==0) ? 0 : 1000000000L/perSecond;
+		tolerance=interval*burst;
+		full=new AtomicLong(System.nanoTime()-tolerance);
+		if (old==null) {
+			sampled=new LongAdder();
+			limited=new LongAdder();
+			reported=new AtomicLong();
+		} else {
+			sampled=old.sampled;
+			limited=old.limited;
+			reported=old.reported;
+		}
+	}
+	/**
+	 * @return <code>true</code> if the event may be written.
+	 */
+	boolean allow() {
+		if (oneIn>1 && ThreadLocalRandom.current().nextInt(oneIn)!=0) {
+			sampled.increment();
+			return false;
+		}
+		if (interval==0)
+			return true;
+		final long now=System.nanoTime();
+		long current, next;
+		do {
+			current=full.get();
+			// an empty bucket is as far ahead of now as it may get
+			next=((current-now<0) ? now : current)+interval;
+			if (next-now>tolerance) {
+				limited.increment();
+				return false;
+			}
+		} while (!full.compareAndSet(current, next));
+		return true;
+	}
+	/**Resets the counts for the next summary.
+	 * @return {sampled out, over the rate limit} since the last call.
+	 */
+	long[] drainCounts() {
+		final long s=sampled.sumThenReset(), l=limited.sumThenReset();
+		reported.addAndGet(s+l);
+		return new long[]{s, l};
+	}
+	/**
+	 * @return All suppressed events so far.
+	 */
+	long getSuppressed() {
+		return reported.get()+sampled.sum()+limited.sum();
+	}
+}
@@ -88,9 +88,14 @@ public class FullNode<T, K, V> {
 
 	/**
 	 * Sets the name of the node.
+	 * @param name String to set as the Node's name. Slices are only copied if the name isn't pooled yet.
+	 */
+	public final void setName(CharSequence name) {	nName=CIString.intern(name);	}
+	/**
+	 * Sets the name of the node. Kept so callers compiled against this version still link.
 	 * @param name String to set as the Node's name.
 	 */
-	public final void setName(String name) {	nName=new CIString(name);	}
+	public final void setName(String name) {	setName((CharSequence)name);	}
 	/**
 	 * @return The name of this node.
 	 */
@@ -0,0 +1,103 @@
+package tests.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import simple.net.Uri;
+import simple.net.http.Client;
+import simple.net.http.ClientConfig;
+
+/**
+ * Closes a {@link Client} with one async request running and a long queue
+ * behind it. Every queued request has to fail with a
+ * {@link RejectedExecutionException}, without overflowing the stack, and
+ * nothing may be left counted as queued or running.
+ * Prints the first failure and exits with 1.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public class CloseQueued{
+	private static final int QUEUED=50000;
+
+	public static void main(String[] args) throws Exception{
+		final CountDownLatch arrived=new CountDownLatch(1);
+		final CountDownLatch closed=new CountDownLatch(1);
+		final HttpServer server=HttpServer.create(new InetSocketAddress("127.0.0.1",0),0);
+		server.createContext("/",new HttpHandler(){
+			@Override
+			public void handle(HttpExchange ex) throws IOException{
+				arrived.countDown();
+				try{
+					closed.await();
+				}catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+				}
+				final byte[] body="ok".getBytes("UTF-8");
+				ex.sendResponseHeaders(200,body.length);
+				final OutputStream out=ex.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		server.start();
+		final Uri uri=new Uri(URI.create("http://127.0.0.1:"+server.getAddress().getPort()+"/"));
+		final ClientConfig config=new ClientConfig();
+		config.setMaxInFlight(1);
+		final Client client=new Client(config);
+		int status=1;
+		try{
+			@SuppressWarnings("unchecked")
+			final CompletableFuture<HttpResponse>[] futures=new CompletableFuture[QUEUED+1];
+			for(int i=0;i<futures.length;i++)
+				futures[i]=client.getAsync(uri,null);
+			check(arrived.await(10,TimeUnit.SECONDS),"the first request never arrived");
+			check(client.getQueued()==QUEUED,"queued "+client.getQueued());
+			client.close();
+			closed.countDown();
+			try{
+				CompletableFuture.allOf(futures).get(30,TimeUnit.SECONDS);
+			}catch(ExecutionException e){
+				// expected, checked below
+			}
+			// the first one finishes or fails with the closed pool, either is fine
+			for(int i=1;i<futures.length;i++){
+				check(futures[i].isCompletedExceptionally(),"request "+i+" didn't fail");
+				try{
+					futures[i].getNow(null);
+				}catch(CompletionException e){
+					check(e.getCause() instanceof RejectedExecutionException,"request "+i+" failed with "+e.getCause());
+				}
+			}
+			check(client.getQueued()==0,"queued after close "+client.getQueued());
+			check(client.getInFlight()==0,"in flight after close "+client.getInFlight());
+			System.out.println("ok");
+			status=0;
+		}catch(Throwable e){
+			e.printStackTrace();
+		}finally{
+			closed.countDown();
+			client.close();
+			server.stop(0);
+			// the LogFactory timer thread would keep the JVM up
+			System.exit(status);
+		}
+	}
+	private static void check(boolean ok,String message){
+		if(!ok)
+			throw new AssertionError(message);
+	}
+}
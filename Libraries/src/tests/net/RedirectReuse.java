@@ -0,0 +1,166 @@
+package tests.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CircularRedirectException;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.RedirectException;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import simple.net.Uri;
+import simple.net.http.Client;
+import simple.net.http.ClientConfig;
+import simple.net.http.clientparams.ClientParam;
+import simple.net.http.clientparams.StringParam;
+
+/**
+ * Runs {@link Client} against a local server to check how redirects are
+ * followed: an absolute 301 and a relative 302 on one connection with
+ * nothing left leased, the redirect chain, loops, too many hops and the
+ * method and body kept by 307 and 308 and dropped by 303.
+ * Prints the first failure and exits with 1.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public class RedirectReuse{
+	/** "method path remote-port body" of each request the server got. */
+	private static final List<String> requests=new ArrayList<String>();
+	private static String base;
+
+	public static void main(String[] args) throws Exception{
+		final HttpServer server=HttpServer.create(new InetSocketAddress("127.0.0.1",0),0);
+		server.createContext("/",new HttpHandler(){
+			@Override
+			public void handle(HttpExchange ex) throws IOException{
+				final String path=ex.getRequestURI().getPath();
+				final String body=read(ex.getRequestBody());
+				synchronized(requests){
+					requests.add(ex.getRequestMethod()+" "+path+" "+ex.getRemoteAddress().getPort()+" "+body);
+				}
+				if(path.equals("/a"))
+					redirect(ex,301,base+"/dir/b");
+				else if(path.equals("/dir/b"))
+					redirect(ex,302,"c");
+				else if(path.equals("/loop1"))
+					redirect(ex,302,"/loop2");
+				else if(path.equals("/loop2"))
+					redirect(ex,302,"/loop1");
+				else if(path.startsWith("/hop/"))
+					redirect(ex,302,"/hop/"+(Integer.parseInt(path.substring(5))+1));
+				else if(path.startsWith("/status/"))
+					redirect(ex,Integer.parseInt(path.substring(8)),"/done");
+				else
+					respond(ex,200,ex.getRequestMethod()+" "+path+" "+body);
+			}
+		});
+		server.start();
+		base="http://127.0.0.1:"+server.getAddress().getPort();
+		final ClientConfig config=new ClientConfig();
+		config.setMaxRedirects(3);
+		final Client client=new Client(config);
+		int status=1;
+		try{
+			reuse(client);
+			loop(client);
+			tooMany(client);
+			method(client,303,"GET /done ");
+			method(client,307,"POST /done q=1");
+			method(client,308,"POST /done q=1");
+			System.out.println("ok");
+			status=0;
+		}catch(Throwable e){
+			e.printStackTrace();
+		}finally{
+			client.close();
+			server.stop(0);
+			// the LogFactory timer thread would keep the JVM up
+			System.exit(status);
+		}
+	}
+	/** 301 to an absolute URI then 302 to a relative one, all on one connection. */
+	private static void reuse(Client client) throws Exception{
+		requests.clear();
+		final HttpContext context=new BasicHttpContext();
+		final HttpResponse response=client.get(uri("/a"),null,context);
+		check(response.getStatusLine().getStatusCode()==200,"status "+response.getStatusLine());
+		check("GET /dir/c ".equals(EntityUtils.toString(response.getEntity())),"ended at the wrong place");
+		check(requests.size()==3,"requests "+requests);
+		final String port=requests.get(0).split(" ")[2];
+		for(String request:requests)
+			check(request.split(" ")[2].equals(port),"not one connection "+requests);
+		check(String.valueOf(context.getAttribute(Client.REDIRECT_CHAIN))
+				.equals("["+base+"/a, "+base+"/dir/b, "+base+"/dir/c]"),"chain "+context.getAttribute(Client.REDIRECT_CHAIN));
+		check(client.getPoolStats().getLeased()==0,"leased: "+client.getPoolStats());
+		check(client.getPoolStats().getAvailable()==1,"available: "+client.getPoolStats());
+	}
+	private static void loop(Client client) throws Exception{
+		try{
+			client.get(uri("/loop1"),null);
+			check(false,"loop followed");
+		}catch(ClientProtocolException e){
+			check(e.getCause() instanceof CircularRedirectException,"loop threw "+e.getCause());
+		}
+		check(client.getPoolStats().getLeased()==0,"leased after loop: "+client.getPoolStats());
+	}
+	private static void tooMany(Client client) throws Exception{
+		requests.clear();
+		try{
+			client.get(uri("/hop/0"),null);
+			check(false,"followed past the max");
+		}catch(ClientProtocolException e){
+			check(e.getCause() instanceof RedirectException && !(e.getCause() instanceof CircularRedirectException),
+					"too many threw "+e.getCause());
+		}
+		// the first request and 3 redirects
+		check(requests.size()==4,"requests "+requests);
+		check(client.getPoolStats().getLeased()==0,"leased after max: "+client.getPoolStats());
+	}
+	/** POSTs q=1 to a redirect with <var>status</var>, expecting <var>expect</var> at the end. */
+	private static void method(Client client,int status,String expect) throws Exception{
+		final HttpResponse response=client.post(uri("/status/"+status),null,
+				new ClientParam[]{new StringParam("q","1")},Client.FORMAT_URLENCODED,null);
+		final String got=EntityUtils.toString(response.getEntity());
+		check(expect.equals(got),status+" ended with '"+got+"'");
+		check(client.getPoolStats().getLeased()==0,"leased after "+status+": "+client.getPoolStats());
+	}
+	private static Uri uri(String path){
+		return new Uri(URI.create(base+path));
+	}
+	private static void check(boolean ok,String message){
+		if(!ok)
+			throw new AssertionError(message);
+	}
+	private static void redirect(HttpExchange ex,int status,String location) throws IOException{
+		ex.getResponseHeaders().set("Location",location);
+		respond(ex,status,"moved");
+	}
+	private static void respond(HttpExchange ex,int status,String text) throws IOException{
+		final byte[] body=text.getBytes("UTF-8");
+		ex.sendResponseHeaders(status,body.length);
+		final OutputStream out=ex.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+	private static String read(InputStream in) throws IOException{
+		final ByteArrayOutputStream buf=new ByteArrayOutputStream();
+		final byte[] b=new byte[4096];
+		int n;
+		while((n=in.read(b))>0)
+			buf.write(b,0,n);
+		return buf.toString("UTF-8");
+	}
+}
@@ -0,0 +1,78 @@
+package tests.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import simple.util.BlockingDeque;
+import simple.util.BlockingQueue;
+import simple.util.BlockingStack;
+
+/**
+ * Compares moving elements through the Vector backed blocking collections one
+ * at a time against the batch operations (addAll/putAll and drainTo).
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public class BlockingBatchVsSingle{
+	private static final int ITEMS=1000000;
+	private static final int[] BATCHES={256,1024,4096};
+
+	public static void main(String[] args) throws InterruptedException{
+		final Integer[] data=new Integer[ITEMS];
+		for(int i=0;i<ITEMS;i++)
+			data[i]=Integer.valueOf(i);
+		//warm up
+		for(int i=0;i<3;i++){
+			single(new BlockingQueue<Integer>(4096),data,256);
+			batch(new BlockingQueue<Integer>(4096),data,256);
+		}
+		for(final int size:BATCHES){
+			report("BlockingQueue",size,
+					single(new BlockingQueue<Integer>(size),data,size),
+					batch(new BlockingQueue<Integer>(size),data,size));
+			report("BlockingStack",size,
+					single(new BlockingStack<Integer>(size),data,size),
+					batch(new BlockingStack<Integer>(size),data,size));
+			report("BlockingDeque",size,
+					single(new BlockingDeque<Integer>(size),data,size),
+					batch(new BlockingDeque<Integer>(size),data,size));
+		}
+	}
+	private static void report(String name,int size,long single,long batch){
+		System.out.println(name+" batch of "+size+": single "+single+"ms ("+(ITEMS/Math.max(single,1))+" items/ms), batch "
+				+batch+"ms ("+(ITEMS/Math.max(batch,1))+" items/ms)");
+	}
+	/** Fills the queue with put and empties it with poll, one element at a time. */
+	private static long single(java.util.concurrent.BlockingQueue<Integer> q,Integer[] data,int size) throws InterruptedException{
+		final List<Integer> sink=new ArrayList<Integer>(size);
+		final long start=System.currentTimeMillis();
+		for(int i=0;i<data.length;i+=size){
+			final int end=Math.min(i+size,data.length);
+			for(int j=i;j<end;j++)
+				q.put(data[j]);
+			Integer e;
+			while((e=q.poll())!=null)
+				sink.add(e);
+			sink.clear();
+		}
+		return System.currentTimeMillis()-start;
+	}
+	/** Fills the queue with putAll and empties it with drainTo. */
+	private static long batch(java.util.concurrent.BlockingQueue<Integer> q,Integer[] data,int size) throws InterruptedException{
+		final List<Integer> all=java.util.Arrays.asList(data);
+		final List<Integer> sink=new ArrayList<Integer>(size);
+		final long start=System.currentTimeMillis();
+		for(int i=0;i<data.length;i+=size){
+			final List<Integer> chunk=all.subList(i,Math.min(i+size,data.length));
+			if(q instanceof BlockingQueue)
+				((BlockingQueue<Integer>)q).putAll(chunk);
+			else if(q instanceof BlockingStack)
+				((BlockingStack<Integer>)q).putAll(chunk);
+			else
+				((BlockingDeque<Integer>)q).putAll(chunk);
+			q.drainTo(sink,size);
+			sink.clear();
+		}
+		return System.currentTimeMillis()-start;
+	}
+}
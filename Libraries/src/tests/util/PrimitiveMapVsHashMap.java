@@ -0,0 +1,146 @@
+package tests.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import simple.util.IntIntMap;
+import simple.util.MultiValueMap;
+import simple.util.ObjectIntMap;
+
+/**
+ * Compares the memory per entry and lookup time of the open addressing maps
+ * against the boxed JDK maps they replace. Keys are looked up in a random
+ * order, looking them up in the order they were added lets the JDK maps
+ * read their entries one after the other.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public class PrimitiveMapVsHashMap{
+	private static final int ENTRIES=1000000;
+	private static final int LOOKUPS=20000000;
+
+	public static void main(String[] args){
+		final Random r=new Random(1);
+		final int[] keys=new int[ENTRIES];
+		for(int i=0;i<ENTRIES;i++)
+			keys[i]=r.nextInt();
+		final int[] order=new int[ENTRIES];
+		for(int i=0;i<ENTRIES;i++)
+			order[i]=i;
+		for(int i=ENTRIES-1;i>0;i--){
+			final int j=r.nextInt(i+1),t=order[i];
+			order[i]=order[j];
+			order[j]=t;
+		}
+		final String[] names=new String[ENTRIES];
+		for(int i=0;i<ENTRIES;i++)
+			names[i]=Integer.toString(keys[i],36);
+		//warm up
+		for(int i=0;i<3;i++){
+			lookup(fillIntInt(keys),keys,order);
+			lookup(fillHashMap(keys),keys,order);
+		}
+
+		long before=used();
+		final IntIntMap intInt=fillIntInt(keys);
+		long mem=used()-before;
+		before=used();
+		final HashMap<Integer,Integer> boxed=fillHashMap(keys);
+		long boxedMem=used()-before;
+		report("IntIntMap vs HashMap<Integer,Integer>",mem,boxedMem,lookup(intInt,keys,order),lookup(boxed,keys,order));
+
+		before=used();
+		final ObjectIntMap<String> objInt=new ObjectIntMap<String>(ENTRIES);
+		for(int i=0;i<ENTRIES;i++)
+			objInt.put(names[i],i);
+		mem=used()-before;
+		before=used();
+		final HashMap<String,Integer> boxedObj=new HashMap<String,Integer>(ENTRIES*2);
+		for(int i=0;i<ENTRIES;i++)
+			boxedObj.put(names[i],Integer.valueOf(i));
+		boxedMem=used()-before;
+		long start=System.nanoTime();
+		long sum=0;
+		for(int i=0;i<LOOKUPS;i++)
+			sum+=objInt.get(names[order[i%ENTRIES]]);
+		final long objTime=System.nanoTime()-start;
+		start=System.nanoTime();
+		for(int i=0;i<LOOKUPS;i++)
+			sum+=boxedObj.get(names[order[i%ENTRIES]]).intValue();
+		final long boxedObjTime=System.nanoTime()-start;
+		report("ObjectIntMap vs HashMap<String,Integer>",mem,boxedMem,objTime,boxedObjTime);
+
+		before=used();
+		final MultiValueMap<Integer,Integer> multi=new MultiValueMap<Integer,Integer>(ENTRIES/4);
+		for(int i=0;i<ENTRIES;i++)
+			multi.add(Integer.valueOf(i&(ENTRIES/4-1)),Integer.valueOf(keys[i]));
+		mem=used()-before;
+		before=used();
+		final HashMap<Integer,HashSet<Integer>> sets=new HashMap<Integer,HashSet<Integer>>(ENTRIES/2);
+		for(int i=0;i<ENTRIES;i++){
+			final Integer key=Integer.valueOf(i&(ENTRIES/4-1));
+			HashSet<Integer> set=sets.get(key);
+			if(set==null)
+				sets.put(key,set=new HashSet<Integer>());
+			set.add(Integer.valueOf(keys[i]));
+		}
+		boxedMem=used()-before;
+		start=System.nanoTime();
+		for(int i=0;i<LOOKUPS;i++){
+			final int j=order[i%ENTRIES];
+			if(multi.contains(Integer.valueOf(j&(ENTRIES/4-1)),Integer.valueOf(keys[j])))
+				sum++;
+		}
+		final long multiTime=System.nanoTime()-start;
+		start=System.nanoTime();
+		for(int i=0;i<LOOKUPS;i++){
+			final int j=order[i%ENTRIES];
+			if(sets.get(Integer.valueOf(j&(ENTRIES/4-1))).contains(Integer.valueOf(keys[j])))
+				sum++;
+		}
+		final long setsTime=System.nanoTime()-start;
+		report("MultiValueMap vs HashMap<Integer,HashSet<Integer>>",mem,boxedMem,multiTime,setsTime);
+		System.out.println("(checksum "+sum+intInt.size()+boxed.size()+objInt.size()+boxedObj.size()+multi.size()+sets.size()+")");
+	}
+	private static void report(String name,long mem,long boxedMem,long time,long boxedTime){
+		System.out.println(name+": "+(mem/ENTRIES)+" vs "+(boxedMem/ENTRIES)+" bytes/entry, "
+				+(time/LOOKUPS)+" vs "+(boxedTime/LOOKUPS)+" ns/lookup");
+	}
+	private static long used(){
+		final Runtime rt=Runtime.getRuntime();
+		for(int i=0;i<3;i++)
+			System.gc();
+		return rt.totalMemory()-rt.freeMemory();
+	}
+	private static IntIntMap fillIntInt(int[] keys){
+		final IntIntMap map=new IntIntMap(keys.length);
+		for(int i=0;i<keys.length;i++)
+			map.put(keys[i],i);
+		return map;
+	}
+	private static HashMap<Integer,Integer> fillHashMap(int[] keys){
+		final HashMap<Integer,Integer> map=new HashMap<Integer,Integer>(keys.length*2);
+		for(int i=0;i<keys.length;i++)
+			map.put(Integer.valueOf(keys[i]),Integer.valueOf(i));
+		return map;
+	}
+	private static long lookup(IntIntMap map,int[] keys,int[] order){
+		final long start=System.nanoTime();
+		long sum=0;
+		for(int i=0;i<LOOKUPS;i++)
+			sum+=map.get(keys[order[i%keys.length]]);
+		if(sum==42)
+			System.out.print("");
+		return System.nanoTime()-start;
+	}
+	private static long lookup(HashMap<Integer,Integer> map,int[] keys,int[] order){
+		final long start=System.nanoTime();
+		long sum=0;
+		for(int i=0;i<LOOKUPS;i++)
+			sum+=map.get(Integer.valueOf(keys[order[i%keys.length]])).intValue();
+		if(sum==42)
+			System.out.print("");
+		return System.nanoTime()-start;
+	}
+}
@@ -0,0 +1,138 @@
+package tests.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import simple.util.do_sort;
+
+/**
+ * Checks introSort and parallelSort against Arrays.sort on random, sorted,
+ * reversed and few-valued input, and the float and double sorts with NaN,
+ * -0.0 and 0.0 mixed in. Throws on the first mismatch.
+ * <br>Created: Oct 18, 2026
+ * @author Kenneth Pierce
+ */
+public class SortCheck{
+	private static final int[] SIZES={0,1,2,15,17,100,1000,8191,8192,200000};
+	private static final Random rand=new Random(42);
+
+	public static void main(String[] args){
+		for(final int n:SIZES){
+			for(int shape=0;shape<4;shape++){
+				checkInt(ints(n,shape));
+				checkLong(ints(n,shape));
+				checkFloat(ints(n,shape),false);
+				checkDouble(ints(n,shape),false);
+			}
+			// about one NaN in a thousand, and as many of each zero
+			checkFloat(ints(n,0),true);
+			checkDouble(ints(n,0),true);
+			checkObject(n);
+		}
+		final double[] nan=new double[1000];
+		Arrays.fill(nan,Double.NaN);
+		nan[500]=1;
+		nan[0]=-0.0;
+		checkDouble(nan);
+		System.out.println("ok");
+	}
+	/**
+	 * @param shape 0 random, 1 sorted, 2 reversed, 3 few values
+	 */
+	private static int[] ints(int n,int shape){
+		final int[] ret=new int[n];
+		for(int i=0;i<n;i++){
+			switch(shape){
+			case 0: ret[i]=rand.nextInt(); break;
+			case 1: ret[i]=i; break;
+			case 2: ret[i]=n-i; break;
+			default: ret[i]=rand.nextInt(4);
+			}
+		}
+		return ret;
+	}
+	private static void checkInt(int[] data){
+		final int[] expect=data.clone();
+		Arrays.sort(expect);
+		int[] got=data.clone();
+		do_sort.introSort(got);
+		same("introSort(int[])",Arrays.equals(expect,got),data.length);
+		got=data.clone();
+		do_sort.parallelSort(got);
+		same("parallelSort(int[])",Arrays.equals(expect,got),data.length);
+	}
+	private static void checkLong(int[] src){
+		final long[] data=new long[src.length];
+		for(int i=0;i<src.length;i++)
+			data[i]=(long)src[i]*src[i]-src[i];
+		final long[] expect=data.clone();
+		Arrays.sort(expect);
+		long[] got=data.clone();
+		do_sort.introSort(got);
+		same("introSort(long[])",Arrays.equals(expect,got),data.length);
+		got=data.clone();
+		do_sort.parallelSort(got);
+		same("parallelSort(long[])",Arrays.equals(expect,got),data.length);
+	}
+	private static void checkFloat(int[] src,boolean special){
+		final float[] data=new float[src.length];
+		for(int i=0;i<src.length;i++)
+			data[i]=special ? special(src[i]) : src[i]/7f;
+		final float[] expect=data.clone();
+		Arrays.sort(expect);
+		float[] got=data.clone();
+		do_sort.introSort(got);
+		same("introSort(float[])",Arrays.equals(expect,got),data.length);
+		got=data.clone();
+		do_sort.parallelSort(got);
+		same("parallelSort(float[])",Arrays.equals(expect,got),data.length);
+	}
+	private static float special(int r){
+		switch(Math.abs(r%1000)){
+		case 0: return Float.NaN;
+		case 1: return -0f;
+		case 2: return 0f;
+		default: return r/7f;
+		}
+	}
+	private static void checkDouble(int[] src,boolean special){
+		final double[] data=new double[src.length];
+		for(int i=0;i<src.length;i++)
+			data[i]=special ? special(src[i]) : src[i]/7d;
+		checkDouble(data);
+	}
+	/** Arrays.equals on double[] compares like Double.equals, so NaN matches NaN and -0.0 doesn't match 0.0. */
+	private static void checkDouble(double[] data){
+		final double[] expect=data.clone();
+		Arrays.sort(expect);
+		double[] got=data.clone();
+		do_sort.introSort(got);
+		same("introSort(double[])",Arrays.equals(expect,got),data.length);
+		got=data.clone();
+		do_sort.parallelSort(got);
+		same("parallelSort(double[])",Arrays.equals(expect,got),data.length);
+	}
+	/** Sorts on the key only, so a stable sort keeps each key's indexes in order. */
+	private static void checkObject(int n){
+		final int[][] data=new int[n][];
+		for(int i=0;i<n;i++)
+			data[i]=new int[]{rand.nextInt(16),i};
+		final Comparator<int[]> byKey=new Comparator<int[]>(){
+			@Override
+			public int compare(int[] a,int[] b){
+				return (a[0]<b[0]) ? -1 : ((a[0]==b[0]) ? 0 : 1);
+			}
+		};
+		final int[][] got=data.clone();
+		do_sort.parallelSort(got,byKey);
+		boolean ok=true;
+		for(int i=1;i<n;i++)
+			ok&=got[i-1][0]<got[i][0] || (got[i-1][0]==got[i][0] && got[i-1][1]<got[i][1]);
+		same("parallelSort(T[],Comparator)",ok,n);
+	}
+	private static void same(String name,boolean ok,int n){
+		if(!ok)
+			throw new AssertionError(name+" differs from Arrays.sort for "+n+" elements");
+	}
+}